@@ -0,0 +1,82 @@
+package com.example.aem.translation.benchmark;
+
+/**
+ * Source texts shaped like what the connector sees in production: component labels,
+ * authored rich text and DITA topics. Content is generated deterministically so runs
+ * are comparable across machines and commits.
+ */
+public enum BenchmarkCorpus {
+
+    /** Button and navigation labels; the bulk of segments on a typical Sites page. */
+    SHORT_LABEL,
+
+    /** A rich text component with inline formatting and links (~6 KB). */
+    RICH_TEXT,
+
+    /** A DITA concept topic with attributes, conrefs and nested elements (~12 KB). */
+    DITA_TOPIC;
+
+    private static final String[] LABELS = {
+        "Submit", "Learn more", "Add to cart", "Contact us", "Read the full story",
+        "Sign in", "Download the brochure", "Privacy policy"
+    };
+
+    public String[] segments() {
+        switch (this) {
+            case SHORT_LABEL:
+                return LABELS.clone();
+            case RICH_TEXT:
+                return new String[] {richText(12)};
+            case DITA_TOPIC:
+                return new String[] {ditaTopic(10)};
+            default:
+                throw new IllegalStateException("Unknown corpus " + this);
+        }
+    }
+
+    public boolean isMarkup() {
+        return this != SHORT_LABEL;
+    }
+
+    private static String richText(int paragraphs) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<h2>Sustainable travel starts with better information</h2>");
+        for (int i = 0; i < paragraphs; i++) {
+            sb.append("<p>Our <strong>regional partners</strong> publish timetables, accessibility notes and ")
+              .append("seasonal <em>fare adjustments</em> for route ").append(i + 1).append(". ")
+              .append("See the <a href=\"/content/site/en/routes/route-").append(i + 1)
+              .append(".html\" title=\"Route details\">route details</a> before booking, ")
+              .append("and remember that discounts cannot be combined with other offers.</p>");
+            if (i % 4 == 3) {
+                sb.append("<ul><li>Free cancellation up to 24 hours</li><li>Bikes travel free off-peak</li>")
+                  .append("<li>Children under 6 ride free</li></ul>");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String ditaTopic(int sections) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+          .append("<!DOCTYPE concept PUBLIC \"-//OASIS//DTD DITA Concept//EN\" \"concept.dtd\">")
+          .append("<concept id=\"pump-maintenance\" xml:lang=\"en-US\">")
+          .append("<title>Maintaining the <keyword keyref=\"product-name\"/> pump</title>")
+          .append("<shortdesc>Regular maintenance keeps the pump within its rated flow.</shortdesc>")
+          .append("<conbody>");
+        for (int i = 0; i < sections; i++) {
+            sb.append("<section id=\"sec-").append(i).append("\" outputclass=\"procedure\">")
+              .append("<title>Inspection interval ").append(i + 1).append("</title>")
+              .append("<p>Inspect the <uicontrol>intake valve</uicontrol> every ")
+              .append(250 * (i + 1)).append(" operating hours. Refer to ")
+              .append("<xref href=\"../reference/valves.dita#valves/intake\" format=\"dita\"/> ")
+              .append("for torque values.</p>")
+              .append("<note type=\"caution\" conref=\"../shared/warnings.dita#warnings/pressure\"/>")
+              .append("<ol><li><p>Isolate the pump from the <ph keyref=\"supply-line\"/>.</p></li>")
+              .append("<li><p>Release residual pressure using the <uicontrol>bleed screw</uicontrol>.</p></li>")
+              .append("<li><p>Replace the seal if wear exceeds <ph>0.5 mm</ph>.</p></li></ol>")
+              .append("</section>");
+        }
+        sb.append("</conbody></concept>");
+        return sb.toString();
+    }
+}
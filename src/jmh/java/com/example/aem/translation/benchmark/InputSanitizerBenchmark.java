@@ -0,0 +1,34 @@
+package com.example.aem.translation.benchmark;
+
+import com.example.aem.translation.util.InputSanitizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of {@link InputSanitizer#sanitizeForPrompt(String)}, which runs on every segment
+ * before it reaches the cache or the model.
+ */
+@State(Scope.Benchmark)
+public class InputSanitizerBenchmark {
+
+    @Param({"SHORT_LABEL", "RICH_TEXT", "DITA_TOPIC"})
+    public BenchmarkCorpus corpus;
+
+    private String[] segments;
+
+    @Setup
+    public void setUp() {
+        segments = corpus.segments();
+    }
+
+    @Benchmark
+    public void sanitizeForPrompt(Blackhole blackhole) {
+        for (String segment : segments) {
+            blackhole.consume(InputSanitizer.sanitizeForPrompt(segment));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.aem.translation.benchmark;
+
+import com.example.aem.translation.model.SentimentResult;
+import com.example.aem.translation.util.GemmaBoundaryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link GemmaBoundaryService#parseStructuredOutput(String, Class)} on the response shapes the
+ * model actually returns: fenced batch arrays from PromptBatcher and chatty analysis objects.
+ */
+@State(Scope.Benchmark)
+public class StructuredOutputBenchmark {
+
+    @Param({"SHORT_LABEL", "RICH_TEXT", "DITA_TOPIC"})
+    public BenchmarkCorpus corpus;
+
+    private String fencedBatchResponse;
+    private String chattySentimentResponse;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        String[] segments = corpus.segments();
+        fencedBatchResponse = "```json\n" + new ObjectMapper().writeValueAsString(segments) + "\n```";
+        chattySentimentResponse = "Sure! Here is the analysis you asked for:\n"
+                + "{\"sentiment\": \"POSITIVE\", \"confidence\": 0.92, "
+                + "\"reasoning\": \"The copy is upbeat and emphasises customer benefits.\", "
+                + "\"inputTokens\": " + segments[0].length() / 4 + ", \"outputTokens\": 42}\n"
+                + "Let me know if you need anything else.";
+    }
+
+    @Benchmark
+    public String[] parseBatchArray() {
+        return GemmaBoundaryService.parseStructuredOutput(fencedBatchResponse, String[].class);
+    }
+
+    @Benchmark
+    public SentimentResult parseChattyObject() {
+        return GemmaBoundaryService.parseStructuredOutput(chattySentimentResponse, SentimentResult.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aem.translation.benchmark;
+
+import com.example.aem.translation.terminology.TerminologyException;
+import com.example.aem.translation.terminology.TerminologyFormat;
+import com.example.aem.translation.terminology.impl.TerminologyServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Glossary lookups ({@code findAllTerms}) over each corpus against a generated glossary, and a
+ * full CSV import of that glossary into an empty service. The glossary contains a handful of
+ * terms that occur in the corpus; the rest are filler of realistic length.
+ */
+@State(Scope.Benchmark)
+public class TerminologyBenchmark {
+
+    private static final String[] CORPUS_TERMS = {
+        "regional partners", "fare adjustments", "route details", "Add to cart", "Sign in", "privacy policy"
+    };
+
+    @Param({"SHORT_LABEL", "RICH_TEXT", "DITA_TOPIC"})
+    public BenchmarkCorpus corpus;
+
+    @Param({"1000", "50000"})
+    public int glossarySize;
+
+    private TerminologyServiceImpl service;
+    private String[] segments;
+    private Path glossary;
+
+    @Setup
+    public void setUp() throws IOException, TerminologyException {
+        segments = corpus.segments();
+        glossary = Files.createTempFile("terminology-benchmark", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(glossary, StandardCharsets.UTF_8)) {
+            writer.write("source_term,target_term,source_language,target_language,domain\n");
+            for (String term : CORPUS_TERMS) {
+                writer.write(term + ",DE " + term + ",en,de,general\n");
+            }
+            for (int i = CORPUS_TERMS.length; i < glossarySize; i++) {
+                writer.write("product term " + Integer.toString(i, 36) + " service,Produktbegriff " + i
+                        + ",en,de,general\n");
+            }
+        }
+        service = new TerminologyServiceImpl();
+        service.importTerminology(glossary.toString(), TerminologyFormat.CSV);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(glossary);
+    }
+
+    @Benchmark
+    public void findAllTerms(Blackhole blackhole) throws TerminologyException {
+        for (String segment : segments) {
+            blackhole.consume(service.findAllTerms(segment, "en", "de", null, 50));
+        }
+    }
+
+    @Benchmark
+    public TerminologyServiceImpl importCsv() throws TerminologyException {
+        TerminologyServiceImpl fresh = new TerminologyServiceImpl();
+        fresh.importTerminology(glossary.toString(), TerminologyFormat.CSV);
+        return fresh;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.aem.translation.benchmark;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import com.example.aem.translation.util.TranslationCache;
+import com.example.aem.translation.util.TranslationCacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Heap-tier cache lookups, including key hashing, with and without value compression.
+ * The persistent tier is left out so the numbers isolate the in-memory path.
+ */
+@State(Scope.Benchmark)
+public class TranslationCacheBenchmark {
+
+    private static final String MODEL = "google/gemma-4-26b-a4b-it";
+    private static final String PROMPT_VERSION = "2";
+
+    @Param({"SHORT_LABEL", "RICH_TEXT", "DITA_TOPIC"})
+    public BenchmarkCorpus corpus;
+
+    /** 0 disables compression; 2048 is the connector default. */
+    @Param({"0", "2048"})
+    public int compressionThresholdChars;
+
+    private TranslationCache cache;
+    private String[] segments;
+    private TranslationCacheKey[] hitKeys;
+    private TranslationCacheKey missKey;
+
+    @Setup
+    public void setUp() {
+        cache = new TranslationCache(10_000, TranslationCache.DEFAULT_MAX_WEIGHT_BYTES, 60,
+                compressionThresholdChars, null);
+        segments = corpus.segments();
+        hitKeys = new TranslationCacheKey[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            hitKeys[i] = key(segments[i]);
+            String translation = segments[i];
+            cache.getTranslation(hitKeys[i], k -> translation);
+        }
+        missKey = key("never cached " + corpus);
+    }
+
+    @Benchmark
+    public void keyOf(Blackhole blackhole) {
+        for (String segment : segments) {
+            blackhole.consume(key(segment));
+        }
+    }
+
+    @Benchmark
+    public void lookupHit(Blackhole blackhole) {
+        for (TranslationCacheKey key : hitKeys) {
+            blackhole.consume(cache.getTranslation(key, k -> null));
+        }
+    }
+
+    @Benchmark
+    public String lookupMiss() {
+        return cache.getTranslation(missKey, k -> null);
+    }
+
+    private TranslationCacheKey key(String text) {
+        return TranslationCacheKey.of(text, "en", "de", corpus.isMarkup() ? ContentType.HTML : ContentType.PLAIN,
+                "general", MODEL, PROMPT_VERSION);
+    }
+}
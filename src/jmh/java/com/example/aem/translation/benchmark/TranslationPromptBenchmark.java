@@ -0,0 +1,130 @@
+package com.example.aem.translation.benchmark;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import com.adobe.granite.translation.api.TranslationException;
+import com.adobe.granite.translation.api.TranslationResult;
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.impl.TranslateGemmaTranslationServiceImpl;
+import com.example.aem.translation.model.TranslationFeedback;
+import com.example.aem.translation.service.TranslationFeedbackService;
+import com.google.cloud.vertexai.api.Candidate;
+import com.google.cloud.vertexai.api.Content;
+import com.google.cloud.vertexai.api.GenerateContentResponse;
+import com.google.cloud.vertexai.api.Part;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The uncached {@code translateString} path against a stubbed {@link GenerativeModel}: input
+ * sanitizing, cache key hashing, few-shot prompt assembly ({@code createTranslationPrompt}),
+ * resilience wrapping and result construction. The model answers instantly, so the numbers are
+ * the connector's own overhead per segment.
+ */
+@State(Scope.Benchmark)
+public class TranslationPromptBenchmark {
+
+    @Param({"SHORT_LABEL", "RICH_TEXT", "DITA_TOPIC"})
+    public BenchmarkCorpus corpus;
+
+    private TranslateGemmaTranslationServiceImpl service;
+    private String[] segments;
+    private ContentType contentType;
+
+    @Setup
+    public void setUp() throws IOException {
+        segments = corpus.segments();
+        contentType = corpus.isMarkup() ? ContentType.HTML : ContentType.PLAIN;
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("projectId", "benchmark-project");
+        overrides.put("enableCaching", false);
+        overrides.put("enableMetrics", false);
+        overrides.put("transparencySentimentEnabled", false);
+        overrides.put("transparencyComplianceEnabled", false);
+
+        service = new TranslateGemmaTranslationServiceImpl();
+        service.activate(config(overrides));
+        service.setModel(stubModel(segments[0]));
+        service.setFeedbackService(new FixedFeedbackService());
+        // Executor and queue threads are daemons and die with the forked benchmark JVM
+    }
+
+    @Benchmark
+    public void translateString(Blackhole blackhole) throws TranslationException {
+        for (String segment : segments) {
+            TranslationResult result = service.translateString(segment, "en", "de", contentType, "general");
+            blackhole.consume(result);
+        }
+    }
+
+    private static GenerativeModel stubModel(String translation) throws IOException {
+        GenerateContentResponse response = GenerateContentResponse.newBuilder()
+                .addCandidates(Candidate.newBuilder()
+                        .setContent(Content.newBuilder().addParts(Part.newBuilder().setText(translation))))
+                .build();
+        // stubOnly: no invocation history, otherwise the mock itself would dominate the allocation rate
+        GenerativeModel model = mock(GenerativeModel.class, withSettings().stubOnly());
+        when(model.generateContent(anyString())).thenReturn(response);
+        return model;
+    }
+
+    /**
+     * OSGi-style config: annotation defaults, with selected values overridden.
+     */
+    private static TranslateGemmaConfig config(Map<String, Object> overrides) {
+        return (TranslateGemmaConfig) Proxy.newProxyInstance(TranslateGemmaConfig.class.getClassLoader(),
+                new Class<?>[] {TranslateGemmaConfig.class}, (proxy, method, args) -> {
+                    if (overrides.containsKey(method.getName())) {
+                        return overrides.get(method.getName());
+                    }
+                    if (method.getDefaultValue() != null) {
+                        return method.getDefaultValue();
+                    }
+                    if ("annotationType".equals(method.getName())) {
+                        return TranslateGemmaConfig.class;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Three prior corrections per request, matching the few-shot limit used in production.
+     */
+    private static final class FixedFeedbackService implements TranslationFeedbackService {
+
+        private final List<TranslationFeedback> feedback = Arrays.asList(
+                new TranslationFeedback("Add to cart", "Zum Wagen hinzufuegen", "In den Warenkorb",
+                        "en", "de", "editor", 0L),
+                new TranslationFeedback("Sign in", "Zeichen in", "Anmelden", "en", "de", "editor", 0L),
+                new TranslationFeedback("Learn more", "Lerne mehr", "Mehr erfahren", "en", "de", "editor", 0L));
+
+        @Override
+        public void recordFeedback(String sourceString, String originalTranslation, String humanCorrection,
+                                   String sourceLang, String targetLang, String userId) {
+            // Read-only for benchmarking
+        }
+
+        @Override
+        public List<TranslationFeedback> getRelevantFeedback(String sourceString, String sourceLang,
+                                                             String targetLang, int limit) {
+            return feedback;
+        }
+    }
+}
@@ -96,6 +96,24 @@ public @interface TranslateGemmaConfig {
     )
     boolean storeToTranslationMemory() default true;
 
+    @AttributeDefinition(
+        name = "TM Write Batch Size",
+        description = "Translations stored to TM together in one write"
+    )
+    int tmWriteBatchSize() default 100;
+
+    @AttributeDefinition(
+        name = "TM Write Flush Interval (ms)",
+        description = "Longest time a translation waits for its TM write batch to fill"
+    )
+    long tmWriteFlushIntervalMs() default 2000;
+
+    @AttributeDefinition(
+        name = "TM Write Queue Capacity",
+        description = "Pending TM writes before new translations are no longer stored"
+    )
+    int tmWriteQueueCapacity() default 10000;
+
     @AttributeDefinition(
         name = "Enable Fallback Providers",
         description = "Enable fallback to other providers if primary fails"
@@ -114,12 +132,102 @@ public @interface TranslateGemmaConfig {
     )
     String externalTmEndpoint() default "";
 
+    @AttributeDefinition(
+        name = "External TM Batch Size",
+        description = "Segments per /query/batch or /store/batch request to the external TM"
+    )
+    int externalTmBatchSize() default 50;
+
+    @AttributeDefinition(
+        name = "External TM Flush Interval (ms)",
+        description = "Longest time a stored translation waits for its external TM write batch to fill"
+    )
+    long externalTmFlushIntervalMs() default 200;
+
+    @AttributeDefinition(
+        name = "External TM Max Concurrency",
+        description = "Batch requests to the external TM in flight at once"
+    )
+    int externalTmMaxConcurrency() default 8;
+
+    @AttributeDefinition(
+        name = "External TM Hot Cache Size",
+        description = "Recent external TM lookups kept locally; 0 disables"
+    )
+    int externalTmHotCacheSize() default 5000;
+
+    @AttributeDefinition(
+        name = "External TM Hot Cache TTL (seconds)",
+        description = "How long a locally cached external TM lookup is reused"
+    )
+    int externalTmHotCacheTtlSeconds() default 60;
+
     @AttributeDefinition(
         name = "Use External TM",
         description = "Whether to use external storage for translation memory instead of JCR"
     )
     boolean useExternalTm() default false;
 
+    @AttributeDefinition(
+        name = "TM Persistence Enabled",
+        description = "Keep the local translation memory in on-disk segment files that survive restarts"
+    )
+    boolean tmPersistenceEnabled() default true;
+
+    @AttributeDefinition(
+        name = "TM Store Directory",
+        description = "Directory for translation memory segments; empty uses translationmemory/translategemma under sling.home (or java.io.tmpdir)"
+    )
+    String tmStoreDirectory() default "";
+
+    @AttributeDefinition(
+        name = "TM Segment Size MB",
+        description = "Size at which a translation memory segment is sealed and a new one started"
+    )
+    int tmSegmentSizeMb() default 64;
+
+    @AttributeDefinition(
+        name = "TM Compaction Garbage Ratio",
+        description = "Share of superseded bytes in sealed segments that triggers a background compaction"
+    )
+    double tmCompactionGarbageRatio() default 0.5;
+
+    @AttributeDefinition(
+        name = "Enable Terminology",
+        description = "Add glossary terms that occur in the source text to translation prompts"
+    )
+    boolean enableTerminology() default true;
+
+    @AttributeDefinition(
+        name = "Terminology Max Prompt Tokens",
+        description = "Token budget for the glossary section of one prompt; lower-ranked terms are left out"
+    )
+    int terminologyMaxPromptTokens() default 150;
+
+    @AttributeDefinition(
+        name = "Terminology Retry On Missing Terms",
+        description = "Translate once more with a stricter instruction when required target terms are missing"
+    )
+    boolean terminologyRetryOnMissingTerms() default false;
+
+    @AttributeDefinition(
+        name = "Feedback Index Capacity",
+        description = "Most recent human corrections kept in memory per language pair for few-shot prompts"
+    )
+    int feedbackIndexCapacity() default 200;
+
+    @AttributeDefinition(
+        name = "Feedback Min Similarity",
+        description = "Least trigram cosine similarity (0-1) between a correction's source and the text for the correction to be used as an example"
+    )
+    double feedbackMinSimilarity() default 0.3;
+
+    @AttributeDefinition(
+        name = "Feedback Max Examples",
+        description = "Most similar human corrections added to a prompt as examples; 0 disables"
+    )
+    int feedbackMaxExamples() default 2;
+
     @AttributeDefinition(
         name = "API Key",
         description = "API key for external providers (DeepL, Microsoft, OpenAI)"
@@ -212,16 +320,46 @@ public @interface TranslateGemmaConfig {
 
     @AttributeDefinition(
         name = "Cache Max Size",
-        description = "Maximum number of entries in translation cache"
+        description = "Entry bound for the language detection cache (half of this value is used); translations are bounded by Cache Max Heap MB"
     )
     int cacheMaxSize() default 1000;
 
+    @AttributeDefinition(
+        name = "Cache Max Heap MB",
+        description = "Approximate heap budget for cached translations, weighed by their size"
+    )
+    int cacheMaxHeapMb() default 32;
+
+    @AttributeDefinition(
+        name = "Cache Compression Threshold",
+        description = "Translations of at least this many characters are kept deflated in the cache; 0 disables compression"
+    )
+    int cacheCompressionThresholdChars() default 2048;
+
     @AttributeDefinition(
         name = "Cache Expire After Minutes",
         description = "Cache entry expiration time in minutes"
     )
     int cacheExpireAfterMinutes() default 60;
 
+    @AttributeDefinition(
+        name = "Persistent Cache Enabled",
+        description = "Keep translations in an on-disk second cache tier that survives restarts"
+    )
+    boolean cachePersistentEnabled() default true;
+
+    @AttributeDefinition(
+        name = "Persistent Cache Directory",
+        description = "Directory for the persistent cache segments; empty uses translategemma/cache under sling.home (or java.io.tmpdir)"
+    )
+    String cachePersistentDirectory() default "";
+
+    @AttributeDefinition(
+        name = "Persistent Cache Max Size MB",
+        description = "Disk budget for the persistent cache; the oldest segments are evicted beyond it"
+    )
+    int cachePersistentMaxSizeMb() default 256;
+
     @AttributeDefinition(
         name = "Enable Caching",
         description = "Enable translation caching"
@@ -242,9 +380,165 @@ public @interface TranslateGemmaConfig {
 
     @AttributeDefinition(
         name = "Batch Size",
-        description = "Number of texts to translate in a single batch request"
+        description = "Maximum number of texts to translate in a single batch request. " +
+                "Batches are otherwise packed up to the token budgets below"
+    )
+    int batchSize() default 50;
+
+    @AttributeDefinition(
+        name = "Batch Max Input Tokens",
+        description = "Estimated prompt token budget per batch request for the configured model, "
+            + "including the glossary section reserved by terminologyMaxPromptTokens"
+    )
+    int batchMaxInputTokens() default 6000;
+
+    @AttributeDefinition(
+        name = "Batch Max Output Tokens",
+        description = "Estimated response token budget per batch request for the configured model"
+    )
+    int batchMaxOutputTokens() default 4096;
+
+    @AttributeDefinition(
+        name = "Async Max Concurrency",
+        description = "Maximum number of asynchronous translation calls running at once"
+    )
+    int asyncMaxConcurrency() default 8;
+
+    @AttributeDefinition(
+        name = "Async Queue Capacity",
+        description = "Maximum number of asynchronous translation calls waiting for a free slot before new calls are rejected"
+    )
+    int asyncQueueCapacity() default 200;
+
+    @AttributeDefinition(
+        name = "Async Use Virtual Threads",
+        description = "Run asynchronous translations on virtual threads when the JVM supports them (Java 21+)"
+    )
+    boolean asyncUseVirtualThreads() default true;
+
+    @AttributeDefinition(
+        name = "Multi-Modal Model",
+        description = "Vertex AI model used for image analysis and OCR"
+    )
+    String multiModalModelName() default "gemini-1.5-flash";
+
+    @AttributeDefinition(
+        name = "Multi-Modal Max Concurrency",
+        description = "Image analysis calls sharing the multi-modal client at once"
+    )
+    int multiModalMaxConcurrency() default 4;
+
+    @AttributeDefinition(
+        name = "Multi-Modal Acquire Timeout (ms)",
+        description = "Longest time an image analysis call waits for a free client slot before it fails; 0 waits indefinitely"
+    )
+    long multiModalAcquireTimeoutMs() default 30000;
+
+    @AttributeDefinition(
+        name = "DAM Image Max Edge (px)",
+        description = "Longest edge of images sent for OCR; larger images are downscaled. The smallest cq5dam.web rendition at least this large is used, else the largest web rendition, else the original"
+    )
+    int damImageMaxEdge() default 1280;
+
+    @AttributeDefinition(
+        name = "DAM Image Quality",
+        description = "Encoder quality (0.0 - 1.0) of images re-encoded for OCR"
+    )
+    float damImageQuality() default 0.85f;
+
+    @AttributeDefinition(
+        name = "DAM Image Format",
+        description = "Format of images re-encoded for OCR; WebP falls back to JPEG when no WebP encoder is installed",
+        options = {
+            @Option(label = "JPEG", value = "jpeg"),
+            @Option(label = "WebP", value = "webp")
+        }
+    )
+    String damImageFormat() default "jpeg";
+
+    @AttributeDefinition(
+        name = "DAM Bulk Batch Size",
+        description = "Assets whose metadata is translated together and committed in one save during bulk metadata translation"
+    )
+    int damBulkBatchSize() default 100;
+
+    @AttributeDefinition(
+        name = "DAM Bulk Concurrency",
+        description = "Batches of asset metadata translated at once during bulk metadata translation"
+    )
+    int damBulkConcurrency() default 4;
+
+    @AttributeDefinition(
+        name = "JCR Write Batch Size",
+        description = "Property changes collected before page translation and delta tracking commit them; a page is always committed at its end"
+    )
+    int jcrWriteBatchSize() default 1000;
+
+    @AttributeDefinition(
+        name = "JCR Commit Max Retries",
+        description = "Times a failed repository commit is retried, after refreshing the session and reapplying its changes"
+    )
+    int jcrCommitMaxRetries() default 3;
+
+    @AttributeDefinition(
+        name = "Visual Cache Enabled",
+        description = "Reuse image analysis results for images whose perceptual hash is close to one already analyzed with the same prompt"
+    )
+    boolean visualCacheEnabled() default true;
+
+    @AttributeDefinition(
+        name = "Visual Cache Max Distance",
+        description = "Most differing bits (of 64) between perceptual hashes for two images to count as the same image"
+    )
+    int visualCacheMaxDistance() default 6;
+
+    @AttributeDefinition(
+        name = "Visual Cache Max Entries",
+        description = "Image analysis results kept in memory and under /var; the oldest are removed first"
+    )
+    int visualCacheMaxEntries() default 20000;
+
+    @AttributeDefinition(
+        name = "Fan-Out Max Parallelism",
+        description = "Maximum number of target languages translated at once by a multi-language request"
+    )
+    int fanOutMaxParallelism() default 4;
+
+    @AttributeDefinition(
+        name = "Transparency Sentiment Enabled",
+        description = "Run sentiment analysis on translations in the background"
+    )
+    boolean transparencySentimentEnabled() default true;
+
+    @AttributeDefinition(
+        name = "Transparency Compliance Enabled",
+        description = "Run brand compliance analysis on translations in the background"
+    )
+    boolean transparencyComplianceEnabled() default true;
+
+    @AttributeDefinition(
+        name = "Transparency Sample Rate",
+        description = "Fraction of translations (0.0 - 1.0) that are analyzed for sentiment and compliance"
+    )
+    double transparencySampleRate() default 1.0;
+
+    @AttributeDefinition(
+        name = "Transparency Min Length",
+        description = "Translations shorter than this many characters (labels, buttons) are not analyzed"
+    )
+    int transparencyMinLength() default 20;
+
+    @AttributeDefinition(
+        name = "Transparency Categories",
+        description = "Content categories to analyze; leave empty to analyze every category"
+    )
+    String[] transparencyCategories() default {};
+
+    @AttributeDefinition(
+        name = "Transparency Queue Capacity",
+        description = "Maximum number of analyses waiting in the background; further ones are dropped"
     )
-    int batchSize() default 10;
+    int transparencyQueueCapacity() default 500;
 
     @AttributeDefinition(
         name = "Metrics Enabled",
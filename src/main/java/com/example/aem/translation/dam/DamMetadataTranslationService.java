@@ -52,6 +52,69 @@ public interface DamMetadataTranslationService {
     MetadataTranslationResult[] translateMultipleAssets(String[] assetPaths, String targetLanguage,
                                                         String category) throws TranslationException;
 
+    class BulkTranslationResult {
+        private final String folderPath;
+        private final String targetLanguage;
+        private final int assetsTranslated;
+        private final int assetsSkipped;
+        private final int fieldsTranslated;
+        private final boolean resumed;
+        private final boolean incremental;
+        private final long translationTime;
+        private final boolean success;
+        private final String errorMessage;
+
+        public BulkTranslationResult(String folderPath, String targetLanguage, int assetsTranslated,
+                                     int assetsSkipped, int fieldsTranslated, boolean resumed,
+                                     long translationTime, String errorMessage) {
+            this(folderPath, targetLanguage, assetsTranslated, assetsSkipped, fieldsTranslated, resumed, false,
+                translationTime, errorMessage);
+        }
+
+        public BulkTranslationResult(String folderPath, String targetLanguage, int assetsTranslated,
+                                     int assetsSkipped, int fieldsTranslated, boolean resumed,
+                                     boolean incremental, long translationTime, String errorMessage) {
+            this.folderPath = folderPath;
+            this.targetLanguage = targetLanguage;
+            this.assetsTranslated = assetsTranslated;
+            this.assetsSkipped = assetsSkipped;
+            this.fieldsTranslated = fieldsTranslated;
+            this.resumed = resumed;
+            this.incremental = incremental;
+            this.translationTime = translationTime;
+            this.success = errorMessage == null;
+            this.errorMessage = errorMessage;
+        }
+
+        public String getFolderPath() { return folderPath; }
+        public String getTargetLanguage() { return targetLanguage; }
+        /** Assets written by this run, not counting those finished by an earlier, interrupted run. */
+        public int getAssetsTranslated() { return assetsTranslated; }
+        /** Assets without any translatable metadata. */
+        public int getAssetsSkipped() { return assetsSkipped; }
+        public int getFieldsTranslated() { return fieldsTranslated; }
+        /** Whether the run continued from the checkpoint of an earlier, interrupted run. */
+        public boolean isResumed() { return resumed; }
+        /** Whether an earlier run finished the folder, so only assets created since were translated. */
+        public boolean isIncremental() { return incremental; }
+        public long getTranslationTime() { return translationTime; }
+        public boolean isSuccess() { return success; }
+        public String getErrorMessage() { return errorMessage; }
+    }
+
+    /**
+     * Translates the metadata of every asset below {@code folderPath} in place, as done for a
+     * language copy. Fields of many assets are translated together and saved in batches; progress
+     * is checkpointed, so calling this again after a failure continues where the run stopped.
+     * Each asset is translated once per target language: once a run finishes, later calls
+     * translate only the assets created below the folder since that run started.
+     *
+     * @param sourceLanguage language of the current metadata, i.e. of the master the copy was made
+     *                       from; required, since a language copy's path names the target language
+     */
+    BulkTranslationResult translateFolder(String folderPath, String sourceLanguage, String targetLanguage,
+                                          String category) throws TranslationException;
+
     class VisualTranslationResult {
         private final String assetPath;
         private final String targetLanguage;
@@ -0,0 +1,518 @@
+package com.example.aem.translation.dam.impl;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.adobe.granite.translation.api.TranslationException;
+import com.adobe.granite.translation.api.TranslationResult;
+import com.example.aem.translation.dam.DamMetadataTranslationService.BulkTranslationResult;
+import com.example.aem.translation.dam.DamMetadataTranslationService.MetadataTranslationResult;
+import com.example.aem.translation.service.TranslateGemmaTranslationService;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Translates the metadata of many assets with few model calls.
+ * <p>
+ * Assets are read through the Resource API and grouped into batches of {@code batchSize}. The
+ * distinct values of all translatable fields in a batch go to the translation service as one
+ * array, which packs them into as few prompts as its token budget allows. Up to
+ * {@code maxInFlight} batches are translated at once on the shared executor, while reads and
+ * writes stay on the calling thread, which owns the resolver.
+ * <p>
+ * A folder run walks the tree depth-first with children in name order, so the order is the same
+ * on every run. Each batch is written and committed together with a checkpoint holding the last
+ * asset of the batch; batches are committed in traversal order, so everything up to the
+ * checkpoint is done. A later run for the same folder and language skips straight past it.
+ * <p>
+ * A run is one pass over the folder. A finished pass marks the checkpoint completed, but keeps
+ * the time it started: the next run starts a new pass that translates only the assets created
+ * since, so assets added to a language copy later are picked up without translating the
+ * translations. Assets created while a pass runs are left to the next one.
+ * <p>
+ * Folder runs overwrite the metadata they read, so they need the source language from the
+ * caller: the path of a language copy names the target language, not the source.
+ */
+final class BulkMetadataTranslator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkMetadataTranslator.class);
+
+    static final String CHECKPOINT_ROOT = "/var/translation-gemma/dam-bulk";
+    static final String LAST_PATH = "lastPath";
+    static final String ASSETS_DONE = "assetsDone";
+    static final String COMPLETED = "completed";
+    static final String PASS_STARTED = "passStarted";
+    static final String CREATED_AFTER = "createdAfter";
+
+    private static final String METADATA = "jcr:content/metadata";
+    private static final String PRIMARY_TYPE = "jcr:primaryType";
+    private static final String CREATED = "jcr:created";
+    private static final String ASSET_TYPE = "dam:Asset";
+    private static final Set<String> FOLDER_TYPES = new HashSet<>(Arrays.asList(
+        "sling:Folder", "sling:OrderedFolder", "nt:folder"));
+
+    private final TranslateGemmaTranslationService translationService;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int maxInFlight;
+
+    BulkMetadataTranslator(TranslateGemmaTranslationService translationService, ExecutorService executor,
+                           int batchSize, int maxInFlight) {
+        this.translationService = translationService;
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Translates the given fields of the given assets without writing them.
+     */
+    MetadataTranslationResult[] translateAssets(ResourceResolver resolver, String[] assetPaths,
+                                                Collection<String> fields, String targetLanguage,
+                                                String category) {
+        MetadataTranslationResult[] results = new MetadataTranslationResult[assetPaths.length];
+        List<Integer> indexes = new ArrayList<>(assetPaths.length);
+        List<AssetMetadata> assets = new ArrayList<>(assetPaths.length);
+        for (int i = 0; i < assetPaths.length; i++) {
+            Resource asset = resolver.getResource(assetPaths[i]);
+            if (asset == null) {
+                results[i] = new MetadataTranslationResult(assetPaths[i], "Asset not found: " + assetPaths[i]);
+                continue;
+            }
+            indexes.add(i);
+            assets.add(read(asset, fields, detectLanguageFromPath(assetPaths[i])));
+        }
+
+        List<Future<List<Map<String, Object>>>> batches = new ArrayList<>();
+        for (int from = 0; from < assets.size(); from += batchSize) {
+            List<AssetMetadata> batch = assets.subList(from, Math.min(from + batchSize, assets.size()));
+            batches.add(executor.submit(() -> translate(batch, targetLanguage, category)));
+        }
+
+        for (int b = 0; b < batches.size(); b++) {
+            long startTime = System.currentTimeMillis();
+            int from = b * batchSize;
+            int to = Math.min(from + batchSize, assets.size());
+            try {
+                List<Map<String, Object>> translated = batches.get(b).get();
+                long translationTime = System.currentTimeMillis() - startTime;
+                for (int i = from; i < to; i++) {
+                    results[indexes.get(i)] = new MetadataTranslationResult(assets.get(i).path, targetLanguage,
+                            flatten(translated.get(i - from)), translationTime);
+                }
+            } catch (Exception e) {
+                String message = errorMessage(e);
+                LOG.error("Failed to translate metadata of {} assets: {}", to - from, message);
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = from; i < to; i++) {
+                    results[indexes.get(i)] = new MetadataTranslationResult(assets.get(i).path, message);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Translates the metadata of every asset below the folder in place, resuming from the
+     * checkpoint of an earlier run when there is one. Once the folder has been completed, only
+     * assets created since the completed pass started are translated.
+     */
+    BulkTranslationResult translateFolder(ResourceResolver resolver, String folderPath, String sourceLanguage,
+                                          Collection<String> fields, String targetLanguage, String category) {
+        long startTime = System.currentTimeMillis();
+        if (sourceLanguage == null || sourceLanguage.trim().isEmpty()) {
+            return new BulkTranslationResult(folderPath, targetLanguage, 0, 0, 0, false, 0,
+                    "Source language is required to translate " + folderPath + " in place");
+        }
+        String language = sourceLanguage.trim();
+        if (language.equalsIgnoreCase(targetLanguage)) {
+            return new BulkTranslationResult(folderPath, targetLanguage, 0, 0, 0, false, 0,
+                    "Source and target language are both " + language);
+        }
+        Resource folder = resolver.getResource(folderPath);
+        if (folder == null) {
+            return new BulkTranslationResult(folderPath, targetLanguage, 0, 0, 0, false, 0,
+                    "Folder not found: " + folderPath);
+        }
+
+        Progress progress = new Progress();
+        Deque<PendingBatch> inFlight = new ArrayDeque<>();
+        try {
+            Resource checkpoint = getOrCreate(resolver, checkpointPath(folderPath, targetLanguage));
+            ModifiableValueMap state = checkpoint.adaptTo(ModifiableValueMap.class);
+            if (state.get(COMPLETED, false)) {
+                // Starts a pass over the assets created since the completed one; committed with its first batch
+                progress.incremental = true;
+                // Checkpoints completed before passes were timed only know when they finished
+                state.put(CREATED_AFTER, state.get(PASS_STARTED, state.get("updated", 0L)));
+                state.put(PASS_STARTED, startTime);
+                state.remove(COMPLETED);
+                state.remove(LAST_PATH);
+                LOG.info("Translating metadata of assets added to {} since {} to {}", folderPath,
+                        new Date(state.get(CREATED_AFTER, 0L)), targetLanguage);
+            } else if (state.get(LAST_PATH, String.class) != null) {
+                progress.resumed = true;
+                progress.incremental = state.get(CREATED_AFTER, 0L) > 0;
+                LOG.info("Resuming metadata translation of {} to {} after {}", folderPath, targetLanguage,
+                        state.get(LAST_PATH, String.class));
+            } else {
+                state.put("folderPath", folderPath);
+                state.put("targetLanguage", targetLanguage);
+                state.put(PASS_STARTED, startTime);
+            }
+            long createdAfter = state.get(CREATED_AFTER, 0L);
+            long passStarted = state.get(PASS_STARTED, startTime);
+
+            Iterator<Resource> assets = new AssetTraversal(folder, state.get(LAST_PATH, String.class));
+            List<AssetMetadata> batch = new ArrayList<>(batchSize);
+            while (assets.hasNext()) {
+                Resource asset = assets.next();
+                long created = created(asset);
+                if (created > passStarted || createdAfter > 0 && created <= createdAfter) {
+                    continue;
+                }
+                batch.add(read(asset, fields, language));
+                if (batch.size() == batchSize) {
+                    submit(inFlight, batch, targetLanguage, category);
+                    batch = new ArrayList<>(batchSize);
+                    while (inFlight.size() >= maxInFlight) {
+                        write(resolver, inFlight.poll(), checkpoint, progress);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(inFlight, batch, targetLanguage, category);
+            }
+            while (!inFlight.isEmpty()) {
+                write(resolver, inFlight.poll(), checkpoint, progress);
+            }
+
+            // Kept, so running this folder again does not translate the translations
+            state.put(COMPLETED, true);
+            state.put("updated", System.currentTimeMillis());
+            resolver.commit();
+        } catch (Exception e) {
+            for (PendingBatch pending : inFlight) {
+                pending.translation.cancel(true);
+            }
+            resolver.revert();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            String message = errorMessage(e);
+            LOG.error("Metadata translation of {} to {} stopped after {} assets: {}", folderPath, targetLanguage,
+                    progress.translated, message);
+            return new BulkTranslationResult(folderPath, targetLanguage, progress.translated, progress.skipped,
+                    progress.fields, progress.resumed, progress.incremental, System.currentTimeMillis() - startTime,
+                    message);
+        }
+
+        long translationTime = System.currentTimeMillis() - startTime;
+        LOG.info("Translated metadata of {} assets ({} fields) below {} to {} in {}ms", progress.translated,
+                progress.fields, folderPath, targetLanguage, translationTime);
+        return new BulkTranslationResult(folderPath, targetLanguage, progress.translated, progress.skipped,
+                progress.fields, progress.resumed, progress.incremental, translationTime, null);
+    }
+
+    // Creation time of the asset node; 0 when unknown, so the asset belongs to the first pass only
+    private static long created(Resource asset) {
+        Calendar created = asset.getValueMap().get(CREATED, Calendar.class);
+        return created != null ? created.getTimeInMillis() : 0L;
+    }
+
+    private void submit(Deque<PendingBatch> inFlight, List<AssetMetadata> batch, String targetLanguage,
+                        String category) {
+        inFlight.add(new PendingBatch(batch, executor.submit(() -> translate(batch, targetLanguage, category))));
+    }
+
+    // Writes one translated batch and advances the checkpoint in the same commit
+    private void write(ResourceResolver resolver, PendingBatch pending, Resource checkpoint, Progress progress)
+            throws InterruptedException, ExecutionException, PersistenceException {
+        List<Map<String, Object>> translated = pending.translation.get();
+        int translatedAssets = 0;
+        int skippedAssets = 0;
+        int translatedFields = 0;
+        for (int i = 0; i < pending.assets.size(); i++) {
+            Map<String, Object> values = translated.get(i);
+            Resource metadata = values.isEmpty() ? null
+                    : resolver.getResource(pending.assets.get(i).path + "/" + METADATA);
+            ModifiableValueMap properties = metadata != null ? metadata.adaptTo(ModifiableValueMap.class) : null;
+            if (properties == null) {
+                skippedAssets++;
+                continue;
+            }
+            properties.putAll(values);
+            translatedAssets++;
+            translatedFields += values.size();
+        }
+
+        ModifiableValueMap state = checkpoint.adaptTo(ModifiableValueMap.class);
+        state.put(LAST_PATH, pending.assets.get(pending.assets.size() - 1).path);
+        state.put(ASSETS_DONE, state.get(ASSETS_DONE, 0L) + pending.assets.size());
+        state.put("updated", System.currentTimeMillis());
+        resolver.commit();
+
+        progress.translated += translatedAssets;
+        progress.skipped += skippedAssets;
+        progress.fields += translatedFields;
+    }
+
+    // Runs on the executor; touches no repository state
+    private List<Map<String, Object>> translate(List<AssetMetadata> batch, String targetLanguage,
+                                                String category) throws TranslationException {
+        // Distinct texts per source language: values shared by many assets are translated once
+        Map<String, Map<String, String>> byLanguage = new HashMap<>();
+        for (AssetMetadata asset : batch) {
+            Map<String, String> texts = byLanguage.computeIfAbsent(asset.sourceLanguage, key -> new LinkedHashMap<>());
+            for (Object value : asset.values.values()) {
+                for (String text : value instanceof String[] ? (String[]) value : new String[] {(String) value}) {
+                    if (text != null && !text.trim().isEmpty()) {
+                        texts.put(text, null);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> language : byLanguage.entrySet()) {
+            Map<String, String> texts = language.getValue();
+            if (texts.isEmpty()) {
+                continue;
+            }
+            String[] sources = texts.keySet().toArray(new String[0]);
+            TranslationResult[] results = translationService.translateArray(sources, language.getKey(),
+                    targetLanguage, TranslationConstants.ContentType.PLAIN, category);
+            if (results == null || results.length != sources.length) {
+                throw new TranslationException("Expected " + sources.length + " translations but got "
+                        + (results == null ? 0 : results.length), TranslationException.ErrorCode.UNKNOWN);
+            }
+            for (int i = 0; i < sources.length; i++) {
+                if (results[i] != null && results[i].getTranslation() != null) {
+                    texts.put(sources[i], results[i].getTranslation());
+                }
+            }
+        }
+
+        List<Map<String, Object>> translated = new ArrayList<>(batch.size());
+        for (AssetMetadata asset : batch) {
+            Map<String, String> texts = byLanguage.get(asset.sourceLanguage);
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> field : asset.values.entrySet()) {
+                if (field.getValue() instanceof String[]) {
+                    String[] sources = (String[]) field.getValue();
+                    String[] targets = new String[sources.length];
+                    for (int i = 0; i < sources.length; i++) {
+                        String target = texts.get(sources[i]);
+                        targets[i] = target != null ? target : sources[i];
+                    }
+                    values.put(field.getKey(), targets);
+                } else {
+                    String target = texts.get(field.getValue());
+                    if (target != null) {
+                        values.put(field.getKey(), target);
+                    }
+                }
+            }
+            translated.add(values);
+        }
+        return translated;
+    }
+
+    // Non-empty String and String[] values of the fields, read once on the calling thread
+    private static AssetMetadata read(Resource asset, Collection<String> fields, String sourceLanguage) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        Resource metadata = asset.getChild(METADATA);
+        if (metadata != null) {
+            ValueMap properties = metadata.getValueMap();
+            for (String field : fields) {
+                Object value = properties.get(field);
+                if (value instanceof String && !((String) value).trim().isEmpty()
+                        || value instanceof String[] && ((String[]) value).length > 0) {
+                    values.put(field, value);
+                }
+            }
+        }
+        return new AssetMetadata(asset.getPath(), sourceLanguage, values);
+    }
+
+    private static Map<String, String> flatten(Map<String, Object> values) {
+        Map<String, String> flat = new HashMap<>();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            flat.put(value.getKey(), value.getValue() instanceof String[]
+                    ? String.join(", ", (String[]) value.getValue()) : (String) value.getValue());
+        }
+        return flat;
+    }
+
+    private static String errorMessage(Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    static String checkpointPath(String folderPath, String targetLanguage) {
+        String key = DigestUtils.sha256Hex((folderPath + "\n" + targetLanguage).getBytes(StandardCharsets.UTF_8));
+        return CHECKPOINT_ROOT + "/" + key.substring(0, 16);
+    }
+
+    private static Resource getOrCreate(ResourceResolver resolver, String path) throws PersistenceException {
+        Resource resource = resolver.getResource(path);
+        if (resource != null) {
+            return resource;
+        }
+        int slash = path.lastIndexOf('/');
+        Resource parent = getOrCreate(resolver, slash > 0 ? path.substring(0, slash) : "/");
+        return resolver.create(parent, path.substring(slash + 1),
+                Collections.singletonMap(PRIMARY_TYPE, "nt:unstructured"));
+    }
+
+    static String detectLanguageFromPath(String path) {
+        if (path.contains("/en/")) return "en";
+        if (path.contains("/de/")) return "de";
+        if (path.contains("/fr/")) return "fr";
+        if (path.contains("/es/")) return "es";
+        if (path.contains("/it/")) return "it";
+        if (path.contains("/ja/")) return "ja";
+        if (path.contains("/zh/")) return "zh";
+        if (path.contains("/ko/")) return "ko";
+
+        return "en";
+    }
+
+    /**
+     * Compares paths in traversal order: segment by segment by name, a folder before its contents.
+     */
+    static int compareTraversalOrder(String first, String second) {
+        String[] a = first.split("/");
+        String[] b = second.split("/");
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int order = a[i].compareTo(b[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Assets below a folder, depth-first with children in name order, skipping everything up to
+     * and including {@code resumeAfter}. Subtrees that lie entirely before it are not descended.
+     */
+    private static final class AssetTraversal implements Iterator<Resource> {
+        private final Deque<Iterator<Resource>> stack = new ArrayDeque<>();
+        private final String resumeAfter;
+        private Resource next;
+
+        AssetTraversal(Resource folder, String resumeAfter) {
+            this.resumeAfter = resumeAfter;
+            stack.push(sortedChildren(folder));
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Resource next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Resource current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !stack.isEmpty()) {
+                Iterator<Resource> children = stack.peek();
+                if (!children.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                Resource child = children.next();
+                String type = child.getValueMap().get(PRIMARY_TYPE, String.class);
+                if (ASSET_TYPE.equals(type)) {
+                    if (resumeAfter == null || compareTraversalOrder(child.getPath(), resumeAfter) > 0) {
+                        next = child;
+                    }
+                } else if (FOLDER_TYPES.contains(type) && !before(child.getPath())) {
+                    stack.push(sortedChildren(child));
+                }
+            }
+        }
+
+        // A folder is done when it sorts before the checkpoint and does not contain it
+        private boolean before(String folderPath) {
+            return resumeAfter != null && compareTraversalOrder(folderPath, resumeAfter) < 0
+                    && !resumeAfter.startsWith(folderPath + "/");
+        }
+
+        private static Iterator<Resource> sortedChildren(Resource folder) {
+            List<Resource> children = new ArrayList<>();
+            for (Resource child : folder.getChildren()) {
+                children.add(child);
+            }
+            children.sort(Comparator.comparing(Resource::getName));
+            return children.iterator();
+        }
+    }
+
+    private static final class AssetMetadata {
+        private final String path;
+        private final String sourceLanguage;
+        private final Map<String, Object> values;
+
+        AssetMetadata(String path, String sourceLanguage, Map<String, Object> values) {
+            this.path = path;
+            this.sourceLanguage = sourceLanguage;
+            this.values = values;
+        }
+    }
+
+    private static final class PendingBatch {
+        private final List<AssetMetadata> assets;
+        private final Future<List<Map<String, Object>>> translation;
+
+        PendingBatch(List<AssetMetadata> assets, Future<List<Map<String, Object>>> translation) {
+            this.assets = assets;
+            this.translation = translation;
+        }
+    }
+
+    private static final class Progress {
+        private int translated;
+        private int skipped;
+        private int fields;
+        private boolean resumed;
+        private boolean incremental;
+    }
+}
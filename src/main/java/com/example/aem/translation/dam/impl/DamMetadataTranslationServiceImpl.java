@@ -4,16 +4,24 @@ import com.example.aem.translation.service.TranslateGemmaTranslationService;
 import com.example.aem.translation.service.PromptTemplateService;
 import com.example.aem.translation.service.MultiModalTranslationService;
 import com.example.aem.translation.dam.DamMetadataTranslationService;
-import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.adobe.granite.translation.api.TranslationException;
-import com.adobe.granite.translation.api.TranslationResult;
+import com.day.cq.dam.api.Asset;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component(
     service = DamMetadataTranslationService.class,
@@ -32,6 +40,9 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
     @Reference
     private MultiModalTranslationService multiModalTranslationService;
 
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
     private static final Set<String> DEFAULT_TRANSLATABLE_FIELDS = new HashSet<>(Arrays.asList(
         "dc:title",
         "dc:description", 
@@ -45,7 +56,61 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
         "iptc:Keywords"
     ));
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private volatile ImagePreprocessor imagePreprocessor = new ImagePreprocessor(1280, 0.85f, "jpeg");
+
+    private volatile ExecutorService bulkExecutor;
+    private volatile BulkMetadataTranslator bulkTranslator;
+
+    @Activate
+    @Modified
+    public void activate(TranslateGemmaConfig config) {
+        this.imagePreprocessor = new ImagePreprocessor(config.damImageMaxEdge(), config.damImageQuality(),
+                config.damImageFormat());
+
+        int concurrency = Math.max(1, config.damBulkConcurrency());
+        ExecutorService previous = bulkExecutor;
+        bulkExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "translategemma-dam-bulk-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        bulkTranslator = new BulkMetadataTranslator(translationService, bulkExecutor,
+                config.damBulkBatchSize(), concurrency);
+        if (previous != null) {
+            // Batches already running finish; runs still submitting to it fail and can be resumed
+            previous.shutdown();
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdownNow();
+            bulkExecutor = null;
+        }
+    }
+
+    // Protected method for testing to inject a mock TranslateGemmaTranslationService
+    public void setTranslationService(TranslateGemmaTranslationService translationService) {
+        this.translationService = translationService;
+    }
+
+    // Protected method for testing to inject a mock ResourceResolverFactory
+    public void setResolverFactory(ResourceResolverFactory resolverFactory) {
+        this.resolverFactory = resolverFactory;
+    }
+
+    // Protected method for testing to inject a mock MultiModalTranslationService
+    public void setMultiModalTranslationService(MultiModalTranslationService multiModalTranslationService) {
+        this.multiModalTranslationService = multiModalTranslationService;
+    }
+
+    // Protected method for testing to inject a mock PromptTemplateService
+    public void setPromptTemplateService(PromptTemplateService promptTemplateService) {
+        this.promptTemplateService = promptTemplateService;
+    }
 
     @Override
     public MetadataTranslationResult translateAssetMetadata(String assetPath, String targetLanguage,
@@ -57,37 +122,17 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
     public MetadataTranslationResult translateAssetMetadata(String assetPath, String targetLanguage,
                                                             String category, String[] metadataFields) 
                                                             throws TranslationException {
-        long startTime = System.currentTimeMillis();
+        Set<String> fieldsToTranslate = metadataFields != null && metadataFields.length > 0
+            ? new HashSet<>(Arrays.asList(metadataFields))
+            : DEFAULT_TRANSLATABLE_FIELDS;
 
-        try {
-            String sourceLanguage = detectLanguageFromPath(assetPath);
-            Map<String, String> translatedMetadata = new HashMap<>();
-
-            Set<String> fieldsToTranslate = metadataFields != null && metadataFields.length > 0
-                ? new HashSet<>(Arrays.asList(metadataFields))
-                : DEFAULT_TRANSLATABLE_FIELDS;
-
-            for (String field : fieldsToTranslate) {
-                String sampleValue = "Sample " + field + " for asset " + assetPath;
-                
-                try {
-                    TranslationResult result = translationService.translateString(
-                        sampleValue, sourceLanguage, targetLanguage,
-                        TranslationConstants.ContentType.PLAIN, category
-                    );
-                    
-                    translatedMetadata.put(field, result.getTranslation());
-                    
-                } catch (TranslationException e) {
-                    LOG.warn("Failed to translate metadata field {}: {}", field, e.getMessage());
-                }
+        try (ResourceResolver resolver = openResolver()) {
+            MetadataTranslationResult result = bulkTranslator.translateAssets(resolver, new String[] {assetPath},
+                    fieldsToTranslate, targetLanguage, category)[0];
+            if (result.isSuccess()) {
+                LOG.info("Translated metadata for asset: {} in {}ms", assetPath, result.getTranslationTime());
             }
-
-            long translationTime = System.currentTimeMillis() - startTime;
-            
-            LOG.info("Translated metadata for asset: {} in {}ms", assetPath, translationTime);
-
-            return new MetadataTranslationResult(assetPath, targetLanguage, translatedMetadata, translationTime);
+            return result;
 
         } catch (Exception e) {
             LOG.error("Failed to translate asset metadata: {}", assetPath, e);
@@ -102,25 +147,27 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
             return new MetadataTranslationResult[0];
         }
 
-        List<Future<MetadataTranslationResult>> futures = new ArrayList<>();
-
-        for (String assetPath : assetPaths) {
-            futures.add(executorService.submit(() -> 
-                translateAssetMetadata(assetPath, targetLanguage, category)
-            ));
+        try (ResourceResolver resolver = openResolver()) {
+            return bulkTranslator.translateAssets(resolver, assetPaths, DEFAULT_TRANSLATABLE_FIELDS,
+                    targetLanguage, category);
+        } catch (Exception e) {
+            LOG.error("Failed to translate metadata of {} assets", assetPaths.length, e);
+            throw new TranslationException("Metadata translation failed: " + e.getMessage(), e);
         }
+    }
 
-        List<MetadataTranslationResult> results = new ArrayList<>();
-        
-        for (Future<MetadataTranslationResult> future : futures) {
-            try {
-                results.add(future.get(60, TimeUnit.SECONDS));
-            } catch (Exception e) {
-                LOG.error("Failed to get translation result: {}", e.getMessage());
-            }
-        }
+    @Override
+    public BulkTranslationResult translateFolder(String folderPath, String sourceLanguage, String targetLanguage,
+                                                 String category) throws TranslationException {
+        LOG.info("Starting bulk metadata translation of {} to {}", folderPath, targetLanguage);
 
-        return results.toArray(new MetadataTranslationResult[0]);
+        try (ResourceResolver resolver = openResolver()) {
+            return bulkTranslator.translateFolder(resolver, folderPath, sourceLanguage, DEFAULT_TRANSLATABLE_FIELDS,
+                    targetLanguage, category);
+        } catch (Exception e) {
+            LOG.error("Failed to translate metadata below {}", folderPath, e);
+            throw new TranslationException("Bulk metadata translation failed: " + e.getMessage(), e);
+        }
     }
 
     @Override
@@ -129,19 +176,30 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
         
         LOG.info("Starting visual translation for asset: {} to language: {}", assetPath, targetLanguage);
 
-        try {
-            // In a real AEM environment, we would fetch the asset binary here.
-            // For now, we simulate or use a mock.
-            byte[] imageData = getAssetBinaryMock(assetPath);
-            String mimeType = "image/jpeg"; // Default mock type
+        ImagePreprocessor.PreparedImage image;
+        try (ResourceResolver resolver = openResolver()) {
+            Resource resource = resolver.getResource(assetPath);
+            Asset asset = resource != null ? resource.adaptTo(Asset.class) : null;
+            if (asset == null) {
+                return new VisualTranslationResult(assetPath, "Asset not found: " + assetPath);
+            }
+            image = imagePreprocessor.prepare(asset);
+            if (image == null) {
+                return new VisualTranslationResult(assetPath, "Unsupported image format: " + asset.getMimeType());
+            }
+        } catch (Exception e) {
+            LOG.error("Error reading image of {}", assetPath, e);
+            throw new TranslationException("Visual translation failed: " + e.getMessage(), e);
+        }
 
+        try {
             Map<String, Object> vars = new HashMap<>();
             vars.put("targetLanguage", targetLanguage);
 
             String prompt = promptTemplateService.renderPrompt("ocr", vars);
 
             MultiModalTranslationService.MultiModalResult result = 
-                multiModalTranslationService.analyzeImage(imageData, mimeType, prompt);
+                multiModalTranslationService.analyzeImage(image.getData(), image.getMimeType(), prompt);
 
             if (result.isSuccess()) {
                 return new VisualTranslationResult(
@@ -161,21 +219,9 @@ public class DamMetadataTranslationServiceImpl implements DamMetadataTranslation
         }
     }
 
-    private byte[] getAssetBinaryMock(String path) {
-        // Mock binary data for sandbox environment
-        return new byte[]{0x47, 0x49, 0x46, 0x38, 0x39, 0x61, 0x01, 0x00, 0x01, 0x00, (byte)0x80, 0x00, 0x00, 0x00, 0x00, 0x00, (byte)0xff, (byte)0xff, (byte)0xff, 0x21, (byte)0xf9, 0x04, 0x01, 0x00, 0x00, 0x00, 0x00, 0x2c, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00, 0x02, 0x02, 0x44, 0x01, 0x00, 0x3b};
-    }
-
-    private String detectLanguageFromPath(String path) {
-        if (path.contains("/en/")) return "en";
-        if (path.contains("/de/")) return "de";
-        if (path.contains("/fr/")) return "fr";
-        if (path.contains("/es/")) return "es";
-        if (path.contains("/it/")) return "it";
-        if (path.contains("/ja/")) return "ja";
-        if (path.contains("/zh/")) return "zh";
-        if (path.contains("/ko/")) return "ko";
-        
-        return "en";
+    private ResourceResolver openResolver() throws Exception {
+        Map<String, Object> authInfo = new HashMap<>();
+        authInfo.put(ResourceResolverFactory.SUBSERVICE, "translate-gemma-service");
+        return resolverFactory.getServiceResourceResolver(authInfo);
     }
 }
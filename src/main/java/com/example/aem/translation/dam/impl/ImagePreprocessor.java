@@ -0,0 +1,220 @@
+package com.example.aem.translation.dam.impl;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Shrinks asset images to what OCR needs before they are sent to the multi-modal model.
+ * <p>
+ * The smallest {@code cq5dam.web.*} rendition that still covers {@code maxEdge} is used when one
+ * exists, otherwise the largest web rendition, and the original only for assets without web
+ * renditions. The source is decoded straight from the repository stream with
+ * source subsampling, so a 40 megapixel original is never held at full resolution; the decoded
+ * image is scaled to at most {@code maxEdge} and re-encoded. Only the encoded result, typically a
+ * few hundred kilobytes, is kept on heap.
+ */
+final class ImagePreprocessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImagePreprocessor.class);
+    private static final String WEB_RENDITION_PREFIX = "cq5dam.web.";
+
+    private final int maxEdge;
+    private final float quality;
+    private final String format;
+
+    ImagePreprocessor(int maxEdge, float quality, String format) {
+        this.maxEdge = Math.max(1, maxEdge);
+        this.quality = quality > 0 && quality <= 1 ? quality : 0.85f;
+        this.format = "webp".equalsIgnoreCase(format) ? "webp" : "jpeg";
+    }
+
+    /**
+     * Prepares the asset's best rendition, or returns {@code null} when it cannot be decoded.
+     */
+    PreparedImage prepare(Asset asset) throws IOException {
+        Rendition rendition = pickRendition(asset, maxEdge);
+        if (rendition == null) {
+            return null;
+        }
+        try (InputStream stream = rendition.getStream()) {
+            if (stream == null) {
+                return null;
+            }
+            PreparedImage prepared = prepare(stream);
+            if (prepared != null && LOG.isDebugEnabled()) {
+                LOG.debug("Prepared {} ({} bytes) as {}x{} {} ({} bytes)", rendition.getPath(), rendition.getSize(),
+                        prepared.getWidth(), prepared.getHeight(), prepared.getMimeType(), prepared.getData().length);
+            }
+            return prepared;
+        }
+    }
+
+    /**
+     * Decodes, downscales and re-encodes an image stream, or returns {@code null} when no
+     * installed reader understands it.
+     */
+    PreparedImage prepare(InputStream stream) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Decode at no less than maxEdge so the final scale step still has detail to work with
+                int subsampling = Math.max(1, longest / maxEdge);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        BufferedImage scaled = scale(image);
+        ImageWriter writer = writerFor(format);
+        String mimeType = writer.getOriginatingProvider().getMIMETypes()[0];
+        return new PreparedImage(encode(scaled, writer), mimeType, scaled.getWidth(), scaled.getHeight());
+    }
+
+    /**
+     * The smallest web rendition whose longest edge covers {@code maxEdge}, else the largest
+     * web rendition, else the original.
+     */
+    static Rendition pickRendition(Asset asset, int maxEdge) {
+        Rendition covering = null;
+        int coveringEdge = Integer.MAX_VALUE;
+        Rendition largest = null;
+        int largestEdge = 0;
+        for (Rendition rendition : asset.getRenditions()) {
+            int edge = webRenditionEdge(rendition.getName());
+            if (edge <= 0) {
+                continue;
+            }
+            if (edge >= maxEdge && edge < coveringEdge) {
+                covering = rendition;
+                coveringEdge = edge;
+            }
+            if (edge > largestEdge) {
+                largest = rendition;
+                largestEdge = edge;
+            }
+        }
+        if (covering != null) {
+            return covering;
+        }
+        return largest != null ? largest : asset.getOriginal();
+    }
+
+    // "cq5dam.web.1280.1280.jpeg" -> 1280; 0 for any other rendition
+    private static int webRenditionEdge(String name) {
+        if (name == null || !name.startsWith(WEB_RENDITION_PREFIX)) {
+            return 0;
+        }
+        String[] parts = name.split("\\.");
+        if (parts.length < 4) {
+            return 0;
+        }
+        try {
+            return Math.max(Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private BufferedImage scale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        // Always redrawn into RGB: JPEG has no alpha and some decoders return indexed or CMYK rasters
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] encode(BufferedImage image, ImageWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ImageWriter writerFor(String format) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (writers.hasNext()) {
+            return writers.next();
+        }
+        // The JDK ships no WebP encoder; one is only available when a plugin bundle provides it
+        LOG.debug("No {} encoder installed, encoding as JPEG", format.toUpperCase(Locale.ROOT));
+        return ImageIO.getImageWritersByFormatName("jpeg").next();
+    }
+
+    static final class PreparedImage {
+        private final byte[] data;
+        private final String mimeType;
+        private final int width;
+        private final int height;
+
+        PreparedImage(byte[] data, String mimeType, int width, int height) {
+            this.data = data;
+            this.mimeType = mimeType;
+            this.width = width;
+            this.height = height;
+        }
+
+        byte[] getData() { return data; }
+        String getMimeType() { return mimeType; }
+        int getWidth() { return width; }
+        int getHeight() { return height; }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.aem.translation.impl;
+
+import com.example.aem.translation.model.TranslationFeedback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory retrieval index over human corrections, one bounded ring of the most recent
+ * corrections per language pair.
+ * <p>
+ * Lookups return the corrections whose source text is most similar to the text being
+ * translated: cosine similarity of character trigram vectors weighted by TF-IDF over the ring,
+ * so shared rare fragments ("checkout", a product name) count for more than common ones
+ * ("the "). Trigrams tolerate inflection and compounding, and work for scripts without spaces.
+ * Corrections below {@code minSimilarity} are left out rather than padded with unrelated ones.
+ * <p>
+ * Rings are kept in timestamp order and replaced, never mutated, so lookups read them without
+ * locking; writes (new or removed corrections) are rare and serialized. A ring compiles its
+ * inverted index on the first lookup after a change, so bulk loads do not pay for it per entry.
+ */
+final class FeedbackIndex {
+
+    private static final int GRAM = 3;
+    private static final Ring EMPTY = new Ring(new Indexed[0]);
+
+    private final int capacityPerPair;
+    private final double minSimilarity;
+    // "source->target" to its corrections
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+    // Resource path to its pair key, so removals do not scan every ring
+    private final Map<String, String> pairByPath = new HashMap<>();
+
+    FeedbackIndex(int capacityPerPair, double minSimilarity) {
+        this.capacityPerPair = Math.max(1, capacityPerPair);
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Adds or replaces the correction stored at {@code path}. When the ring is full the
+     * oldest correction is evicted, which may be the new one if it is older than all others.
+     */
+    synchronized void put(String path, TranslationFeedback feedback) {
+        removeInternal(path);
+        String pair = pairKey(feedback.getSourceLanguage(), feedback.getTargetLanguage());
+        Indexed[] current = rings.getOrDefault(pair, EMPTY).entries;
+        Indexed added = new Indexed(path, feedback);
+
+        int position = current.length;
+        while (position > 0 && current[position - 1].feedback.getTimestamp() > feedback.getTimestamp()) {
+            position--;
+        }
+        Indexed[] next = new Indexed[current.length + 1];
+        System.arraycopy(current, 0, next, 0, position);
+        next[position] = added;
+        System.arraycopy(current, position, next, position + 1, current.length - position);
+        pairByPath.put(path, pair);
+
+        if (next.length > capacityPerPair) {
+            int evicted = next.length - capacityPerPair;
+            for (int i = 0; i < evicted; i++) {
+                pairByPath.remove(next[i].path);
+            }
+            next = Arrays.copyOfRange(next, evicted, next.length);
+        }
+        rings.put(pair, new Ring(next));
+    }
+
+    synchronized void remove(String path) {
+        removeInternal(path);
+    }
+
+    synchronized void clear() {
+        rings.clear();
+        pairByPath.clear();
+    }
+
+    int size() {
+        int size = 0;
+        for (Ring ring : rings.values()) {
+            size += ring.entries.length;
+        }
+        return size;
+    }
+
+    /**
+     * Up to {@code limit} corrections for the pair whose source is at least
+     * {@code minSimilarity} similar to {@code sourceText}, most similar first and the most
+     * recent first among equals.
+     */
+    List<TranslationFeedback> findRelevant(String sourceText, String sourceLang, String targetLang, int limit) {
+        Ring ring = rings.getOrDefault(pairKey(sourceLang, targetLang), EMPTY);
+        if (ring.entries.length == 0 || limit <= 0 || sourceText == null) {
+            return Collections.emptyList();
+        }
+        double[] scores = ring.search().score(sourceText);
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0 && scores[i] >= minSimilarity) {
+                candidates.add(i);
+            }
+        }
+        // Ring is oldest first, so the higher index wins a tie
+        candidates.sort((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : b - a);
+
+        List<TranslationFeedback> relevant = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < Math.min(limit, candidates.size()); i++) {
+            relevant.add(ring.entries[candidates.get(i)].feedback);
+        }
+        return relevant;
+    }
+
+    private void removeInternal(String path) {
+        String pair = pairByPath.remove(path);
+        if (pair == null) {
+            return;
+        }
+        Indexed[] current = rings.getOrDefault(pair, EMPTY).entries;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].path.equals(path)) {
+                if (current.length == 1) {
+                    rings.remove(pair);
+                } else {
+                    Indexed[] next = new Indexed[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    rings.put(pair, new Ring(next));
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Trigram counts of the lower-cased, space-padded, whitespace-collapsed text.
+     */
+    static Map<Long, Integer> grams(String text) {
+        StringBuilder normalized = new StringBuilder(text.length() + 2).append(' ');
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized.append(' ');
+                    space = true;
+                }
+            } else {
+                normalized.append(c);
+                space = false;
+            }
+        }
+        if (!space) {
+            normalized.append(' ');
+        }
+
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            long gram = ((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16)
+                    | normalized.charAt(i + 2);
+            counts.merge(gram, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String pairKey(String sourceLang, String targetLang) {
+        return (sourceLang + "->" + targetLang).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Indexed {
+        private final String path;
+        private final TranslationFeedback feedback;
+        private final Map<Long, Integer> grams;
+
+        Indexed(String path, TranslationFeedback feedback) {
+            this.path = path;
+            this.feedback = feedback;
+            this.grams = grams(feedback.getSourceString() != null ? feedback.getSourceString() : "");
+        }
+    }
+
+    private static final class Ring {
+        private final Indexed[] entries;
+        private volatile Search search;
+
+        Ring(Indexed[] entries) {
+            this.entries = entries;
+        }
+
+        // Compiled at most a few times under contention; every copy is identical
+        Search search() {
+            Search compiled = search;
+            if (compiled == null) {
+                compiled = new Search(entries);
+                search = compiled;
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Inverted index of unit-length TF-IDF trigram vectors over one ring.
+     */
+    private static final class Search {
+        private final int documents;
+        private final Map<Long, Double> idf = new HashMap<>();
+        private final Map<Long, int[]> postingIds = new HashMap<>();
+        private final Map<Long, float[]> postingWeights = new HashMap<>();
+
+        Search(Indexed[] entries) {
+            this.documents = entries.length;
+            Map<Long, Integer> documentFrequency = new HashMap<>();
+            for (Indexed entry : entries) {
+                for (Long gram : entry.grams.keySet()) {
+                    documentFrequency.merge(gram, 1, Integer::sum);
+                }
+            }
+            documentFrequency.forEach((gram, df) -> {
+                idf.put(gram, inverseFrequency(df));
+                postingIds.put(gram, new int[df]);
+                postingWeights.put(gram, new float[df]);
+            });
+
+            Map<Long, Integer> filled = new HashMap<>();
+            for (int id = 0; id < entries.length; id++) {
+                Map<Long, Integer> grams = entries[id].grams;
+                double norm = 0;
+                for (Map.Entry<Long, Integer> gram : grams.entrySet()) {
+                    double weight = weight(gram.getValue(), idf.get(gram.getKey()));
+                    norm += weight * weight;
+                }
+                norm = Math.sqrt(norm);
+                for (Map.Entry<Long, Integer> gram : grams.entrySet()) {
+                    int slot = filled.merge(gram.getKey(), 1, Integer::sum) - 1;
+                    postingIds.get(gram.getKey())[slot] = id;
+                    postingWeights.get(gram.getKey())[slot] =
+                            (float) (weight(gram.getValue(), idf.get(gram.getKey())) / norm);
+                }
+            }
+        }
+
+        /**
+         * Cosine similarity of {@code text} to every entry, by entry position.
+         */
+        double[] score(String text) {
+            double[] scores = new double[documents];
+            double norm = 0;
+            for (Map.Entry<Long, Integer> gram : grams(text).entrySet()) {
+                Double gramIdf = idf.get(gram.getKey());
+                // Trigrams no correction has still make the query less similar to all of them
+                double weight = weight(gram.getValue(), gramIdf != null ? gramIdf : inverseFrequency(0));
+                norm += weight * weight;
+                if (gramIdf == null) {
+                    continue;
+                }
+                int[] ids = postingIds.get(gram.getKey());
+                float[] weights = postingWeights.get(gram.getKey());
+                for (int i = 0; i < ids.length; i++) {
+                    scores[ids[i]] += weight * weights[i];
+                }
+            }
+            if (norm > 0) {
+                norm = Math.sqrt(norm);
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] /= norm;
+                }
+            }
+            return scores;
+        }
+
+        private double inverseFrequency(int documentFrequency) {
+            return Math.log((documents + 1.0) / (documentFrequency + 1.0)) + 1.0;
+        }
+
+        private static double weight(int termFrequency, double inverseFrequency) {
+            return (1.0 + Math.log(termFrequency)) * inverseFrequency;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.aem.translation.impl;
 
+import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.example.aem.translation.service.MSMDeltaService;
+import com.example.aem.translation.util.JcrWriteBatch;
+import com.example.aem.translation.util.TranslationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ValueMap;
-import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.api.resource.PersistenceException;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +24,16 @@ public class MSMDeltaServiceImpl implements MSMDeltaService {
     private static final String PN_LAST_ROLLED_OUT = "cq:lastRolledout";
     private static final String PN_LAST_TRANSLATION_UPDATE = "cq:lastTranslationUpdate_"; // Prefix with lang
 
+    private volatile int commitMaxRetries = 3;
+    private volatile TranslationMetrics metrics;
+
+    @Activate
+    @Modified
+    public void activate(TranslateGemmaConfig config) {
+        this.commitMaxRetries = config.jcrCommitMaxRetries();
+        this.metrics = config.enableMetrics() ? new TranslationMetrics(new SimpleMeterRegistry()) : null;
+    }
+
     @Override
     public boolean isTranslationRequired(Resource resource, String targetLanguage) {
         if (resource == null) return true;
@@ -46,14 +61,20 @@ public class MSMDeltaServiceImpl implements MSMDeltaService {
     public void markAsTranslated(Resource resource, String targetLanguage) {
         if (resource == null) return;
 
-        ModifiableValueMap mvm = resource.adaptTo(ModifiableValueMap.class);
-        if (mvm != null) {
-            mvm.put(PN_LAST_TRANSLATION_UPDATE + targetLanguage, Calendar.getInstance());
-            try {
-                resource.getResourceResolver().commit();
-            } catch (PersistenceException e) {
-                LOG.error("Failed to mark resource as translated: {}", resource.getPath(), e);
-            }
+        JcrWriteBatch batch = new JcrWriteBatch(resource.getResourceResolver(), 1, commitMaxRetries, metrics);
+        try {
+            markAsTranslated(resource, targetLanguage, batch);
+            batch.flush();
+        } catch (PersistenceException e) {
+            LOG.error("Failed to mark resource as translated: {}", resource.getPath(), e);
         }
     }
+
+    @Override
+    public void markAsTranslated(Resource resource, String targetLanguage, JcrWriteBatch batch)
+            throws PersistenceException {
+        if (resource == null) return;
+
+        batch.put(resource, PN_LAST_TRANSLATION_UPDATE + targetLanguage, Calendar.getInstance());
+    }
 }
@@ -2,29 +2,136 @@ package com.example.aem.translation.impl;
 
 import com.example.aem.translation.service.MultiModalTranslationService;
 import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.util.PerceptualHash;
+import com.example.aem.translation.util.SingleFlight;
+import com.example.aem.translation.util.TranslationMetrics;
+import com.example.aem.translation.util.VertexModelClient;
 import com.adobe.granite.translation.api.TranslationException;
-import com.google.cloud.vertexai.VertexAI;
 import com.google.cloud.vertexai.api.GenerateContentResponse;
-import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import com.google.cloud.vertexai.generativeai.ContentMaker;
 import com.google.cloud.vertexai.generativeai.PartMaker;
 import com.google.cloud.vertexai.generativeai.ResponseHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Image analysis and OCR through a Vertex AI multi-modal model. All calls share one
+ * {@link VertexModelClient}, created on activation and closed on deactivation, so bulk DAM runs
+ * reuse a single channel with bounded concurrency instead of connecting per image.
+ * <p>
+ * Results are cached by prompt and perceptual image hash in a {@link VisualResultCache} that is
+ * persisted under {@value #VISUAL_CACHE_ROOT}, so crops, resizes and renditions of an image
+ * already analyzed with the same prompt reuse its OCR and alt text instead of calling the model.
+ */
 @Component(service = MultiModalTranslationService.class)
 public class MultiModalTranslationServiceImpl implements MultiModalTranslationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MultiModalTranslationServiceImpl.class);
+    static final String VISUAL_CACHE_ROOT = "/var/translation-gemma/visual-cache";
+    private static final String DEFAULT_MODEL = "gemini-1.5-flash";
+    // How long deactivation waits for running analyses before closing the channel
+    private static final long DRAIN_TIMEOUT_MS = 10_000;
+    // A failed cache load is retried by lookups, but not more often than this
+    private static final long RELOAD_INTERVAL_MS = 60_000;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    // Identical images analyzed at the same time share one model call
+    private final SingleFlight<String, MultiModalResult> inFlightAnalyses = new SingleFlight<>();
 
     @Reference
-    private TranslateGemmaConfig config;
+    private ResourceResolverFactory resolverFactory;
+
+    private volatile VertexModelClient client;
+    private volatile TranslationMetrics metrics;
+    private volatile String modelName = DEFAULT_MODEL;
+    private volatile int visualCacheMaxDistance;
+    private volatile int visualCacheMaxEntries;
+    // Null when the visual cache is disabled
+    private volatile VisualResultCache visualCache;
+    private volatile boolean visualCacheLoaded;
+    private volatile long lastLoadAttempt;
+
+    @Activate
+    @Modified
+    public void activate(TranslateGemmaConfig config) {
+        this.metrics = config.enableMetrics() ? new TranslationMetrics(new SimpleMeterRegistry()) : null;
+
+        String projectId = firstNonBlank(config.projectId(), System.getenv("GCP_PROJECT_ID"));
+        String location = firstNonBlank(config.location(), System.getenv("GCP_LOCATION"), "us-central1");
+        String modelName = firstNonBlank(config.multiModalModelName(), DEFAULT_MODEL);
+        this.modelName = modelName;
+
+        VertexModelClient previous = this.client;
+        if (projectId == null) {
+            LOG.warn("GCP project ID not configured, multi-modal analysis is unavailable");
+            this.client = null;
+        } else {
+            VertexModelClient created = new VertexModelClient(projectId, location, modelName,
+                    config.multiModalMaxConcurrency(), config.multiModalAcquireTimeoutMs(), metrics);
+            try {
+                created.connect();
+            } catch (Exception e) {
+                LOG.warn("Could not connect multi-modal client on activation, the first call will retry", e);
+            }
+            this.client = created;
+            LOG.info("Multi-modal client activated with model: {}, maxConcurrency: {}",
+                    modelName, config.multiModalMaxConcurrency());
+        }
+        if (previous != null) {
+            previous.close(DRAIN_TIMEOUT_MS);
+        }
+
+        this.visualCacheMaxDistance = config.visualCacheMaxDistance();
+        this.visualCacheMaxEntries = config.visualCacheMaxEntries();
+        this.visualCacheLoaded = false;
+        if (config.visualCacheEnabled()) {
+            this.visualCache = new VisualResultCache(visualCacheMaxDistance, visualCacheMaxEntries);
+            loadVisualCache();
+        } else {
+            this.visualCache = null;
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        VertexModelClient current = this.client;
+        this.client = null;
+        this.visualCache = null;
+        if (current != null) {
+            current.close(DRAIN_TIMEOUT_MS);
+        }
+    }
+
+    // Protected method for testing to inject a VertexModelClient
+    public void setClient(VertexModelClient client) {
+        this.client = client;
+    }
+
+    // Protected method for testing to inject a mock ResourceResolverFactory
+    public void setResolverFactory(ResourceResolverFactory resolverFactory) {
+        this.resolverFactory = resolverFactory;
+    }
 
     @Override
     public MultiModalResult analyzeImage(byte[] imageData, String mimeType, String prompt) throws TranslationException {
@@ -32,52 +139,242 @@ public class MultiModalTranslationServiceImpl implements MultiModalTranslationSe
             return new MultiModalResult("Empty image data provided.");
         }
 
-        String projectId = System.getenv("GCP_PROJECT_ID");
-        String location = System.getenv("GCP_LOCATION");
-        if (location == null) location = "us-central1";
+        VisualResultCache cache = visualCache;
+        Long hash = cache != null ? PerceptualHash.of(imageData) : null;
+        String promptKey = promptKey(prompt);
+        if (hash != null) {
+            if (!visualCacheLoaded) {
+                reloadIfDue();
+                cache = visualCache != null ? visualCache : cache;
+            }
+            MultiModalResult cached = cachedResult(cache, promptKey, hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        if (projectId == null) {
-            LOG.warn("GCP_PROJECT_ID not configured for multi-modal analysis.");
+        VertexModelClient current = this.client;
+        if (current == null) {
             return new MultiModalResult("GCP project ID not configured.");
         }
 
-        try (VertexAI vertexAI = new VertexAI(projectId, location)) {
-            GenerativeModel model = new GenerativeModel("gemini-1.5-flash", vertexAI);
-            
-            GenerateContentResponse response = model.generateContent(
-                com.google.cloud.vertexai.generativeai.ContentMaker.fromMultiModalData(
-                    prompt,
-                    PartMaker.fromMimeTypeAndData(mimeType, imageData)
-                )
-            );
+        try {
+            if (hash == null) {
+                return generate(current, imageData, mimeType, prompt);
+            }
+            VisualResultCache target = cache;
+            return inFlightAnalyses.execute(promptKey + ":" + hash, () -> {
+                // A caller that finished just before this one may have cached a near-duplicate
+                MultiModalResult cached = cachedResult(target, promptKey, hash);
+                if (cached != null) {
+                    return cached;
+                }
+                MultiModalResult result = generate(current, imageData, mimeType, prompt);
+                remember(target, promptKey, hash, result);
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Multi-modal analysis rejected: {}", e.getMessage());
+            throw new TranslationException("Multi-modal analysis rejected: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslationException("Multi-modal analysis interrupted", e);
+        } catch (Exception e) {
+            LOG.error("Failed to analyze image via Vertex AI", e);
+            throw new TranslationException("Multi-modal analysis failed: " + e.getMessage(), e);
+        }
+    }
 
-            String textResponse = ResponseHandler.getText(response);
-            LOG.debug("Multi-modal raw response: {}", textResponse);
+    private MultiModalResult generate(VertexModelClient current, byte[] imageData, String mimeType, String prompt)
+            throws Exception {
+        GenerateContentResponse response = current.generateContent(
+            ContentMaker.fromMultiModalData(
+                prompt,
+                PartMaker.fromMimeTypeAndData(mimeType, imageData)
+            )
+        );
 
-            // Extract JSON from response (handling potential markdown formatting)
-            String jsonContent = extractJson(textResponse);
-            
-            @SuppressWarnings("unchecked")
-            Map<String, String> data = objectMapper.readValue(jsonContent, Map.class);
-            
-            return new MultiModalResult(textResponse, data);
+        String textResponse = ResponseHandler.getText(response);
+        LOG.debug("Multi-modal raw response: {}", textResponse);
+
+        // Extract JSON from response (handling potential markdown formatting)
+        String jsonContent = extractJson(textResponse);
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> data = objectMapper.readValue(jsonContent, Map.class);
 
+        return new MultiModalResult(textResponse, data);
+    }
+
+    private MultiModalResult cachedResult(VisualResultCache cache, String promptKey, long hash) {
+        VisualResultCache.Entry entry = cache.find(promptKey, hash);
+        if (entry == null) {
+            return null;
+        }
+        if (metrics != null) {
+            metrics.recordMultiModalCacheHit();
+        }
+        LOG.debug("Reusing analysis {} for image {}", entry.getName(), Long.toHexString(hash));
+        return new MultiModalResult(entry.getRawResponse(), entry.getData());
+    }
+
+    private void remember(VisualResultCache cache, String promptKey, long hash, MultiModalResult result) {
+        if (!result.isSuccess()) {
+            return;
+        }
+        VisualResultCache.Entry entry = new VisualResultCache.Entry(promptKey + "-" + hex(hash), promptKey, hash,
+                result.getRawResponse(), result.getData(), System.currentTimeMillis());
+        List<VisualResultCache.Entry> evicted = cache.put(entry);
+        if (resolverFactory == null) {
+            return;
+        }
+        try (ResourceResolver resolver = openResolver()) {
+            Resource bucket = getOrCreate(resolver, VISUAL_CACHE_ROOT + "/" + bucketOf(hash));
+            Resource existing = bucket.getChild(entry.getName());
+            if (existing != null) {
+                resolver.delete(existing);
+            }
+            Map<String, Object> props = new HashMap<>();
+            props.put("jcr:primaryType", "nt:unstructured");
+            props.put("promptKey", promptKey);
+            props.put("imageHash", hex(hash));
+            props.put("rawResponse", result.getRawResponse());
+            props.put("data", objectMapper.writeValueAsString(entry.getData()));
+            props.put("created", entry.getCreated());
+            resolver.create(bucket, entry.getName(), props);
+            delete(resolver, evicted);
+            resolver.commit();
         } catch (Exception e) {
-            LOG.error("Failed to analyze image via Vertex AI", e);
-            throw new TranslationException("Multi-modal analysis failed: " + e.getMessage(), e);
+            LOG.warn("Failed to persist analysis for image {}, it stays cached in memory only", hex(hash), e);
+        }
+    }
+
+    private synchronized void reloadIfDue() {
+        if (!visualCacheLoaded && System.currentTimeMillis() - lastLoadAttempt >= RELOAD_INTERVAL_MS) {
+            loadVisualCache();
+        }
+    }
+
+    /**
+     * Builds a new cache from every result under the cache root, oldest first so eviction
+     * order survives restarts, and swaps it in.
+     */
+    private synchronized void loadVisualCache() {
+        lastLoadAttempt = System.currentTimeMillis();
+        if (resolverFactory == null || visualCache == null) {
+            return;
+        }
+        try (ResourceResolver resolver = openResolver()) {
+            List<VisualResultCache.Entry> entries = new ArrayList<>();
+            Resource root = resolver.getResource(VISUAL_CACHE_ROOT);
+            if (root != null) {
+                for (Resource bucket : root.getChildren()) {
+                    for (Resource child : bucket.getChildren()) {
+                        VisualResultCache.Entry entry = toEntry(child);
+                        if (entry != null) {
+                            entries.add(entry);
+                        }
+                    }
+                }
+            }
+            entries.sort(Comparator.comparingLong(VisualResultCache.Entry::getCreated));
+
+            VisualResultCache fresh = new VisualResultCache(visualCacheMaxDistance, visualCacheMaxEntries);
+            List<VisualResultCache.Entry> evicted = new ArrayList<>();
+            for (VisualResultCache.Entry entry : entries) {
+                evicted.addAll(fresh.put(entry));
+            }
+            if (!evicted.isEmpty()) {
+                delete(resolver, evicted);
+                resolver.commit();
+            }
+            visualCache = fresh;
+            visualCacheLoaded = true;
+            LOG.info("Loaded {} cached image analyses", fresh.size());
+        } catch (Exception e) {
+            LOG.warn("Failed to load cached image analyses, every image is analyzed until they load", e);
+        }
+    }
+
+    private VisualResultCache.Entry toEntry(Resource resource) {
+        ValueMap vm = resource.getValueMap();
+        String promptKey = vm.get("promptKey", String.class);
+        String imageHash = vm.get("imageHash", String.class);
+        if (promptKey == null || imageHash == null) {
+            return null;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, String> data = objectMapper.readValue(vm.get("data", "{}"), Map.class);
+            return new VisualResultCache.Entry(resource.getName(), promptKey, Long.parseUnsignedLong(imageHash, 16),
+                    vm.get("rawResponse", String.class), data, vm.get("created", 0L));
+        } catch (Exception e) {
+            LOG.warn("Skipping unreadable cached analysis {}", resource.getPath());
+            return null;
+        }
+    }
+
+    private static void delete(ResourceResolver resolver, List<VisualResultCache.Entry> entries)
+            throws PersistenceException {
+        for (VisualResultCache.Entry entry : entries) {
+            Resource resource = resolver.getResource(
+                    VISUAL_CACHE_ROOT + "/" + bucketOf(entry.getHash()) + "/" + entry.getName());
+            if (resource != null) {
+                resolver.delete(resource);
+            }
         }
     }
 
+    private static Resource getOrCreate(ResourceResolver resolver, String path) throws PersistenceException {
+        Resource resource = resolver.getResource(path);
+        if (resource != null) {
+            return resource;
+        }
+        int slash = path.lastIndexOf('/');
+        Resource parent = getOrCreate(resolver, slash > 0 ? path.substring(0, slash) : "/");
+        return resolver.create(parent, path.substring(slash + 1),
+                Collections.singletonMap("jcr:primaryType", "nt:unstructured"));
+    }
+
+    private ResourceResolver openResolver() throws Exception {
+        Map<String, Object> authInfo = new HashMap<>();
+        authInfo.put(ResourceResolverFactory.SUBSERVICE, "translate-gemma-service");
+        return resolverFactory.getServiceResourceResolver(authInfo);
+    }
+
+    // The model is part of the key, so switching models does not reuse another model's answers
+    private String promptKey(String prompt) {
+        return DigestUtils.sha256Hex((modelName + "\n" + prompt).getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    // 256 buckets, so no repository node holds more than a small share of the cached results
+    private static String bucketOf(long hash) {
+        return hex(hash).substring(0, 2);
+    }
+
+    private static String hex(long hash) {
+        return String.format("%016x", hash);
+    }
+
     private String extractJson(String text) {
         if (text == null) return "{}";
-        
+
         int start = text.indexOf("{");
         int end = text.lastIndexOf("}");
-        
+
         if (start != -1 && end != -1 && end > start) {
             return text.substring(start, end + 1);
         }
-        
+
         return text;
     }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
 }
@@ -6,11 +6,22 @@ import com.example.aem.translation.model.ComplianceResult;
 import com.example.aem.translation.model.AssetAnalysisResult;
 import com.example.aem.translation.terminology.TerminologyService;
 import com.example.aem.translation.terminology.TerminologyMatch;
+import com.example.aem.translation.terminology.TerminologyException;
 import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.example.aem.translation.util.TranslationMetrics;
 import com.example.aem.translation.util.TranslationCache;
+import com.example.aem.translation.util.TranslationCacheKey;
+import com.example.aem.translation.util.PersistentTranslationStore;
+import com.example.aem.translation.util.SingleFlight;
 import com.example.aem.translation.util.ResilienceHelper;
 import com.example.aem.translation.util.InputSanitizer;
+import com.example.aem.translation.util.PromptBatcher;
+import com.example.aem.translation.util.TokenEstimator;
+import com.example.aem.translation.util.AsyncTranslationExecutor;
+import com.example.aem.translation.util.TransparencyAnalysisQueue;
+import com.example.aem.translation.util.TranslationMemoryWriteBuffer;
+import com.example.aem.translation.util.TerminologyConstraints;
+import com.example.aem.translation.tm.TranslationMemoryService;
 import com.example.aem.translation.exception.TranslateGemmaException;
 import com.adobe.granite.translation.api.*;
 import com.adobe.granite.translation.api.TranslationConstants.ContentType;
@@ -39,6 +50,9 @@ import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,9 +60,21 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @Component(
     service = TranslateGemmaTranslationService.class,
@@ -65,18 +91,30 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
     private static final String SERVICE_NAME = "TranslateGemma Translation Service";
     private static final String SERVICE_LABEL = "Google TranslateGemma (v4)";
     private static final String ATTRIBUTION = "Powered by Google Gemma 4";
+    // Part of every cache key; bump when createTranslationPrompt or the PromptBatcher prompt changes
+    private static final String PROMPT_TEMPLATE_VERSION = "5";
+    // Fuzzy TM matches offered to the model as references
+    private static final int TM_MAX_REFERENCES = 3;
+    // Glossary matches considered per segment before ranking against the prompt token budget
+    private static final int TERMINOLOGY_MAX_MATCHES = 50;
 
     private volatile VertexAI vertexAI;
     private volatile GenerativeModel model;
+    private volatile String modelName = DEFAULT_MODEL;
     private TranslateGemmaConfig config;
     private final Map<String, String> supportedLanguages = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Map<String, TranslationJob> translationJobs = new ConcurrentHashMap<>();
     private final Map<String, TranslationObject> translationObjects = new ConcurrentHashMap<>();
+    // Concurrent misses for the same key (e.g. MSM rollouts of shared footers) share one model call
+    private final SingleFlight<TranslationCacheKey, String> inFlightTranslations = new SingleFlight<>();
 
     private TranslationMetrics metrics;
     private TranslationCache cache;
     private ResilienceHelper resilienceHelper;
+    private volatile AsyncTranslationExecutor asyncExecutor;
+    private volatile TransparencyAnalysisQueue transparencyQueue;
+    private volatile TranslationMemoryWriteBuffer tmWriteBuffer;
     private boolean metricsEnabled;
     private boolean cachingEnabled;
 
@@ -92,6 +130,10 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
     @Reference
     private JobManager jobManager;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC,
+            policyOption = ReferencePolicyOption.GREEDY)
+    private volatile TranslationMemoryService translationMemoryService;
+
 
     private static class TranslationJob {
         private final String jobId;
@@ -156,12 +198,23 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
             LOG.info("Metrics enabled for TranslateGemma service");
         }
         
+        if (this.cache != null) {
+            // Release the persistent tier's files before a re-activation reopens them
+            this.cache.close();
+            this.cache = null;
+        }
+
         if (cachingEnabled) {
-            this.cache = new TranslationCache(config.cacheMaxSize(), config.cacheExpireAfterMinutes());
-            LOG.info("Caching enabled with maxSize={}, expireAfterMinutes={}", 
-                    config.cacheMaxSize(), config.cacheExpireAfterMinutes());
+            this.cache = new TranslationCache(config.cacheMaxSize(), config.cacheMaxHeapMb() * 1024L * 1024L, 
+                    config.cacheExpireAfterMinutes(), config.cacheCompressionThresholdChars(), 
+                    openPersistentStore(config));
+            LOG.info("Caching enabled with maxHeapMb={}, expireAfterMinutes={}", 
+                    config.cacheMaxHeapMb(), config.cacheExpireAfterMinutes());
         }
         
+        if (this.resilienceHelper != null) {
+            this.resilienceHelper.shutdown();
+        }
         this.resilienceHelper = new ResilienceHelper.Builder()
                 .maxRetries(config.retryMaxAttempts())
                 .waitDurationMillis(config.retryWaitDurationMs())
@@ -170,6 +223,29 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
                 .slowCallDurationMillis(config.circuitBreakerSlowCallDurationMs())
                 .circuitBreakerWaitDurationSeconds(config.circuitBreakerWaitDurationS())
                 .build();
+
+        // @Modified re-runs activate(); replace the executor so new limits apply
+        AsyncTranslationExecutor previousExecutor = this.asyncExecutor;
+        this.asyncExecutor = new AsyncTranslationExecutor(config.asyncMaxConcurrency(), 
+                config.asyncQueueCapacity(), config.asyncUseVirtualThreads());
+        if (previousExecutor != null) {
+            previousExecutor.shutdown();
+        }
+
+        TransparencyAnalysisQueue previousQueue = this.transparencyQueue;
+        this.transparencyQueue = new TransparencyAnalysisQueue(config.transparencyQueueCapacity());
+        if (previousQueue != null) {
+            previousQueue.shutdown();
+        }
+
+        TranslationMemoryWriteBuffer previousBuffer = this.tmWriteBuffer;
+        this.tmWriteBuffer = config.storeToTranslationMemory()
+                ? new TranslationMemoryWriteBuffer(() -> translationMemoryService, config.tmWriteBatchSize(),
+                        config.tmWriteFlushIntervalMs(), config.tmWriteQueueCapacity())
+                : null;
+        if (previousBuffer != null) {
+            previousBuffer.shutdown();
+        }
         
         initializeVertexAI();
         initializeSupportedLanguages();
@@ -180,7 +256,27 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
     @Deactivate
     protected void deactivate() {
         if (cache != null) {
-            cache.invalidateAll();
+            // Heap entries are dropped; the persistent tier keeps its contents for the next start
+            cache.close();
+        }
+
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+
+        if (transparencyQueue != null) {
+            transparencyQueue.shutdown();
+            transparencyQueue = null;
+        }
+
+        if (tmWriteBuffer != null) {
+            tmWriteBuffer.shutdown();
+            tmWriteBuffer = null;
+        }
+
+        if (resilienceHelper != null) {
+            resilienceHelper.shutdown();
         }
         
         this.vertexAI = null;
@@ -188,11 +284,33 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
         LOG.info("TranslateGemma Translation Service deactivated");
     }
 
+    private PersistentTranslationStore openPersistentStore(TranslateGemmaConfig config) {
+        if (!config.cachePersistentEnabled()) {
+            return null;
+        }
+        String configured = config.cachePersistentDirectory();
+        Path directory;
+        if (configured != null && !configured.trim().isEmpty()) {
+            directory = Paths.get(configured.trim());
+        } else {
+            String base = System.getProperty("sling.home", System.getProperty("java.io.tmpdir"));
+            directory = Paths.get(base, "translategemma", "cache");
+        }
+        try {
+            return new PersistentTranslationStore(directory, config.cachePersistentMaxSizeMb() * 1024L * 1024L,
+                    config.cacheExpireAfterMinutes() * 60_000L);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Persistent translation cache unavailable at {}, continuing with heap cache only", directory, e);
+            return null;
+        }
+    }
+
     private void initializeVertexAI() {
         try {
             this.vertexAI = new VertexAI(config.projectId(), config.location());
             String modelName = config.modelName() != null ? config.modelName() : DEFAULT_MODEL;
             this.model = new GenerativeModel(modelName, vertexAI);
+            this.modelName = modelName;
             LOG.info("Vertex AI client initialized successfully with model: {}", modelName);
         } catch (Exception e) {
             LOG.error("Failed to initialize Vertex AI client", e);
@@ -210,6 +328,16 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
         this.terminologyService = terminologyService;
     }
 
+    // Protected method for testing to inject a TranslationMemoryService
+    public void setTranslationMemoryService(TranslationMemoryService translationMemoryService) {
+        this.translationMemoryService = translationMemoryService;
+    }
+
+    // Protected method for testing to inject a mock TranslationFeedbackService
+    public void setFeedbackService(com.example.aem.translation.service.TranslationFeedbackService feedbackService) {
+        this.feedbackService = feedbackService;
+    }
+
     private void initializeSupportedLanguages() {
         // Common supported languages for TranslateGemma
         supportedLanguages.put("en", "English");
@@ -428,6 +556,15 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
         if (cache != null) {
             TranslationCache.CacheStats stats = cache.getStats();
             status.append("- Cache Hit Rate: ").append(String.format("%.2f%%", stats.getTranslationHitRate() * 100)).append("\n");
+            status.append("- Persistent Cache Entries: ").append(stats.getPersistentEntryCount())
+                  .append(" (").append(stats.getWarmStartEntryCount()).append(" at startup)\n");
+            status.append("- Persistent Cache Hit Rate: ").append(String.format("%.2f%%", stats.getPersistentHitRate() * 100)).append("\n");
+        }
+
+        TransparencyAnalysisQueue queue = transparencyQueue;
+        if (queue != null) {
+            status.append("- Transparency Queue Pending: ").append(queue.getPendingCount()).append("\n");
+            status.append("- Transparency Queue Dropped: ").append(queue.getDroppedCount()).append("\n");
         }
         
         return status.toString();
@@ -512,6 +649,233 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
     public TranslationResult translateString(String sourceString, String sourceLanguage,
                                            String targetLanguage, ContentType contentType,
                                            String contentCategory) throws TranslationException {
+        PreparedTranslation request = prepareTranslation(sourceString, sourceLanguage, targetLanguage, 
+                contentType, contentCategory);
+        if (request.cachedResult != null) {
+            return request.cachedResult;
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean leader = new AtomicBoolean();
+
+        try {
+            String translatedText = inFlightTranslations.execute(request.cacheKey, () -> {
+                leader.set(true);
+                String text = resilienceHelper.executeWithRetryAndCircuitBreaker(
+                    () -> generateTranslation(request),
+                    "translateString",
+                    "translationCircuitBreaker"
+                );
+                // Cached before the in-flight entry is released so late arrivals hit the cache
+                cacheTranslation(request, text);
+                return text;
+            });
+
+            return leader.get() ? completeTranslation(request, translatedText, startTime)
+                    : completeCoalescedTranslation(request, translatedText);
+
+        } catch (Exception e) {
+            throw translationFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TranslationResult> translateStringAsync(String sourceString, String sourceLanguage,
+                                                                    String targetLanguage, ContentType contentType,
+                                                                    String contentCategory) {
+        PreparedTranslation request;
+        try {
+            request = prepareTranslation(sourceString, sourceLanguage, targetLanguage, contentType, contentCategory);
+        } catch (TranslationException e) {
+            return failedFuture(e);
+        }
+        if (request.cachedResult != null) {
+            return CompletableFuture.completedFuture(request.cachedResult);
+        }
+
+        AsyncTranslationExecutor executor = asyncExecutor;
+        if (executor == null) {
+            return failedFuture(new TranslationException("TranslateGemma service is not available", 
+                    TranslationException.ErrorCode.SERVICE_NOT_IMPLEMENTED));
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<TranslationResult> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<String>> currentAttempt = new AtomicReference<>();
+        AtomicBoolean leader = new AtomicBoolean();
+
+        inFlightTranslations.executeAsync(request.cacheKey, () -> {
+            leader.set(true);
+            return resilienceHelper.<String>executeAsyncWithRetryAndCircuitBreaker(
+                () -> {
+                    if (result.isDone()) {
+                        CompletableFuture<String> cancelled = new CompletableFuture<>();
+                        cancelled.cancel(false);
+                        return cancelled;
+                    }
+                    CompletableFuture<String> attempt = executor.submit(() -> generateTranslation(request));
+                    currentAttempt.set(attempt);
+                    return attempt;
+                },
+                "translateString",
+                "translationCircuitBreaker"
+            ).thenApply(text -> {
+                cacheTranslation(request, text);
+                return text;
+            });
+        }).whenComplete((translatedText, error) -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (error != null) {
+                result.completeExceptionally(translationFailure(unwrap(error)));
+                return;
+            }
+            try {
+                result.complete(leader.get() ? completeTranslation(request, translatedText, startTime)
+                        : completeCoalescedTranslation(request, translatedText));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(translationFailure(e));
+            }
+        });
+
+        // Propagate caller cancellation to the in-flight model call
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                CompletableFuture<String> attempt = currentAttempt.get();
+                if (attempt != null) {
+                    attempt.cancel(true);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<TranslationResult[]> translateArrayAsync(String[] sourceStringArr, String sourceLanguage,
+                                                                     String targetLanguage, ContentType contentType,
+                                                                     String contentCategory) {
+        if (sourceStringArr == null || sourceStringArr.length == 0) {
+            return CompletableFuture.completedFuture(new TranslationResult[0]);
+        }
+        if (sourceStringArr.length == 1) {
+            return translateStringAsync(sourceStringArr[0], sourceLanguage, targetLanguage, contentType, 
+                    contentCategory).thenApply(translation -> new TranslationResult[] {translation});
+        }
+
+        AsyncTranslationExecutor executor = asyncExecutor;
+        if (executor == null) {
+            return failedFuture(new TranslationException("TranslateGemma service is not available", 
+                    TranslationException.ErrorCode.SERVICE_NOT_IMPLEMENTED));
+        }
+
+        CompletableFuture<TranslationResult[]> result = new CompletableFuture<>();
+        List<CompletableFuture<Void>> running = new CopyOnWriteArrayList<>();
+
+        // Cache and TM lookups run off the caller's thread too, then every batch is sent at once
+        CompletableFuture<ArrayTranslation> prepared = executor.submit(() -> prepareArray(sourceStringArr, 
+                sourceLanguage, targetLanguage, contentType, contentCategory));
+        prepared.thenCompose(translation -> {
+            for (PromptBatcher.BatchRequest batch : translation.getBatches()) {
+                if (result.isDone()) {
+                    break;
+                }
+                CompletableFuture<Void> sent = submitBatch(executor, translation, batch);
+                running.add(sent);
+                // The first failed batch fails the array; the others are no longer needed
+                sent.whenComplete((value, error) -> {
+                    if (error != null && result.completeExceptionally(unwrap(error))) {
+                        running.forEach(future -> future.cancel(true));
+                    }
+                });
+            }
+            return CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(done -> translation.finish());
+        }).whenComplete((results, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+            } else {
+                result.complete(results);
+            }
+        });
+
+        // Propagate caller cancellation to the planning task and the batches in flight
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                prepared.cancel(true);
+                running.forEach(future -> future.cancel(true));
+            }
+        });
+
+        return result;
+    }
+
+    private CompletableFuture<Void> submitBatch(AsyncTranslationExecutor executor, ArrayTranslation translation,
+                                                PromptBatcher.BatchRequest batch) {
+        return executor.<Void>submit(() -> {
+            translation.translate(batch);
+            return null;
+        }).exceptionally(error -> {
+            if (!(unwrap(error) instanceof RejectedExecutionException)) {
+                throw new CompletionException(unwrap(error));
+            }
+            // Saturated executor: send this batch from the current thread
+            LOG.debug("Batch could not be scheduled, running inline");
+            try {
+                translation.translate(batch);
+                return null;
+            } catch (TranslationException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Validated, sanitized translation request. {@code cachedResult} is set when the
+     * cache already holds the translation and no model call is needed. {@code termMatches}
+     * are the glossary terms found in the text; {@code terminology} the budgeted subset the
+     * prompt requires.
+     */
+    private static final class PreparedTranslation {
+        private final String sanitizedText;
+        private final String sourceLang;
+        private final String targetLang;
+        private final ContentType contentType;
+        private final String category;
+        private final TranslationCacheKey cacheKey;
+        private final TranslationResult cachedResult;
+        private final List<TranslationMemoryService.TMEntry> tmReferences;
+        private final List<TerminologyMatch> termMatches;
+        private final TerminologyConstraints terminology;
+
+        PreparedTranslation(String sanitizedText, String sourceLang, String targetLang,
+                            ContentType contentType, String category, TranslationCacheKey cacheKey,
+                            TranslationResult cachedResult) {
+            this(sanitizedText, sourceLang, targetLang, contentType, category, cacheKey, cachedResult,
+                    Collections.emptyList(), Collections.emptyList(), TerminologyConstraints.NONE);
+        }
+
+        PreparedTranslation(String sanitizedText, String sourceLang, String targetLang,
+                            ContentType contentType, String category, TranslationCacheKey cacheKey,
+                            TranslationResult cachedResult, List<TranslationMemoryService.TMEntry> tmReferences,
+                            List<TerminologyMatch> termMatches, TerminologyConstraints terminology) {
+            this.sanitizedText = sanitizedText;
+            this.sourceLang = sourceLang;
+            this.targetLang = targetLang;
+            this.contentType = contentType;
+            this.category = category;
+            this.cacheKey = cacheKey;
+            this.cachedResult = cachedResult;
+            this.tmReferences = tmReferences;
+            this.termMatches = termMatches;
+            this.terminology = terminology;
+        }
+    }
+
+    private PreparedTranslation prepareTranslation(String sourceString, String sourceLanguage,
+                                                   String targetLanguage, ContentType contentType,
+                                                   String contentCategory) throws TranslationException {
         if (!isServiceAvailable()) {
             throw new TranslationException("TranslateGemma service is not available", TranslationException.ErrorCode.SERVICE_NOT_IMPLEMENTED);
         }
@@ -538,17 +902,21 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
             metrics.recordTranslationRequest();
         }
 
+        TranslationCacheKey cacheKey = translationKey(sanitizedText, sanitizedSourceLang, sanitizedTargetLang, 
+                contentType, sanitizedCategory);
+
         if (cachingEnabled && cache != null) {
-            String cachedTranslation = cache.getTranslation(sanitizedText, sanitizedSourceLang, 
-                    sanitizedTargetLang, key -> null);
+            String cachedTranslation = cache.getTranslation(cacheKey, key -> null);
             if (cachedTranslation != null) {
                 LOG.debug("Returning cached translation");
                 if (metrics != null) {
                     metrics.recordCacheHit();
                     metrics.recordTranslationSuccess();
                 }
-                return createTranslationResult(cachedTranslation, sanitizedSourceLang, sanitizedTargetLang, 
-                        sanitizedText, contentType, sanitizedCategory);
+                return new PreparedTranslation(sanitizedText, sanitizedSourceLang, sanitizedTargetLang, 
+                        contentType, sanitizedCategory, cacheKey, 
+                        createTranslationResult(cachedTranslation, sanitizedSourceLang, sanitizedTargetLang, 
+                                sanitizedText, contentType, sanitizedCategory));
             }
         }
 
@@ -564,60 +932,297 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
                 finalSourceLang + " -> " + sanitizedTargetLang, TranslationException.ErrorCode.NOT_SUPPORTED_LANG_DIRECTION);
         }
 
-        long startTime = System.currentTimeMillis();
+        List<TranslationMemoryService.TMEntry> tmMatches = lookupTranslationMemory(sanitizedText, finalSourceLang,
+                sanitizedTargetLang, contentType, sanitizedCategory);
+        TranslationMemoryService.TMEntry exactMatch = exactMatch(tmMatches, sanitizedText, contentType, 
+                sanitizedCategory);
+        if (exactMatch != null) {
+            LOG.debug("Returning exact translation memory match");
+            if (metrics != null) {
+                metrics.recordTranslationMemoryHit();
+                metrics.recordTranslationSuccess();
+            }
+            PreparedTranslation tmHit = new PreparedTranslation(sanitizedText, finalSourceLang, sanitizedTargetLang, 
+                    contentType, sanitizedCategory, cacheKey, 
+                    createTranslationResult(exactMatch.getTargetText(), finalSourceLang, sanitizedTargetLang, 
+                            sanitizedText, contentType, sanitizedCategory));
+            cacheTranslation(tmHit, exactMatch.getTargetText());
+            return tmHit;
+        }
+
+        if (metrics != null && !tmMatches.isEmpty()) {
+            metrics.recordTranslationMemoryReferences();
+        }
+        List<TerminologyMatch> termMatches = lookupTerminology(sanitizedText, finalSourceLang, sanitizedTargetLang);
+        return new PreparedTranslation(sanitizedText, finalSourceLang, sanitizedTargetLang, 
+                contentType, sanitizedCategory, cacheKey, null, tmMatches, termMatches, 
+                selectTerminology(Collections.singletonList(termMatches), sanitizedCategory));
+    }
 
+    /**
+     * Glossary terms occurring in the text. Like the translation memory, an unavailable or
+     * failing glossary only costs the lookup.
+     */
+    private List<TerminologyMatch> lookupTerminology(String sanitizedText, String sourceLang, String targetLang) {
+        TerminologyService glossary = terminologyService;
+        if (glossary == null || !config.enableTerminology()) {
+            return Collections.emptyList();
+        }
         try {
-            String translatedText = resilienceHelper.executeWithRetryAndCircuitBreaker(
-                () -> {
-                    try {
-                        String prompt = createTranslationPrompt(sanitizedText, finalSourceLang, sanitizedTargetLang, contentType);
-                        GenerateContentResponse response = model.generateContent(prompt);
-                        return ResponseHandler.getText(response).trim();
-                    } catch (java.io.IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                "translateString",
-                "translationCircuitBreaker"
-            );
+            return glossary.findAllTerms(sanitizedText, sourceLang, targetLang, null, TERMINOLOGY_MAX_MATCHES);
+        } catch (TerminologyException | RuntimeException e) {
+            LOG.warn("Terminology lookup failed, continuing without it", e);
+            return Collections.emptyList();
+        }
+    }
 
-            if (cachingEnabled && cache != null && translatedText != null) {
-                cache.getTranslation(sanitizedText, finalSourceLang, sanitizedTargetLang, key -> translatedText);
-            }
+    private TerminologyConstraints selectTerminology(List<List<TerminologyMatch>> segmentMatches, String category) {
+        TerminologyConstraints terminology = TerminologyConstraints.select(segmentMatches, category,
+                config.terminologyMaxPromptTokens(), TokenEstimator.HEURISTIC);
+        if (terminology.getDroppedCount() > 0) {
+            LOG.debug("Left {} matched glossary term(s) out of the prompt to stay within {} tokens",
+                    terminology.getDroppedCount(), config.terminologyMaxPromptTokens());
+        }
+        return terminology;
+    }
 
-            if (metrics != null) {
-                metrics.recordTranslationSuccess();
-                metrics.recordLatency(System.currentTimeMillis() - startTime);
-            }
+    /**
+     * Counts a translation that misses required target terms. Returns true when the caller
+     * should translate again with a stricter instruction.
+     */
+    private boolean reportMissingTerms(List<TerminologyMatch> missing, String sourceLang, String targetLang) {
+        if (missing.isEmpty()) {
+            return false;
+        }
+        if (metrics != null) {
+            metrics.recordTerminologyViolation();
+        }
+        LOG.debug("Translation {} -> {} is missing required term(s) {}", sourceLang, targetLang,
+                missing.stream().map(TerminologyMatch::getTargetTerm).collect(Collectors.toList()));
+        return config.terminologyRetryOnMissingTerms();
+    }
 
-            // Trust & Transparency: Analyze the result
-            SentimentResult sentiment = null;
-            ComplianceResult compliance = null;
-            try {
-                sentiment = analyzeSentiment(translatedText);
-                compliance = analyzeCompliance(translatedText);
-                auditService.logEvent("N/A", finalSourceLang, sanitizedTargetLang, sentiment, compliance, "system");
-            } catch (Exception ex) {
-                LOG.warn("Failed to perform transparency analysis for translation", ex);
+    /**
+     * Translation memory matches at or above {@code tmMinScore}, exact matches first.
+     * An unavailable or failing memory only costs the lookup, never the translation.
+     */
+    private List<TranslationMemoryService.TMEntry> lookupTranslationMemory(String sanitizedText, String sourceLang,
+                                                                         String targetLang, ContentType contentType,
+                                                                         String category) {
+        TranslationMemoryService memory = translationMemoryService;
+        if (memory == null || !config.enableTranslationMemory()) {
+            return Collections.emptyList();
+        }
+        try {
+            return memory.findMatches(sanitizedText, sourceLang, targetLang, contentType, category,
+                    config.tmMinScore(), TM_MAX_REFERENCES);
+        } catch (RuntimeException e) {
+            LOG.warn("Translation memory lookup failed, continuing without it", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Batched form of {@link #lookupTranslationMemory(String, String, String, ContentType, String)};
+     * returns an empty list when nothing can be looked up.
+     */
+    private List<List<TranslationMemoryService.TMEntry>> lookupTranslationMemory(List<String> sanitizedTexts,
+                                                                               String sourceLang, String targetLang,
+                                                                               ContentType contentType, 
+                                                                               String category) {
+        TranslationMemoryService memory = translationMemoryService;
+        if (memory == null || !config.enableTranslationMemory()) {
+            return Collections.emptyList();
+        }
+        try {
+            return memory.findMatches(sanitizedTexts, sourceLang, targetLang, contentType, category,
+                    config.tmMinScore(), TM_MAX_REFERENCES);
+        } catch (RuntimeException e) {
+            LOG.warn("Translation memory lookup failed, continuing without it", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * A match whose source is identical to the text, preferring one stored under the same
+     * category (a context match) over one from another category.
+     */
+    private static TranslationMemoryService.TMEntry exactMatch(List<TranslationMemoryService.TMEntry> matches,
+                                                               String sanitizedText, ContentType contentType,
+                                                               String category) {
+        TranslationMemoryService.TMEntry exact = null;
+        for (TranslationMemoryService.TMEntry match : matches) {
+            if (!sanitizedText.equals(match.getSourceText())
+                    || (match.getContentType() != null && match.getContentType() != contentType)) {
+                continue;
+            }
+            if (Objects.equals(category, match.getCategory())) {
+                return match;
             }
+            if (exact == null) {
+                exact = match;
+            }
+        }
+        return exact;
+    }
+
+    /**
+     * Queues a model translation for the batched translation memory write-back.
+     */
+    private void storeToTranslationMemory(String sanitizedText, String translatedText, String sourceLang,
+                                          String targetLang, ContentType contentType, String category) {
+        TranslationMemoryWriteBuffer buffer = tmWriteBuffer;
+        if (buffer == null || translatedText == null || translatedText.isEmpty()) {
+            return;
+        }
+        buffer.offer(new TranslationMemoryService.TMEntry(sanitizedText, translatedText, sourceLang, targetLang,
+                contentType, category, null, 0));
+    }
 
-            // Principal-Level Governance: Human-In-The-Loop Routing
-            double overallConfidence = sentiment != null ? sentiment.getConfidence() : 1.0;
-            if (overallConfidence < 0.8) {
-                LOG.warn("Low confidence translation detected ({}). Flagging for AEM Inbox review.", overallConfidence);
-                // In a production environment, this would set a JCR flag or trigger an AEM Workflow
-                // for the user to verify the translation.
+    /**
+     * Builds the prompt and performs the blocking model call for one attempt.
+     */
+    private String generateTranslation(PreparedTranslation request) {
+        try {
+            String prompt = createTranslationPrompt(request.sanitizedText, request.sourceLang, 
+                    request.targetLang, request.contentType, request.tmReferences, request.terminology, false);
+            if (metrics != null && !request.terminology.isEmpty()) {
+                metrics.recordTerminologyInjected(request.terminology.getTerms().size());
             }
+            String translation = ResponseHandler.getText(model.generateContent(prompt)).trim();
+
+            List<TerminologyMatch> missing = request.terminology.findMissing(request.termMatches, translation);
+            if (reportMissingTerms(missing, request.sourceLang, request.targetLang)) {
+                String strictPrompt = createTranslationPrompt(request.sanitizedText, request.sourceLang, 
+                        request.targetLang, request.contentType, request.tmReferences, request.terminology, true);
+                String retried = ResponseHandler.getText(model.generateContent(strictPrompt)).trim();
+                // Keep the first attempt unless the retry actually uses more of the required terms
+                if (request.terminology.findMissing(request.termMatches, retried).size() < missing.size()) {
+                    translation = retried;
+                }
+            }
+            return translation;
+        } catch (java.io.IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            return createTranslationResult(translatedText, finalSourceLang, sanitizedTargetLang, 
-                    sanitizedText, contentType, sanitizedCategory);
+    private void cacheTranslation(PreparedTranslation request, String translatedText) {
+        if (cachingEnabled && cache != null && translatedText != null) {
+            cache.getTranslation(request.cacheKey, key -> translatedText);
+        }
+    }
 
-        } catch (Exception e) {
-            LOG.error("Error translating string", e);
-            if (metrics != null) {
-                metrics.recordTranslationFailure();
+    /**
+     * Result for a caller that waited on another caller's identical in-flight translation.
+     * The leader already cached, measured and analyzed it.
+     */
+    private TranslationResult completeCoalescedTranslation(PreparedTranslation request, String translatedText) {
+        if (metrics != null) {
+            metrics.recordCoalescedRequest();
+            metrics.recordTranslationSuccess();
+        }
+        return createTranslationResult(translatedText, request.sourceLang, request.targetLang, 
+                request.sanitizedText, request.contentType, request.category);
+    }
+
+    private TranslationResult completeTranslation(PreparedTranslation request, String translatedText, long startTime) {
+        if (metrics != null) {
+            metrics.recordTranslationSuccess();
+            metrics.recordLatency(System.currentTimeMillis() - startTime);
+        }
+
+        scheduleTransparencyAnalysis(translatedText, request.sourceLang, request.targetLang, request.category);
+        storeToTranslationMemory(request.sanitizedText, translatedText, request.sourceLang, request.targetLang, 
+                request.contentType, request.category);
+
+        return createTranslationResult(translatedText, request.sourceLang, request.targetLang, 
+                request.sanitizedText, request.contentType, request.category);
+    }
+
+    private TranslationCacheKey translationKey(String sanitizedText, String sourceLang, String targetLang,
+                                               ContentType contentType, String category) {
+        return TranslationCacheKey.of(sanitizedText, sourceLang, targetLang, contentType, category, 
+                modelName, PROMPT_TEMPLATE_VERSION);
+    }
+
+    private TranslationException translationFailure(Throwable e) {
+        LOG.error("Error translating string", e);
+        if (metrics != null) {
+            metrics.recordTranslationFailure();
+        }
+        if (e instanceof CancellationException) {
+            return new TranslationException("Translation cancelled", e, TranslationException.ErrorCode.TRANSLATION_FAILED);
+        }
+        return new TranslationException("Translation failed: " + e.getMessage(), TranslationException.ErrorCode.TRANSLATION_FAILED);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    /**
+     * Trust & Transparency: queues the analysis of a translation so the caller never waits for it.
+     * Short strings, disabled categories and unsampled translations are skipped entirely.
+     */
+    private void scheduleTransparencyAnalysis(String translatedText, String sourceLang, String targetLang,
+                                              String category) {
+        TransparencyAnalysisQueue queue = transparencyQueue;
+        if (queue == null || !shouldAnalyze(translatedText, category)) {
+            return;
+        }
+        queue.submit(() -> runTransparencyAnalysis(translatedText, sourceLang, targetLang));
+    }
+
+    private boolean shouldAnalyze(String translatedText, String category) {
+        if (!config.transparencySentimentEnabled() && !config.transparencyComplianceEnabled()) {
+            return false;
+        }
+        if (translatedText == null || translatedText.length() < config.transparencyMinLength()) {
+            return false;
+        }
+        String[] categories = config.transparencyCategories();
+        if (categories != null && categories.length > 0 && !Arrays.asList(categories).contains(category)) {
+            return false;
+        }
+        double sampleRate = config.transparencySampleRate();
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Trust & Transparency: analyzes a translation and writes the audit row.
+     * Runs on the transparency queue; failures are logged and swallowed.
+     */
+    private void runTransparencyAnalysis(String translatedText, String sourceLang, String targetLang) {
+        SentimentResult sentiment = null;
+        ComplianceResult compliance = null;
+        try {
+            if (config.transparencySentimentEnabled()) {
+                sentiment = analyzeSentiment(translatedText);
             }
-            throw new TranslationException("Translation failed: " + e.getMessage(), TranslationException.ErrorCode.TRANSLATION_FAILED);
+            if (config.transparencyComplianceEnabled()) {
+                compliance = analyzeCompliance(translatedText);
+            }
+            auditService.logEvent("N/A", sourceLang, targetLang, sentiment, compliance, "system");
+        } catch (Exception ex) {
+            LOG.warn("Failed to perform transparency analysis for translation", ex);
+        }
+
+        // Principal-Level Governance: Human-In-The-Loop Routing
+        double overallConfidence = sentiment != null ? sentiment.getConfidence() : 1.0;
+        if (overallConfidence < 0.8) {
+            LOG.warn("Low confidence translation detected ({}). Flagging for AEM Inbox review.", overallConfidence);
+            // In a production environment, this would set a JCR flag or trigger an AEM Workflow
+            // for the user to verify the translation.
         }
     }
 
@@ -674,16 +1279,474 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
             return new TranslationResult[0];
         }
 
-        TranslationResult[] results = new TranslationResult[sourceStringArr.length];
-        
-        for (int i = 0; i < sourceStringArr.length; i++) {
-            results[i] = translateString(sourceStringArr[i], sourceLanguage, targetLanguage, contentType, contentCategory);
+        if (sourceStringArr.length == 1) {
+            return new TranslationResult[] {
+                translateString(sourceStringArr[0], sourceLanguage, targetLanguage, contentType, contentCategory)
+            };
+        }
+
+        return translateBatches(prepareArray(sourceStringArr, sourceLanguage, targetLanguage, contentType, 
+                contentCategory));
+    }
+
+    /**
+     * Validates an array request and serves what the cache and translation memory already hold.
+     */
+    private ArrayTranslation prepareArray(String[] sourceStringArr, String sourceLanguage, String targetLanguage,
+                                          ContentType contentType, String contentCategory) 
+            throws TranslationException {
+        if (!isServiceAvailable()) {
+            throw new TranslationException("TranslateGemma service is not available", TranslationException.ErrorCode.SERVICE_NOT_IMPLEMENTED);
+        }
+
+        String sanitizedSourceLang = InputSanitizer.sanitizeLanguageCode(sourceLanguage);
+        String sanitizedTargetLang = InputSanitizer.sanitizeLanguageCode(targetLanguage);
+        String sanitizedCategory = InputSanitizer.sanitizeContentCategory(contentCategory);
+
+        if (sanitizedSourceLang == null || sanitizedTargetLang == null) {
+            throw new TranslationException("Invalid language codes provided", TranslationException.ErrorCode.UNKNOWN);
         }
 
+        validateDirection(sanitizedSourceLang, sanitizedTargetLang);
+
+        return new ArrayTranslation(sanitizeSegments(sourceStringArr), sanitizedSourceLang, sanitizedTargetLang,
+                contentType, sanitizedCategory);
+    }
+
+    @Override
+    public Map<String, TranslationResult[]> translateToLanguages(String[] sourceStringArr, String sourceLanguage,
+                                                                 Set<String> targetLanguages, ContentType contentType,
+                                                                 String contentCategory) throws TranslationException {
+        Map<String, TranslationException> failures = new LinkedHashMap<>();
+        Map<String, TranslationResult[]> results = translateToLanguages(sourceStringArr, sourceLanguage, 
+                targetLanguages, contentType, contentCategory, failures);
+        if (!failures.isEmpty()) {
+            throw new TranslationException("Translation failed for target languages " + failures.keySet(),
+                    TranslationException.ErrorCode.TRANSLATION_FAILED);
+        }
         return results;
     }
 
-    private String createTranslationPrompt(String text, String sourceLang, String targetLang, ContentType contentType) {
+    @Override
+    public Map<String, TranslationResult[]> translateToLanguages(String[] sourceStringArr, String sourceLanguage,
+                                                                 Set<String> targetLanguages, ContentType contentType,
+                                                                 String contentCategory,
+                                                                 Map<String, TranslationException> failures) 
+            throws TranslationException {
+        Map<String, TranslationResult[]> results = new LinkedHashMap<>();
+        if (targetLanguages == null || targetLanguages.isEmpty()) {
+            return results;
+        }
+
+        if (!isServiceAvailable()) {
+            throw new TranslationException("TranslateGemma service is not available", TranslationException.ErrorCode.SERVICE_NOT_IMPLEMENTED);
+        }
+
+        String sanitizedSourceLang = InputSanitizer.sanitizeLanguageCode(sourceLanguage);
+        String sanitizedCategory = InputSanitizer.sanitizeContentCategory(contentCategory);
+        if (sanitizedSourceLang == null) {
+            throw new TranslationException("Invalid language codes provided", TranslationException.ErrorCode.UNKNOWN);
+        }
+
+        // Every direction is checked before the first model call so one bad code cannot waste the others
+        Map<String, String> sanitizedTargets = new LinkedHashMap<>();
+        for (String targetLanguage : targetLanguages) {
+            String sanitizedTargetLang = InputSanitizer.sanitizeLanguageCode(targetLanguage);
+            if (sanitizedTargetLang == null) {
+                throw new TranslationException("Invalid language codes provided", TranslationException.ErrorCode.UNKNOWN);
+            }
+            validateDirection(sanitizedSourceLang, sanitizedTargetLang);
+            sanitizedTargets.put(targetLanguage, sanitizedTargetLang);
+        }
+
+        // Sanitized once, shared read-only by every language
+        String[] sanitizedTexts = sourceStringArr == null ? new String[0] : sanitizeSegments(sourceStringArr);
+
+        List<String> languages = new ArrayList<>(sanitizedTargets.keySet());
+        Map<String, TranslationResult[]> translated = new ConcurrentHashMap<>();
+        Map<String, Throwable> laneFailures = new ConcurrentHashMap<>();
+        int lanes = Math.min(languages.size(), Math.max(1, config.fanOutMaxParallelism()));
+        AsyncTranslationExecutor executor = asyncExecutor;
+
+        // Each lane works through its share of the languages sequentially, so at most
+        // fanOutMaxParallelism languages hold model calls at the same time
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int lane = 0; lane < lanes; lane++) {
+            List<String> laneLanguages = new ArrayList<>();
+            for (int i = lane; i < languages.size(); i += lanes) {
+                laneLanguages.add(languages.get(i));
+            }
+            Runnable laneTask = () -> {
+                for (String language : laneLanguages) {
+                    try {
+                        translated.put(language, translateBatches(new ArrayTranslation(sanitizedTexts, 
+                                sanitizedSourceLang, sanitizedTargets.get(language), contentType, sanitizedCategory)));
+                    } catch (Exception e) {
+                        laneFailures.put(language, e);
+                    }
+                }
+            };
+            if (executor == null || lanes == 1) {
+                laneTask.run();
+            } else {
+                running.add(executor.<Void>submit(() -> {
+                    laneTask.run();
+                    return null;
+                }).exceptionally(error -> {
+                    if (unwrap(error) instanceof RejectedExecutionException) {
+                        // Saturated executor: finish this lane on the caller's thread
+                        LOG.debug("Fan-out lane could not be scheduled, running inline");
+                        laneTask.run();
+                    } else {
+                        for (String language : laneLanguages) {
+                            if (!translated.containsKey(language)) {
+                                laneFailures.putIfAbsent(language, unwrap(error));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.forEach(future -> future.cancel(true));
+            throw new TranslationException("Translation interrupted", e, TranslationException.ErrorCode.TRANSLATION_FAILED);
+        } catch (ExecutionException e) {
+            throw translationFailure(e.getCause());
+        }
+
+        // Reported per language; the languages that succeeded are returned regardless
+        for (String language : languages) {
+            Throwable error = laneFailures.get(language);
+            if (error == null) {
+                results.put(language, translated.get(language));
+                continue;
+            }
+            LOG.warn("Translation to {} failed", language, error);
+            failures.put(language, error instanceof TranslationException ? (TranslationException) error
+                    : new TranslationException("Translation to " + language + " failed: " + error.getMessage(), 
+                            error, TranslationException.ErrorCode.TRANSLATION_FAILED));
+        }
+        return results;
+    }
+
+    private void validateDirection(String sanitizedSourceLang, String sanitizedTargetLang) throws TranslationException {
+        if (!InputSanitizer.isValidLanguagePair(sanitizedSourceLang, sanitizedTargetLang)) {
+            throw new TranslationException("Invalid language pair: source and target must be different", 
+                    TranslationException.ErrorCode.NOT_SUPPORTED_LANG_DIRECTION);
+        }
+
+        if (!isDirectionSupported(sanitizedSourceLang, sanitizedTargetLang)) {
+            throw new TranslationException("Translation direction not supported: " +
+                sanitizedSourceLang + " -> " + sanitizedTargetLang, TranslationException.ErrorCode.NOT_SUPPORTED_LANG_DIRECTION);
+        }
+    }
+
+    private String[] sanitizeSegments(String[] sourceStringArr) throws TranslationException {
+        String[] sanitizedTexts = new String[sourceStringArr.length];
+        for (int i = 0; i < sourceStringArr.length; i++) {
+            if (!InputSanitizer.isValidInput(sourceStringArr[i])) {
+                throw new TranslationException("Invalid input for translation", TranslationException.ErrorCode.UNKNOWN);
+            }
+            sanitizedTexts[i] = InputSanitizer.sanitizeForPrompt(sourceStringArr[i]);
+        }
+        return sanitizedTexts;
+    }
+
+    /**
+     * Sends the batches of a prepared array one after another on the calling thread.
+     */
+    private TranslationResult[] translateBatches(ArrayTranslation translation) throws TranslationException {
+        for (PromptBatcher.BatchRequest batch : translation.getBatches()) {
+            translation.translate(batch);
+        }
+        return translation.finish();
+    }
+
+    /**
+     * One array translation of already sanitized segments and a validated direction, split
+     * into phases: construction serves cache and translation memory hits and plans the rest,
+     * the batches are then sent one after another or all at once, and {@link #finish} joins
+     * them. Batches write to disjoint piece slots and may run concurrently.
+     */
+    private final class ArrayTranslation {
+        private final String[] sanitizedTexts;
+        private final String sourceLang;
+        private final String targetLang;
+        private final ContentType contentType;
+        private final String category;
+        private final String[] translations;
+        // Identical segments (repeated labels, footers) are sent to the model only once
+        private final Map<String, List<Integer>> pendingSlots = new LinkedHashMap<>();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private String[] segments = new String[0];
+        // Fuzzy TM matches per planned segment, sent with its batch as references
+        private List<List<TranslationMemoryService.TMEntry>> tmReferences = Collections.emptyList();
+        private PromptBatcher.BatchPlan plan;
+        private String[][] translatedPieces;
+
+        ArrayTranslation(String[] sanitizedTexts, String sourceLang, String targetLang, ContentType contentType,
+                         String category) {
+            this.sanitizedTexts = sanitizedTexts;
+            this.sourceLang = sourceLang;
+            this.targetLang = targetLang;
+            this.contentType = contentType;
+            this.category = category;
+            this.translations = new String[sanitizedTexts.length];
+            prepare();
+        }
+
+        /**
+         * Serves what the cache and translation memory already hold and plans batches for the rest.
+         */
+        private void prepare() {
+            for (int i = 0; i < sanitizedTexts.length; i++) {
+                if (metrics != null) {
+                    metrics.recordTranslationRequest();
+                }
+
+                if (cachingEnabled && cache != null) {
+                    String cachedTranslation = cache.getTranslation(translationKey(sanitizedTexts[i], sourceLang, 
+                            targetLang, contentType, category), key -> null);
+                    if (cachedTranslation != null) {
+                        translations[i] = cachedTranslation;
+                        if (metrics != null) {
+                            metrics.recordCacheHit();
+                            metrics.recordTranslationSuccess();
+                        }
+                        continue;
+                    }
+                }
+
+                pendingSlots.computeIfAbsent(sanitizedTexts[i], k -> new ArrayList<>()).add(i);
+            }
+
+            // One batched TM lookup for all cache misses; exact matches skip the model, fuzzy ones
+            // go into the prompt as references
+            Map<String, List<TranslationMemoryService.TMEntry>> fuzzyMatches = new HashMap<>();
+            if (!pendingSlots.isEmpty()) {
+                List<String> missed = new ArrayList<>(pendingSlots.keySet());
+                List<List<TranslationMemoryService.TMEntry>> tmMatches = lookupTranslationMemory(missed, 
+                        sourceLang, targetLang, contentType, category);
+                for (int m = 0; m < tmMatches.size(); m++) {
+                    TranslationMemoryService.TMEntry exactMatch = exactMatch(tmMatches.get(m), missed.get(m), 
+                            contentType, category);
+                    if (exactMatch == null) {
+                        if (!tmMatches.get(m).isEmpty()) {
+                            fuzzyMatches.put(missed.get(m), tmMatches.get(m));
+                        }
+                        continue;
+                    }
+                    if (cachingEnabled && cache != null) {
+                        cache.getTranslation(translationKey(missed.get(m), sourceLang, targetLang, contentType, 
+                                category), key -> exactMatch.getTargetText());
+                    }
+                    for (int slot : pendingSlots.remove(missed.get(m))) {
+                        translations[slot] = exactMatch.getTargetText();
+                        if (metrics != null) {
+                            metrics.recordTranslationMemoryHit();
+                            metrics.recordTranslationSuccess();
+                        }
+                    }
+                }
+            }
+
+            if (pendingSlots.isEmpty()) {
+                return;
+            }
+            String sourceLangName = supportedLanguages.getOrDefault(sourceLang, sourceLang);
+            String targetLangName = supportedLanguages.getOrDefault(targetLang, targetLang);
+            segments = pendingSlots.keySet().toArray(new String[0]);
+            tmReferences = new ArrayList<>(segments.length);
+            List<List<PromptBatcher.Reference>> references = new ArrayList<>(segments.length);
+            for (String segment : segments) {
+                List<TranslationMemoryService.TMEntry> matches = fuzzyMatches.getOrDefault(segment, 
+                        Collections.emptyList());
+                if (metrics != null && !matches.isEmpty()) {
+                    metrics.recordTranslationMemoryReferences();
+                }
+                tmReferences.add(matches);
+                references.add(matches.stream()
+                        .map(match -> new PromptBatcher.Reference(match.getSourceText(), match.getTargetText()))
+                        .collect(Collectors.toList()));
+            }
+            // Each batch prompt also carries a glossary section of up to terminologyMaxPromptTokens
+            int terminologyTokens = terminologyService != null && config.enableTerminology()
+                    ? Math.max(0, config.terminologyMaxPromptTokens()) : 0;
+            plan = PromptBatcher.plan(segments, references, sourceLangName, targetLangName, contentType,
+                    new PromptBatcher.BatchBudget(config.batchMaxInputTokens() - terminologyTokens, 
+                            config.batchMaxOutputTokens(), config.batchSize()),
+                    TokenEstimator.HEURISTIC);
+
+            LOG.debug("Translating {} of {} segments in {} batch(es), average fill ratio {}", 
+                    segments.length, sanitizedTexts.length, plan.getBatches().size(), 
+                    String.format("%.2f", plan.getAverageFillRatio()));
+
+            translatedPieces = new String[segments.length][];
+            for (int s = 0; s < segments.length; s++) {
+                translatedPieces[s] = new String[plan.getPieceCount(s)];
+            }
+        }
+
+        List<PromptBatcher.BatchRequest> getBatches() {
+            return plan == null ? Collections.emptyList() : plan.getBatches();
+        }
+
+        void translate(PromptBatcher.BatchRequest batch) throws TranslationException {
+            String[] batchTranslations = translateBatch(batch, sourceLang, targetLang, category);
+            StringBuilder analyzedText = new StringBuilder();
+
+            for (int j = 0; j < batch.size(); j++) {
+                String translatedText = batchTranslations[j];
+
+                if (translatedText == null) {
+                    // Only the segments the model dropped or garbled pay for a dedicated call
+                    LOG.debug("Falling back to single-string translation for batch slot {}", j);
+                    int segment = batch.getSegmentIndex(j);
+                    try {
+                        translatedText = translateFallback(batch.getTexts().get(j), sourceLang, targetLang, 
+                                contentType, category, 
+                                plan.getPieceCount(segment) == 1 ? tmReferences.get(segment) : Collections.emptyList());
+                    } catch (Exception e) {
+                        throw segmentFailures(e);
+                    }
+                } else {
+                    analyzedText.append(translatedText).append('\n');
+                }
+
+                translatedPieces[batch.getSegmentIndex(j)][batch.getPieceIndex(j)] = translatedText;
+            }
+
+            // One transparency pass per batch instead of two extra calls per segment
+            if (analyzedText.length() > 0) {
+                scheduleTransparencyAnalysis(analyzedText.toString().trim(), sourceLang, targetLang, category);
+            }
+        }
+
+        /**
+         * Joins, caches and stores the model translations once every batch has been translated.
+         */
+        TranslationResult[] finish() {
+            for (int s = 0; s < segments.length; s++) {
+                String translatedText = plan.joinPieces(s, translatedPieces[s], targetLang);
+                if (cachingEnabled && cache != null) {
+                    cache.getTranslation(translationKey(segments[s], sourceLang, targetLang, contentType, category), 
+                            key -> translatedText);
+                }
+                storeToTranslationMemory(segments[s], translatedText, sourceLang, targetLang, contentType, category);
+                for (int slot : pendingSlots.get(segments[s])) {
+                    translations[slot] = translatedText;
+                    if (metrics != null) {
+                        metrics.recordTranslationSuccess();
+                    }
+                }
+            }
+
+            TranslationResult[] results = new TranslationResult[sanitizedTexts.length];
+            for (int i = 0; i < sanitizedTexts.length; i++) {
+                results[i] = createTranslationResult(translations[i], sourceLang, targetLang, sanitizedTexts[i], 
+                        contentType, category);
+            }
+            return results;
+        }
+
+        /**
+         * Fails the array when a fallback call fails, counting one failure for every segment
+         * still waiting for its translation, once however many batches fail.
+         */
+        private TranslationException segmentFailures(Exception e) {
+            if (!failed.compareAndSet(false, true)) {
+                return new TranslationException("Translation failed: " + e.getMessage(), 
+                        TranslationException.ErrorCode.TRANSLATION_FAILED);
+            }
+            if (metrics != null) {
+                int unresolved = pendingSlots.values().stream().mapToInt(List::size).sum();
+                for (int i = 1; i < unresolved; i++) {
+                    metrics.recordTranslationFailure();
+                }
+            }
+            return translationFailure(e);
+        }
+    }
+
+    /**
+     * Dedicated model call for a batch slot the model dropped or garbled, with the same
+     * references its batch carried. Unlike {@link #translateString} it records no request or
+     * outcome, because the batch already counts every segment once.
+     */
+    private String translateFallback(String sanitizedText, String sourceLang, String targetLang,
+                                     ContentType contentType, String category, 
+                                     List<TranslationMemoryService.TMEntry> tmReferences) throws Exception {
+        List<TerminologyMatch> termMatches = lookupTerminology(sanitizedText, sourceLang, targetLang);
+        PreparedTranslation request = new PreparedTranslation(sanitizedText, sourceLang, targetLang, contentType,
+                category, translationKey(sanitizedText, sourceLang, targetLang, contentType, category), null,
+                tmReferences, termMatches, selectTerminology(Collections.singletonList(termMatches), category));
+        return inFlightTranslations.execute(request.cacheKey, () -> {
+            String text = resilienceHelper.executeWithRetryAndCircuitBreaker(
+                () -> generateTranslation(request),
+                "translateString",
+                "translationCircuitBreaker"
+            );
+            cacheTranslation(request, text);
+            return text;
+        });
+    }
+
+    /**
+     * Sends one multi-segment prompt to the model, with one glossary section for the terms
+     * found across the batch. Returns one slot per segment; {@code null} slots could not be
+     * parsed from the reply, or missed required terms when corrective retries are enabled.
+     */
+    private String[] translateBatch(PromptBatcher.BatchRequest batch, String sourceLang, String targetLang,
+                                    String category) {
+        long startTime = System.currentTimeMillis();
+        LOG.debug("Sending batch of {} segments (~{} input tokens, fill ratio {})", batch.size(),
+                batch.getEstimatedInputTokens(), String.format("%.2f", batch.getFillRatio()));
+
+        // Each distinct text is matched once; pieces repeated within the batch share the result
+        Map<String, List<TerminologyMatch>> matchesByText = new HashMap<>();
+        List<List<TerminologyMatch>> slotMatches = new ArrayList<>(batch.size());
+        for (String text : batch.getTexts()) {
+            slotMatches.add(matchesByText.computeIfAbsent(text, t -> lookupTerminology(t, sourceLang, targetLang)));
+        }
+        TerminologyConstraints terminology = selectTerminology(slotMatches, category);
+
+        try {
+            String rawResponse = resilienceHelper.executeWithRetryAndCircuitBreaker(
+                () -> executeGemmaPrompt(batch.createPrompt(terminology.toPromptSection(false))),
+                "translateBatch",
+                "translationCircuitBreaker"
+            );
+
+            if (metrics != null) {
+                metrics.recordLatency(System.currentTimeMillis() - startTime);
+                if (!terminology.isEmpty()) {
+                    metrics.recordTerminologyInjected(terminology.getTerms().size());
+                }
+            }
+
+            String[] translations = batch.parseResponse(rawResponse);
+            for (int j = 0; j < translations.length; j++) {
+                if (translations[j] != null && reportMissingTerms(
+                        terminology.findMissing(slotMatches.get(j), translations[j]), sourceLang, targetLang)) {
+                    // Re-translated on its own by the single-string fallback, which retries strictly
+                    translations[j] = null;
+                }
+            }
+            return translations;
+        } catch (Exception e) {
+            LOG.warn("Batch translation of {} segments failed, falling back to single-string calls", batch.size(), e);
+            return new String[batch.size()];
+        }
+    }
+
+    private String createTranslationPrompt(String text, String sourceLang, String targetLang, ContentType contentType,
+                                           List<TranslationMemoryService.TMEntry> tmReferences,
+                                           TerminologyConstraints terminology, boolean strictTerminology) {
         String contentTypeDesc = contentType == ContentType.HTML ? "HTML content" : "plain text";
         String sourceLangName = supportedLanguages.getOrDefault(sourceLang.toLowerCase(), sourceLang);
         String targetLangName = supportedLanguages.getOrDefault(targetLang.toLowerCase(), targetLang);
@@ -692,9 +1755,23 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
         prompt.append(String.format("Translate the following %s from %s to %s. ", contentTypeDesc, sourceLangName, targetLangName));
         prompt.append("Preserve the original formatting and structure. Respond with only the translated text.\n\n");
 
-        // Few-Shot Learning: Add human feedback examples
-        List<com.example.aem.translation.model.TranslationFeedback> feedback = 
-            feedbackService.getRelevantFeedback(text, sourceLang, targetLang, 3);
+        // Only glossary terms that occur in the text, capped by the terminology token budget
+        prompt.append(terminology.toPromptSection(strictTerminology));
+
+        // Close matches from translation memory keep wording consistent with approved translations
+        if (!tmReferences.isEmpty()) {
+            prompt.append("### Reference translations of similar text:\n");
+            for (TranslationMemoryService.TMEntry reference : tmReferences) {
+                prompt.append(String.format("Source: \"%s\"\nTranslation: \"%s\"\n\n", 
+                    reference.getSourceText(), reference.getTargetText()));
+            }
+        }
+
+        // Few-Shot Learning: Add the most similar human corrections as examples
+        int maxExamples = config.feedbackMaxExamples();
+        List<com.example.aem.translation.model.TranslationFeedback> feedback = maxExamples > 0
+            ? feedbackService.getRelevantFeedback(text, sourceLang, targetLang, maxExamples)
+            : Collections.emptyList();
         
         if (!feedback.isEmpty()) {
             prompt.append("### Guidelines based on previous human corrections:\n");
@@ -702,6 +1779,8 @@ public class TranslateGemmaTranslationServiceImpl implements TranslateGemmaTrans
                 prompt.append(String.format("Source: \"%s\"\nCorrection: \"%s\"\n\n", 
                     fb.getSourceString(), fb.getHumanCorrection()));
             }
+        }
+        if (!feedback.isEmpty() || !tmReferences.isEmpty() || !terminology.isEmpty()) {
             prompt.append("### Now translate:\n");
         }
 
@@ -1,39 +1,108 @@
 package com.example.aem.translation.impl;
 
+import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.example.aem.translation.service.TranslationFeedbackService;
 import com.example.aem.translation.model.TranslationFeedback;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-@Component(service = TranslationFeedbackService.class)
-public class TranslationFeedbackServiceImpl implements TranslationFeedbackService {
+/**
+ * Stores corrections under {@value #FEEDBACK_ROOT} and answers few-shot lookups with the
+ * most similar corrections from an in-memory {@link FeedbackIndex}. The index is loaded once
+ * on activation and kept current by resource change events, including those from other
+ * cluster instances, so translations never read the repository for feedback: when the index
+ * has to be rebuilt, it is reloaded on a background thread while lookups keep using the
+ * current one.
+ */
+@Component(
+    service = {TranslationFeedbackService.class, ResourceChangeListener.class},
+    property = {
+        ResourceChangeListener.PATHS + "=" + TranslationFeedbackServiceImpl.FEEDBACK_ROOT,
+        ResourceChangeListener.CHANGES + "=ADDED",
+        ResourceChangeListener.CHANGES + "=CHANGED",
+        ResourceChangeListener.CHANGES + "=REMOVED"
+    }
+)
+public class TranslationFeedbackServiceImpl implements TranslationFeedbackService, ResourceChangeListener,
+        ExternalResourceChangeListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(TranslationFeedbackServiceImpl.class);
-    private static final String FEEDBACK_ROOT = "/var/translation-gemma/feedback";
+    static final String FEEDBACK_ROOT = "/var/translation-gemma/feedback";
+    private static final int DEFAULT_INDEX_CAPACITY = 200;
+    private static final double DEFAULT_MIN_SIMILARITY = 0.3;
+    // A failed load is retried in the background by lookups, but not more often than this
+    private static final long RELOAD_INTERVAL_MS = 60_000;
 
     @Reference
     private ResourceResolverFactory resolverFactory;
 
+    private volatile int indexCapacity = DEFAULT_INDEX_CAPACITY;
+    private volatile double minSimilarity = DEFAULT_MIN_SIMILARITY;
+    private volatile FeedbackIndex index = new FeedbackIndex(DEFAULT_INDEX_CAPACITY, DEFAULT_MIN_SIMILARITY);
+    private volatile boolean loaded;
+    private volatile long lastLoadAttempt;
+    private volatile ExecutorService reloadExecutor;
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    @Activate
+    public void activate(TranslateGemmaConfig config) {
+        indexCapacity = config.feedbackIndexCapacity();
+        minSimilarity = config.feedbackMinSimilarity();
+        loaded = false;
+
+        ExecutorService previousExecutor = reloadExecutor;
+        reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "translategemma-feedback-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (previousExecutor != null) {
+            previousExecutor.shutdown();
+        }
+        reload();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ExecutorService executor = reloadExecutor;
+        reloadExecutor = null;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Protected method for testing to inject a mock ResourceResolverFactory
+    public void setResolverFactory(ResourceResolverFactory resolverFactory) {
+        this.resolverFactory = resolverFactory;
+    }
+
     @Override
-    public void recordFeedback(String sourceString, String originalTranslation, String humanCorrection, 
+    public void recordFeedback(String sourceString, String originalTranslation, String humanCorrection,
                                 String sourceLang, String targetLang, String userId) {
-        
-        Map<String, Object> authInfo = new HashMap<>();
-        authInfo.put(ResourceResolverFactory.SUBSERVICE, "translate-gemma-service");
 
-        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(authInfo)) {
+        try (ResourceResolver resolver = openResolver()) {
             ensureRootExists(resolver);
-            
+
             String entryName = "fb-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
-            
+            Calendar timestamp = Calendar.getInstance();
+
             Map<String, Object> props = new HashMap<>();
             props.put("jcr:primaryType", "nt:unstructured");
             props.put("sourceString", sourceString);
@@ -42,11 +111,16 @@ public class TranslationFeedbackServiceImpl implements TranslationFeedbackServic
             props.put("sourceLanguage", sourceLang);
             props.put("targetLanguage", targetLang);
             props.put("userId", userId != null ? userId : "system");
-            props.put("timestamp", Calendar.getInstance());
+            props.put("timestamp", timestamp);
 
             resolver.create(resolver.getResource(FEEDBACK_ROOT), entryName, props);
             resolver.commit();
-            
+
+            // Visible to the next translation right away; the change event for it is idempotent
+            index.put(FEEDBACK_ROOT + "/" + entryName, new TranslationFeedback(sourceString, originalTranslation,
+                    humanCorrection, sourceLang, targetLang, userId != null ? userId : "system",
+                    timestamp.getTimeInMillis()));
+
             LOG.info("Recorded human feedback for {} in job {}", sourceLang + " -> " + targetLang, entryName);
         } catch (Exception e) {
             LOG.error("Failed to record human feedback", e);
@@ -55,59 +129,127 @@ public class TranslationFeedbackServiceImpl implements TranslationFeedbackServic
 
     @Override
     public List<TranslationFeedback> getRelevantFeedback(String sourceString, String sourceLang, String targetLang, int limit) {
-        List<TranslationFeedback> feedbackList = new ArrayList<>();
-        Map<String, Object> authInfo = new HashMap<>();
-        authInfo.put(ResourceResolverFactory.SUBSERVICE, "translate-gemma-service");
+        if (!loaded) {
+            scheduleReload();
+        }
+        return index.findRelevant(sourceString, sourceLang, targetLang, limit);
+    }
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        List<String> updated = new ArrayList<>();
+        for (ResourceChange change : changes) {
+            String path = change.getPath();
+            if (change.getType() == ResourceChange.ChangeType.REMOVED) {
+                if (FEEDBACK_ROOT.equals(path)) {
+                    index.clear();
+                } else {
+                    index.remove(path);
+                }
+            } else if (isFeedbackEntry(path)) {
+                updated.add(path);
+            }
+        }
+        if (updated.isEmpty()) {
+            return;
+        }
+
+        try (ResourceResolver resolver = openResolver()) {
+            for (String path : updated) {
+                Resource resource = resolver.getResource(path);
+                if (resource != null) {
+                    index.put(path, toFeedback(resource.getValueMap()));
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to index {} feedback change(s); reloading in the background", updated.size(), e);
+            loaded = false;
+            lastLoadAttempt = 0;
+            scheduleReload();
+        }
+    }
+
+    /**
+     * Queues a reload on the background thread when one is due and none is queued yet; the
+     * caller returns straight away.
+     */
+    private void scheduleReload() {
+        ExecutorService executor = reloadExecutor;
+        if (executor == null || loaded || System.currentTimeMillis() - lastLoadAttempt < RELOAD_INTERVAL_MS
+                || !reloadScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reload();
+                } finally {
+                    reloadScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor shut down by a concurrent deactivate
+            reloadScheduled.set(false);
+        }
+    }
 
-        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(authInfo)) {
+    /**
+     * Builds a new index from every correction under the feedback root and swaps it in, so
+     * lookups keep using the previous index while the repository is read.
+     */
+    private synchronized void reload() {
+        lastLoadAttempt = System.currentTimeMillis();
+        if (resolverFactory == null) {
+            return;
+        }
+        try (ResourceResolver resolver = openResolver()) {
+            FeedbackIndex fresh = new FeedbackIndex(indexCapacity, minSimilarity);
+            int count = 0;
             Resource root = resolver.getResource(FEEDBACK_ROOT);
             if (root != null) {
-                Iterator<Resource> children = root.listChildren();
-                List<Resource> childList = new ArrayList<>();
-                while (children.hasNext()) {
-                    Resource r = children.next();
-                    ValueMap vm = r.getValueMap();
-                    // Basic filter by language pair for relevancy
-                    if (sourceLang.equalsIgnoreCase(vm.get("sourceLanguage", "")) && 
-                        targetLang.equalsIgnoreCase(vm.get("targetLanguage", ""))) {
-                        childList.add(r);
-                    }
-                }
-                
-                // Sort by timestamp descending
-                childList.sort((r1, r2) -> {
-                    Long t1 = r1.getValueMap().get("timestamp", Calendar.class).getTimeInMillis();
-                    Long t2 = r2.getValueMap().get("timestamp", Calendar.class).getTimeInMillis();
-                    return t2.compareTo(t1);
-                });
-
-                for (int i = 0; i < Math.min(limit, childList.size()); i++) {
-                    Resource res = childList.get(i);
-                    ValueMap vm = res.getValueMap();
-                    feedbackList.add(new TranslationFeedback(
-                        vm.get("sourceString", ""),
-                        vm.get("originalTranslation", ""),
-                        vm.get("humanCorrection", ""),
-                        vm.get("sourceLanguage", ""),
-                        vm.get("targetLanguage", ""),
-                        vm.get("userId", "system"),
-                        vm.get("timestamp", Calendar.class).getTimeInMillis()
-                    ));
+                for (Resource child : root.getChildren()) {
+                    fresh.put(child.getPath(), toFeedback(child.getValueMap()));
+                    count++;
                 }
             }
+            index = fresh;
+            loaded = true;
+            LOG.info("Indexed {} of {} feedback entries", fresh.size(), count);
         } catch (Exception e) {
-            LOG.error("Failed to retrieve relevant feedback", e);
+            LOG.warn("Failed to load feedback index, few-shot examples are unavailable until it loads", e);
         }
-        return feedbackList;
+    }
+
+    private ResourceResolver openResolver() throws Exception {
+        Map<String, Object> authInfo = new HashMap<>();
+        authInfo.put(ResourceResolverFactory.SUBSERVICE, "translate-gemma-service");
+        return resolverFactory.getServiceResourceResolver(authInfo);
+    }
+
+    private static boolean isFeedbackEntry(String path) {
+        return path.startsWith(FEEDBACK_ROOT + "/") && path.indexOf('/', FEEDBACK_ROOT.length() + 1) < 0;
+    }
+
+    private static TranslationFeedback toFeedback(ValueMap vm) {
+        Calendar timestamp = vm.get("timestamp", Calendar.class);
+        return new TranslationFeedback(
+            vm.get("sourceString", ""),
+            vm.get("originalTranslation", ""),
+            vm.get("humanCorrection", ""),
+            vm.get("sourceLanguage", ""),
+            vm.get("targetLanguage", ""),
+            vm.get("userId", "system"),
+            timestamp != null ? timestamp.getTimeInMillis() : 0L
+        );
     }
 
     private void ensureRootExists(ResourceResolver resolver) throws Exception {
         Resource var = resolver.getResource("/var");
         if (var == null) return;
-        
+
         Resource trans = resolver.getResource("/var/translation-gemma");
         if (trans == null) resolver.create(var, "translation-gemma", Collections.singletonMap("jcr:primaryType", "nt:unstructured"));
-        
+
         Resource feedback = resolver.getResource(FEEDBACK_ROOT);
         if (feedback == null) resolver.create(resolver.getResource("/var/translation-gemma"), "feedback", Collections.singletonMap("jcr:primaryType", "nt:unstructured"));
     }
@@ -1,14 +1,19 @@
 package com.example.aem.translation.impl;
 
+import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.example.aem.translation.util.HashUtils;
+import com.example.aem.translation.util.JcrWriteBatch;
+import com.example.aem.translation.util.TranslationMetrics;
 import com.example.aem.translation.service.TranslateGemmaTranslationService;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
-import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.event.jobs.Job;
 import org.apache.sling.event.jobs.consumer.JobConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +43,16 @@ public class TranslationJobConsumer implements JobConsumer {
     @Reference
     private ResourceResolverFactory resolverFactory;
 
+    private volatile int commitMaxRetries = 3;
+    private volatile TranslationMetrics metrics;
+
+    @Activate
+    @Modified
+    public void activate(TranslateGemmaConfig config) {
+        this.commitMaxRetries = config.jcrCommitMaxRetries();
+        this.metrics = config.enableMetrics() ? new TranslationMetrics(new SimpleMeterRegistry()) : null;
+    }
+
     @Override
     public JobResult process(Job job) {
         String jobId = job.getProperty("jobId", String.class);
@@ -77,12 +92,10 @@ public class TranslationJobConsumer implements JobConsumer {
                 "general"
             );
 
-            // 3. Persist the fingerprint for the next run
-            ModifiableValueMap mvm = targetResource.adaptTo(ModifiableValueMap.class);
-            if (mvm != null) {
-                mvm.put(PROPERTY_IDEMPOTENCY_KEY, currentFingerprint);
-                resolver.commit();
-            }
+            // 3. Persist the fingerprint for the next run; a conflicting save is retried before the job fails
+            JcrWriteBatch batch = new JcrWriteBatch(resolver, 1, commitMaxRetries, metrics);
+            batch.put(targetResource, PROPERTY_IDEMPOTENCY_KEY, currentFingerprint);
+            batch.flush();
 
             return JobResult.OK;
 
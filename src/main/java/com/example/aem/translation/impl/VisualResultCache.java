@@ -0,0 +1,235 @@
+package com.example.aem.translation.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-modal analysis results keyed by prompt and the perceptual hash of the image.
+ * <p>
+ * Each prompt key has a BK-tree over 64-bit image hashes, so a lookup finds the closest hash
+ * within {@code maxDistance} bits without comparing against every cached image: subtrees whose
+ * edge distance cannot satisfy the triangle inequality are skipped. Crops, resizes and
+ * re-encodes of an analyzed image land within a few bits of it and reuse its result.
+ * <p>
+ * At most {@code maxEntries} results are kept; the oldest are evicted first and returned to
+ * the caller so it can drop them from the repository too. Evicted nodes stay in the tree as
+ * tombstones until they outnumber live ones, then the tree is rebuilt.
+ */
+final class VisualResultCache {
+
+    private final int maxDistance;
+    private final int maxEntries;
+    private final Map<String, BkTree> trees = new HashMap<>();
+    // Oldest first; replaced entries are skipped when they reach the head
+    private final Deque<Entry> byAge = new ArrayDeque<>();
+    private int size;
+
+    VisualResultCache(int maxDistance, int maxEntries) {
+        this.maxDistance = Math.max(0, maxDistance);
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * The cached result whose image hash is closest to {@code hash}, the newest among equally
+     * close ones, or {@code null} when none is within {@code maxDistance} bits.
+     */
+    synchronized Entry find(String promptKey, long hash) {
+        BkTree tree = trees.get(promptKey);
+        return tree != null ? tree.nearest(hash, maxDistance) : null;
+    }
+
+    /**
+     * Adds a result, replacing one cached for exactly the same prompt and hash.
+     *
+     * @return entries evicted to stay within {@code maxEntries}
+     */
+    synchronized List<Entry> put(Entry entry) {
+        List<Entry> evicted = new ArrayList<>(1);
+        if (trees.computeIfAbsent(entry.promptKey, key -> new BkTree()).put(entry) == null) {
+            size++;
+        }
+        byAge.addLast(entry);
+
+        while (size > maxEntries) {
+            Entry oldest = byAge.pollFirst();
+            BkTree tree = trees.get(oldest.promptKey);
+            if (tree != null && tree.remove(oldest)) {
+                size--;
+                evicted.add(oldest);
+                if (tree.isEmpty()) {
+                    trees.remove(oldest.promptKey);
+                }
+            }
+        }
+        return evicted;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    static final class Entry {
+        private final String name;
+        private final String promptKey;
+        private final long hash;
+        private final String rawResponse;
+        private final Map<String, String> data;
+        private final long created;
+
+        Entry(String name, String promptKey, long hash, String rawResponse, Map<String, String> data, long created) {
+            this.name = name;
+            this.promptKey = promptKey;
+            this.hash = hash;
+            this.rawResponse = rawResponse;
+            this.data = data != null ? Collections.unmodifiableMap(new HashMap<>(data)) : Collections.emptyMap();
+            this.created = created;
+        }
+
+        String getName() { return name; }
+        String getPromptKey() { return promptKey; }
+        long getHash() { return hash; }
+        String getRawResponse() { return rawResponse; }
+        Map<String, String> getData() { return data; }
+        long getCreated() { return created; }
+    }
+
+    private static final class Node {
+        private final long hash;
+        private Entry entry;
+        // Indexed by Hamming distance to this node, 0 - 64
+        private Node[] children;
+
+        Node(Entry entry) {
+            this.hash = entry.hash;
+            this.entry = entry;
+        }
+    }
+
+    private static final class BkTree {
+        private Node root;
+        private int live;
+        private int tombstones;
+
+        // Returns the entry previously stored for exactly this hash, if any
+        Entry put(Entry entry) {
+            if (root == null) {
+                root = new Node(entry);
+                live++;
+                return null;
+            }
+            Node node = root;
+            while (true) {
+                int distance = Long.bitCount(node.hash ^ entry.hash);
+                if (distance == 0) {
+                    Entry previous = node.entry;
+                    node.entry = entry;
+                    if (previous == null) {
+                        tombstones--;
+                        live++;
+                    }
+                    return previous;
+                }
+                if (node.children == null) {
+                    node.children = new Node[Long.SIZE + 1];
+                }
+                Node child = node.children[distance];
+                if (child == null) {
+                    node.children[distance] = new Node(entry);
+                    live++;
+                    return null;
+                }
+                node = child;
+            }
+        }
+
+        // Removes the entry only if it is still the one stored for its hash
+        boolean remove(Entry entry) {
+            Node node = root;
+            while (node != null) {
+                int distance = Long.bitCount(node.hash ^ entry.hash);
+                if (distance == 0) {
+                    if (node.entry != entry) {
+                        return false;
+                    }
+                    node.entry = null;
+                    live--;
+                    tombstones++;
+                    if (tombstones > live) {
+                        rebuild();
+                    }
+                    return true;
+                }
+                node = node.children != null ? node.children[distance] : null;
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return live == 0;
+        }
+
+        Entry nearest(long hash, int maxDistance) {
+            if (root == null) {
+                return null;
+            }
+            Entry best = null;
+            int bestDistance = maxDistance + 1;
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                int distance = Long.bitCount(node.hash ^ hash);
+                if (node.entry != null && (distance < bestDistance
+                        || distance == bestDistance && best != null && node.entry.created > best.created)) {
+                    best = node.entry;
+                    bestDistance = distance;
+                }
+                if (node.children == null) {
+                    continue;
+                }
+                // Only children at edge distance d with |d - distance| <= radius can hold a match
+                int radius = Math.min(maxDistance, bestDistance);
+                int from = Math.max(1, distance - radius);
+                int to = Math.min(Long.SIZE, distance + radius);
+                for (int edge = from; edge <= to; edge++) {
+                    if (node.children[edge] != null) {
+                        pending.push(node.children[edge]);
+                    }
+                }
+            }
+            return best;
+        }
+
+        private void rebuild() {
+            List<Entry> entries = new ArrayList<>(live);
+            Deque<Node> pending = new ArrayDeque<>();
+            if (root != null) {
+                pending.push(root);
+            }
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node.entry != null) {
+                    entries.add(node.entry);
+                }
+                if (node.children != null) {
+                    for (Node child : node.children) {
+                        if (child != null) {
+                            pending.push(child);
+                        }
+                    }
+                }
+            }
+            root = null;
+            live = 0;
+            tombstones = 0;
+            for (Entry entry : entries) {
+                put(entry);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.aem.translation.service;
 
+import com.example.aem.translation.util.JcrWriteBatch;
+import org.apache.sling.api.resource.PersistenceException;
 import org.apache.sling.api.resource.Resource;
 
 /**
@@ -19,4 +21,10 @@ public interface MSMDeltaService {
      * Marks a resource as translated to update its delta state.
      */
     void markAsTranslated(Resource resource, String targetLanguage);
+
+    /**
+     * Marks a resource as translated as part of a larger write; the change is committed with
+     * the rest of the batch.
+     */
+    void markAsTranslated(Resource resource, String targetLanguage, JcrWriteBatch batch) throws PersistenceException;
 }
@@ -21,6 +21,8 @@ import org.apache.sling.api.resource.ResourceResolver;
 import java.io.InputStream;
 import java.util.Date;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public interface TranslateGemmaTranslationService extends TranslationService {
 
@@ -67,6 +69,52 @@ public interface TranslateGemmaTranslationService extends TranslationService {
                                       String targetLanguage, ContentType contentType,
                                       String contentCategory) throws TranslationException;
 
+    /**
+     * Non-blocking variant of {@link #translateString}. Validation and cache lookups run on the
+     * calling thread; the model call runs on the service's bounded executor with retry and
+     * circuit breaking. Cancelling the future interrupts the in-flight call.
+     * @return A future completing with the result, or exceptionally with a TranslationException.
+     */
+    CompletableFuture<TranslationResult> translateStringAsync(String sourceString, String sourceLanguage,
+                                                             String targetLanguage, ContentType contentType,
+                                                             String contentCategory);
+
+    /**
+     * Non-blocking variant of {@link #translateArray}. Each batch prompt runs as its own task on
+     * the bounded executor, so the batches of one array are sent concurrently; the first batch
+     * that fails fails the future and cancels the rest.
+     * @return A future completing with one result per input string, in input order.
+     */
+    CompletableFuture<TranslationResult[]> translateArrayAsync(String[] sourceStringArr, String sourceLanguage,
+                                                              String targetLanguage, ContentType contentType,
+                                                              String contentCategory);
+
+    /**
+     * Translates the same strings into several target languages. Input is validated and
+     * sanitized once; each language checks the cache and sends only its misses, and languages
+     * run concurrently up to the configured fan-out parallelism.
+     * @param targetLanguages The target language codes.
+     * @return One result array per target language, keyed by the requested language code,
+     *         each in input order.
+     * @throws TranslationException if the input or any direction is invalid, or if any
+     *         language fails. Languages that succeeded are cached, so a retry is cheap.
+     */
+    Map<String, TranslationResult[]> translateToLanguages(String[] sourceStringArr, String sourceLanguage,
+                                                          Set<String> targetLanguages, ContentType contentType,
+                                                          String contentCategory) throws TranslationException;
+
+    /**
+     * Same as {@link #translateToLanguages(String[], String, Set, ContentType, String)}, except
+     * that a language whose translation fails is left out of the result and its error is put
+     * into {@code failures}, so the other languages still get their translations.
+     * @throws TranslationException if the input or any direction is invalid.
+     */
+    Map<String, TranslationResult[]> translateToLanguages(String[] sourceStringArr, String sourceLanguage,
+                                                          Set<String> targetLanguages, ContentType contentType,
+                                                          String contentCategory,
+                                                          Map<String, TranslationException> failures)
+            throws TranslationException;
+
     @Override
     String createTranslationJob(String name, String description, String strSourceLanguage,
                                String strTargetLanguage, Date dueDate, TranslationState state,
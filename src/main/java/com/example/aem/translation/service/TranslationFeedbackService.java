@@ -15,8 +15,9 @@ public interface TranslationFeedbackService {
                         String sourceLang, String targetLang, String userId);
 
     /**
-     * Gets relevant feedback for a given source string to use in few-shot prompts.
-     * In this implementation, it retrieves the most recent corrections for the language pair.
+     * Gets relevant feedback for a given source string to use in few-shot prompts:
+     * corrections of the language pair whose source is most similar to {@code sourceString},
+     * most similar first. May return fewer than {@code limit}, or none, if nothing is similar.
      */
     List<TranslationFeedback> getRelevantFeedback(String sourceString, String sourceLang, String targetLang, int limit);
 }
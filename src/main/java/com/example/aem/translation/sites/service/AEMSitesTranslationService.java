@@ -44,6 +44,22 @@ public interface AEMSitesTranslationService {
      */
     PageTranslationResult translatePage(Page page, String targetLanguage, String category) throws TranslationException;
 
+    /**
+     * Translates a page into several languages in one pass. Page properties, component text and
+     * tag titles are extracted and tag-protected once, then translated for every language together;
+     * each language's translations are applied to the matching language copy of the page.
+     * Languages without a language copy are not translated, and a language whose translation
+     * fails does not stop the others; both get a failed result.
+     *
+     * @param page the source-language page
+     * @param targetLanguages target language codes
+     * @param category content category for translation context
+     * @return one result per target language, keyed by language code
+     * @throws TranslationException if the input is invalid or the page cannot be saved
+     */
+    Map<String, PageTranslationResult> translatePageToLanguages(Page page, Set<String> targetLanguages, String category)
+            throws TranslationException;
+
     /**
      * Translates a Content Fragment.
      *
@@ -6,12 +6,16 @@ import com.example.aem.translation.cfintegration.service.result.ContentFragmentT
 import com.example.aem.translation.sites.service.AEMSitesTranslationService;
 import com.example.aem.translation.sites.service.result.*;
 import com.example.aem.translation.service.TranslateGemmaTranslationService;
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.util.JcrWriteBatch;
+import com.example.aem.translation.util.TranslationMetrics;
 import com.adobe.granite.translation.api.TranslationResult;
 import com.adobe.granite.translation.api.TranslationConstants;
 import com.adobe.granite.translation.api.TranslationException;
 import com.adobe.granite.translation.api.TranslationState;
 import com.adobe.granite.comments.Comment;
 
+import com.day.cq.commons.LanguageUtil;
 import com.day.cq.wcm.api.Page;
 import com.day.cq.wcm.api.PageManager;
 import com.day.cq.dam.api.Asset;
@@ -26,7 +30,6 @@ import org.apache.sling.api.resource.PersistenceException;
 
 import javax.jcr.Node;
 import javax.jcr.Session;
-import javax.jcr.RepositoryException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +38,9 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -80,6 +86,18 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
     @Reference
     private com.example.aem.translation.service.DitaTagProtectionService ditaTagProtectionService;
 
+    private volatile int writeBatchSize = 1000;
+    private volatile int commitMaxRetries = 3;
+    private volatile TranslationMetrics metrics;
+
+    @Activate
+    @Modified
+    public void activate(TranslateGemmaConfig config) {
+        this.writeBatchSize = config.jcrWriteBatchSize();
+        this.commitMaxRetries = config.jcrCommitMaxRetries();
+        this.metrics = config.enableMetrics() ? new TranslationMetrics(new SimpleMeterRegistry()) : null;
+    }
+
     @Override
     public PageTranslationResult translatePage(Page page, String targetLanguage, String category) 
             throws TranslationException {
@@ -111,14 +129,17 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
                 componentResults = translateComponents(contentResource, sourceLanguage, targetLanguage, category);
             }
 
-            // Translate page tags
+            // Translate page tags. createTag saves the session itself, so missing tags are created
+            // here, before the batch holds any changes it would otherwise commit early
             translatedTags = translateResourceTags(page.getContentResource(), sourceLanguage, targetLanguage);
 
-            // Apply translations to page
-            applyPageTranslations(page, translatedProperties, componentResults, translatedTags);
+            // Apply translations to page, committed together at the end of the page
+            JcrWriteBatch batch = new JcrWriteBatch(resourceResolver, writeBatchSize, commitMaxRetries, metrics);
+            applyPageTranslations(page, translatedProperties, componentResults, translatedTags, batch);
 
             // Prime Time: Mark as translated
-            msmDeltaService.markAsTranslated(page.getContentResource(), targetLanguage);
+            msmDeltaService.markAsTranslated(page.getContentResource(), targetLanguage, batch);
+            batch.flush();
 
             long translationTime = System.currentTimeMillis() - startTime;
             
@@ -135,6 +156,148 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
         }
     }
 
+    @Override
+    public Map<String, PageTranslationResult> translatePageToLanguages(Page page, Set<String> targetLanguages,
+                                                                     String category) throws TranslationException {
+        long startTime = System.currentTimeMillis();
+        String sourceLanguage = page.getLanguage(false).getLanguage();
+        Map<String, PageTranslationResult> results = new LinkedHashMap<>();
+
+        Resource contentResource = page.getContentResource();
+        if (contentResource == null || targetLanguages == null || targetLanguages.isEmpty()) {
+            return results;
+        }
+
+        ResourceResolver resourceResolver = contentResource.getResourceResolver();
+        PageManager pageManager = resourceResolver.adaptTo(PageManager.class);
+
+        // Prime Time: MSM Delta Check, per language copy
+        Map<String, Page> languageCopies = new LinkedHashMap<>();
+        for (String targetLanguage : targetLanguages) {
+            Page languageCopy = resolveLanguageCopy(page, targetLanguage, pageManager);
+            Resource copyContent = languageCopy != null ? languageCopy.getContentResource() : null;
+            if (copyContent == null) {
+                // Nothing to apply the translations to, so nothing is translated
+                LOG.warn("No {} language copy found for page: {}, skipping it", targetLanguage, page.getPath());
+                results.put(targetLanguage, new PageTranslationResult(page.getPath(), sourceLanguage, targetLanguage,
+                        "No " + targetLanguage + " language copy found"));
+            } else if (!msmDeltaService.isTranslationRequired(copyContent, targetLanguage)) {
+                LOG.info("Skipping {} for page: {} - Already up to date via MSM Delta Check", 
+                        targetLanguage, languageCopy.getPath());
+                results.put(targetLanguage, new PageTranslationResult(languageCopy.getPath(), sourceLanguage, 
+                        targetLanguage, new HashMap<>(), new HashMap<>(), new ArrayList<>(), 0));
+            } else {
+                languageCopies.put(targetLanguage, languageCopy);
+            }
+        }
+
+        if (languageCopies.isEmpty()) {
+            return results;
+        }
+
+        LOG.info("Starting translation for page: {} from {} to {}", 
+                page.getPath(), sourceLanguage, languageCopies.keySet());
+
+        try {
+            // Extract and protect once; every language translates the same segments
+            Map<String, String> componentTypes = new LinkedHashMap<>();
+            List<PageSegment> plainSegments = new ArrayList<>();
+            List<PageSegment> htmlSegments = new ArrayList<>();
+            extractPageSegments(page, contentResource, componentTypes, plainSegments, htmlSegments);
+
+            TagManager tagManager = resourceResolver.adaptTo(TagManager.class);
+            Tag[] tags = tagManager != null ? tagManager.getTags(contentResource) : new Tag[0];
+            String[] tagTitles = new String[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                tagTitles[i] = tags[i].getTitle();
+            }
+
+            // A language that fails is dropped from the later calls and reported on its own
+            Map<String, TranslationException> failures = new LinkedHashMap<>();
+            Map<String, TranslationResult[]> plainResults = translateSegments(plainSegments, sourceLanguage, 
+                    languageCopies.keySet(), TranslationConstants.ContentType.PLAIN, category, failures);
+            Map<String, TranslationResult[]> htmlResults = translateSegments(htmlSegments, sourceLanguage, 
+                    remaining(languageCopies.keySet(), failures), TranslationConstants.ContentType.HTML, category, 
+                    failures);
+            Set<String> tagLanguages = remaining(languageCopies.keySet(), failures);
+            Map<String, TranslationResult[]> tagResults = tagTitles.length == 0 || tagLanguages.isEmpty()
+                    ? Collections.emptyMap()
+                    : translationService.translateToLanguages(tagTitles, sourceLanguage, tagLanguages,
+                            TranslationConstants.ContentType.PLAIN, "general", failures);
+
+            // createTag saves the session itself, so every language's tags are resolved, and created
+            // where missing, before the batch holds any changes it would otherwise commit early
+            Map<String, List<Tag>> translatedTagsByLanguage = new HashMap<>();
+            for (Map.Entry<String, TranslationResult[]> entry : tagResults.entrySet()) {
+                if (failures.containsKey(entry.getKey())) {
+                    continue;
+                }
+                List<Tag> translatedTags = new ArrayList<>();
+                TranslationResult[] translatedTitles = entry.getValue();
+                for (int i = 0; i < tags.length; i++) {
+                    Tag translatedTag = resolveTranslatedTag(tagManager, tags[i], 
+                            translatedTitles[i].getTranslation(), entry.getKey());
+                    if (translatedTag != null) {
+                        translatedTags.add(translatedTag);
+                    }
+                }
+                translatedTagsByLanguage.put(entry.getKey(), translatedTags);
+            }
+
+            // Every language copy of the page is committed together
+            JcrWriteBatch batch = new JcrWriteBatch(resourceResolver, writeBatchSize, commitMaxRetries, metrics);
+            for (Map.Entry<String, Page> entry : languageCopies.entrySet()) {
+                String targetLanguage = entry.getKey();
+                Page languageCopy = entry.getValue();
+                TranslationException failure = failures.get(targetLanguage);
+                if (failure != null) {
+                    LOG.warn("Failed to translate page: {} to {}", page.getPath(), targetLanguage, failure);
+                    results.put(targetLanguage, new PageTranslationResult(languageCopy.getPath(), sourceLanguage,
+                            targetLanguage, "Translation failed: " + failure.getMessage()));
+                    continue;
+                }
+                Resource targetContent = languageCopy.getContentResource();
+                String targetContentPath = targetContent.getPath();
+
+                Map<String, String> translatedProperties = new HashMap<>();
+                Map<String, Map<String, String>> componentProperties = new LinkedHashMap<>();
+                for (String componentName : componentTypes.keySet()) {
+                    componentProperties.put(componentName, new HashMap<>());
+                }
+                collectTranslations(plainSegments, plainResults.get(targetLanguage), translatedProperties, componentProperties);
+                collectTranslations(htmlSegments, htmlResults.get(targetLanguage), translatedProperties, componentProperties);
+
+                Map<String, ComponentTranslationResult> componentResults = new HashMap<>();
+                for (Map.Entry<String, Map<String, String>> component : componentProperties.entrySet()) {
+                    String componentPath = targetContentPath + "/" + component.getKey();
+                    componentResults.put(componentPath, new ComponentTranslationResult(
+                        componentPath, componentTypes.get(component.getKey()), component.getValue()
+                    ));
+                }
+
+                List<Tag> translatedTags = translatedTagsByLanguage.getOrDefault(targetLanguage, new ArrayList<>());
+                applyPageTranslations(languageCopy, translatedProperties, componentResults, translatedTags, batch);
+                // Prime Time: Mark as translated
+                msmDeltaService.markAsTranslated(targetContent, targetLanguage, batch);
+
+                results.put(targetLanguage, new PageTranslationResult(
+                    languageCopy.getPath(), sourceLanguage, targetLanguage,
+                    translatedProperties, componentResults, translatedTags, System.currentTimeMillis() - startTime
+                ));
+            }
+            batch.flush();
+
+            LOG.info("Completed translation for page: {} into {} languages in {}ms", 
+                    page.getPath(), languageCopies.size() - failures.size(), System.currentTimeMillis() - startTime);
+
+            return results;
+        } catch (Exception e) {
+            LOG.error("Failed to translate page: {}", page.getPath(), e);
+            throw new TranslationException("Page translation failed: " + e.getMessage(),
+                TranslationException.ErrorCode.TRANSLATION_FAILED);
+        }
+    }
+
     @Override
     public ContentFragmentTranslationResult translateContentFragment(
             ContentFragment contentFragment, String targetLanguage, String category) throws TranslationException {
@@ -229,12 +392,7 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
                         tag.getTitle(), sourceLanguage, targetLanguage, TranslationConstants.ContentType.PLAIN, "general"
                     );
 
-                    // Create or find translated tag
-                    Tag translatedTag = tagManager.resolveByTitle(result.getTranslation(), new Locale(targetLanguage));
-                    if (translatedTag == null) {
-                        // Create new tag if it doesn't exist
-                        translatedTag = createTranslatedTag(tagManager, tag, result.getTranslation(), targetLanguage);
-                    }
+                    Tag translatedTag = resolveTranslatedTag(tagManager, tag, result.getTranslation(), targetLanguage);
 
                     if (translatedTag != null) {
                         translatedTags.add(translatedTag);
@@ -438,44 +596,30 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
 
     private void applyPageTranslations(Page page, Map<String, String> translatedProperties,
                                     Map<String, ComponentTranslationResult> componentResults,
-                                    List<Tag> translatedTags) throws RepositoryException {
+                                    List<Tag> translatedTags, JcrWriteBatch batch) throws PersistenceException {
         
         Resource contentResource = page.getContentResource();
         if (contentResource == null) return;
 
-        ModifiableValueMap properties = contentResource.adaptTo(ModifiableValueMap.class);
-        if (properties != null) {
-            Map<String, Object> propsMap = properties;
-            for (Map.Entry<String, String> entry : translatedProperties.entrySet()) {
-                propsMap.put(entry.getKey(), entry.getValue());
-            }
-        }
+        batch.put(contentResource, translatedProperties);
 
         // Apply component translations
         for (ComponentTranslationResult result : componentResults.values()) {
             if (result.isSuccess()) {
                 Resource componentResource = contentResource.getResourceResolver().getResource(result.getComponentPath());
                 if (componentResource != null) {
-                    applyComponentTranslations(componentResource, result.getTranslatedProperties());
+                    batch.put(componentResource, result.getTranslatedProperties());
                 }
             }
         }
 
-        // Apply translated tags
-        ResourceResolver resourceResolver = contentResource.getResourceResolver();
-        TagManager tagManager = resourceResolver.adaptTo(TagManager.class);
-        if (tagManager != null && !translatedTags.isEmpty()) {
-            tagManager.setTags(contentResource, translatedTags.toArray(new Tag[0]));
-        }
-    }
-
-    private void applyComponentTranslations(Resource component, Map<String, String> translations) {
-        ModifiableValueMap properties = component.adaptTo(ModifiableValueMap.class);
-        if (properties != null) {
-            Map<String, Object> propsMap = properties;
-            for (Map.Entry<String, String> entry : translations.entrySet()) {
-                propsMap.put(entry.getKey(), entry.getValue());
+        // Apply translated tags; written as cq:tags because TagManager.setTags would save on its own
+        if (!translatedTags.isEmpty()) {
+            String[] tagIds = new String[translatedTags.size()];
+            for (int i = 0; i < tagIds.length; i++) {
+                tagIds[i] = translatedTags.get(i).getTagID();
             }
+            batch.put(contentResource, "cq:tags", tagIds);
         }
     }
 
@@ -490,6 +634,143 @@ public class AEMSitesTranslationServiceImpl implements AEMSitesTranslationServic
         }
     }
 
+    /**
+     * A translatable text value of the page or of one of its components.
+     * {@code componentName} is null for page properties; {@code placeholders} is null
+     * when the text was sent without tag protection.
+     */
+    private static final class PageSegment {
+        private final String componentName;
+        private final String propertyName;
+        private final String text;
+        private final Map<String, String> placeholders;
+
+        PageSegment(String componentName, String propertyName, String text, Map<String, String> placeholders) {
+            this.componentName = componentName;
+            this.propertyName = propertyName;
+            this.text = text;
+            this.placeholders = placeholders;
+        }
+    }
+
+    /**
+     * Same selection as {@link #translatePageProperties} and {@link #translateComponent},
+     * split by content type so each type is sent in a single request.
+     */
+    private void extractPageSegments(Page page, Resource contentResource, Map<String, String> componentTypes,
+                                     List<PageSegment> plainSegments, List<PageSegment> htmlSegments) {
+        ValueMap pageProperties = contentResource.adaptTo(ValueMap.class);
+        if (pageProperties != null) {
+            Set<String> seen = new HashSet<>();
+            addPageSegment(plainSegments, seen, "jcr:title", page.getTitle());
+            addPageSegment(plainSegments, seen, "jcr:description", page.getDescription());
+            for (String propertyName : TRANSLATABLE_PROPERTIES) {
+                addPageSegment(plainSegments, seen, propertyName, pageProperties.get(propertyName, String.class));
+            }
+        }
+
+        for (Resource componentResource : contentResource.getChildren()) {
+            String componentType = getResourceType(componentResource);
+            componentTypes.put(componentResource.getName(), componentType);
+
+            ValueMap properties = componentResource.adaptTo(ValueMap.class);
+            if (!isTranslatableComponent(componentType) || properties == null) {
+                continue;
+            }
+
+            for (String propertyName : TRANSLATABLE_PROPERTIES) {
+                String value = properties.get(propertyName, String.class);
+                if (value == null || value.trim().isEmpty()) {
+                    continue;
+                }
+                TranslationConstants.ContentType contentType = determineContentType(propertyName, componentType);
+                if (contentType == TranslationConstants.ContentType.HTML || value.contains("<")) {
+                    com.example.aem.translation.service.DitaTagProtectionService.ProtectedContent protectedContent =
+                        ditaTagProtectionService.protect(value);
+                    List<PageSegment> target = contentType == TranslationConstants.ContentType.HTML 
+                        ? htmlSegments : plainSegments;
+                    target.add(new PageSegment(componentResource.getName(), propertyName, 
+                        protectedContent.getMaskedContent(), protectedContent.getPlaceholders()));
+                } else {
+                    plainSegments.add(new PageSegment(componentResource.getName(), propertyName, value, null));
+                }
+            }
+        }
+    }
+
+    private void addPageSegment(List<PageSegment> segments, Set<String> seen, String propertyName, String value) {
+        if (value != null && !value.trim().isEmpty() && seen.add(propertyName)) {
+            segments.add(new PageSegment(null, propertyName, value, null));
+        }
+    }
+
+    private Map<String, TranslationResult[]> translateSegments(List<PageSegment> segments, String sourceLanguage,
+                                                               Set<String> targetLanguages,
+                                                               TranslationConstants.ContentType contentType,
+                                                               String category,
+                                                               Map<String, TranslationException> failures)
+            throws TranslationException {
+        if (segments.isEmpty() || targetLanguages.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String[] texts = new String[segments.size()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = segments.get(i).text;
+        }
+        return translationService.translateToLanguages(texts, sourceLanguage, targetLanguages, contentType, category,
+                failures);
+    }
+
+    private static Set<String> remaining(Set<String> languages, Map<String, TranslationException> failures) {
+        Set<String> remaining = new LinkedHashSet<>(languages);
+        remaining.removeAll(failures.keySet());
+        return remaining;
+    }
+
+    private void collectTranslations(List<PageSegment> segments, TranslationResult[] results,
+                                     Map<String, String> translatedProperties,
+                                     Map<String, Map<String, String>> componentProperties) {
+        if (results == null) {
+            return;
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            PageSegment segment = segments.get(i);
+            String translatedText = results[i].getTranslation();
+            if (segment.placeholders != null) {
+                translatedText = ditaTagProtectionService.restore(translatedText, segment.placeholders);
+            }
+            if (segment.componentName == null) {
+                translatedProperties.put(segment.propertyName, translatedText);
+            } else {
+                componentProperties.get(segment.componentName).put(segment.propertyName, translatedText);
+            }
+        }
+    }
+
+    /**
+     * Maps a page onto its sibling language tree, e.g. /content/site/en/about to
+     * /content/site/de/about. Returns null when the page has no language root or the copy does not exist.
+     */
+    private Page resolveLanguageCopy(Page page, String targetLanguage, PageManager pageManager) {
+        String languageRoot = LanguageUtil.getLanguageRoot(page.getPath());
+        if (pageManager == null || languageRoot == null) {
+            return null;
+        }
+        String copyPath = languageRoot.substring(0, languageRoot.lastIndexOf('/') + 1) + targetLanguage 
+            + page.getPath().substring(languageRoot.length());
+        return pageManager.getPage(copyPath);
+    }
+
+    private Tag resolveTranslatedTag(TagManager tagManager, Tag originalTag, String translatedTitle, String language) {
+        // Create or find translated tag
+        Tag translatedTag = tagManager.resolveByTitle(translatedTitle, new Locale(language));
+        if (translatedTag == null) {
+            // Create new tag if it doesn't exist
+            translatedTag = createTranslatedTag(tagManager, originalTag, translatedTitle, language);
+        }
+        return translatedTag;
+    }
+
     private Tag createTranslatedTag(TagManager tagManager, Tag originalTag, 
                                   String translatedTitle, String language) {
         try {
@@ -11,6 +11,8 @@ public class PageTranslationResult {
     private final Map<String, ComponentTranslationResult> componentResults;
     private final java.util.List<Tag> translatedTags;
     private final long translationTime;
+    private final boolean success;
+    private final String errorMessage;
 
     public PageTranslationResult(String pagePath, String sourceLanguage, String targetLanguage,
                                Map<String, String> translatedProperties,
@@ -23,6 +25,21 @@ public class PageTranslationResult {
         this.componentResults = componentResults;
         this.translatedTags = translatedTags;
         this.translationTime = translationTime;
+        this.success = true;
+        this.errorMessage = null;
+    }
+
+    public PageTranslationResult(String pagePath, String sourceLanguage, String targetLanguage,
+                               String errorMessage) {
+        this.pagePath = pagePath;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+        this.translatedProperties = null;
+        this.componentResults = null;
+        this.translatedTags = null;
+        this.translationTime = 0;
+        this.success = false;
+        this.errorMessage = errorMessage;
     }
 
     public String getPagePath() { return pagePath; }
@@ -32,4 +49,6 @@ public class PageTranslationResult {
     public Map<String, ComponentTranslationResult> getComponentResults() { return componentResults; }
     public java.util.List<Tag> getTranslatedTags() { return translatedTags; }
     public long getTranslationTime() { return translationTime; }
+    public boolean isSuccess() { return success; }
+    public String getErrorMessage() { return errorMessage; }
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.example.aem.translation.terminology.impl;
+
+import com.example.aem.translation.terminology.TerminologyEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Aho-Corasick automaton over the source terms of one glossary slice.
+ * <p>
+ * Matching is case-insensitive and finds every term occurrence in one pass over the text.
+ * A match must start and end on a word boundary, except next to scripts written without
+ * spaces (Han, Kana, Thai, ...), so "cart" does not match inside "cartridge" but
+ * glossary terms are still found in Japanese or Chinese text.
+ * <p>
+ * Transitions are stored as one sorted label range per state, so a 50k-term glossary costs a
+ * few flat arrays rather than a map per trie node. Instances are never modified; edits build
+ * a new automaton that replaces the old one.
+ */
+final class TermAutomaton {
+
+    static final TermAutomaton EMPTY = new TermAutomaton(Collections.emptyList());
+
+    private final TerminologyEntry[] terms;
+    private final int[] termLengths;
+    // Per state: outgoing labels in [edgeStart[s], edgeStart[s + 1]) of edgeLabels/edgeTargets
+    private final int[] edgeStart;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final int[] failure;
+    // Term ending at the state, or -1
+    private final int[] output;
+    // Nearest state on the failure chain that has an output, or -1
+    private final int[] outputLink;
+
+    TermAutomaton(Collection<TerminologyEntry> entries) {
+        List<TerminologyEntry> accepted = new ArrayList<>(entries.size());
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(new HashMap<>());
+        outputs.add(-1);
+
+        for (TerminologyEntry entry : entries) {
+            String term = entry.getSourceTerm();
+            if (term == null || term.trim().isEmpty()) {
+                continue;
+            }
+            term = term.trim();
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char label = fold(term.charAt(i));
+                Integer next = trie.get(state).get(label);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    outputs.add(-1);
+                    trie.get(state).put(label, next);
+                }
+                state = next;
+            }
+            if (outputs.get(state) < 0) {
+                outputs.set(state, accepted.size());
+                accepted.add(entry);
+            }
+        }
+
+        int states = trie.size();
+        this.terms = accepted.toArray(new TerminologyEntry[0]);
+        this.termLengths = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termLengths[i] = terms[i].getSourceTerm().trim().length();
+        }
+        this.output = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = outputs.get(s);
+        }
+
+        int edges = 0;
+        for (Map<Character, Integer> node : trie) {
+            edges += node.size();
+        }
+        this.edgeStart = new int[states + 1];
+        this.edgeLabels = new char[edges];
+        this.edgeTargets = new int[edges];
+        int position = 0;
+        for (int s = 0; s < states; s++) {
+            edgeStart[s] = position;
+            Character[] labels = trie.get(s).keySet().toArray(new Character[0]);
+            Arrays.sort(labels);
+            for (Character label : labels) {
+                edgeLabels[position] = label;
+                edgeTargets[position] = trie.get(s).get(label);
+                position++;
+            }
+        }
+        edgeStart[states] = position;
+
+        this.failure = new int[states];
+        this.outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue[tail++] = edgeTargets[e];
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                char label = edgeLabels[e];
+                int fallback = failure[state];
+                int target = transition(fallback, label);
+                while (target < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                    target = transition(fallback, label);
+                }
+                failure[child] = target >= 0 && target != child ? target : 0;
+                outputLink[child] = output[failure[child]] >= 0 ? failure[child] : outputLink[failure[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    int size() {
+        return terms.length;
+    }
+
+    /**
+     * Every word-bounded occurrence of a term in {@code text}, in order of end position.
+     */
+    List<Occurrence> findAll(String text) {
+        if (terms.length == 0 || text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Occurrence> occurrences = new ArrayList<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char label = fold(text.charAt(i));
+            int next = transition(state, label);
+            while (next < 0 && state != 0) {
+                state = failure[state];
+                next = transition(state, label);
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int term = output[s];
+                int start = i + 1 - termLengths[term];
+                if (isBoundary(text, start - 1, start) && isBoundary(text, i + 1, i)) {
+                    occurrences.add(new Occurrence(terms[term], start, i + 1));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    private int transition(int state, char label) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char candidate = edgeLabels[mid];
+            if (candidate < label) {
+                low = mid + 1;
+            } else if (candidate > label) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True when the character at {@code outside} cannot continue the word that the match
+     * character at {@code inside} belongs to.
+     */
+    private static boolean isBoundary(String text, int outside, int inside) {
+        if (outside < 0 || outside >= text.length()) {
+            return true;
+        }
+        char before = text.charAt(outside);
+        if (!Character.isLetterOrDigit(before)) {
+            return true;
+        }
+        return isUnspacedScript(before) || isUnspacedScript(text.charAt(inside));
+    }
+
+    private static boolean isUnspacedScript(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.THAI
+                || script == Character.UnicodeScript.LAO
+                || script == Character.UnicodeScript.KHMER
+                || script == Character.UnicodeScript.MYANMAR;
+    }
+
+    // Per-char folding keeps match offsets aligned with the original text
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    static final class Occurrence {
+        private final TerminologyEntry entry;
+        private final int start;
+        private final int end;
+
+        Occurrence(TerminologyEntry entry, int start, int end) {
+            this.entry = entry;
+            this.start = start;
+            this.end = end;
+        }
+
+        TerminologyEntry getEntry() { return entry; }
+        int getStart() { return start; }
+        int getEnd() { return end; }
+    }
+}
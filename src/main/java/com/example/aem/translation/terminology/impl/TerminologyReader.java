@@ -0,0 +1,310 @@
+package com.example.aem.translation.terminology.impl;
+
+import com.example.aem.translation.terminology.TerminologyEntry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming glossary parsers. Each reader hands entries to the consumer as they are parsed,
+ * so memory use does not depend on file size, and returns the number of records it skipped
+ * because a term or language was missing.
+ */
+final class TerminologyReader {
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+    private static final String DEFAULT_DOMAIN = "general";
+
+    private TerminologyReader() {
+    }
+
+    /**
+     * TBX (v2 {@code martif/termEntry/langSet/tig} and v3 {@code tbx/conceptEntry/langSec/termSec}).
+     * The source language is the document's {@code xml:lang}, or else the first language of each
+     * concept; every other language of the concept becomes one entry, keeping the concept id
+     * (suffixed with the target language when there are several targets). The concept's
+     * {@code subjectField} is the domain and its {@code definition} the definition.
+     */
+    static int readTbx(InputStream input, Consumer<TerminologyEntry> consumer) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+
+        int skipped = 0;
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(input);
+            String documentLanguage = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ("martif".equals(element) || "tbx".equals(element)) {
+                    documentLanguage = normalizeLanguage(reader.getAttributeValue(XML_NS, "lang"));
+                } else if ("termEntry".equals(element) || "conceptEntry".equals(element)) {
+                    skipped += readConcept(reader, documentLanguage, consumer);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed TBX: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+        return skipped;
+    }
+
+    private static int readConcept(XMLStreamReader reader, String documentLanguage,
+                                   Consumer<TerminologyEntry> consumer) throws XMLStreamException {
+        String conceptId = reader.getAttributeValue(null, "id");
+        String domain = DEFAULT_DOMAIN;
+        String definition = null;
+        // Language to its first term, in document order
+        Map<String, String> terms = new LinkedHashMap<>();
+        String language = null;
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String element = reader.getLocalName();
+            if ("langSet".equals(element) || "langSec".equals(element)) {
+                language = normalizeLanguage(reader.getAttributeValue(XML_NS, "lang"));
+                depth++;
+            } else if ("term".equals(element)) {
+                String term = reader.getElementText().trim();
+                if (language != null && !term.isEmpty()) {
+                    terms.putIfAbsent(language, term);
+                }
+            } else if ("descrip".equals(element)) {
+                String type = reader.getAttributeValue(null, "type");
+                String value = reader.getElementText().trim();
+                if ("subjectField".equals(type) && !value.isEmpty()) {
+                    domain = value;
+                } else if ("definition".equals(type) && definition == null && !value.isEmpty()) {
+                    definition = value;
+                }
+            } else {
+                depth++;
+            }
+        }
+
+        String sourceLanguage = documentLanguage != null && terms.containsKey(documentLanguage)
+                ? documentLanguage : terms.keySet().stream().findFirst().orElse(null);
+        if (sourceLanguage == null || terms.size() < 2) {
+            return 1;
+        }
+        String sourceTerm = terms.get(sourceLanguage);
+        for (Map.Entry<String, String> target : terms.entrySet()) {
+            if (target.getKey().equals(sourceLanguage)) {
+                continue;
+            }
+            TerminologyEntry entry = new TerminologyEntry(sourceTerm, target.getValue(), sourceLanguage,
+                    target.getKey(), domain);
+            entry.setDefinition(definition);
+            if (conceptId != null) {
+                // Multilingual concepts yield one entry per target, each needing its own id
+                entry.setTermId(terms.size() == 2 ? conceptId : conceptId + ":" + target.getKey());
+            }
+            consumer.accept(entry);
+        }
+        return 0;
+    }
+
+    /**
+     * CSV (RFC 4180) with a header row naming at least {@code source_term}, {@code target_term},
+     * {@code source_language} and {@code target_language}; {@code domain}, {@code definition},
+     * {@code status} and {@code term_id} are optional. Column names are matched ignoring case,
+     * underscores and hyphens, so {@code sourceTerm} works as well.
+     */
+    static int readCsv(InputStream input, Consumer<TerminologyEntry> consumer) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return 0;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "");
+            columns.put(name.toLowerCase(Locale.ROOT).replace("_", "").replace("-", "").trim(), i);
+        }
+        for (String required : new String[] {"sourceterm", "targetterm", "sourcelanguage", "targetlanguage"}) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing column " + required);
+            }
+        }
+
+        int skipped = 0;
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            TerminologyEntry entry = toEntry(
+                    column(record, columns, "sourceterm"), column(record, columns, "targetterm"),
+                    column(record, columns, "sourcelanguage"), column(record, columns, "targetlanguage"),
+                    column(record, columns, "domain"), column(record, columns, "definition"),
+                    column(record, columns, "status"), column(record, columns, "termid"));
+            if (entry == null) {
+                skipped++;
+            } else {
+                consumer.accept(entry);
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * JSON: an array of term objects, or an object with such an array under {@code terms}.
+     * Objects use the {@link TerminologyEntry} property names and are read one at a time.
+     */
+    static int readJson(InputStream input, Consumer<TerminologyEntry> consumer) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        int skipped = 0;
+        try (JsonParser parser = new JsonFactory(mapper).createParser(input)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ("terms".equals(field) && token == JsonToken.START_ARRAY) {
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of terms");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode node = parser.readValueAsTree();
+                TerminologyEntry entry = toEntry(text(node, "sourceTerm"), text(node, "targetTerm"),
+                        text(node, "sourceLanguage"), text(node, "targetLanguage"), text(node, "domain"),
+                        text(node, "definition"), text(node, "status"), text(node, "termId"));
+                if (entry == null) {
+                    skipped++;
+                } else {
+                    consumer.accept(entry);
+                }
+            }
+        }
+        return skipped;
+    }
+
+    private static TerminologyEntry toEntry(String sourceTerm, String targetTerm, String sourceLanguage,
+                                            String targetLanguage, String domain, String definition,
+                                            String status, String termId) {
+        if (isBlank(sourceTerm) || isBlank(targetTerm) || isBlank(sourceLanguage) || isBlank(targetLanguage)) {
+            return null;
+        }
+        TerminologyEntry entry = new TerminologyEntry(sourceTerm.trim(), targetTerm.trim(),
+                normalizeLanguage(sourceLanguage), normalizeLanguage(targetLanguage),
+                isBlank(domain) ? DEFAULT_DOMAIN : domain.trim());
+        if (!isBlank(definition)) {
+            entry.setDefinition(definition.trim());
+        }
+        if (!isBlank(status)) {
+            entry.setStatus(status.trim());
+        }
+        if (!isBlank(termId)) {
+            entry.setTermId(termId.trim());
+        }
+        return entry;
+    }
+
+    /**
+     * Reads one CSV record, honouring quoted fields with embedded commas, quotes and line breaks.
+     * Returns null at end of input.
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    private static String normalizeLanguage(String language) {
+        return isBlank(language) ? null : language.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
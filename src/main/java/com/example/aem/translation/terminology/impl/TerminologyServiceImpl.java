@@ -9,6 +9,14 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -19,7 +27,10 @@ public class TerminologyServiceImpl implements TerminologyService {
     private static final Logger LOG = LoggerFactory.getLogger(TerminologyServiceImpl.class);
     
     private final Map<String, TerminologyEntry> terminologyStore = new ConcurrentHashMap<>();
-    private final Map<String, List<TerminologyMatch>> cache = new ConcurrentHashMap<>();
+    // One compiled matcher per "source:target:domain". The map itself is immutable and replaced
+    // as a whole, so a lookup always sees one consistent generation of the index.
+    private volatile Map<String, TermAutomaton> automata = Collections.emptyMap();
+    private final Object indexMonitor = new Object();
 
     public TerminologyServiceImpl() {
         initializeSampleTerminology();
@@ -45,40 +56,55 @@ public class TerminologyServiceImpl implements TerminologyService {
         return matches.isEmpty() ? null : matches.get(0);
     }
 
+    /**
+     * Glossary terms occurring in {@code sourceText}, in text order. Terms must occur on word
+     * boundaries; where terms overlap the longer one wins. Each term is reported once.
+     * A null language or domain matches any.
+     */
     @Override
     public List<TerminologyMatch> findAllTerms(String sourceText, String sourceLanguage, String targetLanguage,
             String domain, int maxResults) throws TerminologyException {
-        
-        String cacheKey = generateCacheKey(sourceText, sourceLanguage, targetLanguage, domain);
-        
-        if (cache.containsKey(cacheKey)) {
-            LOG.debug("Returning cached terminology matches for: {}", cacheKey);
-            return cache.get(cacheKey).stream().limit(maxResults).collect(Collectors.toList());
+        if (sourceText == null || sourceText.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
         }
 
-        List<TerminologyMatch> matches = new ArrayList<>();
-        String searchTerm = sourceText.toLowerCase();
+        List<TermAutomaton.Occurrence> occurrences = new ArrayList<>();
+        for (Map.Entry<String, TermAutomaton> slice : automata.entrySet()) {
+            if (sliceMatches(slice.getKey(), sourceLanguage, targetLanguage, domain)) {
+                occurrences.addAll(slice.getValue().findAll(sourceText));
+            }
+        }
+        // Leftmost first, longest first at the same start; drop occurrences inside a chosen one
+        occurrences.sort(Comparator.comparingInt(TermAutomaton.Occurrence::getStart)
+                .thenComparing(Comparator.comparingInt(TermAutomaton.Occurrence::getEnd).reversed()));
 
-        for (TerminologyEntry entry : terminologyStore.values()) {
+        List<TerminologyMatch> matches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int coveredUntil = 0;
+        for (TermAutomaton.Occurrence occurrence : occurrences) {
             if (matches.size() >= maxResults) break;
-            
-            if (matchesCriteria(entry, searchTerm, sourceLanguage, targetLanguage, domain)) {
-                TerminologyMatch match = new TerminologyMatch(
-                    entry.getSourceTerm(),
-                    entry.getTargetTerm(),
-                    entry.getDomain(),
-                    entry.getSourceLanguage(),
-                    entry.getTargetLanguage(),
-                    calculateConfidence(entry, searchTerm),
-                    entry.getTermId()
-                );
-                matches.add(match);
+            if (occurrence.getStart() < coveredUntil) {
+                continue;
             }
+            coveredUntil = occurrence.getEnd();
+            TerminologyEntry entry = occurrence.getEntry();
+            if (!seen.add(entry.getTermId())) {
+                continue;
+            }
+            boolean exactCase = sourceText.regionMatches(occurrence.getStart(), entry.getSourceTerm().trim(), 0,
+                    occurrence.getEnd() - occurrence.getStart());
+            matches.add(new TerminologyMatch(
+                entry.getSourceTerm(),
+                entry.getTargetTerm(),
+                entry.getDomain(),
+                entry.getSourceLanguage(),
+                entry.getTargetLanguage(),
+                exactCase ? 1.0f : 0.9f,
+                entry.getTermId()
+            ));
         }
 
-        cache.put(cacheKey, matches);
-        LOG.debug("Found {} terminology matches for: {}", matches.size(), cacheKey);
-        
+        LOG.debug("Found {} terminology matches in {} characters", matches.size(), sourceText.length());
         return matches;
     }
 
@@ -89,9 +115,12 @@ public class TerminologyServiceImpl implements TerminologyService {
         }
         
         String key = generateEntryKey(entry);
-        terminologyStore.put(key, entry);
+        TerminologyEntry previous = terminologyStore.put(key, entry);
         
-        clearCacheForLanguagePair(entry.getSourceLanguage(), entry.getTargetLanguage());
+        rebuildIndex(sliceKey(entry));
+        if (previous != null && !sliceKey(previous).equals(sliceKey(entry))) {
+            rebuildIndex(sliceKey(previous));
+        }
         
         LOG.info("Added terminology entry: {} -> {}", entry.getSourceTerm(), entry.getTargetTerm());
     }
@@ -108,8 +137,12 @@ public class TerminologyServiceImpl implements TerminologyService {
                     TerminologyException.ErrorCode.TERM_NOT_FOUND);
         }
         
-        terminologyStore.put(key, entry);
-        clearCacheForLanguagePair(entry.getSourceLanguage(), entry.getTargetLanguage());
+        TerminologyEntry previous = terminologyStore.remove(key);
+        terminologyStore.put(generateEntryKey(entry), entry);
+        rebuildIndex(sliceKey(entry));
+        if (previous != null && !sliceKey(previous).equals(sliceKey(entry))) {
+            rebuildIndex(sliceKey(previous));
+        }
         
         LOG.info("Updated terminology entry: {}", entry.getTermId());
     }
@@ -123,7 +156,7 @@ public class TerminologyServiceImpl implements TerminologyService {
         }
         
         TerminologyEntry entry = terminologyStore.remove(key);
-        clearCacheForLanguagePair(entry.getSourceLanguage(), entry.getTargetLanguage());
+        rebuildIndex(sliceKey(entry));
         
         LOG.info("Deleted terminology entry: {}", termId);
     }
@@ -139,26 +172,52 @@ public class TerminologyServiceImpl implements TerminologyService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Streams the file into a staging map, then merges it into the glossary and rebuilds the
+     * affected matchers once. Lookups keep using the previous index until the new one is
+     * swapped in, and a file that fails to parse leaves the glossary untouched.
+     */
     @Override
     public void importTerminology(String filePath, TerminologyFormat format) throws TerminologyException {
         LOG.info("Importing terminology from: {} format: {}", filePath, format);
-        
-        switch (format) {
-            case TBX:
-                importFromTBX(filePath);
-                break;
-            case CSV:
-                importFromCSV(filePath);
-                break;
-            case JSON:
-                importFromJSON(filePath);
-                break;
-            default:
-                throw new TerminologyException("Unsupported format: " + format, 
-                        TerminologyException.ErrorCode.INVALID_FORMAT);
+        long start = System.currentTimeMillis();
+
+        Map<String, TerminologyEntry> staged = new LinkedHashMap<>();
+        int skipped;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)))) {
+            switch (format) {
+                case TBX:
+                    skipped = TerminologyReader.readTbx(in, entry -> stage(staged, entry));
+                    break;
+                case CSV:
+                    skipped = TerminologyReader.readCsv(in, entry -> stage(staged, entry));
+                    break;
+                case JSON:
+                    skipped = TerminologyReader.readJson(in, entry -> stage(staged, entry));
+                    break;
+                default:
+                    throw new TerminologyException("Unsupported format: " + format,
+                            TerminologyException.ErrorCode.INVALID_FORMAT);
+            }
+        } catch (IOException e) {
+            throw new TerminologyException("Failed to import " + filePath + ": " + e.getMessage(),
+                    TerminologyException.ErrorCode.IMPORT_FAILED);
         }
-        
-        clearAllCache();
+
+        synchronized (indexMonitor) {
+            Set<String> affected = new HashSet<>();
+            for (Map.Entry<String, TerminologyEntry> entry : staged.entrySet()) {
+                TerminologyEntry previous = terminologyStore.put(entry.getKey(), entry.getValue());
+                affected.add(sliceKey(entry.getValue()));
+                if (previous != null) {
+                    affected.add(sliceKey(previous));
+                }
+            }
+            rebuildIndexes(affected);
+        }
+
+        LOG.info("Imported {} terms from {} ({} skipped) in {} ms", staged.size(), filePath, skipped,
+                System.currentTimeMillis() - start);
     }
 
     @Override
@@ -168,54 +227,58 @@ public class TerminologyServiceImpl implements TerminologyService {
         
         List<TerminologyEntry> entries = getTerminology(domain);
         
-        switch (format) {
-            case TBX:
-                exportToTBX(entries, filePath);
-                break;
-            case CSV:
-                exportToCSV(entries, filePath);
-                break;
-            case JSON:
-                exportToJSON(entries, filePath);
-                break;
-            default:
-                throw new TerminologyException("Unsupported format: " + format, 
-                        TerminologyException.ErrorCode.INVALID_FORMAT);
+        long written;
+        Path target = Paths.get(filePath);
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                switch (format) {
+                    case TBX:
+                        written = TerminologyWriter.writeTbx(entries, out);
+                        break;
+                    case CSV:
+                        written = TerminologyWriter.writeCsv(entries, out);
+                        break;
+                    case JSON:
+                        written = TerminologyWriter.writeJson(entries, out);
+                        break;
+                    default:
+                        throw new TerminologyException("Unsupported format: " + format,
+                                TerminologyException.ErrorCode.INVALID_FORMAT);
+                }
+            }
+        } catch (IOException e) {
+            throw new TerminologyException("Failed to export " + filePath + ": " + e.getMessage(),
+                    TerminologyException.ErrorCode.EXPORT_FAILED);
         }
-    }
 
-    private boolean matchesCriteria(TerminologyEntry entry, String searchTerm, 
-            String sourceLanguage, String targetLanguage, String domain) {
-        
-        boolean langMatch = (sourceLanguage == null || entry.getSourceLanguage().equalsIgnoreCase(sourceLanguage))
-                && (targetLanguage == null || entry.getTargetLanguage().equalsIgnoreCase(targetLanguage));
-        
-        boolean domainMatch = domain == null || entry.getDomain().equalsIgnoreCase(domain);
-        
-        boolean termMatch = entry.getSourceTerm().toLowerCase().contains(searchTerm)
-                || searchTerm.contains(entry.getSourceTerm().toLowerCase());
-        
-        return langMatch && domainMatch && termMatch;
+        LOG.info("Exported {} terms to {}", written, filePath);
     }
 
-    private float calculateConfidence(TerminologyEntry entry, String searchTerm) {
-        if (entry.getSourceTerm().toLowerCase().equals(searchTerm)) {
-            return 1.0f;
-        } else if (entry.getSourceTerm().toLowerCase().startsWith(searchTerm)) {
-            return 0.9f;
-        } else if (entry.getSourceTerm().toLowerCase().contains(searchTerm)) {
-            return 0.8f;
+    private void stage(Map<String, TerminologyEntry> staged, TerminologyEntry entry) {
+        if (entry.getTermId() == null) {
+            entry.setTermId(UUID.randomUUID().toString());
         }
-        return 0.5f;
+        staged.put(generateEntryKey(entry), entry);
     }
 
-    private String generateCacheKey(String text, String sourceLang, String targetLang, String domain) {
-        return text + ":" + sourceLang + ":" + targetLang + ":" + domain;
+    private boolean sliceMatches(String sliceKey, String sourceLanguage, String targetLanguage, String domain) {
+        String[] parts = sliceKey.split(":", 3);
+        return (sourceLanguage == null || parts[0].equals(sourceLanguage.toLowerCase(Locale.ROOT)))
+                && (targetLanguage == null || parts[1].equals(targetLanguage.toLowerCase(Locale.ROOT)))
+                && (domain == null || parts[2].equals(domain.toLowerCase(Locale.ROOT)));
     }
 
+    private String sliceKey(TerminologyEntry entry) {
+        return (String.valueOf(entry.getSourceLanguage()) + ":" + entry.getTargetLanguage() + ":" 
+                + entry.getDomain()).toLowerCase(Locale.ROOT);
+    }
+
+    // Normalised like the slice key, so entries differing only in case replace each other
     private String generateEntryKey(TerminologyEntry entry) {
-        return entry.getSourceLanguage() + ":" + entry.getTargetLanguage() + ":" 
-                + entry.getDomain() + ":" + entry.getSourceTerm().toLowerCase();
+        return sliceKey(entry) + ":" + entry.getSourceTerm().toLowerCase(Locale.ROOT);
     }
 
     private String findKeyByTermId(String termId) {
@@ -227,35 +290,27 @@ public class TerminologyServiceImpl implements TerminologyService {
         return null;
     }
 
-    private void clearCacheForLanguagePair(String sourceLang, String targetLang) {
-        cache.entrySet().removeIf(e -> e.getKey().contains(sourceLang + ":" + targetLang));
+    /**
+     * Compiles a new matcher for one slice and swaps it in; lookups keep using the previous one
+     * until the swap. Rebuilds are serialized so concurrent edits cannot publish a stale matcher.
+     */
+    private void rebuildIndex(String sliceKey) {
+        rebuildIndexes(Collections.singleton(sliceKey));
     }
 
-    private void clearAllCache() {
-        cache.clear();
-    }
-
-    private void importFromTBX(String filePath) throws TerminologyException {
-        LOG.info("TBX import not fully implemented - sample data used");
-    }
-
-    private void importFromCSV(String filePath) throws TerminologyException {
-        LOG.info("CSV import not fully implemented - sample data used");
-    }
-
-    private void importFromJSON(String filePath) throws TerminologyException {
-        LOG.info("JSON import not fully implemented - sample data used");
-    }
-
-    private void exportToTBX(List<TerminologyEntry> entries, String filePath) {
-        LOG.info("TBX export to: {}", filePath);
-    }
-
-    private void exportToCSV(List<TerminologyEntry> entries, String filePath) {
-        LOG.info("CSV export to: {}", filePath);
-    }
-
-    private void exportToJSON(List<TerminologyEntry> entries, String filePath) {
-        LOG.info("JSON export to: {}", filePath);
+    /**
+     * Compiles the given slices from one pass over the store and publishes them, together with
+     * the untouched slices, as a single new index generation.
+     */
+    private void rebuildIndexes(Set<String> sliceKeys) {
+        synchronized (indexMonitor) {
+            Map<String, List<TerminologyEntry>> slices = terminologyStore.values().stream()
+                    .filter(e -> sliceKeys.contains(sliceKey(e)))
+                    .collect(Collectors.groupingBy(this::sliceKey));
+            Map<String, TermAutomaton> next = new HashMap<>(automata);
+            next.keySet().removeAll(sliceKeys);
+            slices.forEach((key, entries) -> next.put(key, new TermAutomaton(entries)));
+            automata = Collections.unmodifiableMap(next);
+        }
     }
 }
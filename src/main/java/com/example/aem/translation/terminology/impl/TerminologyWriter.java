@@ -0,0 +1,163 @@
+package com.example.aem.translation.terminology.impl;
+
+import com.example.aem.translation.terminology.TerminologyEntry;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming glossary writers, the counterpart of {@link TerminologyReader}. Entries are written
+ * as they are iterated and the output stream is flushed but not closed.
+ */
+final class TerminologyWriter {
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+
+    private TerminologyWriter() {
+    }
+
+    /**
+     * TBX-Basic: one {@code termEntry} per entry with the source language first, which is how
+     * {@link TerminologyReader#readTbx} tells source from target when the document has no language.
+     */
+    static long writeTbx(Iterable<TerminologyEntry> entries, OutputStream out) throws IOException {
+        long written = 0;
+        try {
+            XMLStreamWriter writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("martif");
+            writer.writeAttribute("type", "TBX-Basic");
+            writer.writeStartElement("martifHeader");
+            writer.writeStartElement("fileDesc");
+            writer.writeStartElement("sourceDesc");
+            writer.writeStartElement("p");
+            writer.writeCharacters("aem-translategemma-connector");
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeStartElement("text");
+            writer.writeStartElement("body");
+
+            for (TerminologyEntry entry : entries) {
+                writer.writeStartElement("termEntry");
+                if (entry.getTermId() != null) {
+                    writer.writeAttribute("id", entry.getTermId());
+                }
+                writeDescrip(writer, "subjectField", entry.getDomain());
+                writeDescrip(writer, "definition", entry.getDefinition());
+                writeLangSet(writer, entry.getSourceLanguage(), entry.getSourceTerm());
+                writeLangSet(writer, entry.getTargetLanguage(), entry.getTargetTerm());
+                writer.writeEndElement();
+                written++;
+            }
+
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write TBX after " + written + " term(s): " + e.getMessage(), e);
+        }
+        out.flush();
+        return written;
+    }
+
+    static long writeCsv(Iterable<TerminologyEntry> entries, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("source_term,target_term,source_language,target_language,domain,definition,status,term_id\r\n");
+        long written = 0;
+        for (TerminologyEntry entry : entries) {
+            writeCsvRecord(writer, entry.getSourceTerm(), entry.getTargetTerm(), entry.getSourceLanguage(),
+                    entry.getTargetLanguage(), entry.getDomain(), entry.getDefinition(), entry.getStatus(),
+                    entry.getTermId());
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    static long writeJson(Iterable<TerminologyEntry> entries, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            for (TerminologyEntry entry : entries) {
+                generator.writeStartObject();
+                writeField(generator, "termId", entry.getTermId());
+                writeField(generator, "sourceTerm", entry.getSourceTerm());
+                writeField(generator, "targetTerm", entry.getTargetTerm());
+                writeField(generator, "sourceLanguage", entry.getSourceLanguage());
+                writeField(generator, "targetLanguage", entry.getTargetLanguage());
+                writeField(generator, "domain", entry.getDomain());
+                writeField(generator, "definition", entry.getDefinition());
+                writeField(generator, "status", entry.getStatus());
+                generator.writeEndObject();
+                written++;
+            }
+            generator.writeEndArray();
+        }
+        out.flush();
+        return written;
+    }
+
+    private static void writeDescrip(XMLStreamWriter writer, String type, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        writer.writeStartElement("descrip");
+        writer.writeAttribute("type", type);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static void writeLangSet(XMLStreamWriter writer, String language, String term) throws XMLStreamException {
+        writer.writeStartElement("langSet");
+        writer.writeAttribute("xml", XML_NS, "lang", language);
+        writer.writeStartElement("tig");
+        writer.writeStartElement("term");
+        writer.writeCharacters(term);
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    private static void writeCsvRecord(Writer writer, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+                    || field.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+}
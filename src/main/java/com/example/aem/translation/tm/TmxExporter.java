@@ -0,0 +1,109 @@
+package com.example.aem.translation.tm;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streaming TMX 1.4 exporter. Units are written as the memory hands them out, so the export
+ * never holds more than one entry in memory.
+ */
+public final class TmxExporter {
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+    private static final DateTimeFormatter TMX_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    /**
+     * Writes the entries of {@code source} for the given pair (null for any language) to
+     * {@code out}. The stream is flushed but not closed.
+     */
+    public long export(OutputStream out, String sourceLanguage, String targetLanguage,
+                       TranslationMemoryService source) throws IOException {
+        long[] written = new long[1];
+        try {
+            XMLStreamWriter writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("tmx");
+            writer.writeAttribute("version", "1.4");
+            writer.writeStartElement("header");
+            writer.writeAttribute("creationtool", "aem-translategemma-connector");
+            writer.writeAttribute("creationtoolversion", "1.0");
+            writer.writeAttribute("datatype", "plaintext");
+            writer.writeAttribute("segtype", "sentence");
+            writer.writeAttribute("adminlang", "en");
+            writer.writeAttribute("srclang", sourceLanguage != null ? sourceLanguage : "*all*");
+            writer.writeAttribute("o-tmf", "translategemma");
+            writer.writeEndElement();
+            writer.writeStartElement("body");
+
+            source.forEachEntry(sourceLanguage, targetLanguage, entry -> {
+                try {
+                    writeUnit(writer, entry);
+                    written[0]++;
+                } catch (XMLStreamException e) {
+                    throw new ExportFailure(e);
+                }
+            });
+
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write TMX: " + e.getMessage(), e);
+        } catch (ExportFailure e) {
+            throw new IOException("Failed to write TMX after " + written[0] + " unit(s): "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+        out.flush();
+        return written[0];
+    }
+
+    private static void writeUnit(XMLStreamWriter writer, TranslationMemoryService.TMEntry entry)
+            throws XMLStreamException {
+        writer.writeStartElement("tu");
+        writer.writeAttribute("srclang", entry.getSourceLanguage());
+        writer.writeAttribute("creationdate", TMX_DATE.format(Instant.ofEpochMilli(entry.getCreatedAt())));
+        writeProp(writer, "x-category", entry.getCategory());
+        writeProp(writer, "x-content-type", entry.getContentType() != null ? entry.getContentType().name() : null);
+        writeProp(writer, "x-path", entry.getPath());
+        writeProp(writer, "x-rating", String.valueOf(entry.getRating()));
+        writeVariant(writer, entry.getSourceLanguage(), entry.getSourceText());
+        writeVariant(writer, entry.getTargetLanguage(), entry.getTargetText());
+        writer.writeEndElement();
+    }
+
+    private static void writeProp(XMLStreamWriter writer, String type, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        writer.writeStartElement("prop");
+        writer.writeAttribute("type", type);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static void writeVariant(XMLStreamWriter writer, String language, String text) throws XMLStreamException {
+        writer.writeStartElement("tuv");
+        writer.writeAttribute("xml", XML_NS, "lang", language);
+        writer.writeStartElement("seg");
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    private static final class ExportFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExportFailure(XMLStreamException cause) {
+            super(cause);
+        }
+    }
+}
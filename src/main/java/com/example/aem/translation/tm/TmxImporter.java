@@ -0,0 +1,513 @@
+package com.example.aem.translation.tm;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming TMX 1.4 importer.
+ * <p>
+ * The file is read with StAX one translation unit at a time, so heap use does not depend on file
+ * size. Units are grouped into batches per language pair and handed to
+ * {@link TranslationMemoryService#storeTranslations(List)} on a small worker pool: batches of one
+ * pair are written in order, different pairs are written in parallel, and parsing blocks once
+ * {@code 2 x parallelism} batches are waiting so memory stays bounded.
+ * <p>
+ * A unit with several target variants yields one entry per target language. Segments containing
+ * inline codes ({@code bpt}, {@code ept}, {@code ph}, {@code it}, {@code ut}) are imported as HTML
+ * with their native code restored.
+ */
+public final class TmxImporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TmxImporter.class);
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+    private static final DateTimeFormatter TMX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final int batchSize;
+    private final int parallelism;
+    private final int progressInterval;
+    private final boolean keepRegionSubtags;
+    private final String defaultCategory;
+
+    private TmxImporter(Builder builder) {
+        this.batchSize = builder.batchSize;
+        this.parallelism = builder.parallelism;
+        this.progressInterval = builder.progressInterval;
+        this.keepRegionSubtags = builder.keepRegionSubtags;
+        this.defaultCategory = builder.defaultCategory;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Imports every translation unit of {@code tmx} into {@code target}. The stream is not closed.
+     *
+     * @param listener receives a snapshot every {@code progressInterval} units and once at the end; may be null
+     */
+    public ImportProgress importTmx(InputStream tmx, TranslationMemoryService target, ProgressListener listener)
+            throws IOException {
+        CountingInputStream input = new CountingInputStream(tmx);
+        ImportState state = new ImportState(System.currentTimeMillis(), input);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "translategemma-tmx-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        Map<String, List<TranslationMemoryService.TMEntry>> pending = new HashMap<>();
+        Map<String, CompletableFuture<Void>> lanes = new HashMap<>();
+
+        XMLStreamReader reader = null;
+        try {
+            reader = newInputFactory().createXMLStreamReader(input);
+            String sourceLanguage = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ("header".equals(element)) {
+                    sourceLanguage = normalizeLanguage(reader.getAttributeValue(null, "srclang"));
+                } else if ("tu".equals(element)) {
+                    for (TranslationMemoryService.TMEntry entry : readUnit(reader, sourceLanguage, state)) {
+                        String pair = entry.getSourceLanguage() + "->" + entry.getTargetLanguage();
+                        List<TranslationMemoryService.TMEntry> batch = pending.computeIfAbsent(pair, k -> new ArrayList<>());
+                        batch.add(entry);
+                        if (batch.size() >= batchSize) {
+                            submit(pair, pending.remove(pair), target, pool, inFlight, lanes, state);
+                        }
+                    }
+                    if (listener != null && state.unitsRead % progressInterval == 0) {
+                        listener.onProgress(state.snapshot(false));
+                    }
+                }
+            }
+            for (Map.Entry<String, List<TranslationMemoryService.TMEntry>> batch : pending.entrySet()) {
+                submit(batch.getKey(), batch.getValue(), target, pool, inFlight, lanes, state);
+            }
+            pending.clear();
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed TMX after " + state.unitsRead + " translation unit(s): " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+            awaitLanes(lanes);
+            pool.shutdown();
+        }
+
+        ImportProgress result = state.snapshot(true);
+        if (listener != null) {
+            listener.onProgress(result);
+        }
+        LOG.info("TMX import finished: {} unit(s), {} entries stored, {} failed, {} skipped in {} ms ({} units/s)",
+                result.getUnitsRead(), result.getEntriesStored(), result.getEntriesFailed(),
+                result.getUnitsSkipped(), result.getElapsedMillis(), Math.round(result.getUnitsPerSecond()));
+        return result;
+    }
+
+    private void submit(String pair, List<TranslationMemoryService.TMEntry> batch, TranslationMemoryService target,
+                        ExecutorService pool, Semaphore inFlight, Map<String, CompletableFuture<Void>> lanes,
+                        ImportState state) throws InterruptedIOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("TMX import interrupted");
+        }
+        state.entriesQueued.addAndGet(batch.size());
+        CompletableFuture<Void> previous = lanes.getOrDefault(pair, CompletableFuture.completedFuture(null));
+        lanes.put(pair, previous.thenRunAsync(() -> {
+            try {
+                target.storeTranslations(batch);
+                state.entriesStored.addAndGet(batch.size());
+                state.perPair.computeIfAbsent(pair, k -> new AtomicInteger()).addAndGet(batch.size());
+            } catch (Exception e) {
+                LOG.warn("Failed to store {} TMX entries for {}", batch.size(), pair, e);
+                state.entriesFailed.addAndGet(batch.size());
+            } finally {
+                inFlight.release();
+            }
+        }, pool));
+    }
+
+    private List<TranslationMemoryService.TMEntry> readUnit(XMLStreamReader reader, String headerSourceLanguage,
+                                                            ImportState state) throws XMLStreamException {
+        state.unitsRead++;
+        String tuSourceLanguage = normalizeLanguage(reader.getAttributeValue(null, "srclang"));
+        String sourceLanguage = tuSourceLanguage != null && !"*all*".equals(tuSourceLanguage)
+                ? tuSourceLanguage : headerSourceLanguage;
+        long createdAt = parseDate(reader.getAttributeValue(null, "creationdate"));
+        Map<String, String> props = new HashMap<>();
+        List<Variant> variants = new ArrayList<>();
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = reader.getLocalName();
+                if ("prop".equals(element) && depth == 1) {
+                    String type = reader.getAttributeValue(null, "type");
+                    String value = reader.getElementText();
+                    if (type != null) {
+                        props.put(type, value.trim());
+                    }
+                } else if ("tuv".equals(element) && depth == 1) {
+                    String language = reader.getAttributeValue(XML_NS, "lang");
+                    if (language == null) {
+                        language = reader.getAttributeValue(null, "lang");
+                    }
+                    Variant variant = readVariant(reader, normalizeLanguage(language));
+                    if (variant != null) {
+                        variants.add(variant);
+                    }
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        Variant source = null;
+        for (Variant variant : variants) {
+            if (variant.language != null && variant.language.equals(sourceLanguage)) {
+                source = variant;
+                break;
+            }
+        }
+        if (source == null || source.text.trim().isEmpty() || variants.size() < 2) {
+            state.unitsSkipped++;
+            return Collections.emptyList();
+        }
+
+        String category = props.getOrDefault("x-category", defaultCategory);
+        String path = props.get("x-path");
+        int rating = parseInt(props.get("x-rating"));
+        TranslationConstants.ContentType declaredType = parseContentType(props.get("x-content-type"));
+        List<TranslationMemoryService.TMEntry> entries = new ArrayList<>(variants.size() - 1);
+        for (Variant variant : variants) {
+            if (variant == source || variant.language == null || variant.text.trim().isEmpty()) {
+                continue;
+            }
+            TranslationConstants.ContentType contentType = declaredType != null ? declaredType
+                    : source.inline || variant.inline
+                    ? TranslationConstants.ContentType.HTML : TranslationConstants.ContentType.PLAIN;
+            entries.add(new TranslationMemoryService.TMEntry(source.text, variant.text, source.language,
+                    variant.language, contentType, category, path, rating, createdAt));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads one {@code tuv}, leaving the reader on its end tag. Inline code elements contribute
+     * their (unescaped) native code, so tagged segments round-trip as markup.
+     */
+    private Variant readVariant(XMLStreamReader reader, String language) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean inSegment = false;
+        boolean inline = false;
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String element = reader.getLocalName();
+                if ("seg".equals(element)) {
+                    inSegment = true;
+                } else if (inSegment && isInlineCode(element)) {
+                    inline = true;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if ("seg".equals(reader.getLocalName())) {
+                    inSegment = false;
+                }
+            } else if (inSegment && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE)) {
+                text.append(reader.getText());
+            }
+        }
+        return new Variant(language, text.toString(), inline);
+    }
+
+    private static boolean isInlineCode(String element) {
+        return "bpt".equals(element) || "ept".equals(element) || "ph".equals(element)
+                || "it".equals(element) || "ut".equals(element);
+    }
+
+    /**
+     * Lower-cases a language code and uses hyphens between subtags, as imported entries are
+     * stored; null for a blank code.
+     */
+    public static String canonicalLanguage(String language) {
+        if (language == null || language.trim().isEmpty()) {
+            return null;
+        }
+        return language.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private String normalizeLanguage(String language) {
+        String normalized = canonicalLanguage(language);
+        if (normalized == null) {
+            return null;
+        }
+        if (!keepRegionSubtags && !"*all*".equals(normalized)) {
+            int dash = normalized.indexOf('-');
+            if (dash > 0) {
+                normalized = normalized.substring(0, dash);
+            }
+        }
+        return normalized;
+    }
+
+    private static long parseDate(String value) {
+        if (value == null) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return LocalDateTime.parse(value.trim(), TMX_DATE).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    private static TranslationConstants.ContentType parseContentType(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return TranslationConstants.ContentType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Vendor files are untrusted input: no DTDs, no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    private static void awaitLanes(Map<String, CompletableFuture<Void>> lanes) throws InterruptedIOException {
+        try {
+            CompletableFuture.allOf(lanes.values().toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("TMX import interrupted while storing entries");
+        } catch (ExecutionException e) {
+            // Batch failures are counted per batch and never complete a lane exceptionally
+            LOG.warn("Unexpected TMX import failure", e.getCause());
+        }
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                LOG.debug("Failed to close TMX reader", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(ImportProgress progress);
+    }
+
+    /**
+     * Snapshot of an import; the last one reported is also returned by {@code importTmx}.
+     */
+    public static final class ImportProgress {
+        private final long unitsRead;
+        private final long unitsSkipped;
+        private final long entriesQueued;
+        private final long entriesStored;
+        private final long entriesFailed;
+        private final long bytesRead;
+        private final long elapsedMillis;
+        private final boolean complete;
+        private final Map<String, Integer> entriesByLanguagePair;
+
+        ImportProgress(long unitsRead, long unitsSkipped, long entriesQueued, long entriesStored, long entriesFailed,
+                       long bytesRead, long elapsedMillis, boolean complete, Map<String, Integer> entriesByLanguagePair) {
+            this.unitsRead = unitsRead;
+            this.unitsSkipped = unitsSkipped;
+            this.entriesQueued = entriesQueued;
+            this.entriesStored = entriesStored;
+            this.entriesFailed = entriesFailed;
+            this.bytesRead = bytesRead;
+            this.elapsedMillis = elapsedMillis;
+            this.complete = complete;
+            this.entriesByLanguagePair = entriesByLanguagePair;
+        }
+
+        public long getUnitsRead() { return unitsRead; }
+        public long getUnitsSkipped() { return unitsSkipped; }
+        public long getEntriesQueued() { return entriesQueued; }
+        public long getEntriesStored() { return entriesStored; }
+        public long getEntriesFailed() { return entriesFailed; }
+        public long getBytesRead() { return bytesRead; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isComplete() { return complete; }
+        public Map<String, Integer> getEntriesByLanguagePair() { return entriesByLanguagePair; }
+
+        public double getUnitsPerSecond() {
+            return elapsedMillis > 0 ? unitsRead * 1000.0 / elapsedMillis : unitsRead;
+        }
+    }
+
+    public static final class Builder {
+        private int batchSize = 1000;
+        private int parallelism = 4;
+        private int progressInterval = 10_000;
+        private boolean keepRegionSubtags;
+        private String defaultCategory = "general";
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = Math.max(1, batchSize);
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            this.parallelism = Math.max(1, parallelism);
+            return this;
+        }
+
+        public Builder progressInterval(int progressInterval) {
+            this.progressInterval = Math.max(1, progressInterval);
+            return this;
+        }
+
+        /**
+         * Keep {@code en-US} as is instead of importing it as {@code en}.
+         */
+        public Builder keepRegionSubtags(boolean keepRegionSubtags) {
+            this.keepRegionSubtags = keepRegionSubtags;
+            return this;
+        }
+
+        public Builder defaultCategory(String defaultCategory) {
+            this.defaultCategory = defaultCategory;
+            return this;
+        }
+
+        public TmxImporter build() {
+            return new TmxImporter(this);
+        }
+    }
+
+    private static final class Variant {
+        private final String language;
+        private final String text;
+        private final boolean inline;
+
+        Variant(String language, String text, boolean inline) {
+            this.language = language;
+            this.text = text;
+            this.inline = inline;
+        }
+    }
+
+    /**
+     * Counters shared between the parsing thread and the writer pool.
+     */
+    private static final class ImportState {
+        private final long startedAt;
+        private final CountingInputStream input;
+        private final AtomicLong entriesQueued = new AtomicLong();
+        private final AtomicLong entriesStored = new AtomicLong();
+        private final AtomicLong entriesFailed = new AtomicLong();
+        private final Map<String, AtomicInteger> perPair = new ConcurrentHashMap<>();
+        // Parsing thread only
+        private long unitsRead;
+        private long unitsSkipped;
+
+        ImportState(long startedAt, CountingInputStream input) {
+            this.startedAt = startedAt;
+            this.input = input;
+        }
+
+        ImportProgress snapshot(boolean complete) {
+            Map<String, Integer> pairs = new HashMap<>();
+            perPair.forEach((pair, count) -> pairs.put(pair, count.get()));
+            return new ImportProgress(unitsRead, unitsSkipped, entriesQueued.get(), entriesStored.get(),
+                    entriesFailed.get(), input.count, System.currentTimeMillis() - startedAt, complete,
+                    Collections.unmodifiableMap(pairs));
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the underlying stream
+        }
+    }
+}
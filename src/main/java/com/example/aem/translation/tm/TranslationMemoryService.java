@@ -4,8 +4,13 @@ import com.adobe.granite.translation.api.TranslationConstants;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.Resource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface TranslationMemoryService {
 
@@ -25,6 +30,16 @@ public interface TranslationMemoryService {
         public TMEntry(String sourceText, String targetText, String sourceLanguage, 
                       String targetLanguage, TranslationConstants.ContentType contentType,
                       String category, String path, int rating) {
+            this(sourceText, targetText, sourceLanguage, targetLanguage, contentType, category, path, rating,
+                 System.currentTimeMillis());
+        }
+
+        /**
+         * Restores an entry read back from storage with its original creation time.
+         */
+        public TMEntry(String sourceText, String targetText, String sourceLanguage,
+                      String targetLanguage, TranslationConstants.ContentType contentType,
+                      String category, String path, int rating, long createdAt) {
             this.sourceText = sourceText;
             this.targetText = targetText;
             this.sourceLanguage = sourceLanguage;
@@ -33,8 +48,8 @@ public interface TranslationMemoryService {
             this.category = category;
             this.path = path;
             this.rating = rating;
-            this.createdAt = System.currentTimeMillis();
-            this.lastUsedAt = System.currentTimeMillis();
+            this.createdAt = createdAt;
+            this.lastUsedAt = createdAt;
             this.useCount = 1;
         }
 
@@ -59,9 +74,62 @@ public interface TranslationMemoryService {
                              TranslationConstants.ContentType contentType, String category,
                              double minScore, int maxResults);
 
+    /**
+     * Looks up several texts of one language pair at once; result {@code i} holds the matches for
+     * text {@code i}. Implementations backed by a remote store should override this to avoid one
+     * round trip per text.
+     */
+    default List<List<TMEntry>> findMatches(List<String> sourceTexts, String sourceLanguage, String targetLanguage,
+                                            TranslationConstants.ContentType contentType, String category,
+                                            double minScore, int maxResults) {
+        List<List<TMEntry>> results = new ArrayList<>(sourceTexts.size());
+        for (String sourceText : sourceTexts) {
+            results.add(findMatches(sourceText, sourceLanguage, targetLanguage, contentType, category,
+                minScore, maxResults));
+        }
+        return results;
+    }
+
     Map<String, Integer> getStatistics();
 
     void clearMemory();
 
+    /**
+     * Where the entries are kept: a directory, an endpoint URL, or the repository path of an
+     * in-memory store.
+     */
     String getStoragePath();
+
+    /**
+     * Stores a batch of entries. Implementations should override this when they can write a
+     * batch more cheaply than one entry at a time.
+     */
+    default void storeTranslations(List<TMEntry> entries) throws Exception {
+        for (TMEntry entry : entries) {
+            storeTranslation(entry.getSourceText(), entry.getTargetText(), entry.getSourceLanguage(),
+                entry.getTargetLanguage(), entry.getContentType(), entry.getCategory(), entry.getPath(),
+                entry.getRating());
+        }
+    }
+
+    /**
+     * Streams every live entry of a language pair to {@code consumer}; a null language matches
+     * all languages on that side.
+     */
+    void forEachEntry(String sourceLanguage, String targetLanguage, Consumer<TMEntry> consumer);
+
+    /**
+     * Streams a TMX document into this memory with the default {@link TmxImporter} settings.
+     */
+    default TmxImporter.ImportProgress importTmx(InputStream tmx, TmxImporter.ProgressListener listener)
+            throws IOException {
+        return TmxImporter.builder().build().importTmx(tmx, this, listener);
+    }
+
+    /**
+     * Writes the entries of a language pair as TMX 1.4 and returns the number of units written.
+     */
+    default long exportTmx(OutputStream out, String sourceLanguage, String targetLanguage) throws IOException {
+        return new TmxExporter().export(out, sourceLanguage, targetLanguage, this);
+    }
 }
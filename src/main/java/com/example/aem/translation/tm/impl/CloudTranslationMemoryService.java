@@ -4,21 +4,44 @@ import com.example.aem.translation.tm.TranslationMemoryService;
 import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.adobe.granite.translation.api.TranslationConstants;
 import com.example.aem.translation.util.HttpClientProvider;
+import com.example.aem.translation.util.TranslationMemoryWriteBuffer;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Enterprise-grade external Translation Memory store.
+ * <p>
+ * Lookups and writes go to the batch endpoints {@code POST /query/batch} and
+ * {@code POST /store/batch}, and TMX export pages through {@code POST /export}; large requests are split into chunks of {@code externalTmBatchSize}
+ * that run concurrently over the shared connection pool. Single stores are collected by a
+ * micro-batching write buffer, and recent lookups are served from a small local hot cache.
+ * A stored batch evicts the cached lookups of its language pairs, since new entries can
+ * change both exact and fuzzy results.
  */
 @Component(
     service = TranslationMemoryService.class,
@@ -32,75 +55,228 @@ public class CloudTranslationMemoryService implements TranslationMemoryService {
 
     private static final Logger LOG = LoggerFactory.getLogger(CloudTranslationMemoryService.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
-    
+
     @Reference
     private HttpClientProvider httpClientProvider;
 
+    private final AtomicLong queryRequests = new AtomicLong();
+    private final AtomicLong storeRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+
     private String endpoint;
     private boolean enabled;
+    private int batchSize = 50;
+    private volatile ExecutorService requestExecutor;
+    private volatile TranslationMemoryWriteBuffer writeBuffer;
+    private volatile Cache<String, List<TMEntry>> hotCache;
 
     @Activate
     public void activate(TranslateGemmaConfig config) {
+        // Entries buffered under the previous configuration go to the previous endpoint
+        deactivate();
         this.endpoint = config.externalTmEndpoint();
         this.enabled = config.useExternalTm() && !endpoint.isEmpty();
-        LOG.info("Cloud TM Service activated. Enabled: {}, Endpoint: {}", enabled, endpoint);
+        this.batchSize = Math.max(1, config.externalTmBatchSize());
+
+        if (enabled) {
+            int concurrency = Math.max(1, config.externalTmMaxConcurrency());
+            this.requestExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "translategemma-cloud-tm");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.writeBuffer = new TranslationMemoryWriteBuffer(() -> this, batchSize,
+                config.externalTmFlushIntervalMs(), batchSize * 200);
+            this.hotCache = config.externalTmHotCacheSize() > 0
+                ? Caffeine.newBuilder()
+                    .maximumSize(config.externalTmHotCacheSize())
+                    .expireAfterWrite(Math.max(1, config.externalTmHotCacheTtlSeconds()), TimeUnit.SECONDS)
+                    .build()
+                : null;
+        }
+        LOG.info("Cloud TM Service activated. Enabled: {}, Endpoint: {}, batchSize: {}", enabled, endpoint, batchSize);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        // Flush pending writes before the request pool goes away
+        TranslationMemoryWriteBuffer buffer = writeBuffer;
+        writeBuffer = null;
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+        ExecutorService executor = requestExecutor;
+        requestExecutor = null;
+        if (executor != null) {
+            executor.shutdown();
+        }
+        Cache<String, List<TMEntry>> cache = hotCache;
+        hotCache = null;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
     }
 
+    // Protected method for testing to inject an HttpClientProvider
+    public void setHttpClientProvider(HttpClientProvider httpClientProvider) {
+        this.httpClientProvider = httpClientProvider;
+    }
+
+    /**
+     * Queues the entry for the next {@code /store/batch} request and returns immediately.
+     */
     @Override
     public void storeTranslation(String sourceText, String targetText, String sourceLanguage,
                                 String targetLanguage, TranslationConstants.ContentType contentType,
                                 String category, String path, int rating) throws Exception {
-        if (!enabled) return;
+        TranslationMemoryWriteBuffer buffer = writeBuffer;
+        if (!enabled || buffer == null) return;
 
-        TMEntry entry = new TMEntry(sourceText, targetText, sourceLanguage, targetLanguage, 
-                                   contentType, category, path, rating);
-        
-        HttpPost post = new HttpPost(endpoint + "/store");
-        post.setEntity(new StringEntity(objectMapper.writeValueAsString(entry)));
-        post.setHeader("Content-Type", "application/json");
+        buffer.offer(new TMEntry(sourceText, targetText, sourceLanguage, targetLanguage,
+                                 contentType, category, path, rating));
+    }
 
-        try (CloseableHttpResponse response = httpClientProvider.getHttpClient().execute(post)) {
-            if (response.getStatusLine().getStatusCode() != 200) {
-                LOG.error("Failed to store TM entry in cloud. Status: {}", response.getStatusLine());
-            }
+    /**
+     * Stores the entries synchronously in concurrent {@code /store/batch} requests.
+     */
+    @Override
+    public void storeTranslations(List<TMEntry> entries) throws Exception {
+        if (!enabled || entries.isEmpty()) return;
+
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (List<TMEntry> chunk : chunks(entries)) {
+            requests.add(submit(() -> {
+                postStoreBatch(chunk);
+                return null;
+            }));
         }
+        try {
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Pages through {@code /export}, {@code externalTmBatchSize} entries per request, following
+     * the {@code nextCursor} of each response until the endpoint returns none.
+     */
+    @Override
+    public void forEachEntry(String sourceLanguage, String targetLanguage, Consumer<TMEntry> consumer) {
+        if (!enabled) return;
+
+        String cursor = null;
+        do {
+            ObjectNode page = objectMapper.createObjectNode();
+            page.put("source", sourceLanguage);
+            page.put("target", targetLanguage);
+            page.put("cursor", cursor);
+            page.put("limit", batchSize);
+            JsonNode response;
+            try {
+                response = post("/export", page);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to export Cloud TM entries", e);
+            }
+            for (JsonNode entry : response.path("entries")) {
+                consumer.accept(toEntry(entry));
+            }
+            cursor = response.path("nextCursor").asText(null);
+        } while (cursor != null && !cursor.isEmpty());
     }
 
     @Override
     public List<TMEntry> findMatches(String sourceText, String sourceLanguage, String targetLanguage,
                                     TranslationConstants.ContentType contentType, String category,
                                     double minScore, int maxResults) {
-        if (!enabled) return Collections.emptyList();
+        return findMatches(Collections.singletonList(sourceText), sourceLanguage, targetLanguage,
+            contentType, category, minScore, maxResults).get(0);
+    }
 
-        try {
-            HttpPost post = new HttpPost(endpoint + "/query");
-            Map<String, Object> query = new HashMap<>();
-            query.put("text", sourceText);
-            query.put("source", sourceLanguage);
-            query.put("target", targetLanguage);
-            query.put("minScore", minScore);
-            query.put("maxResults", maxResults);
-
-            post.setEntity(new StringEntity(objectMapper.writeValueAsString(query)));
-            post.setHeader("Content-Type", "application/json");
-
-            try (CloseableHttpResponse response = httpClientProvider.getHttpClient().execute(post)) {
-                String json = EntityUtils.toString(response.getEntity());
-                return Arrays.asList(objectMapper.readValue(json, TMEntry[].class));
+    /**
+     * Serves what it can from the hot cache and fetches the rest in concurrent
+     * {@code /query/batch} requests. A failed request yields empty matches for its texts only.
+     */
+    @Override
+    public List<List<TMEntry>> findMatches(List<String> sourceTexts, String sourceLanguage, String targetLanguage,
+                                           TranslationConstants.ContentType contentType, String category,
+                                           double minScore, int maxResults) {
+        List<List<TMEntry>> results = new ArrayList<>(Collections.nCopies(sourceTexts.size(), Collections.emptyList()));
+        if (!enabled) return results;
+
+        Cache<String, List<TMEntry>> cache = hotCache;
+        String keyPrefix = languagePairPrefix(sourceLanguage, targetLanguage) + contentType + '\u0000'
+            + category + '\u0000' + minScore + '\u0000' + maxResults + '\u0000';
+        // Distinct texts still to fetch, with the positions each one fills
+        Map<String, List<Integer>> misses = new LinkedHashMap<>();
+        for (int i = 0; i < sourceTexts.size(); i++) {
+            String text = sourceTexts.get(i);
+            List<TMEntry> cached = cache != null ? cache.getIfPresent(keyPrefix + text) : null;
+            if (cached != null) {
+                results.set(i, cached);
+            } else {
+                misses.computeIfAbsent(text, k -> new ArrayList<>()).add(i);
             }
-        } catch (Exception e) {
-            LOG.error("Failed to query cloud TM", e);
-            return Collections.emptyList();
         }
+        if (misses.isEmpty()) {
+            return results;
+        }
+
+        List<String> missTexts = new ArrayList<>(misses.keySet());
+        List<List<String>> chunks = chunks(missTexts);
+        List<CompletableFuture<List<List<TMEntry>>>> requests = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            requests.add(submit(() -> postQueryBatch(chunk, sourceLanguage, targetLanguage, contentType,
+                category, minScore, maxResults)).exceptionally(error -> {
+                    LOG.warn("Cloud TM query for {} segments failed", chunk.size(), error);
+                    return null;
+                }));
+        }
+
+        int offset = 0;
+        for (int c = 0; c < chunks.size(); c++) {
+            List<List<TMEntry>> chunkResults = requests.get(c).join();
+            List<String> chunk = chunks.get(c);
+            for (int j = 0; j < chunk.size(); j++) {
+                List<TMEntry> matches = chunkResults != null && j < chunkResults.size()
+                    ? chunkResults.get(j) : Collections.emptyList();
+                for (int position : misses.get(missTexts.get(offset + j))) {
+                    results.set(position, matches);
+                }
+                if (cache != null && chunkResults != null) {
+                    cache.put(keyPrefix + chunk.get(j), matches);
+                }
+            }
+            offset += chunk.size();
+        }
+        return results;
     }
 
     @Override
     public Map<String, Integer> getStatistics() {
-        return Collections.singletonMap("remote_persistence", 1);
+        Map<String, Integer> stats = new HashMap<>();
+        stats.put("remote_persistence", 1);
+        stats.put("queryRequests", (int) queryRequests.get());
+        stats.put("storeRequests", (int) storeRequests.get());
+        stats.put("failedRequests", (int) failedRequests.get());
+        TranslationMemoryWriteBuffer buffer = writeBuffer;
+        if (buffer != null) {
+            stats.put("pendingWrites", buffer.getPendingCount());
+            stats.put("droppedWrites", (int) buffer.getDroppedCount());
+        }
+        Cache<String, List<TMEntry>> cache = hotCache;
+        if (cache != null) {
+            stats.put("hotCacheEntries", (int) cache.estimatedSize());
+        }
+        return stats;
     }
 
     @Override
     public void clearMemory() {
+        Cache<String, List<TMEntry>> cache = hotCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
         // Implementation for clearing remote cache if supported by endpoint
         LOG.warn("Clear memory requested for Cloud TM (Not implemented locally)");
     }
@@ -109,4 +285,115 @@ public class CloudTranslationMemoryService implements TranslationMemoryService {
     public String getStoragePath() {
         return endpoint;
     }
+
+    private List<List<TMEntry>> postQueryBatch(List<String> texts, String sourceLanguage, String targetLanguage,
+                                               TranslationConstants.ContentType contentType, String category,
+                                               double minScore, int maxResults) throws IOException {
+        ObjectNode query = objectMapper.createObjectNode();
+        query.put("source", sourceLanguage);
+        query.put("target", targetLanguage);
+        query.put("contentType", contentType != null ? contentType.name() : null);
+        query.put("category", category);
+        query.put("minScore", minScore);
+        query.put("maxResults", maxResults);
+        ArrayNode textArray = query.putArray("texts");
+        texts.forEach(textArray::add);
+
+        queryRequests.incrementAndGet();
+        JsonNode response = post("/query/batch", query);
+        List<List<TMEntry>> results = new ArrayList<>(texts.size());
+        for (JsonNode matches : response.path("results")) {
+            List<TMEntry> entries = new ArrayList<>(matches.size());
+            for (JsonNode match : matches) {
+                entries.add(toEntry(match));
+            }
+            results.add(Collections.unmodifiableList(entries));
+        }
+        return results;
+    }
+
+    private void postStoreBatch(List<TMEntry> entries) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("entries", objectMapper.valueToTree(entries));
+        storeRequests.incrementAndGet();
+        post("/store/batch", body);
+        invalidateHotCache(entries);
+    }
+
+    private void invalidateHotCache(List<TMEntry> entries) {
+        Cache<String, List<TMEntry>> cache = hotCache;
+        if (cache == null) {
+            return;
+        }
+        Set<String> pairs = new HashSet<>();
+        for (TMEntry entry : entries) {
+            pairs.add(languagePairPrefix(entry.getSourceLanguage(), entry.getTargetLanguage()));
+        }
+        cache.asMap().keySet().removeIf(key -> pairs.stream().anyMatch(key::startsWith));
+    }
+
+    private static String languagePairPrefix(String sourceLanguage, String targetLanguage) {
+        return sourceLanguage + '\u0000' + targetLanguage + '\u0000';
+    }
+
+    private JsonNode post(String path, JsonNode body) throws IOException {
+        HttpPost post = new HttpPost(endpoint + path);
+        post.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = httpClientProvider.getHttpClient().execute(post)) {
+            String json = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException("Cloud TM request " + path + " failed with status " + response.getStatusLine());
+            }
+            return json.isEmpty() ? objectMapper.createObjectNode() : objectMapper.readTree(json);
+        } catch (IOException e) {
+            failedRequests.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private TMEntry toEntry(JsonNode node) {
+        String contentType = node.path("contentType").asText(null);
+        return new TMEntry(
+            node.path("sourceText").asText(null),
+            node.path("targetText").asText(null),
+            node.path("sourceLanguage").asText(null),
+            node.path("targetLanguage").asText(null),
+            contentType != null ? TranslationConstants.ContentType.valueOf(contentType) : null,
+            node.path("category").asText(null),
+            node.path("path").asText(null),
+            node.path("rating").asInt(),
+            node.path("createdAt").asLong(System.currentTimeMillis()));
+    }
+
+    private <T> CompletableFuture<T> submit(RemoteCall<T> call) {
+        ExecutorService executor = requestExecutor;
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(call.execute());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (executor == null) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+        return future;
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>((items.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < items.size(); from += batchSize) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + batchSize)));
+        }
+        return chunks;
+    }
+
+    @FunctionalInterface
+    private interface RemoteCall<T> {
+        T execute() throws Exception;
+    }
 }
@@ -0,0 +1,435 @@
+package com.example.aem.translation.tm.impl;
+
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongFunction;
+
+/**
+ * Character trigram inverted index over the source side of one language pair.
+ * <p>
+ * A lookup never touches the whole memory. Candidates come from the posting lists of the query's
+ * rarest trigrams (prefix filtering), are pruned by length and by the q-gram lemma (k edits
+ * destroy at most 3k trigrams), and only the top-K by shared trigrams are verified with a banded
+ * edit distance that gives up as soon as the distance exceeds what {@code minScore} allows. Each
+ * surviving candidate is scored exactly once.
+ * <p>
+ * Posting lists are counted only up to a fixed budget; lists of common trigrams beyond it are
+ * probed for the leading candidates instead. This trades exhaustive recall on very short or
+ * very generic queries for a lookup cost that does not grow with the size of the memory.
+ * <p>
+ * Score is normalized edit similarity, {@code 1 - distance / max(length)}, on lower-cased text.
+ */
+public final class FuzzyMatchIndex {
+
+    private static final int GRAM = 3;
+    private static final char PAD = '\u0002';
+    // Candidates verified per requested result; the rest are dropped by trigram overlap rank
+    private static final int CANDIDATES_PER_RESULT = 8;
+    private static final int MIN_CANDIDATES = 32;
+    // Postings scanned before switching from counting to probing, and candidates kept for probing
+    private static final int SCAN_BUDGET = 20_000;
+    private static final int PROBE_LIMIT = 256;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    // Store references and normalized source lengths by document id; texts stay in the store
+    private long[] refs = new long[16];
+    private int[] lengths = new int[16];
+    private int count;
+    private int live;
+
+    /**
+     * Indexes the source text of the entry stored at {@code ref} and returns its document id.
+     */
+    public int add(long ref, String sourceText) {
+        String text = normalize(sourceText);
+        int[] grams = distinctGrams(text);
+
+        lock.writeLock().lock();
+        try {
+            int id = count++;
+            if (id == refs.length) {
+                refs = Arrays.copyOf(refs, id * 2);
+                lengths = Arrays.copyOf(lengths, id * 2);
+            }
+            refs[id] = ref;
+            lengths[id] = text.length();
+            live++;
+            for (int gram : grams) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Excludes a superseded document from future results. Its postings stay until the next rebuild.
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id >= 0 && id < count && !removed.get(id)) {
+                removed.set(id);
+                live--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            removed.clear();
+            refs = new long[16];
+            lengths = new int[16];
+            count = 0;
+            live = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Entries whose source scores at least {@code minScore} against {@code sourceText}, best first.
+     * {@code resolver} reads a candidate's entry back from the store; unreadable entries are skipped.
+     */
+    public List<Match> search(String sourceText, double minScore, int maxResults, LongFunction<TMEntry> resolver) {
+        String query = normalize(sourceText);
+        if (query.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+        int[] grams = distinctGrams(query);
+        double threshold = Math.min(1.0, Math.max(0.0, minScore));
+
+        List<Candidate> shortlist;
+        lock.readLock().lock();
+        try {
+            shortlist = shortlist(query.length(), grams, threshold, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(shortlist.size());
+        int[][] rows = new int[2][];
+        for (Candidate candidate : shortlist) {
+            TMEntry entry = resolver.apply(candidate.ref);
+            if (entry == null) {
+                continue;
+            }
+            String text = normalize(entry.getSourceText());
+            int maxLength = Math.max(query.length(), text.length());
+            int maxDistance = (int) Math.floor((1.0 - threshold) * maxLength);
+            int distance = boundedDistance(query, text, maxDistance, rows);
+            if (distance <= maxDistance) {
+                double score = 1.0 - (double) distance / maxLength;
+                if (score >= threshold) {
+                    matches.add(new Match(candidate.ref, entry, score));
+                }
+            }
+        }
+
+        matches.sort((a, b) -> Double.compare(b.score, a.score));
+        return matches.size() > maxResults ? new ArrayList<>(matches.subList(0, maxResults)) : matches;
+    }
+
+    private List<Candidate> shortlist(int queryLength, int[] grams, double threshold, int maxResults) {
+        if (live == 0) {
+            return Collections.emptyList();
+        }
+
+        // Edit similarity >= threshold bounds both the length ratio and the number of edits
+        int minLength = (int) Math.ceil(queryLength * threshold);
+        int maxLength = threshold > 0 ? (int) Math.floor(queryLength / threshold) : Integer.MAX_VALUE;
+        int maxEdits = (int) Math.floor((1.0 - threshold) * Math.max(queryLength, 1) / Math.max(threshold, 0.01));
+        int minOverlap = Math.max(1, grams.length - GRAM * maxEdits);
+
+        Postings[] lists = new Postings[grams.length];
+        int present = 0;
+        for (int gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                lists[present++] = list;
+            }
+        }
+        if (present < minOverlap) {
+            return Collections.emptyList();
+        }
+        lists = Arrays.copyOf(lists, present);
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Any doc sharing minOverlap grams appears in one of the (present - minOverlap + 1) rarest lists.
+        // Very common trigrams make that prefix huge, so scanning also stops at a posting budget;
+        // the remaining lists are only probed for the best candidates found so far.
+        int prefix = present - minOverlap + 1;
+        IntCounter overlap = new IntCounter();
+        int scanned = 0;
+        int next = 0;
+        while (next < prefix && (next == 0 || scanned + lists[next].size <= SCAN_BUDGET)) {
+            Postings list = lists[next++];
+            scanned += list.size;
+            for (int j = 0; j < list.size; j++) {
+                int id = list.ids[j];
+                int length = lengths[id];
+                if (length >= minLength && length <= maxLength && !removed.get(id)) {
+                    overlap.increment(id);
+                }
+            }
+        }
+
+        long[] ranked = overlap.topByCount(PROBE_LIMIT);
+        int[] counts = new int[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            counts[i] = (int) (ranked[i] >>> 32);
+        }
+        for (int i = next; i < present; i++) {
+            Postings list = lists[i];
+            for (int c = 0; c < ranked.length; c++) {
+                if (list.contains((int) ranked[c])) {
+                    counts[c]++;
+                }
+            }
+        }
+
+        int keep = Math.max(MIN_CANDIDATES, maxResults * CANDIDATES_PER_RESULT);
+        List<Candidate> candidates = new ArrayList<>();
+        for (int c = 0; c < ranked.length; c++) {
+            if (counts[c] >= minOverlap) {
+                int id = (int) ranked[c];
+                candidates.add(new Candidate(refs[id], counts[c], Math.abs(lengths[id] - queryLength)));
+            }
+        }
+        candidates.sort((a, b) -> a.overlap != b.overlap ? Integer.compare(b.overlap, a.overlap)
+                : Integer.compare(a.lengthDelta, b.lengthDelta));
+        return candidates.size() > keep ? candidates.subList(0, keep) : candidates;
+    }
+
+    /**
+     * Levenshtein distance restricted to a diagonal band of width {@code 2k + 1}. Returns
+     * {@code k + 1} as soon as the distance is known to exceed {@code k}.
+     */
+    static int boundedDistance(String a, String b, int k, int[][] rows) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > k) {
+            return k + 1;
+        }
+        if (rows[0] == null || rows[0].length < m + 1) {
+            rows[0] = new int[m + 1];
+            rows[1] = new int[m + 1];
+        }
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        int outside = k + 1;
+
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= k ? j : outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - k);
+            int to = Math.min(m, i + k);
+            current[0] = i <= k ? i : outside;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int rowMin = current[0];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > k) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    static int[] distinctGrams(String text) {
+        int length = text.length() + 2;
+        if (length < GRAM) {
+            return new int[0];
+        }
+        int[] grams = new int[length - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            long packed = ((long) charAt(text, i - 1) << 32) | ((long) charAt(text, i) << 16) | charAt(text, i + 1);
+            grams[i] = Long.hashCode(packed * 0x9E3779B97F4A7C15L);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static char charAt(String text, int index) {
+        return index < 0 || index >= text.length() ? PAD : text.charAt(index);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Match {
+        private final long ref;
+        private final TMEntry entry;
+        private final double score;
+
+        Match(long ref, TMEntry entry, double score) {
+            this.ref = ref;
+            this.entry = entry;
+            this.score = score;
+        }
+
+        public long getRef() {
+            return ref;
+        }
+
+        public TMEntry getEntry() {
+            return entry;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    private static final class Candidate {
+        private final long ref;
+        private final int overlap;
+        private final int lengthDelta;
+
+        Candidate(long ref, int overlap, int lengthDelta) {
+            this.ref = ref;
+            this.overlap = overlap;
+            this.lengthDelta = lengthDelta;
+        }
+    }
+
+    /**
+     * Entry ids containing one trigram, ascending because ids are assigned in insertion order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    /**
+     * Open-addressing id-to-count map; avoids boxing on the hot path of every lookup.
+     */
+    private static final class IntCounter {
+        private static final int EMPTY = -1;
+
+        private int[] keys = newKeys(64);
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(int id) {
+            int slot = slot(id);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = id;
+                size++;
+                if (size * 2 > keys.length) {
+                    counts[slot]++;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot]++;
+        }
+
+        /**
+         * Up to {@code limit} entries with the highest counts, packed as {@code count << 32 | id}.
+         */
+        long[] topByCount(int limit) {
+            long[] packed = new long[size];
+            int n = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    packed[n++] = (long) counts[i] << 32 | keys[i];
+                }
+            }
+            Arrays.sort(packed);
+            int keep = Math.min(limit, n);
+            long[] top = new long[keep];
+            for (int i = 0; i < keep; i++) {
+                top[i] = packed[n - 1 - i];
+            }
+            return top;
+        }
+
+        private int slot(int id) {
+            int mask = keys.length - 1;
+            int slot = (id * 0x9E3779B1) >>> 1 & mask;
+            while (keys[slot] != EMPTY && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
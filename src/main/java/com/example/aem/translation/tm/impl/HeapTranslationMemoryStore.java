@@ -0,0 +1,78 @@
+package com.example.aem.translation.tm.impl;
+
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Non-persistent store used when disk persistence is disabled or the service is not activated.
+ * References are list positions.
+ */
+final class HeapTranslationMemoryStore implements TranslationMemoryStore {
+
+    private final List<TMEntry> entries = new ArrayList<>();
+    private int deadEntries;
+
+    @Override
+    public synchronized long append(TMEntry entry) {
+        entries.add(entry);
+        return entries.size() - 1;
+    }
+
+    @Override
+    public synchronized TMEntry read(long ref) {
+        return ref >= 0 && ref < entries.size() ? entries.get((int) ref) : null;
+    }
+
+    @Override
+    public synchronized void markDead(long ref) {
+        deadEntries++;
+    }
+
+    @Override
+    public void replay(EntryVisitor visitor) {
+        List<TMEntry> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries);
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            visitor.visit(i, snapshot.get(i));
+        }
+    }
+
+    @Override
+    public synchronized void compact(LongPredicate live) {
+        List<TMEntry> kept = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (live.test(i)) {
+                kept.add(entries.get(i));
+            }
+        }
+        entries.clear();
+        entries.addAll(kept);
+        deadEntries = 0;
+    }
+
+    @Override
+    public synchronized double getGarbageRatio() {
+        return entries.isEmpty() ? 0 : (double) deadEntries / entries.size();
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return 0;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        deadEntries = 0;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
@@ -1,15 +1,29 @@
 package com.example.aem.translation.tm.impl;
 
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.tm.TmxImporter;
 import com.example.aem.translation.tm.TranslationMemoryService;
 import com.adobe.granite.translation.api.TranslationConstants;
+import org.apache.commons.codec.digest.MurmurHash3;
 import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 @Component(
     service = TranslationMemoryService.class,
@@ -21,7 +35,74 @@ public class JcrTranslationMemoryService implements TranslationMemoryService {
     private static final String TM_ROOT_PATH = "/var/translationmemory/translategemma";
     private static final double DEFAULT_MIN_SCORE = 0.7;
 
-    private final Map<String, List<TranslationMemoryService.TMEntry>> inMemoryCache = new ConcurrentHashMap<>();
+    // Lookups and writes share the lock; compaction and store swaps take it exclusively
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private final Object writeMonitor = new Object();
+    // Exact-match key hash to the entries stored under it; arrays are replaced, never mutated
+    private final Map<Long, Slot[]> exactIndex = new ConcurrentHashMap<>();
+    // Fuzzy candidates per "source_target" language pair
+    private final Map<String, FuzzyMatchIndex> fuzzyIndexes = new ConcurrentHashMap<>();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    private volatile TranslationMemoryStore store = new HeapTranslationMemoryStore();
+    // Directory of the on-disk store; null while the memory is held on heap only
+    private volatile Path storeDirectory;
+    private volatile ExecutorService compactionExecutor;
+    private volatile double compactionGarbageRatio = 0.5;
+
+    @Activate
+    public void activate(TranslateGemmaConfig config) {
+        this.compactionGarbageRatio = config.tmCompactionGarbageRatio();
+        TranslationMemoryStore opened = openStore(config);
+
+        storeLock.writeLock().lock();
+        try {
+            TranslationMemoryStore previous = store;
+            store = opened;
+            previous.close();
+            rebuildIndexes(opened);
+        } catch (IOException e) {
+            LOG.error("Failed to load translation memory, starting empty", e);
+            exactIndex.clear();
+            fuzzyIndexes.clear();
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+
+        ExecutorService previousExecutor = compactionExecutor;
+        compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "translategemma-tm-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (previousExecutor != null) {
+            previousExecutor.shutdown();
+        }
+        maybeScheduleCompaction();
+
+        LOG.info("Translation memory activated with {} entries, {} bytes on disk",
+            getStatistics().get("totalEntries"), opened.getSizeBytes());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        ExecutorService executor = compactionExecutor;
+        compactionExecutor = null;
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        storeLock.writeLock().lock();
+        try {
+            store.close();
+            store = new HeapTranslationMemoryStore();
+            storeDirectory = null;
+            exactIndex.clear();
+            fuzzyIndexes.clear();
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
 
     @Override
     public void storeTranslation(String sourceText, String targetText, String sourceLanguage,
@@ -32,18 +113,73 @@ public class JcrTranslationMemoryService implements TranslationMemoryService {
             return;
         }
 
-        String key = createKey(sourceText, sourceLanguage, targetLanguage, contentType, category);
-        
         TranslationMemoryService.TMEntry entry = new TranslationMemoryService.TMEntry(
             sourceText, targetText, sourceLanguage, targetLanguage,
             contentType, category, path, rating
         );
 
-        inMemoryCache.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        storeLock.readLock().lock();
+        try {
+            synchronized (writeMonitor) {
+                TranslationMemoryStore current = store;
+                index(current.append(entry), entry, current);
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        maybeScheduleCompaction();
 
         LOG.debug("Stored translation in TM: {} -> {}", sourceLanguage, targetLanguage);
     }
 
+    /**
+     * Appends the whole batch under one lock acquisition; entries keep their creation time.
+     */
+    @Override
+    public void storeTranslations(List<TranslationMemoryService.TMEntry> entries) throws Exception {
+        storeLock.readLock().lock();
+        try {
+            synchronized (writeMonitor) {
+                TranslationMemoryStore current = store;
+                for (TranslationMemoryService.TMEntry entry : entries) {
+                    if (StringUtils.isBlank(entry.getSourceText()) || StringUtils.isBlank(entry.getTargetText())) {
+                        continue;
+                    }
+                    index(current.append(entry), entry, current);
+                }
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        maybeScheduleCompaction();
+    }
+
+    /**
+     * Replays the store in write order, skipping superseded entries. Languages are compared in
+     * the form {@link TmxImporter} stores them, and a bare language such as {@code es} also
+     * matches its regional variants. Compaction waits until the iteration finishes.
+     */
+    @Override
+    public void forEachEntry(String sourceLanguage, String targetLanguage,
+                             Consumer<TranslationMemoryService.TMEntry> consumer) {
+        storeLock.readLock().lock();
+        try {
+            TranslationMemoryStore current = store;
+            long[] live = liveRefs();
+            current.replay((ref, entry) -> {
+                if (Arrays.binarySearch(live, ref) >= 0
+                        && languageMatches(sourceLanguage, entry.getSourceLanguage())
+                        && languageMatches(targetLanguage, entry.getTargetLanguage())) {
+                    consumer.accept(entry);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read translation memory store", e);
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
     @Override
     public List<TranslationMemoryService.TMEntry> findMatches(String sourceText, String sourceLanguage, String targetLanguage,
                                     TranslationConstants.ContentType contentType, String category,
@@ -55,121 +191,246 @@ public class JcrTranslationMemoryService implements TranslationMemoryService {
         if (minScore <= 0) {
             minScore = DEFAULT_MIN_SCORE;
         }
-        final double effectiveMinScore = minScore;
         if (maxResults <= 0) {
             maxResults = 5;
         }
 
-        String baseKey = createKey(sourceText, sourceLanguage, targetLanguage, contentType, category);
-        
         List<TranslationMemoryService.TMEntry> results = new ArrayList<>();
+        storeLock.readLock().lock();
+        try {
+            TranslationMemoryStore current = store;
+            Set<Long> seen = new HashSet<>();
 
-        if (inMemoryCache.containsKey(baseKey)) {
-            results.addAll(inMemoryCache.get(baseKey));
-        }
-
-        String partialKey = sourceLanguage + "_" + targetLanguage;
-        inMemoryCache.keySet().stream()
-            .filter(k -> k.startsWith(partialKey) && !k.equals(baseKey))
-            .flatMap(k -> inMemoryCache.get(k).stream())
-            .filter(e -> calculateSimilarity(sourceText, e.getSourceText()) >= effectiveMinScore)
-            .sorted((a, b) -> Double.compare(
-                calculateSimilarity(sourceText, b.getSourceText()),
-                calculateSimilarity(sourceText, a.getSourceText())
-            ))
-            .limit(maxResults)
-            .forEach(e -> { 
-                if (!results.contains(e)) { 
-                    results.add(e); 
-                } 
-            });
+            Slot[] slots = exactIndex.get(exactKey(sourceText, sourceLanguage, targetLanguage, contentType, category));
+            if (slots != null) {
+                for (Slot slot : slots) {
+                    TranslationMemoryService.TMEntry entry = current.read(slot.ref);
+                    // The key is a 64-bit hash, so confirm every keyed field before reporting a hit
+                    if (entry != null && matchesKey(entry, sourceText, sourceLanguage, targetLanguage,
+                            contentType, category)) {
+                        results.add(entry);
+                        seen.add(slot.ref);
+                    }
+                }
+            }
+
+            FuzzyMatchIndex index = fuzzyIndexes.get(languagePairKey(sourceLanguage, targetLanguage));
+            if (index != null && results.size() < maxResults) {
+                for (FuzzyMatchIndex.Match match : index.search(sourceText, minScore, maxResults, current::read)) {
+                    if (seen.add(match.getRef())) {
+                        results.add(match.getEntry());
+                    }
+                }
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
 
         LOG.debug("Found {} TM matches for: {}", results.size(), sourceText.substring(0, Math.min(50, sourceText.length())));
-        
-        return results.stream().limit(maxResults).collect(Collectors.toList());
+
+        return results.size() > maxResults ? new ArrayList<>(results.subList(0, maxResults)) : results;
     }
 
     @Override
     public Map<String, Integer> getStatistics() {
         Map<String, Integer> stats = new HashMap<>();
-        stats.put("totalEntries", inMemoryCache.values().stream().mapToInt(List::size).sum());
-        stats.put("totalKeys", inMemoryCache.size());
-        
-        Map<String, Long> langPairCounts = new HashMap<>();
-        inMemoryCache.values().stream()
-            .flatMap(List::stream)
-            .forEach(e -> {
-                String pair = e.getSourceLanguage() + "->" + e.getTargetLanguage();
-                langPairCounts.merge(pair, 1L, Long::sum);
-            });
-        
-        stats.put("uniqueLanguagePairs", langPairCounts.size());
-        
+        int totalEntries = 0;
+        int languagePairs = 0;
+        for (FuzzyMatchIndex index : fuzzyIndexes.values()) {
+            int size = index.size();
+            totalEntries += size;
+            if (size > 0) {
+                languagePairs++;
+            }
+        }
+        stats.put("totalEntries", totalEntries);
+        stats.put("totalKeys", exactIndex.size());
+        stats.put("uniqueLanguagePairs", languagePairs);
+        stats.put("storeSizeMb", (int) (store.getSizeBytes() / (1024L * 1024L)));
+
         return stats;
     }
 
     @Override
     public void clearMemory() {
-        inMemoryCache.clear();
+        storeLock.writeLock().lock();
+        try {
+            store.clear();
+        } catch (IOException e) {
+            LOG.error("Failed to clear translation memory store", e);
+        } finally {
+            exactIndex.clear();
+            fuzzyIndexes.clear();
+            storeLock.writeLock().unlock();
+        }
         LOG.info("Translation memory cleared");
     }
 
     @Override
     public String getStoragePath() {
-        return TM_ROOT_PATH;
-    }
-
-    private String createKey(String sourceText, String sourceLanguage, String targetLanguage,
-                            TranslationConstants.ContentType contentType, String category) {
-        String textHash = Integer.toHexString(sourceText.toLowerCase().hashCode());
-        String contentTypeStr = contentType != null ? contentType.name() : "PLAIN";
-        String categoryStr = StringUtils.defaultString(category, "general");
-        return sourceLanguage + "_" + targetLanguage + "_" + contentTypeStr + "_" + categoryStr + "_" + textHash;
-    }
-
-    private double calculateSimilarity(String text1, String text2) {
-        if (text1.equalsIgnoreCase(text2)) {
-            return 1.0;
-        }
-        
-        String s1 = text1.toLowerCase();
-        String s2 = text2.toLowerCase();
-        
-        if (s1.contains(s2) || s2.contains(s1)) {
-            return 0.9;
-        }
-        
-        double levenshteinScore = 1.0 - ((double) levenshteinDistance(s1, s2) / Math.max(s1.length(), s2.length()));
-        
-        Set<String> words1 = new HashSet<>(Arrays.asList(s1.split("\\s+")));
-        Set<String> words2 = new HashSet<>(Arrays.asList(s2.split("\\s+")));
-        
-        words1.retainAll(words2);
-        double jaccardScore = words1.size() > 0 ? ((double) words1.size() / Math.max(1, s1.length())) : 0;
-        
-        return (levenshteinScore * 0.7) + (jaccardScore * 0.3);
-    }
-
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
-        }
-        
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
+        Path directory = storeDirectory;
+        return directory != null ? directory.toString() : TM_ROOT_PATH;
+    }
+
+    /**
+     * Rewrites the store without superseded entries and rebuilds the indexes. Lookups and
+     * writes wait until it finishes.
+     */
+    public void compact() throws IOException {
+        storeLock.writeLock().lock();
+        try {
+            TranslationMemoryStore current = store;
+            long[] live = liveRefs();
+            current.compact(ref -> Arrays.binarySearch(live, ref) >= 0);
+            rebuildIndexes(current);
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private long[] liveRefs() {
+        return exactIndex.values().stream()
+            .flatMap(Arrays::stream)
+            .mapToLong(slot -> slot.ref)
+            .sorted()
+            .toArray();
+    }
+
+    private void maybeScheduleCompaction() {
+        ExecutorService executor = compactionExecutor;
+        if (executor == null || store.getGarbageRatio() <= compactionGarbageRatio
+                || !compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Translation memory compaction failed", e);
+                } finally {
+                    compactionScheduled.set(false);
                 }
+            });
+        } catch (RuntimeException e) {
+            // Executor shut down by a concurrent deactivate
+            compactionScheduled.set(false);
+        }
+    }
+
+    private void rebuildIndexes(TranslationMemoryStore source) throws IOException {
+        exactIndex.clear();
+        fuzzyIndexes.clear();
+        source.replay((ref, entry) -> index(ref, entry, source));
+    }
+
+    /**
+     * Adds a stored entry to both indexes. An earlier entry with the same source and target
+     * under the same key is superseded: it leaves the indexes and becomes garbage for compaction.
+     */
+    private void index(long ref, TranslationMemoryService.TMEntry entry, TranslationMemoryStore source) {
+        long key = exactKey(entry.getSourceText(), entry.getSourceLanguage(), entry.getTargetLanguage(),
+            entry.getContentType(), entry.getCategory());
+        FuzzyMatchIndex fuzzy = fuzzyIndexes.computeIfAbsent(
+            languagePairKey(entry.getSourceLanguage(), entry.getTargetLanguage()), k -> new FuzzyMatchIndex());
+
+        Slot[] existing = exactIndex.getOrDefault(key, new Slot[0]);
+        int superseded = -1;
+        for (int i = 0; i < existing.length && superseded < 0; i++) {
+            TranslationMemoryService.TMEntry previous = source.read(existing[i].ref);
+            if (previous != null && previous.getSourceText().equals(entry.getSourceText())
+                    && previous.getTargetText().equals(entry.getTargetText())
+                    && matchesKey(previous, entry.getSourceText(), entry.getSourceLanguage(),
+                        entry.getTargetLanguage(), entry.getContentType(), entry.getCategory())) {
+                superseded = i;
             }
         }
-        
-        return dp[s1.length()][s2.length()];
+
+        Slot slot = new Slot(ref, fuzzy.add(ref, entry.getSourceText()));
+        Slot[] updated;
+        if (superseded >= 0) {
+            updated = existing.clone();
+            updated[superseded] = slot;
+            fuzzy.remove(existing[superseded].docId);
+            source.markDead(existing[superseded].ref);
+        } else {
+            updated = Arrays.copyOf(existing, existing.length + 1);
+            updated[existing.length] = slot;
+        }
+        exactIndex.put(key, updated);
+    }
+
+    private TranslationMemoryStore openStore(TranslateGemmaConfig config) {
+        storeDirectory = null;
+        if (!config.tmPersistenceEnabled()) {
+            return new HeapTranslationMemoryStore();
+        }
+        String configured = config.tmStoreDirectory();
+        Path directory;
+        if (configured != null && !configured.trim().isEmpty()) {
+            directory = Paths.get(configured.trim());
+        } else {
+            String base = System.getProperty("sling.home", System.getProperty("java.io.tmpdir"));
+            directory = Paths.get(base, "translationmemory", "translategemma");
+        }
+        try {
+            SegmentedTranslationMemoryStore opened =
+                new SegmentedTranslationMemoryStore(directory, config.tmSegmentSizeMb() * 1024L * 1024L);
+            storeDirectory = directory;
+            return opened;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Translation memory store unavailable at {}, continuing in memory only", directory, e);
+            return new HeapTranslationMemoryStore();
+        }
+    }
+
+    private long exactKey(String sourceText, String sourceLanguage, String targetLanguage,
+                          TranslationConstants.ContentType contentType, String category) {
+        String key = sourceLanguage + "_" + targetLanguage + "_" + contentTypeName(contentType) + "_"
+            + categoryName(category) + "_" + sourceText.toLowerCase();
+        return MurmurHash3.hash128x64(key.getBytes(StandardCharsets.UTF_8))[0];
+    }
+
+    // A null filter matches any language; "es" and "es-ES" match each other either way round
+    private static boolean languageMatches(String filter, String language) {
+        String wanted = TmxImporter.canonicalLanguage(filter);
+        if (wanted == null) {
+            return true;
+        }
+        String actual = TmxImporter.canonicalLanguage(language);
+        return actual != null && (actual.equals(wanted) || actual.startsWith(wanted + "-")
+            || wanted.startsWith(actual + "-"));
+    }
+
+    private static boolean matchesKey(TranslationMemoryService.TMEntry entry, String sourceText,
+                                      String sourceLanguage, String targetLanguage,
+                                      TranslationConstants.ContentType contentType, String category) {
+        return entry.getSourceText().toLowerCase().equals(sourceText.toLowerCase())
+            && Objects.equals(entry.getSourceLanguage(), sourceLanguage)
+            && Objects.equals(entry.getTargetLanguage(), targetLanguage)
+            && contentTypeName(entry.getContentType()).equals(contentTypeName(contentType))
+            && categoryName(entry.getCategory()).equals(categoryName(category));
+    }
+
+    private static String contentTypeName(TranslationConstants.ContentType contentType) {
+        return contentType != null ? contentType.name() : "PLAIN";
+    }
+
+    private static String categoryName(String category) {
+        return StringUtils.defaultString(category, "general");
+    }
+
+    private String languagePairKey(String sourceLanguage, String targetLanguage) {
+        return sourceLanguage + "_" + targetLanguage;
+    }
+
+    private static final class Slot {
+        private final long ref;
+        private final int docId;
+
+        Slot(long ref, int docId) {
+            this.ref = ref;
+            this.docId = docId;
+        }
     }
 }
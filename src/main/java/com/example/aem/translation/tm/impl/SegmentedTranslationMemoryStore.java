@@ -0,0 +1,479 @@
+package com.example.aem.translation.tm.impl;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented translation memory store.
+ * <p>
+ * Entries are appended to the active segment with positional writes. Once a segment reaches its
+ * size limit it is forced to disk and sealed; every segment is read with positional reads, which go
+ * through the page cache. Segments are not memory-mapped: a mapping outlives its channel until it
+ * is garbage collected, so compaction could not reclaim the space of the segments it deletes. A
+ * reference is the segment id in the high 32 bits and the record offset in the low 32 bits.
+ * <p>
+ * Crash recovery: the active segment is verified record by record on open and a torn or corrupt
+ * tail is truncated. Compaction copies live records into new segments before deleting the old
+ * ones, so a crash half-way leaves duplicates that the service's replay collapses, never a gap.
+ * <p>
+ * Record layout: magic, payload length, CRC32, payload.
+ */
+final class SegmentedTranslationMemoryStore implements TranslationMemoryStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedTranslationMemoryStore.class);
+
+    private static final int MAGIC = 0x544d5331; // "TMS1"
+    private static final int HEADER_BYTES = 4 + 4 + 4;
+    private static final String SEGMENT_PREFIX = "tm-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long MIN_SEGMENT_BYTES = 1024L * 1024L;
+    private static final long MAX_SEGMENT_BYTES = 1024L * 1024L * 1024L;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private Segment active;
+    private volatile long totalBytes;
+    private volatile long deadBytes;
+    private volatile boolean closed;
+
+    SegmentedTranslationMemoryStore(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.min(MAX_SEGMENT_BYTES, Math.max(MIN_SEGMENT_BYTES, segmentBytes));
+
+        Files.createDirectories(directory);
+        List<Path> files = listSegmentFiles();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            Segment segment = new Segment(parseSegmentId(file), file);
+            segments.put(segment.id, segment);
+            if (i == files.size() - 1) {
+                recoverTail(segment);
+            } else {
+                segment.size = segment.channel.size();
+                segment.seal();
+            }
+            totalBytes += segment.size;
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (last == null) {
+            active = openSegment(1);
+        } else if (last.size >= this.segmentBytes) {
+            last.seal();
+            active = openSegment(last.id + 1);
+        } else {
+            active = last;
+        }
+
+        LOG.info("Translation memory store opened at {} with {} segment(s), {} bytes",
+                directory, segments.size(), totalBytes);
+    }
+
+    @Override
+    public synchronized long append(TMEntry entry) throws IOException {
+        if (closed) {
+            throw new IOException("Translation memory store is closed");
+        }
+        return appendRecord(encode(entry));
+    }
+
+    @Override
+    public TMEntry read(long ref) {
+        Segment segment = segments.get(ref >>> 32);
+        if (segment == null) {
+            return null;
+        }
+        try {
+            ByteBuffer payload = readRecord(segment, ref & 0xFFFFFFFFL);
+            return payload != null ? decode(payload) : null;
+        } catch (IOException e) {
+            // Typically the segment was compacted away between the index lookup and the read
+            LOG.debug("Failed to read translation memory record {} from {}", ref, segment.file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void markDead(long ref) {
+        Segment segment = segments.get(ref >>> 32);
+        if (segment == null) {
+            return;
+        }
+        try {
+            ByteBuffer header = readBytes(segment, ref & 0xFFFFFFFFL, HEADER_BYTES);
+            header.getInt();
+            int length = header.getInt();
+            synchronized (this) {
+                deadBytes += HEADER_BYTES + length;
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to read translation memory record header {}", ref, e);
+        }
+    }
+
+    @Override
+    public void replay(EntryVisitor visitor) throws IOException {
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            long offset = 0;
+            long size = segment.size;
+            while (offset < size) {
+                ByteBuffer payload = readRecord(segment, offset);
+                if (payload == null) {
+                    LOG.warn("Skipping unreadable records from offset {} in {}", offset, segment.file);
+                    break;
+                }
+                int length = payload.remaining();
+                visitor.visit(segment.id << 32 | offset, decode(payload));
+                offset += HEADER_BYTES + length;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void compact(LongPredicate live) throws IOException {
+        List<Segment> previous = new ArrayList<>(segments.values());
+        long before = totalBytes;
+
+        // Live records are copied verbatim into fresh segments after the current last id
+        active.seal();
+        active = openSegment(active.id + 1);
+        for (Segment segment : previous) {
+            long offset = 0;
+            while (offset < segment.size) {
+                ByteBuffer payload = readRecord(segment, offset);
+                if (payload == null) {
+                    break;
+                }
+                int length = payload.remaining();
+                if (live.test(segment.id << 32 | offset)) {
+                    byte[] bytes = new byte[length];
+                    payload.get(bytes);
+                    appendRecord(bytes);
+                }
+                offset += HEADER_BYTES + length;
+            }
+        }
+        active.channel.force(false);
+
+        for (Segment segment : previous) {
+            deleteSegment(segment);
+        }
+        totalBytes = 0;
+        for (Segment segment : segments.values()) {
+            totalBytes += segment.size;
+        }
+        deadBytes = 0;
+        LOG.info("Compacted translation memory at {} from {} to {} bytes", directory, before, totalBytes);
+    }
+
+    @Override
+    public double getGarbageRatio() {
+        long total = totalBytes;
+        return total > 0 ? (double) deadBytes / total : 0;
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public synchronized void clear() throws IOException {
+        long nextId = active.id + 1;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            deleteSegment(segment);
+        }
+        totalBytes = 0;
+        deadBytes = 0;
+        active = openSegment(nextId);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments.values()) {
+            try {
+                if (segment == active) {
+                    segment.channel.force(false);
+                }
+                segment.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close {}", segment.file, e);
+            }
+        }
+        LOG.info("Translation memory store closed at {}", directory);
+    }
+
+    private long appendRecord(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (active.size > 0 && active.size + recordBytes > segmentBytes) {
+            active.seal();
+            active = openSegment(active.id + 1);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(recordBytes);
+        record.putInt(MAGIC).putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        record.flip();
+
+        long offset = active.size;
+        active.write(record, offset);
+        active.size += recordBytes;
+        totalBytes += recordBytes;
+        return active.id << 32 | offset;
+    }
+
+    /**
+     * Returns the verified payload of the record at {@code offset}, or null when the record is
+     * incomplete or fails its checksum.
+     */
+    private ByteBuffer readRecord(Segment segment, long offset) throws IOException {
+        if (offset + HEADER_BYTES > segment.size) {
+            return null;
+        }
+        ByteBuffer header = readBytes(segment, offset, HEADER_BYTES);
+        int magic = header.getInt();
+        int length = header.getInt();
+        int crc = header.getInt();
+        if (magic != MAGIC || length < 0 || offset + HEADER_BYTES + length > segment.size) {
+            return null;
+        }
+
+        ByteBuffer payload = readBytes(segment, offset + HEADER_BYTES, length);
+        CRC32 check = new CRC32();
+        check.update(payload.duplicate());
+        return (int) check.getValue() == crc ? payload : null;
+    }
+
+    private static ByteBuffer readBytes(Segment segment, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        segment.read(buffer, offset);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void recoverTail(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        segment.size = fileSize;
+        long offset = 0;
+        while (offset < fileSize) {
+            ByteBuffer payload = readRecord(segment, offset);
+            if (payload == null) {
+                break;
+            }
+            offset += HEADER_BYTES + payload.remaining();
+        }
+        if (offset < fileSize) {
+            LOG.warn("Truncating {} torn byte(s) at the end of {}", fileSize - offset, segment.file);
+            segment.channel.truncate(offset);
+            segment.channel.force(true);
+        }
+        segment.size = offset;
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete translation memory segment {}", segment.file, e);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, file);
+        segment.size = segment.channel.size();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(TMEntry entry) {
+        byte[][] fields = {
+            utf8(entry.getSourceLanguage()), utf8(entry.getTargetLanguage()),
+            utf8(entry.getContentType() != null ? entry.getContentType().name() : null),
+            utf8(entry.getCategory()), utf8(entry.getPath()),
+            utf8(entry.getSourceText()), utf8(entry.getTargetText())
+        };
+        int size = 4 + 8;
+        for (byte[] field : fields) {
+            size += 4 + (field != null ? field.length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length).put(field);
+            }
+        }
+        buffer.putInt(entry.getRating()).putLong(entry.getCreatedAt());
+        return buffer.array();
+    }
+
+    private static TMEntry decode(ByteBuffer buffer) {
+        String sourceLanguage = readString(buffer);
+        String targetLanguage = readString(buffer);
+        String contentType = readString(buffer);
+        String category = readString(buffer);
+        String path = readString(buffer);
+        String sourceText = readString(buffer);
+        String targetText = readString(buffer);
+        int rating = buffer.getInt();
+        long createdAt = buffer.getLong();
+        return new TMEntry(sourceText, targetText, sourceLanguage, targetLanguage,
+                contentType != null ? TranslationConstants.ContentType.valueOf(contentType) : null,
+                category, path, rating, createdAt);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private volatile FileChannel channel;
+        private volatile boolean closed;
+        private volatile long size;
+
+        Segment(long id, Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = open(file);
+        }
+
+        /**
+         * Makes the segment durable; it is only read from then on.
+         */
+        void seal() throws IOException {
+            channel.force(true);
+        }
+
+        void read(ByteBuffer buffer, long position) throws IOException {
+            boolean interrupted = Thread.interrupted();
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    FileChannel current = channel;
+                    try {
+                        while (buffer.hasRemaining()) {
+                            int read = current.read(buffer, position + buffer.position());
+                            if (read < 0) {
+                                throw new IOException("Unexpected end of translation memory segment");
+                            }
+                        }
+                        return;
+                    } catch (ClosedChannelException e) {
+                        // Covers ClosedByInterruptException: an interrupt that arrived mid-read
+                        interrupted |= Thread.interrupted();
+                        if (attempt > 0) {
+                            throw e;
+                        }
+                        reopen(current);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void write(ByteBuffer record, long position) throws IOException {
+            boolean interrupted = Thread.interrupted();
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    FileChannel current = channel;
+                    try {
+                        while (record.hasRemaining()) {
+                            current.write(record, position + record.position());
+                        }
+                        return;
+                    } catch (ClosedChannelException e) {
+                        interrupted |= Thread.interrupted();
+                        if (attempt > 0) {
+                            throw e;
+                        }
+                        reopen(current);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        // Replaces a channel closed by an interrupt; a segment that was closed or deleted stays closed
+        private synchronized void reopen(FileChannel failed) throws IOException {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            if (channel == failed && !failed.isOpen()) {
+                LOG.debug("Reopening translation memory segment {} after its channel was closed", file);
+                channel = open(file);
+            }
+        }
+
+        synchronized void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+
+        private static FileChannel open(Path file) throws IOException {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.aem.translation.tm.impl;
+
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+
+import java.io.IOException;
+import java.util.function.LongPredicate;
+
+/**
+ * Storage behind {@link JcrTranslationMemoryService}. Entries are immutable once written and are
+ * addressed by an opaque {@code long} reference; the service keeps only references and indexes
+ * on heap and reads entry text back on demand.
+ */
+interface TranslationMemoryStore {
+
+    long append(TMEntry entry) throws IOException;
+
+    /**
+     * Returns the entry at {@code ref}, or null when it can no longer be read.
+     */
+    TMEntry read(long ref);
+
+    /**
+     * Records that {@code ref} was superseded, so its bytes count towards compaction.
+     */
+    void markDead(long ref);
+
+    /**
+     * Visits every stored entry in write order, e.g. to rebuild indexes on startup.
+     */
+    void replay(EntryVisitor visitor) throws IOException;
+
+    /**
+     * Rewrites the entries accepted by {@code live} and drops the rest; previously returned
+     * references are invalid afterwards and must be rebuilt with {@link #replay(EntryVisitor)}.
+     */
+    void compact(LongPredicate live) throws IOException;
+
+    /**
+     * Share of stored bytes that belong to superseded entries.
+     */
+    double getGarbageRatio();
+
+    long getSizeBytes();
+
+    void clear() throws IOException;
+
+    void close();
+
+    interface EntryVisitor {
+        void visit(long ref, TMEntry entry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.aem.translation.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor backing the non-blocking translation API.
+ * Uses virtual threads when the runtime provides them (Java 21+), otherwise a fixed
+ * platform thread pool. Either way at most {@code maxConcurrency} model calls run at once
+ * and at most {@code queueCapacity} more wait; further submissions are rejected so
+ * author load can never queue unbounded work.
+ */
+public class AsyncTranslationExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncTranslationExecutor.class);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Semaphore concurrencyLimit;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private final int maxAdmitted;
+    private final boolean virtualThreads;
+
+    public AsyncTranslationExecutor(int maxConcurrency, int queueCapacity, boolean preferVirtualThreads) {
+        int concurrency = Math.max(1, maxConcurrency);
+        this.maxAdmitted = concurrency + Math.max(0, queueCapacity);
+
+        ExecutorService virtualExecutor = preferVirtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.concurrencyLimit = new Semaphore(concurrency);
+            this.virtualThreads = true;
+        } else {
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "translategemma-async-" + THREAD_COUNTER.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.concurrencyLimit = null;
+            this.virtualThreads = false;
+        }
+
+        LOG.info("AsyncTranslationExecutor initialized with maxConcurrency={}, queueCapacity={}, virtualThreads={}",
+                concurrency, queueCapacity, virtualThreads);
+    }
+
+    /**
+     * Runs the task asynchronously. Cancelling the returned future interrupts the task
+     * if it is already running, or skips it if it is still queued.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        if (admitted.incrementAndGet() > maxAdmitted) {
+            admitted.decrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException(
+                    "Translation executor saturated (" + maxAdmitted + " tasks in flight)"));
+            return result;
+        }
+
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    if (concurrencyLimit != null) {
+                        concurrencyLimit.acquire();
+                    }
+                    try {
+                        if (!result.isDone()) {
+                            result.complete(task.call());
+                        }
+                    } finally {
+                        if (concurrencyLimit != null) {
+                            concurrencyLimit.release();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.cancel(false);
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.decrementAndGet();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        // The result completes exactly once, whether the task ran, failed or was cancelled while queued
+        pending.add(result);
+        result.whenComplete((value, error) -> {
+            pending.remove(result);
+            admitted.decrementAndGet();
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getInFlightCount() {
+        return admitted.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        // Queued tasks dropped by shutdownNow() would otherwise leave their callers waiting forever
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(true);
+        }
+        LOG.info("AsyncTranslationExecutor shut down");
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively so the bundle still runs on Java 11/17
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Virtual threads not available on this runtime, using platform thread pool");
+            return null;
+        }
+    }
+}
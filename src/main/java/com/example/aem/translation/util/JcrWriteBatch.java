@@ -0,0 +1,144 @@
+package com.example.aem.translation.util;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects property changes made through one resolver and commits them together.
+ * <p>
+ * Changes are applied to the resources straight away, so later reads through the same resolver
+ * see them, and are recorded by resource path. The resolver is committed once {@code maxChanges}
+ * properties are pending and on {@link #flush()}, which callers invoke at the end of a unit of
+ * work such as a page. A commit that fails, typically on a conflict with a concurrent save, is
+ * retried up to {@code maxRetries} times: the session is reverted and refreshed to the latest
+ * state, and the recorded changes are applied again.
+ * <p>
+ * Only changes made through the batch are replayed; anything else pending on the resolver is
+ * discarded by a retry. Not thread-safe, like the resolver it writes through.
+ */
+public class JcrWriteBatch {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JcrWriteBatch.class);
+    private static final long RETRY_BACKOFF_MS = 100;
+
+    private final ResourceResolver resolver;
+    private final int maxChanges;
+    private final int maxRetries;
+    private final TranslationMetrics metrics;
+    // Properties written since the last commit, by resource path, in write order
+    private final Map<String, Map<String, Object>> pending = new LinkedHashMap<>();
+    private int pendingChanges;
+
+    public JcrWriteBatch(ResourceResolver resolver, int maxChanges, int maxRetries, TranslationMetrics metrics) {
+        this.resolver = resolver;
+        this.maxChanges = Math.max(1, maxChanges);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Writes the properties to the resource, committing when the batch is full.
+     *
+     * @return false when the resource cannot be modified
+     */
+    public boolean put(Resource resource, Map<String, ?> properties) throws PersistenceException {
+        ModifiableValueMap values = resource.adaptTo(ModifiableValueMap.class);
+        if (values == null) {
+            return false;
+        }
+        if (properties.isEmpty()) {
+            return true;
+        }
+        values.putAll(properties);
+        pending.computeIfAbsent(resource.getPath(), path -> new LinkedHashMap<>()).putAll(properties);
+        pendingChanges += properties.size();
+        if (pendingChanges >= maxChanges) {
+            flush();
+        }
+        return true;
+    }
+
+    public boolean put(Resource resource, String name, Object value) throws PersistenceException {
+        return put(resource, Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Commits the pending changes. When every attempt fails the changes are reverted and the
+     * last failure is thrown.
+     */
+    public void flush() throws PersistenceException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int changes = pendingChanges;
+        long startTime = System.currentTimeMillis();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    resolver.commit();
+                    break;
+                } catch (PersistenceException e) {
+                    if (attempt > maxRetries || !backOff(attempt)) {
+                        resolver.revert();
+                        if (metrics != null) {
+                            metrics.recordJcrCommitFailure();
+                        }
+                        throw e;
+                    }
+                    LOG.warn("Commit of {} changes failed, retrying ({}/{}): {}", changes, attempt, maxRetries,
+                            e.getMessage());
+                    if (metrics != null) {
+                        metrics.recordJcrCommitRetry();
+                    }
+                    resolver.revert();
+                    resolver.refresh();
+                    replay();
+                }
+            }
+        } finally {
+            pending.clear();
+            pendingChanges = 0;
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        if (metrics != null) {
+            metrics.recordJcrCommit(changes, duration);
+        }
+        LOG.debug("Committed {} changes in {}ms", changes, duration);
+    }
+
+    public int getPendingChanges() {
+        return pendingChanges;
+    }
+
+    private void replay() {
+        for (Map.Entry<String, Map<String, Object>> change : pending.entrySet()) {
+            Resource resource = resolver.getResource(change.getKey());
+            ModifiableValueMap values = resource != null ? resource.adaptTo(ModifiableValueMap.class) : null;
+            if (values == null) {
+                LOG.warn("{} is no longer writable, dropping its {} changes", change.getKey(), change.getValue().size());
+                continue;
+            }
+            values.putAll(change.getValue());
+        }
+    }
+
+    // Returns false when interrupted, so the failure is reported instead of retried
+    private static boolean backOff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.aem.translation.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * 64-bit DCT perceptual hash of an image (pHash).
+ * <p>
+ * The image is reduced to 32x32 grayscale and transformed with a 2D DCT; each bit of the hash
+ * says whether one of the 8x8 lowest frequencies is above their median. Resizing, re-encoding
+ * and small edits flip few bits, so the Hamming distance between two hashes measures how
+ * different the images look.
+ */
+public final class PerceptualHash {
+
+    private static final int SIZE = 32;
+    private static final int LOW = 8;
+    // Encoded images are decoded no larger than needed for an area average over the grid
+    private static final int DECODE_EDGE = 256;
+    private static final double[][] COSINES = new double[SIZE][SIZE];
+
+    static {
+        for (int u = 0; u < SIZE; u++) {
+            for (int x = 0; x < SIZE; x++) {
+                COSINES[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2.0 * SIZE));
+            }
+        }
+    }
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * Hash of an encoded image, or {@code null} when no installed reader can decode it.
+     * Large images are decoded with source subsampling, so hashing never holds a full
+     * resolution raster.
+     */
+    public static Long of(byte[] encoded) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(encoded))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int subsampling = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / DECODE_EDGE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return of(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static long of(BufferedImage image) {
+        double[][] pixels = grayscale(image);
+
+        // Separable DCT, only the LOW x LOW coefficients the hash uses
+        double[][] rows = new double[SIZE][LOW];
+        for (int y = 0; y < SIZE; y++) {
+            for (int u = 0; u < LOW; u++) {
+                double sum = 0;
+                for (int x = 0; x < SIZE; x++) {
+                    sum += pixels[y][x] * COSINES[u][x];
+                }
+                rows[y][u] = sum;
+            }
+        }
+        double[] coefficients = new double[LOW * LOW];
+        for (int v = 0; v < LOW; v++) {
+            for (int u = 0; u < LOW; u++) {
+                double sum = 0;
+                for (int y = 0; y < SIZE; y++) {
+                    sum += rows[y][u] * COSINES[v][y];
+                }
+                coefficients[v * LOW + u] = sum;
+            }
+        }
+
+        // The DC term only reflects overall brightness, so it is left out of the median
+        double[] sorted = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(sorted);
+        double median = (sorted[sorted.length / 2 - 1] + sorted[sorted.length / 2]) / 2;
+
+        long hash = 0;
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] > median) {
+                hash |= 1L << i;
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    // Area average, so every source pixel counts however far the image is reduced
+    private static double[][] grayscale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[][] sums = new double[SIZE][SIZE];
+        int[][] counts = new int[SIZE][SIZE];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = (int) ((long) y * SIZE / height);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cellX = (int) ((long) x * SIZE / width);
+                sums[cellY][cellX] += 0.299 * ((rgb >> 16) & 0xff) + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff);
+                counts[cellY][cellX]++;
+            }
+        }
+        // Images smaller than the grid leave cells empty; take the nearest filled cell's value
+        double[][] pixels = new double[SIZE][SIZE];
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int sourceY = Math.min(height - 1, y * height / SIZE) * SIZE / height;
+                int sourceX = Math.min(width - 1, x * width / SIZE) * SIZE / width;
+                int cellY = counts[y][x] > 0 ? y : sourceY;
+                int cellX = counts[y][x] > 0 ? x : sourceX;
+                pixels[y][x] = sums[cellY][cellX] / counts[cellY][cellX];
+            }
+        }
+        return pixels;
+    }
+}
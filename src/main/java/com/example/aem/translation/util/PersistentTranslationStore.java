@@ -0,0 +1,438 @@
+package com.example.aem.translation.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Disk-backed second cache tier that survives bundle restarts and pod recycles.
+ * <p>
+ * Entries are appended to fixed-size segment files; only the key-to-location index is kept
+ * on heap and rebuilt on open by walking record headers, so values are read lazily on first
+ * use. When the directory exceeds its size budget the oldest segment is deleted as a whole
+ * (FIFO eviction). A torn record at the tail of the last segment, left by a crash, is
+ * truncated on open. Entries older than the time to live are dropped on read and on open,
+ * like the heap tier's expire-after-write.
+ * <p>
+ * Reads and writes clear the calling thread's interrupt flag for their duration and restore
+ * it afterwards, since an interrupt during channel I/O closes the channel for every thread.
+ * A channel closed that way anyway is reopened on next use.
+ * <p>
+ * Record layout: magic, key high, key low, write time (epoch millis), payload length
+ * (-1 for a removal), CRC32, UTF-8 payload.
+ */
+public class PersistentTranslationStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentTranslationStore.class);
+
+    private static final int MAGIC = 0x54474332; // "TGC2"
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 8 + 4 + 4;
+    private static final int TOMBSTONE = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final Map<TranslationCacheKey, Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final long warmStartEntries;
+
+    private Segment active;
+    private volatile long totalBytes;
+    private volatile boolean closed;
+
+    public PersistentTranslationStore(Path directory, long maxBytes) throws IOException {
+        this(directory, maxBytes, 0);
+    }
+
+    /**
+     * @param ttlMillis how long an entry stays readable after it was written; 0 keeps entries
+     *                  until they are evicted
+     */
+    public PersistentTranslationStore(Path directory, long maxBytes, long ttlMillis) throws IOException {
+        this(directory, maxBytes, ttlMillis, System::currentTimeMillis);
+    }
+
+    PersistentTranslationStore(Path directory, long maxBytes, long ttlMillis, LongSupplier clock) throws IOException {
+        this.directory = directory;
+        this.ttlMillis = Math.max(0, ttlMillis);
+        this.clock = clock;
+        this.maxBytes = Math.max(1024 * 1024, maxBytes);
+        // Eviction granularity: dropping one segment frees roughly 1/8 of the budget
+        this.segmentBytes = Math.max(256 * 1024, this.maxBytes / 8);
+
+        Files.createDirectories(directory);
+        for (Path file : listSegmentFiles()) {
+            long id = parseSegmentId(file);
+            Segment segment = new Segment(id, file);
+            segments.put(id, segment);
+            scan(segment);
+            totalBytes += segment.size;
+        }
+
+        this.warmStartEntries = index.size();
+        this.active = segments.isEmpty() ? openSegment(1) : segments.lastEntry().getValue();
+        evictIfNeeded();
+
+        LOG.info("PersistentTranslationStore opened at {} with {} entries in {} segment(s), maxBytes={}",
+                directory, warmStartEntries, segments.size(), this.maxBytes);
+    }
+
+    /**
+     * Reads the value from disk; returns null when the key is absent or its record is unreadable.
+     */
+    public String get(TranslationCacheKey key) {
+        Location location = index.get(key);
+        if (location == null || closed) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        Segment segment = segments.get(location.segmentId);
+        if (segment == null || isExpired(location.writtenAt)) {
+            index.remove(key, location);
+            misses.incrementAndGet();
+            return null;
+        }
+
+        try {
+            ByteBuffer payload = ByteBuffer.allocate(location.length);
+            segment.read(payload, location.offset + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != location.crc) {
+                LOG.warn("Checksum mismatch in {} at offset {}, dropping entry", segment.file, location.offset);
+                index.remove(key, location);
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return new String(payload.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // Typically the segment was evicted between the index lookup and the read
+            LOG.debug("Failed to read cache entry from {}", segment.file, e);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public synchronized void put(TranslationCacheKey key, String value) {
+        if (closed || value == null) {
+            return;
+        }
+        byte[] payload = value.getBytes(StandardCharsets.UTF_8);
+        try {
+            Location location = append(key, payload);
+            index.put(key, location);
+            evictIfNeeded();
+        } catch (IOException e) {
+            LOG.warn("Failed to persist cache entry to {}", directory, e);
+        }
+    }
+
+    public synchronized void remove(TranslationCacheKey key) {
+        if (closed || index.remove(key) == null) {
+            return;
+        }
+        try {
+            // Tombstone so the entry stays removed after the next restart
+            append(key, null);
+        } catch (IOException e) {
+            LOG.warn("Failed to persist cache removal to {}", directory, e);
+        }
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            deleteSegment(segment);
+        }
+        totalBytes = 0;
+        try {
+            active = openSegment(active != null ? active.id + 1 : 1);
+        } catch (IOException e) {
+            LOG.warn("Failed to reopen cache segment in {}", directory, e);
+            closed = true;
+        }
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close {}", segment.file, e);
+            }
+        }
+        LOG.info("PersistentTranslationStore closed at {}", directory);
+    }
+
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    public long getSizeBytes() {
+        return totalBytes;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Entries found on disk when the store was opened.
+     */
+    public long getWarmStartEntryCount() {
+        return warmStartEntries;
+    }
+
+    private Location append(TranslationCacheKey key, byte[] payload) throws IOException {
+        int length = payload != null ? payload.length : TOMBSTONE;
+        int recordBytes = HEADER_BYTES + Math.max(0, length);
+        if (active.size > 0 && active.size + recordBytes > segmentBytes) {
+            active = openSegment(active.id + 1);
+        }
+
+        CRC32 crc = new CRC32();
+        if (payload != null) {
+            crc.update(payload);
+        }
+        long writtenAt = clock.getAsLong();
+        ByteBuffer record = ByteBuffer.allocate(recordBytes);
+        record.putInt(MAGIC).putLong(key.getHigh()).putLong(key.getLow()).putLong(writtenAt).putInt(length)
+                .putInt((int) crc.getValue());
+        if (payload != null) {
+            record.put(payload);
+        }
+        record.flip();
+
+        long offset = active.size;
+        active.write(record, offset);
+        active.size += recordBytes;
+        totalBytes += recordBytes;
+        return new Location(active.id, offset, Math.max(0, length), (int) crc.getValue(), writtenAt);
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return ttlMillis > 0 && clock.getAsLong() - writtenAt >= ttlMillis;
+    }
+
+    private void scan(Segment segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long fileSize = segment.channel.size();
+        long offset = 0;
+
+        while (offset + HEADER_BYTES <= fileSize) {
+            header.clear();
+            segment.read(header, offset);
+            header.flip();
+            int magic = header.getInt();
+            long high = header.getLong();
+            long low = header.getLong();
+            long writtenAt = header.getLong();
+            int length = header.getInt();
+            int crc = header.getInt();
+
+            long end = offset + HEADER_BYTES + Math.max(0, length);
+            if (magic != MAGIC || length < TOMBSTONE || end > fileSize) {
+                break;
+            }
+
+            TranslationCacheKey key = TranslationCacheKey.fromLongs(high, low);
+            if (length == TOMBSTONE || isExpired(writtenAt)) {
+                index.remove(key);
+            } else {
+                index.put(key, new Location(segment.id, offset, length, crc, writtenAt));
+            }
+            offset = end;
+        }
+
+        if (offset < fileSize) {
+            // Also discards segments written in an older record format
+            LOG.warn("Truncating {} torn byte(s) at the end of {}", fileSize - offset, segment.file);
+            segment.channel.truncate(offset);
+        }
+        segment.size = offset;
+    }
+
+    private void evictIfNeeded() {
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == active) {
+                break;
+            }
+            index.values().removeIf(location -> location.segmentId == oldest.id);
+            totalBytes -= oldest.size;
+            deleteSegment(oldest);
+            LOG.debug("Evicted cache segment {}", oldest.file);
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete cache segment {}", segment.file, e);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, file);
+        segment.size = segment.channel.size();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static long parseSegmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private volatile FileChannel channel;
+        private volatile boolean closed;
+        private volatile long size;
+
+        Segment(long id, Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = open(file);
+        }
+
+        void read(ByteBuffer buffer, long position) throws IOException {
+            boolean interrupted = Thread.interrupted();
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    FileChannel current = channel;
+                    try {
+                        while (buffer.hasRemaining()) {
+                            int read = current.read(buffer, position + buffer.position());
+                            if (read < 0) {
+                                throw new IOException("Unexpected end of cache segment");
+                            }
+                        }
+                        return;
+                    } catch (ClosedChannelException e) {
+                        // Covers ClosedByInterruptException: an interrupt that arrived mid-read
+                        interrupted |= Thread.interrupted();
+                        if (attempt > 0) {
+                            throw e;
+                        }
+                        reopen(current);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void write(ByteBuffer record, long position) throws IOException {
+            boolean interrupted = Thread.interrupted();
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    FileChannel current = channel;
+                    try {
+                        while (record.hasRemaining()) {
+                            current.write(record, position + record.position());
+                        }
+                        return;
+                    } catch (ClosedChannelException e) {
+                        interrupted |= Thread.interrupted();
+                        if (attempt > 0) {
+                            throw e;
+                        }
+                        reopen(current);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        // Replaces a channel closed by an interrupt; a segment that was closed or evicted stays closed
+        private synchronized void reopen(FileChannel failed) throws IOException {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            if (channel == failed && !failed.isOpen()) {
+                LOG.debug("Reopening cache segment {} after its channel was closed", file);
+                channel = open(file);
+            }
+        }
+
+        synchronized void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+
+        private static FileChannel open(Path file) throws IOException {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+    }
+
+    private static final class Location {
+        private final long segmentId;
+        private final long offset;
+        private final int length;
+        private final int crc;
+        private final long writtenAt;
+
+        Location(long segmentId, long offset, int length, int crc, long writtenAt) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
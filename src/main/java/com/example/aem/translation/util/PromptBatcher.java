@@ -1,13 +1,22 @@
 package com.example.aem.translation.util;
 
 import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Enterprise Utility for Gemma 4 Batch Prompting.
@@ -15,12 +24,103 @@ import java.util.HashMap;
  */
 public class PromptBatcher {
     private static final Logger LOG = LoggerFactory.getLogger(PromptBatcher.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Instruction text around the segments, plus JSON quoting/commas per segment
+    private static final int PROMPT_OVERHEAD_TOKENS = 80;
+    private static final int SEGMENT_OVERHEAD_TOKENS = 4;
+    // "Source:"/"Translation:" labels and quotes around each reference pair
+    private static final int REFERENCE_OVERHEAD_TOKENS = 8;
+    // Translations routinely run longer than their source (e.g. EN -> DE)
+    private static final double OUTPUT_EXPANSION_FACTOR = 1.5;
+
+    private static final Pattern WORD = Pattern.compile("\\s*\\S+\\s*");
+    private static final Pattern MARKUP = Pattern.compile("<!--.*?-->|<[^>]*>", Pattern.DOTALL);
+    private static final Pattern TAG_NAME = Pattern.compile("</?\\s*([a-zA-Z][a-zA-Z0-9-]*)");
+    private static final List<String> VOID_ELEMENTS = Arrays.asList("area", "base", "br", "col", "embed", "hr",
+            "img", "input", "link", "meta", "source", "track", "wbr");
+
+    /**
+     * Per-model limits a single batch prompt must stay within.
+     */
+    public static class BatchBudget {
+        private final int maxInputTokens;
+        private final int maxOutputTokens;
+        private final int maxSegments;
+
+        public BatchBudget(int maxInputTokens, int maxOutputTokens, int maxSegments) {
+            this.maxInputTokens = Math.max(PROMPT_OVERHEAD_TOKENS + 1, maxInputTokens);
+            this.maxOutputTokens = Math.max(1, maxOutputTokens);
+            this.maxSegments = Math.max(1, maxSegments);
+        }
+
+        public int getMaxInputTokens() {
+            return maxInputTokens;
+        }
+
+        public int getMaxOutputTokens() {
+            return maxOutputTokens;
+        }
+
+        public int getMaxSegments() {
+            return maxSegments;
+        }
+    }
     
+    /**
+     * An approved translation of similar text, shown to the model to keep wording consistent.
+     */
+    public static class Reference {
+        private final String sourceText;
+        private final String targetText;
+
+        public Reference(String sourceText, String targetText) {
+            this.sourceText = sourceText;
+            this.targetText = targetText;
+        }
+
+        public String getSourceText() {
+            return sourceText;
+        }
+
+        public String getTargetText() {
+            return targetText;
+        }
+
+        int estimateTokens(TokenEstimator estimator) {
+            return estimator.estimateTokens(sourceText) + estimator.estimateTokens(targetText)
+                    + REFERENCE_OVERHEAD_TOKENS;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Reference)) {
+                return false;
+            }
+            Reference other = (Reference) o;
+            return sourceText.equals(other.sourceText) && targetText.equals(other.targetText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceText.hashCode() + targetText.hashCode();
+        }
+    }
+
     public static class BatchRequest {
         private final List<String> texts = new ArrayList<>();
+        private final List<Reference> references = new ArrayList<>();
+        private final List<Integer> segmentIndexes = new ArrayList<>();
+        private final List<Integer> pieceIndexes = new ArrayList<>();
         private final String sourceLang;
         private final String targetLang;
         private final ContentType contentType;
+        private int estimatedInputTokens = PROMPT_OVERHEAD_TOKENS;
+        private int estimatedOutputTokens;
+        private double fillRatio;
 
         public BatchRequest(String sourceLang, String targetLang, ContentType contentType) {
             this.sourceLang = sourceLang;
@@ -29,37 +129,489 @@ public class PromptBatcher {
         }
 
         public void add(String text) {
+            add(text, texts.size(), 0, 0, Collections.emptyList(), 0);
+        }
+
+        void add(String text, int segmentIndex, int pieceIndex, int tokens, List<Reference> pieceReferences,
+                 int referenceTokens) {
             texts.add(text);
+            segmentIndexes.add(segmentIndex);
+            pieceIndexes.add(pieceIndex);
+            for (Reference reference : pieceReferences) {
+                if (!references.contains(reference)) {
+                    references.add(reference);
+                }
+            }
+            estimatedInputTokens += tokens + referenceTokens + SEGMENT_OVERHEAD_TOKENS;
+            estimatedOutputTokens += estimateOutputTokens(tokens);
         }
 
         public String createPrompt() {
+            return createPrompt("");
+        }
+
+        /**
+         * Same prompt with {@code instructions} (e.g. required terminology) placed before the
+         * segments, followed by the reference translations attached to the batch.
+         */
+        public String createPrompt(String instructions) {
+            String contentTypeDesc = contentType == ContentType.HTML ? "HTML segments" : "plain text segments";
             StringBuilder sb = new StringBuilder();
-            sb.append("Translate the following list of texts from ").append(sourceLang)
+            sb.append("Translate each of the following ").append(contentTypeDesc).append(" from ").append(sourceLang)
               .append(" to ").append(targetLang).append(". ");
-            sb.append("Respond ONLY with a JSON array of strings in the same order.\n\n");
-            
-            for (int i = 0; i < texts.size(); i++) {
-                sb.append(i).append(": ").append(texts.get(i)).append("\n");
+            sb.append("Preserve the original formatting and structure of every segment. ");
+            sb.append("Respond ONLY with a JSON array of exactly ").append(texts.size())
+              .append(" strings, one translation per input segment, in the same order.\n\n");
+            sb.append(instructions);
+            if (!references.isEmpty()) {
+                sb.append("### Reference translations of similar text:\n");
+                for (Reference reference : references) {
+                    sb.append("Source: \"").append(reference.getSourceText()).append("\"\nTranslation: \"")
+                      .append(reference.getTargetText()).append("\"\n\n");
+                }
+                sb.append("### Now translate:\n");
+            }
+
+            // Segments are sent as a JSON array so multi-line rich text cannot bleed into its neighbours
+            try {
+                sb.append(MAPPER.writeValueAsString(texts));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize batch segments", e);
             }
             
             return sb.toString();
         }
 
+        /**
+         * Maps a raw model reply back onto the batch slots.
+         * A slot is {@code null} when its translation could not be recovered, so callers
+         * can fall back to single-string translation for just those segments.
+         */
+        public String[] parseResponse(String rawResponse) {
+            String[] results = new String[texts.size()];
+            if (rawResponse == null || rawResponse.trim().isEmpty()) {
+                return results;
+            }
+
+            String[] parsed;
+            try {
+                parsed = GemmaBoundaryService.parseStructuredOutput(rawResponse, String[].class);
+            } catch (RuntimeException e) {
+                LOG.warn("Batch reply for {} segments was not a JSON array", texts.size());
+                return results;
+            }
+
+            // A short or long array means the model merged or split segments; alignment can't be trusted
+            if (parsed == null || parsed.length != texts.size()) {
+                LOG.warn("Batch reply size mismatch: expected {}, got {}", 
+                        texts.size(), parsed == null ? 0 : parsed.length);
+                return results;
+            }
+
+            for (int i = 0; i < parsed.length; i++) {
+                String translation = parsed[i];
+                if (translation != null && !translation.trim().isEmpty()) {
+                    results[i] = translation.trim();
+                }
+            }
+            return results;
+        }
+
         public List<String> getTexts() {
             return texts;
         }
+
+        /**
+         * Reference translations attached to the segments of this batch, without duplicates.
+         */
+        public List<Reference> getReferences() {
+            return references;
+        }
+
+        public int size() {
+            return texts.size();
+        }
+
+        /**
+         * Index of the planned segment this slot belongs to.
+         */
+        public int getSegmentIndex(int slot) {
+            return segmentIndexes.get(slot);
+        }
+
+        /**
+         * Position of this slot within its segment when the segment had to be split.
+         */
+        public int getPieceIndex(int slot) {
+            return pieceIndexes.get(slot);
+        }
+
+        public int getEstimatedInputTokens() {
+            return estimatedInputTokens;
+        }
+
+        public int getEstimatedOutputTokens() {
+            return estimatedOutputTokens;
+        }
+
+        /**
+         * Share of the tighter of the input/output budgets this batch uses (0.0-1.0).
+         */
+        public double getFillRatio() {
+            return fillRatio;
+        }
+
+        boolean fits(int tokens, int referenceTokens, BatchBudget budget) {
+            return texts.size() < budget.getMaxSegments()
+                    && estimatedInputTokens + tokens + referenceTokens + SEGMENT_OVERHEAD_TOKENS
+                            <= budget.getMaxInputTokens()
+                    && estimatedOutputTokens + estimateOutputTokens(tokens) <= budget.getMaxOutputTokens();
+        }
+
+        void computeFillRatio(BatchBudget budget) {
+            this.fillRatio = Math.max(
+                    (double) estimatedInputTokens / budget.getMaxInputTokens(),
+                    (double) estimatedOutputTokens / budget.getMaxOutputTokens());
+        }
+    }
+
+    /**
+     * Result of {@link #plan}: the batches to send and how many pieces each
+     * input segment was split into.
+     */
+    public static class BatchPlan {
+        private final List<BatchRequest> batches;
+        private final int[] pieceCounts;
+        // Whitespace found between consecutive pieces of each split segment, null when unsplit
+        private final String[][] separators;
+
+        BatchPlan(List<BatchRequest> batches, int[] pieceCounts, String[][] separators) {
+            this.batches = batches;
+            this.pieceCounts = pieceCounts;
+            this.separators = separators;
+        }
+
+        public List<BatchRequest> getBatches() {
+            return batches;
+        }
+
+        public int getPieceCount(int segmentIndex) {
+            return pieceCounts[segmentIndex];
+        }
+
+        public int getSegmentCount() {
+            return pieceCounts.length;
+        }
+
+        public double getAverageFillRatio() {
+            return batches.stream().mapToDouble(BatchRequest::getFillRatio).average().orElse(0.0);
+        }
+
+        /**
+         * Rejoins the translated pieces of a segment with the whitespace the source had between
+         * them, so line and paragraph breaks survive the split. Plain spaces are dropped for
+         * target scripts written without them.
+         */
+        public String joinPieces(int segmentIndex, String[] translatedPieces, String targetLang) {
+            String[] gaps = separators[segmentIndex];
+            if (gaps == null) {
+                return String.join("", translatedPieces);
+            }
+            boolean withoutSpaces = isScriptWithoutSpaces(targetLang);
+            StringBuilder joined = new StringBuilder(translatedPieces[0]);
+            for (int p = 1; p < translatedPieces.length; p++) {
+                String gap = gaps[p - 1];
+                joined.append(withoutSpaces && gap.indexOf('\n') < 0 ? "" : gap).append(translatedPieces[p]);
+            }
+            return joined.toString();
+        }
+    }
+
+    private static class Piece {
+        private final String text;
+        private final int segmentIndex;
+        private final int pieceIndex;
+        private final int tokens;
+        private final List<Reference> references;
+        private final int referenceTokens;
+
+        Piece(String text, int segmentIndex, int pieceIndex, int tokens) {
+            this(text, segmentIndex, pieceIndex, tokens, Collections.emptyList(), 0);
+        }
+
+        Piece(String text, int segmentIndex, int pieceIndex, int tokens, List<Reference> references,
+              int referenceTokens) {
+            this.text = text;
+            this.segmentIndex = segmentIndex;
+            this.pieceIndex = pieceIndex;
+            this.tokens = tokens;
+            this.references = references;
+            this.referenceTokens = referenceTokens;
+        }
+    }
+
+    /**
+     * Packs segments into as few prompts as the budget allows using first-fit-decreasing
+     * on estimated tokens. Plain-text segments too large for a single prompt are split on
+     * sentence boundaries; oversized HTML is split at tag boundaries, between top-level
+     * elements where possible, so every tag reaches the model intact.
+     */
+    public static BatchPlan plan(String[] strings, String sourceLang, String targetLang,
+                                 ContentType contentType, BatchBudget budget, TokenEstimator estimator) {
+        return plan(strings, null, sourceLang, targetLang, contentType, budget, estimator);
+    }
+
+    /**
+     * Same as {@link #plan(String[], String, String, ContentType, BatchBudget, TokenEstimator)},
+     * attaching {@code references.get(i)} to segment {@code i}; null for none. References count
+     * against the input budget of the batch that carries them. A segment that has to be split
+     * is sent without its references, which describe the whole text rather than any piece.
+     */
+    public static BatchPlan plan(String[] strings, List<List<Reference>> references, String sourceLang,
+                                 String targetLang, ContentType contentType, BatchBudget budget,
+                                 TokenEstimator estimator) {
+        int maxPieceTokens = maxPieceTokens(budget);
+        int[] pieceCounts = new int[strings.length];
+        String[][] separators = new String[strings.length][];
+        List<Piece> pieces = new ArrayList<>();
+
+        for (int i = 0; i < strings.length; i++) {
+            int tokens = estimator.estimateTokens(strings[i]);
+            List<String> parts = new ArrayList<>();
+            List<String> gaps = new ArrayList<>();
+            if (tokens > maxPieceTokens) {
+                trimPieces(contentType == ContentType.HTML
+                        ? splitOnTags(strings[i], maxPieceTokens, estimator)
+                        : splitOnSentences(strings[i], maxPieceTokens, estimator), parts, gaps);
+            }
+            if (parts.size() < 2) {
+                List<Reference> segmentReferences = references != null && references.get(i) != null
+                        ? references.get(i) : Collections.<Reference>emptyList();
+                int referenceTokens = 0;
+                for (Reference reference : segmentReferences) {
+                    referenceTokens += reference.estimateTokens(estimator);
+                }
+                pieces.add(new Piece(strings[i], i, 0, tokens, segmentReferences, referenceTokens));
+                pieceCounts[i] = 1;
+                continue;
+            }
+
+            for (int p = 0; p < parts.size(); p++) {
+                pieces.add(new Piece(parts.get(p), i, p, estimator.estimateTokens(parts.get(p))));
+            }
+            pieceCounts[i] = parts.size();
+            separators[i] = gaps.toArray(new String[0]);
+            LOG.debug("Split oversized segment {} (~{} tokens) into {} pieces", i, tokens, parts.size());
+        }
+
+        pieces.sort(Comparator.comparingInt((Piece piece) -> piece.tokens + piece.referenceTokens).reversed());
+
+        List<BatchRequest> batches = new ArrayList<>();
+        for (Piece piece : pieces) {
+            BatchRequest target = null;
+            for (BatchRequest candidate : batches) {
+                if (candidate.fits(piece.tokens, piece.referenceTokens, budget)) {
+                    target = candidate;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new BatchRequest(sourceLang, targetLang, contentType);
+                batches.add(target);
+            }
+            target.add(piece.text, piece.segmentIndex, piece.pieceIndex, piece.tokens, piece.references,
+                    piece.referenceTokens);
+        }
+
+        for (BatchRequest batch : batches) {
+            batch.computeFillRatio(budget);
+        }
+
+        return new BatchPlan(batches, pieceCounts, separators);
+    }
+
+    private static int maxPieceTokens(BatchBudget budget) {
+        int byInput = budget.getMaxInputTokens() - PROMPT_OVERHEAD_TOKENS - SEGMENT_OVERHEAD_TOKENS;
+        int byOutput = (int) (budget.getMaxOutputTokens() / OUTPUT_EXPANSION_FACTOR) - SEGMENT_OVERHEAD_TOKENS;
+        return Math.max(1, Math.min(byInput, byOutput));
+    }
+
+    private static int estimateOutputTokens(int inputTokens) {
+        return (int) Math.ceil(inputTokens * OUTPUT_EXPANSION_FACTOR) + SEGMENT_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * Moves the whitespace around raw pieces, which concatenate back to the segment, into
+     * the separators between them. The segment's own leading and trailing whitespace is
+     * dropped, as it is for unsplit segments.
+     */
+    private static void trimPieces(List<String> rawPieces, List<String> pieces, List<String> separators) {
+        StringBuilder gap = new StringBuilder();
+        for (String raw : rawPieces) {
+            int start = 0;
+            int end = raw.length();
+            while (start < end && Character.isWhitespace(raw.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+                end--;
+            }
+            if (start == end) {
+                gap.append(raw);
+                continue;
+            }
+            gap.append(raw, 0, start);
+            if (!pieces.isEmpty()) {
+                separators.add(gap.toString());
+            }
+            gap.setLength(0);
+            pieces.add(raw.substring(start, end));
+            gap.append(raw, end, raw.length());
+        }
+    }
+
+    private static List<String> splitOnSentences(String text, int maxPieceTokens, TokenEstimator estimator) {
+        List<String> pieces = new ArrayList<>();
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+        sentences.setText(text);
+
+        StringBuilder current = new StringBuilder();
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = text.substring(start, end);
+            if (current.length() > 0 
+                    && exceeds(current.toString() + sentence, maxPieceTokens, estimator)) {
+                pieces.add(current.toString());
+                current.setLength(0);
+            }
+            if (exceeds(sentence, maxPieceTokens, estimator)) {
+                // A single run-on sentence larger than the budget: fall back to word boundaries
+                pieces.addAll(splitOnWords(sentence, maxPieceTokens, estimator));
+                continue;
+            }
+            current.append(sentence);
+        }
+        if (current.length() > 0) {
+            pieces.add(current.toString());
+        }
+        return pieces;
+    }
+
+    private static List<String> splitOnWords(String text, int maxPieceTokens, TokenEstimator estimator) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        Matcher words = WORD.matcher(text);
+        while (words.find()) {
+            String word = words.group();
+            if (current.length() > 0 && exceeds(current + word, maxPieceTokens, estimator)) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            current.append(word);
+        }
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * Splits markup between tags, never inside one. A piece is cut after the last top-level
+     * element that fits; only an element too large on its own is cut between its children,
+     * and only text too large on its own is cut on sentences.
+     */
+    private static List<String> splitOnTags(String html, int maxPieceTokens, TokenEstimator estimator) {
+        List<String> chunks = new ArrayList<>();
+        Matcher markup = MARKUP.matcher(html);
+        int position = 0;
+        while (markup.find()) {
+            if (markup.start() > position) {
+                chunks.add(html.substring(position, markup.start()));
+            }
+            chunks.add(markup.group());
+            position = markup.end();
+        }
+        if (position < html.length()) {
+            chunks.add(html.substring(position));
+        }
+
+        List<String> pieces = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        // End of the last complete top-level element in current, or -1
+        int topLevelEnd = -1;
+        for (String chunk : chunks) {
+            boolean tag = chunk.startsWith("<");
+            if (!tag && exceeds(chunk, maxPieceTokens, estimator)) {
+                if (current.length() > 0) {
+                    pieces.add(current.toString());
+                    current.setLength(0);
+                }
+                pieces.addAll(splitOnSentences(chunk, maxPieceTokens, estimator));
+                topLevelEnd = -1;
+                continue;
+            }
+            if (current.length() > 0 && exceeds(current + chunk, maxPieceTokens, estimator)) {
+                if (topLevelEnd > 0 && topLevelEnd < current.length()) {
+                    pieces.add(current.substring(0, topLevelEnd));
+                    current.delete(0, topLevelEnd);
+                }
+                if (exceeds(current + chunk, maxPieceTokens, estimator)) {
+                    pieces.add(current.toString());
+                    current.setLength(0);
+                }
+                topLevelEnd = -1;
+            }
+            current.append(chunk);
+            if (tag) {
+                depth = Math.max(0, depth + depthChange(chunk));
+            }
+            if (depth == 0) {
+                topLevelEnd = current.length();
+            }
+        }
+        if (current.length() > 0) {
+            pieces.add(current.toString());
+        }
+        return pieces;
+    }
+
+    // Whitespace at the edges of a piece becomes a separator and is never sent
+    private static boolean exceeds(String rawPiece, int maxPieceTokens, TokenEstimator estimator) {
+        return estimator.estimateTokens(rawPiece.trim()) > maxPieceTokens;
+    }
+
+    private static int depthChange(String tag) {
+        if (tag.startsWith("<!") || tag.startsWith("<?") || tag.endsWith("/>")) {
+            return 0;
+        }
+        Matcher name = TAG_NAME.matcher(tag);
+        if (!name.lookingAt() || VOID_ELEMENTS.contains(name.group(1).toLowerCase(Locale.ROOT))) {
+            return 0;
+        }
+        return tag.startsWith("</") ? -1 : 1;
+    }
+
+    private static boolean isScriptWithoutSpaces(String languageCode) {
+        if (languageCode == null) {
+            return false;
+        }
+        String lang = languageCode.toLowerCase(Locale.ROOT);
+        return lang.startsWith("zh") || lang.startsWith("ja") || lang.startsWith("th");
     }
 
     /**
      * Groups an array of strings into manageable batches for Gemma 4.
+     * Splits purely on item count; prefer {@link #plan} when segment sizes vary.
      */
     public static List<BatchRequest> batch(String[] strings, String sourceLang, String targetLang, 
                                           ContentType contentType, int batchSize) {
         List<BatchRequest> batches = new ArrayList<>();
         BatchRequest currentBatch = new BatchRequest(sourceLang, targetLang, contentType);
+        int effectiveBatchSize = Math.max(1, batchSize);
         
         for (String s : strings) {
-            if (currentBatch.getTexts().size() >= batchSize) {
+            if (currentBatch.getTexts().size() >= effectiveBatchSize) {
                 batches.add(currentBatch);
                 currentBatch = new BatchRequest(sourceLang, targetLang, contentType);
             }
@@ -10,6 +10,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
 
 public class ResilienceHelper {
@@ -19,6 +24,8 @@ public class ResilienceHelper {
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final int maxRetries;
     private final long waitDurationMillis;
+    // Schedules async retry back-off so no thread is held while waiting
+    private volatile ScheduledExecutorService retryScheduler;
 
     public ResilienceHelper(int maxRetries, long waitDurationMillis, 
                            int failureRateThreshold, int slowCallRateThreshold,
@@ -31,6 +38,7 @@ public class ResilienceHelper {
                 .maxAttempts(maxRetries)
                 .waitDuration(Duration.ofMillis(waitDurationMillis))
                 .retryExceptions(Exception.class)
+                .ignoreExceptions(CancellationException.class)
                 .build();
         this.retryRegistry = RetryRegistry.of(retryConfig);
 
@@ -42,6 +50,7 @@ public class ResilienceHelper {
                 .slidingWindowSize(slidingWindowSize)
                 .minimumNumberOfCalls(5)
                 .permittedNumberOfCallsInHalfOpenState(3)
+                .ignoreExceptions(CancellationException.class)
                 .build();
         this.circuitBreakerRegistry = CircuitBreakerRegistry.of(cbConfig);
 
@@ -86,6 +95,49 @@ public class ResilienceHelper {
         ).get();
     }
 
+    /**
+     * Non-blocking counterpart of {@link #executeWithRetryAndCircuitBreaker}.
+     * The operation is invoked once per attempt and must start its own asynchronous work.
+     */
+    public <T> CompletableFuture<T> executeAsyncWithRetryAndCircuitBreaker(Supplier<CompletionStage<T>> operation,
+                                                                          String retryName,
+                                                                          String circuitBreakerName) {
+        Retry retry = retryRegistry.retry(retryName);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+
+        return Retry.decorateCompletionStage(
+            retry,
+            getRetryScheduler(),
+            CircuitBreaker.decorateCompletionStage(circuitBreaker, operation)
+        ).get().toCompletableFuture();
+    }
+
+    public void shutdown() {
+        ScheduledExecutorService scheduler = retryScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            retryScheduler = null;
+        }
+    }
+
+    private ScheduledExecutorService getRetryScheduler() {
+        ScheduledExecutorService scheduler = retryScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = retryScheduler;
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "translategemma-retry-scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    retryScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
     public CircuitBreaker getCircuitBreaker(String name) {
         return circuitBreakerRegistry.circuitBreaker(name);
     }
@@ -0,0 +1,134 @@
+package com.example.aem.translation.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-flight request coalescing. The first caller for a key runs the loader; callers that
+ * arrive for the same key while it is running wait for that result instead of starting
+ * their own. Nothing is remembered once the call completes, so this complements a cache
+ * rather than replacing it.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Runs {@code loader} on the calling thread unless an identical call is already in flight.
+     * If the call being waited on was cancelled, the waiter runs the loader itself.
+     */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+
+            if (existing == null) {
+                try {
+                    V value = loader.call();
+                    mine.complete(value);
+                    return value;
+                } catch (Throwable t) {
+                    mine.completeExceptionally(t);
+                    throw t;
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+            }
+
+            coalesced.incrementAndGet();
+            try {
+                return existing.get();
+            } catch (CancellationException e) {
+                // The leader's caller gave up; that should not fail everyone who was waiting
+                continue;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CancellationException) {
+                    continue;
+                }
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new CompletionException(cause);
+            }
+        }
+    }
+
+    /**
+     * Asynchronous variant: returns a future for the in-flight call for the key, or starts
+     * {@code loader}. The leader and every waiter receive their own dependent future, so a
+     * caller cancelling never affects the shared call. As in {@link #execute}, waiters whose
+     * shared call was cancelled run the loader again instead of failing.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            CompletableFuture<V> waiter = new CompletableFuture<>();
+            existing.whenComplete((value, error) -> {
+                if (error == null) {
+                    waiter.complete(value);
+                } else if (isCancellation(error) && !waiter.isDone()) {
+                    // The leader's caller gave up; that should not fail everyone who was waiting
+                    CompletableFuture<V> retry = executeAsync(key, loader);
+                    retry.whenComplete((retried, retryError) -> {
+                        if (retryError != null) {
+                            waiter.completeExceptionally(retryError);
+                        } else {
+                            waiter.complete(retried);
+                        }
+                    });
+                    waiter.whenComplete((ignored, waiterError) -> {
+                        if (waiter.isCancelled()) {
+                            retry.cancel(true);
+                        }
+                    });
+                } else {
+                    waiter.completeExceptionally(error);
+                }
+            });
+            return waiter;
+        }
+
+        CompletableFuture<V> started;
+        try {
+            started = loader.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            return mine.thenApply(value -> value);
+        }
+
+        started.whenComplete((value, error) -> {
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(value);
+            }
+        });
+        return mine.thenApply(value -> value);
+    }
+
+    private static boolean isCancellation(Throwable error) {
+        return error instanceof CancellationException
+                || (error instanceof CompletionException && error.getCause() instanceof CancellationException);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
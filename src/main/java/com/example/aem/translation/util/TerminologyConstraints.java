@@ -0,0 +1,176 @@
+package com.example.aem.translation.util;
+
+import com.example.aem.translation.terminology.TerminologyMatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Glossary terms a prompt requires, chosen from the terms that actually occur in the text.
+ * <p>
+ * Matches from one segment or from every segment of a batch are merged by source term, ranked
+ * (category domain first, then terms found in more segments, then longer and more confident
+ * terms) and admitted until the token budget is spent, so a large glossary never inflates the
+ * prompt beyond a fixed cost. The same instance then checks each translation for the target
+ * terms it required.
+ */
+public final class TerminologyConstraints {
+
+    public static final TerminologyConstraints NONE = new TerminologyConstraints(Collections.emptyList(), 0);
+
+    private static final String HEADER = "### Required terminology (use these target terms exactly):\n";
+    private static final String STRICT_HEADER =
+            "### Required terminology (every target term below MUST appear in the translation):\n";
+
+    private final List<TerminologyMatch> terms;
+    // Normalized source term to the selected match
+    private final Map<String, TerminologyMatch> required;
+    private final int droppedCount;
+
+    private TerminologyConstraints(List<TerminologyMatch> terms, int droppedCount) {
+        this.terms = Collections.unmodifiableList(terms);
+        this.required = new LinkedHashMap<>();
+        for (TerminologyMatch term : terms) {
+            required.put(normalize(term.getSourceTerm()), term);
+        }
+        this.droppedCount = droppedCount;
+    }
+
+    /**
+     * Ranks and budgets the matches found in one or more segments.
+     *
+     * @param segmentMatches matches per segment; a term found in several segments ranks higher
+     * @param preferredDomain domain (usually the content category) whose terms win ties and conflicts
+     * @param maxTokens budget for the whole terminology section, header included
+     */
+    public static TerminologyConstraints select(List<List<TerminologyMatch>> segmentMatches, String preferredDomain,
+                                                int maxTokens, TokenEstimator estimator) {
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (List<TerminologyMatch> matches : segmentMatches) {
+            Set<String> seenInSegment = new HashSet<>();
+            for (TerminologyMatch match : matches) {
+                String source = normalize(match.getSourceTerm());
+                if (source.isEmpty() || match.getTargetTerm() == null || !seenInSegment.add(source)) {
+                    continue;
+                }
+                Candidate candidate = candidates.get(source);
+                if (candidate == null) {
+                    candidates.put(source, new Candidate(match, preferredDomain));
+                } else {
+                    candidate.occurrences++;
+                    // Conflicting targets for one source term: keep the better-ranked entry only
+                    Candidate other = new Candidate(match, preferredDomain);
+                    other.occurrences = candidate.occurrences;
+                    if (RANKING.compare(other, candidate) < 0) {
+                        candidate.match = match;
+                        candidate.preferredDomain = other.preferredDomain;
+                    }
+                }
+            }
+        }
+        if (candidates.isEmpty() || maxTokens <= 0) {
+            return candidates.isEmpty() ? NONE : new TerminologyConstraints(Collections.emptyList(), candidates.size());
+        }
+
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(RANKING);
+
+        List<TerminologyMatch> selected = new ArrayList<>();
+        // The header and the blank line closing the section
+        int remaining = maxTokens - estimator.estimateTokens(HEADER) - estimator.estimateTokens("\n");
+        for (Candidate candidate : ranked) {
+            int cost = estimator.estimateTokens(line(candidate.match));
+            if (cost <= remaining) {
+                selected.add(candidate.match);
+                remaining -= cost;
+            }
+        }
+        return new TerminologyConstraints(selected, ranked.size() - selected.size());
+    }
+
+    public List<TerminologyMatch> getTerms() {
+        return terms;
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     * Terms that matched but did not fit the budget.
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * The prompt section listing the selected terms, or an empty string when there are none.
+     * {@code strict} phrases the section as a hard requirement for a corrective retry.
+     */
+    public String toPromptSection(boolean strict) {
+        if (terms.isEmpty()) {
+            return "";
+        }
+        StringBuilder section = new StringBuilder(strict ? STRICT_HEADER : HEADER);
+        for (TerminologyMatch term : terms) {
+            section.append(line(term));
+        }
+        return section.append('\n').toString();
+    }
+
+    /**
+     * Selected terms from {@code segmentMatches} whose target term is missing from
+     * {@code translation}, compared case-insensitively.
+     */
+    public List<TerminologyMatch> findMissing(List<TerminologyMatch> segmentMatches, String translation) {
+        if (terms.isEmpty() || segmentMatches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalizedTranslation = translation == null ? "" : translation.toLowerCase(Locale.ROOT);
+        List<TerminologyMatch> missing = new ArrayList<>();
+        Set<String> checked = new HashSet<>();
+        for (TerminologyMatch match : segmentMatches) {
+            String source = normalize(match.getSourceTerm());
+            TerminologyMatch selected = required.get(source);
+            if (selected == null || !checked.add(source)) {
+                continue;
+            }
+            if (!normalizedTranslation.contains(selected.getTargetTerm().toLowerCase(Locale.ROOT))) {
+                missing.add(selected);
+            }
+        }
+        return missing;
+    }
+
+    private static String line(TerminologyMatch term) {
+        return "- \"" + term.getSourceTerm() + "\" -> \"" + term.getTargetTerm() + "\"\n";
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparing((Candidate c) -> !c.preferredDomain)
+            .thenComparing(c -> -c.occurrences)
+            .thenComparing(c -> -c.match.getSourceTerm().length())
+            .thenComparing(c -> -c.match.getConfidence());
+
+    private static final class Candidate {
+        private TerminologyMatch match;
+        private boolean preferredDomain;
+        private int occurrences = 1;
+
+        Candidate(TerminologyMatch match, String preferredDomain) {
+            this.match = match;
+            this.preferredDomain = preferredDomain != null && preferredDomain.equalsIgnoreCase(match.getDomain());
+        }
+    }
+}
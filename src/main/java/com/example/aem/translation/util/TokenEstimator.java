@@ -0,0 +1,36 @@
+package com.example.aem.translation.util;
+
+/**
+ * Estimates how many model tokens a piece of text will consume.
+ * Implementations can wrap a real tokenizer; the default is a cheap heuristic
+ * that is good enough for packing prompts without calling the model.
+ */
+@FunctionalInterface
+public interface TokenEstimator {
+
+    int estimateTokens(String text);
+
+    /**
+     * Roughly four characters per token for Latin scripts and one token per
+     * CJK/Hangul/Thai character, which tokenizers rarely merge.
+     */
+    TokenEstimator HEURISTIC = text -> {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int denseChars = 0;
+        int otherChars = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= '\u0E00' && c <= '\u0E7F')      // Thai
+                    || (c >= '\u3040' && c <= '\u30FF')   // Hiragana, Katakana
+                    || (c >= '\u3400' && c <= '\u9FFF')   // CJK ideographs
+                    || (c >= '\uAC00' && c <= '\uD7AF')) { // Hangul
+                denseChars++;
+            } else {
+                otherChars++;
+            }
+        }
+        return denseChars + (otherChars + 3) / 4;
+    };
+}
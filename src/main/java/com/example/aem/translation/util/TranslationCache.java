@@ -5,18 +5,51 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class TranslationCache {
     private static final Logger LOG = LoggerFactory.getLogger(TranslationCache.class);
 
-    private final Cache<String, CachedTranslation> translationCache;
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 32L * 1024L * 1024L;
+    // Approximate fixed heap cost of one entry: key, entry wrapper and Caffeine node
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<TranslationCacheKey, CachedTranslation> translationCache;
     private final Cache<String, CachedLanguageDetection> languageDetectionCache;
+    private final PersistentTranslationStore persistentStore;
+    private final int compressionThresholdChars;
 
     public TranslationCache(int maxSize, int expireAfterMinutes) {
+        this(maxSize, expireAfterMinutes, null);
+    }
+
+    /**
+     * @param persistentStore optional L2 tier consulted on L1 misses; may be null
+     */
+    public TranslationCache(int maxSize, int expireAfterMinutes, PersistentTranslationStore persistentStore) {
+        this(maxSize, DEFAULT_MAX_WEIGHT_BYTES, expireAfterMinutes, 0, persistentStore);
+    }
+
+    /**
+     * @param maxSize entry bound for language detection (half of it is used)
+     * @param maxWeightBytes approximate heap budget for cached translations
+     * @param compressionThresholdChars translations at least this long are kept deflated; 0 disables
+     * @param persistentStore optional L2 tier consulted on L1 misses; may be null
+     */
+    public TranslationCache(int maxSize, long maxWeightBytes, int expireAfterMinutes, 
+                            int compressionThresholdChars, PersistentTranslationStore persistentStore) {
+        this.persistentStore = persistentStore;
+        this.compressionThresholdChars = compressionThresholdChars;
+        // Bounded by bytes, not entries: one rich-text block can weigh as much as thousands of labels
         this.translationCache = Caffeine.newBuilder()
-                .maximumSize(maxSize)
+                .maximumWeight(Math.max(1, maxWeightBytes))
+                .weigher((TranslationCacheKey key, CachedTranslation value) -> value.getWeightBytes())
                 .expireAfterWrite(expireAfterMinutes, TimeUnit.MINUTES)
                 .recordStats()
                 .build();
@@ -27,25 +60,35 @@ public class TranslationCache {
                 .recordStats()
                 .build();
 
-        LOG.info("TranslationCache initialized with maxSize={}, expireAfterMinutes={}", 
-                maxSize, expireAfterMinutes);
+        LOG.info("TranslationCache initialized with maxWeightBytes={}, expireAfterMinutes={}, "
+                + "compressionThresholdChars={}, persistent={}", 
+                maxWeightBytes, expireAfterMinutes, compressionThresholdChars, persistentStore != null);
     }
 
-    public String getTranslation(String sourceText, String sourceLang, String targetLang, 
-                                  Function<String, String> loader) {
-        String cacheKey = generateTranslationKey(sourceText, sourceLang, targetLang);
-        
+    public String getTranslation(TranslationCacheKey cacheKey, Function<TranslationCacheKey, String> loader) {
         CachedTranslation cached = translationCache.getIfPresent(cacheKey);
         if (cached != null) {
             LOG.debug("Cache hit for translation key: {}", cacheKey);
             return cached.getTranslation();
         }
 
+        if (persistentStore != null) {
+            String persisted = persistentStore.get(cacheKey);
+            if (persisted != null) {
+                LOG.debug("L2 hit for translation key: {}", cacheKey);
+                translationCache.put(cacheKey, new CachedTranslation(persisted, compressionThresholdChars));
+                return persisted;
+            }
+        }
+
         LOG.debug("Cache miss for translation key: {}", cacheKey);
         String translation = loader.apply(cacheKey);
         
         if (translation != null) {
-            translationCache.put(cacheKey, new CachedTranslation(translation));
+            translationCache.put(cacheKey, new CachedTranslation(translation, compressionThresholdChars));
+            if (persistentStore != null) {
+                persistentStore.put(cacheKey, translation);
+            }
         }
         
         return translation;
@@ -70,40 +113,119 @@ public class TranslationCache {
         return language;
     }
 
-    public void invalidateTranslation(String sourceText, String sourceLang, String targetLang) {
-        String cacheKey = generateTranslationKey(sourceText, sourceLang, targetLang);
+    public void invalidateTranslation(TranslationCacheKey cacheKey) {
         translationCache.invalidate(cacheKey);
+        if (persistentStore != null) {
+            persistentStore.remove(cacheKey);
+        }
         LOG.info("Invalidated cache for key: {}", cacheKey);
     }
 
     public void invalidateAll() {
         translationCache.invalidateAll();
         languageDetectionCache.invalidateAll();
+        if (persistentStore != null) {
+            persistentStore.clear();
+        }
         LOG.info("All caches invalidated");
     }
 
+    /**
+     * Drops the heap tier and closes the persistent tier, keeping its contents for the next start.
+     */
+    public void close() {
+        translationCache.invalidateAll();
+        languageDetectionCache.invalidateAll();
+        if (persistentStore != null) {
+            persistentStore.close();
+        }
+    }
+
     public CacheStats getStats() {
         return new CacheStats(
             translationCache.stats(),
-            languageDetectionCache.stats()
+            languageDetectionCache.stats(),
+            persistentStore
         );
     }
 
-    private String generateTranslationKey(String sourceText, String sourceLang, String targetLang) {
-        return sourceLang + ":" + targetLang + ":" + sourceText.hashCode();
-    }
-
+    /**
+     * Holds a translation either as a String or, for long values, as deflated UTF-8 bytes.
+     */
     public static class CachedTranslation {
         private final String translation;
+        private final byte[] compressed;
         private final long timestamp;
 
         public CachedTranslation(String translation) {
-            this.translation = translation;
+            this(translation, 0);
+        }
+
+        public CachedTranslation(String translation, int compressionThresholdChars) {
+            byte[] deflated = compressionThresholdChars > 0 && translation.length() >= compressionThresholdChars
+                    ? deflate(translation) : null;
+            // Keep the compressed form only when it actually beats UTF-16 on heap
+            if (deflated != null && deflated.length < translation.length() * 2) {
+                this.translation = null;
+                this.compressed = deflated;
+            } else {
+                this.translation = translation;
+                this.compressed = null;
+            }
             this.timestamp = System.currentTimeMillis();
         }
 
         public String getTranslation() {
-            return translation;
+            return translation != null ? translation : inflate(compressed);
+        }
+
+        public boolean isCompressed() {
+            return compressed != null;
+        }
+
+        /**
+         * Approximate retained heap size, used as the cache weight.
+         */
+        public int getWeightBytes() {
+            long payload = translation != null ? 40L + 2L * translation.length() : 16L + compressed.length;
+            return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + payload);
+        }
+
+        private static byte[] deflate(String text) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() / 2);
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private static String inflate(byte[] data) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+                byte[] buffer = new byte[4096];
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buffer);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalStateException("Truncated compressed cache entry");
+                    }
+                    out.write(buffer, 0, n);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt compressed cache entry", e);
+            } finally {
+                inflater.end();
+            }
         }
 
         public long getTimestamp() {
@@ -132,11 +254,27 @@ public class TranslationCache {
     public static class CacheStats {
         private final com.github.benmanes.caffeine.cache.stats.CacheStats translationStats;
         private final com.github.benmanes.caffeine.cache.stats.CacheStats languageStats;
+        private final long persistentHitCount;
+        private final long persistentMissCount;
+        private final long persistentEntryCount;
+        private final long persistentSizeBytes;
+        private final long warmStartEntryCount;
 
         public CacheStats(com.github.benmanes.caffeine.cache.stats.CacheStats translationStats,
                          com.github.benmanes.caffeine.cache.stats.CacheStats languageStats) {
+            this(translationStats, languageStats, null);
+        }
+
+        public CacheStats(com.github.benmanes.caffeine.cache.stats.CacheStats translationStats,
+                         com.github.benmanes.caffeine.cache.stats.CacheStats languageStats,
+                         PersistentTranslationStore persistentStore) {
             this.translationStats = translationStats;
             this.languageStats = languageStats;
+            this.persistentHitCount = persistentStore != null ? persistentStore.getHitCount() : 0;
+            this.persistentMissCount = persistentStore != null ? persistentStore.getMissCount() : 0;
+            this.persistentEntryCount = persistentStore != null ? persistentStore.getEntryCount() : 0;
+            this.persistentSizeBytes = persistentStore != null ? persistentStore.getSizeBytes() : 0;
+            this.warmStartEntryCount = persistentStore != null ? persistentStore.getWarmStartEntryCount() : 0;
         }
 
         public long getTranslationHitCount() {
@@ -154,5 +292,33 @@ public class TranslationCache {
         public long getLanguageDetectionHitCount() {
             return languageStats.hitCount();
         }
+
+        public long getPersistentHitCount() {
+            return persistentHitCount;
+        }
+
+        public long getPersistentMissCount() {
+            return persistentMissCount;
+        }
+
+        /**
+         * Share of L1 misses answered by the persistent tier; after a restart this is the warm-start hit rate.
+         */
+        public double getPersistentHitRate() {
+            long lookups = persistentHitCount + persistentMissCount;
+            return lookups == 0 ? 0.0 : (double) persistentHitCount / lookups;
+        }
+
+        public long getPersistentEntryCount() {
+            return persistentEntryCount;
+        }
+
+        public long getPersistentSizeBytes() {
+            return persistentSizeBytes;
+        }
+
+        public long getWarmStartEntryCount() {
+            return warmStartEntryCount;
+        }
     }
 }
@@ -0,0 +1,170 @@
+package com.example.aem.translation.util;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+
+/**
+ * Compact translation cache key: a 128-bit MurmurHash3 (x64 variant) over every input that
+ * changes the model's output, held as two longs. Each field is length-prefixed so that no two
+ * distinct field combinations hash the same bytes, and a collision needs a 2^64-scale birthday
+ * event rather than the 2^16 of a 32-bit {@code hashCode()}.
+ * <p>
+ * The fields' UTF-16 code units are fed to the hash as they are read, so building a key
+ * allocates nothing in proportion to the text.
+ */
+public final class TranslationCacheKey {
+
+    private final long high;
+    private final long low;
+
+    private TranslationCacheKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static TranslationCacheKey of(String sourceText, String sourceLang, String targetLang,
+                                         ContentType contentType, String category,
+                                         String modelName, String promptVersion) {
+        Murmur3 hash = new Murmur3();
+        hash.putField(sourceText);
+        hash.putField(sourceLang);
+        hash.putField(targetLang);
+        hash.putField(contentType != null ? contentType.name() : null);
+        hash.putField(category);
+        hash.putField(modelName);
+        hash.putField(promptVersion);
+        return hash.finish();
+    }
+
+    /**
+     * Rebuilds a key from its two halves, e.g. when reading a persisted cache index.
+     */
+    public static TranslationCacheKey fromLongs(long high, long low) {
+        return new TranslationCacheKey(high, low);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TranslationCacheKey)) {
+            return false;
+        }
+        TranslationCacheKey other = (TranslationCacheKey) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+    /**
+     * Streaming MurmurHash3 x64 128-bit with seed 0; produces the same value as hashing all
+     * the bytes at once. Bytes are collected little-endian into a 16-byte block held in two longs.
+     */
+    private static final class Murmur3 {
+        private static final long C1 = 0x87c37b91114253d5L;
+        private static final long C2 = 0x4cf5ad432745937fL;
+
+        private long h1;
+        private long h2;
+        private long k1;
+        private long k2;
+        private int blockBytes;
+        private long totalBytes;
+
+        // Big-endian length (-1 for null) followed by big-endian UTF-16 code units
+        void putField(String field) {
+            int length = field != null ? field.length() : -1;
+            putByte(length >>> 24);
+            putByte(length >>> 16);
+            putByte(length >>> 8);
+            putByte(length);
+            for (int i = 0; i < length; i++) {
+                char c = field.charAt(i);
+                putByte(c >>> 8);
+                putByte(c);
+            }
+        }
+
+        private void putByte(int b) {
+            long value = b & 0xffL;
+            if (blockBytes < 8) {
+                k1 |= value << (8 * blockBytes);
+            } else {
+                k2 |= value << (8 * (blockBytes - 8));
+            }
+            totalBytes++;
+            if (++blockBytes == 16) {
+                mixBlock();
+            }
+        }
+
+        private void mixBlock() {
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+
+            k1 = 0;
+            k2 = 0;
+            blockBytes = 0;
+        }
+
+        TranslationCacheKey finish() {
+            // Tail of fewer than 16 bytes
+            if (blockBytes > 8) {
+                h2 ^= mixK2(k2);
+            }
+            if (blockBytes > 0) {
+                h1 ^= mixK1(k1);
+            }
+
+            h1 ^= totalBytes;
+            h2 ^= totalBytes;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+            h1 += h2;
+            h2 += h1;
+            return new TranslationCacheKey(h1, h2);
+        }
+
+        private static long mixK1(long k) {
+            return Long.rotateLeft(k * C1, 31) * C2;
+        }
+
+        private static long mixK2(long k) {
+            return Long.rotateLeft(k * C2, 33) * C1;
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.aem.translation.util;
+
+import com.example.aem.translation.tm.TranslationMemoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded write-behind buffer for translation memory updates.
+ * Translations hand their result here and return immediately; a single worker collects entries
+ * into batches of up to {@code batchSize}, waiting at most {@code flushIntervalMillis} for a batch
+ * to fill, and stores each batch with one {@link TranslationMemoryService#storeTranslations} call.
+ * When the buffer is full new entries are dropped and counted rather than blocking the caller.
+ */
+public class TranslationMemoryWriteBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TranslationMemoryWriteBuffer.class);
+
+    private final Supplier<TranslationMemoryService> target;
+    private final BlockingQueue<TranslationMemoryService.TMEntry> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Thread worker;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param target resolved for every batch, so a memory bound after construction is picked up;
+     *               batches are discarded while it returns null
+     */
+    public TranslationMemoryWriteBuffer(Supplier<TranslationMemoryService> target, int batchSize,
+                                        long flushIntervalMillis, int capacity) {
+        this.target = target;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1L, flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, capacity));
+        this.worker = new Thread(this::drain, "translategemma-tm-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        LOG.info("TranslationMemoryWriteBuffer initialized with batchSize={}, flushIntervalMillis={}, capacity={}",
+                this.batchSize, this.flushIntervalMillis, queue.remainingCapacity());
+    }
+
+    /**
+     * Queues the entry. Returns false, without storing it, when the buffer is full or shut down.
+     */
+    public boolean offer(TranslationMemoryService.TMEntry entry) {
+        if (running && queue.offer(entry)) {
+            return true;
+        }
+        long count = dropped.incrementAndGet();
+        LOG.debug("Translation memory write buffer full, dropped entry ({} dropped so far)", count);
+        return false;
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Stops accepting entries and gives the worker a short grace period to store what is queued.
+     * The worker is never interrupted, since an interrupt can close the memory's file channels.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5) + flushIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            LOG.warn("Translation memory write buffer shut down with {} unsaved entries", queue.size());
+        }
+        LOG.info("TranslationMemoryWriteBuffer shut down");
+    }
+
+    private void drain() {
+        List<TranslationMemoryService.TMEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                TranslationMemoryService.TMEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    TranslationMemoryService.TMEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<TranslationMemoryService.TMEntry> batch) {
+        TranslationMemoryService memory = target.get();
+        if (memory == null) {
+            LOG.debug("No translation memory bound, discarding {} entries", batch.size());
+            return;
+        }
+        try {
+            memory.storeTranslations(new ArrayList<>(batch));
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            LOG.warn("Failed to store {} translations in translation memory", batch.size(), e);
+        }
+    }
+}
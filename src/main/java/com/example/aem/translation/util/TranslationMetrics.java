@@ -1,6 +1,7 @@
 package com.example.aem.translation.util;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
@@ -16,9 +17,23 @@ public class TranslationMetrics {
     private final Counter translationSuccessCounter;
     private final Counter translationFailureCounter;
     private final Counter translationCacheHitCounter;
+    private final Counter translationCoalescedCounter;
+    private final Counter translationMemoryHitCounter;
+    private final Counter translationMemoryReferenceCounter;
+    private final Counter terminologyInjectedCounter;
+    private final Counter terminologyViolationCounter;
     private final Timer translationLatencyTimer;
     private final Counter retryCounter;
     private final Counter circuitBreakerOpenCounter;
+    private final Timer multiModalConnectTimer;
+    private final Timer multiModalQueueTimer;
+    private final Timer multiModalGenerateTimer;
+    private final Counter multiModalRejectedCounter;
+    private final Counter multiModalCacheHitCounter;
+    private final Timer jcrCommitTimer;
+    private final DistributionSummary jcrCommitSizeSummary;
+    private final Counter jcrCommitRetryCounter;
+    private final Counter jcrCommitFailureCounter;
 
     public TranslationMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
@@ -39,6 +54,26 @@ public class TranslationMetrics {
                 .description("Translation cache hits")
                 .register(meterRegistry);
 
+        this.translationCoalescedCounter = Counter.builder("translation.coalesced.total")
+                .description("Translations served by waiting on an identical in-flight call")
+                .register(meterRegistry);
+
+        this.translationMemoryHitCounter = Counter.builder("translation.tm.hits.total")
+                .description("Translations answered by an exact translation memory match")
+                .register(meterRegistry);
+
+        this.translationMemoryReferenceCounter = Counter.builder("translation.tm.references.total")
+                .description("Model calls prompted with fuzzy translation memory matches")
+                .register(meterRegistry);
+
+        this.terminologyInjectedCounter = Counter.builder("translation.terminology.injected.total")
+                .description("Glossary terms added to prompts")
+                .register(meterRegistry);
+
+        this.terminologyViolationCounter = Counter.builder("translation.terminology.violations.total")
+                .description("Translations missing a required glossary target term")
+                .register(meterRegistry);
+
         this.translationLatencyTimer = Timer.builder("translation.latency")
                 .description("Translation latency")
                 .register(meterRegistry);
@@ -50,6 +85,42 @@ public class TranslationMetrics {
         this.circuitBreakerOpenCounter = Counter.builder("translation.circuitbreaker.open.total")
                 .description("Circuit breaker open events")
                 .register(meterRegistry);
+
+        this.multiModalConnectTimer = Timer.builder("multimodal.connect.latency")
+                .description("Vertex AI channel and credential setup for multi-modal calls")
+                .register(meterRegistry);
+
+        this.multiModalQueueTimer = Timer.builder("multimodal.queue.latency")
+                .description("Time multi-modal calls waited for a free client slot")
+                .register(meterRegistry);
+
+        this.multiModalGenerateTimer = Timer.builder("multimodal.generate.latency")
+                .description("Multi-modal model generation time")
+                .register(meterRegistry);
+
+        this.multiModalRejectedCounter = Counter.builder("multimodal.rejected.total")
+                .description("Multi-modal calls rejected because every client slot stayed busy")
+                .register(meterRegistry);
+
+        this.multiModalCacheHitCounter = Counter.builder("multimodal.cache.hits.total")
+                .description("Image analyses answered from the perceptual hash cache")
+                .register(meterRegistry);
+
+        this.jcrCommitTimer = Timer.builder("jcr.commit.latency")
+                .description("Duration of batched repository commits, including retries")
+                .register(meterRegistry);
+
+        this.jcrCommitSizeSummary = DistributionSummary.builder("jcr.commit.changes")
+                .description("Properties written per batched repository commit")
+                .register(meterRegistry);
+
+        this.jcrCommitRetryCounter = Counter.builder("jcr.commit.retries.total")
+                .description("Repository commits retried after a persistence failure")
+                .register(meterRegistry);
+
+        this.jcrCommitFailureCounter = Counter.builder("jcr.commit.failures.total")
+                .description("Repository commits that failed on every attempt")
+                .register(meterRegistry);
     }
 
     public void recordTranslationRequest() {
@@ -68,6 +139,26 @@ public class TranslationMetrics {
         translationCacheHitCounter.increment();
     }
 
+    public void recordCoalescedRequest() {
+        translationCoalescedCounter.increment();
+    }
+
+    public void recordTranslationMemoryHit() {
+        translationMemoryHitCounter.increment();
+    }
+
+    public void recordTranslationMemoryReferences() {
+        translationMemoryReferenceCounter.increment();
+    }
+
+    public void recordTerminologyInjected(int terms) {
+        terminologyInjectedCounter.increment(terms);
+    }
+
+    public void recordTerminologyViolation() {
+        terminologyViolationCounter.increment();
+    }
+
     public void recordLatency(long durationMs) {
         translationLatencyTimer.record(durationMs, TimeUnit.MILLISECONDS);
     }
@@ -80,6 +171,39 @@ public class TranslationMetrics {
         circuitBreakerOpenCounter.increment();
     }
 
+    public void recordMultiModalConnect(long durationMs) {
+        multiModalConnectTimer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordMultiModalQueueWait(long durationMs) {
+        multiModalQueueTimer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordMultiModalGenerate(long durationMs) {
+        multiModalGenerateTimer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordMultiModalRejected() {
+        multiModalRejectedCounter.increment();
+    }
+
+    public void recordMultiModalCacheHit() {
+        multiModalCacheHitCounter.increment();
+    }
+
+    public void recordJcrCommit(int changes, long durationMs) {
+        jcrCommitSizeSummary.record(changes);
+        jcrCommitTimer.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordJcrCommitRetry() {
+        jcrCommitRetryCounter.increment();
+    }
+
+    public void recordJcrCommitFailure() {
+        jcrCommitFailureCounter.increment();
+    }
+
     public Timer.Sample startTimer() {
         return Timer.start(meterRegistry);
     }
@@ -0,0 +1,78 @@
+package com.example.aem.translation.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded background queue for trust &amp; transparency analysis.
+ * Translations hand their post-processing here and return immediately; a single worker
+ * drains the queue so analysis never competes with translations for model capacity.
+ * When the queue is full new work is dropped and counted rather than blocking the caller.
+ */
+public class TransparencyAnalysisQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransparencyAnalysisQueue.class);
+
+    private final ThreadPoolExecutor worker;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public TransparencyAnalysisQueue(int queueCapacity) {
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "translategemma-transparency");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        LOG.info("TransparencyAnalysisQueue initialized with queueCapacity={}", queueCapacity);
+    }
+
+    /**
+     * Queues the task. Returns false, without running it, when the queue is full or shut down.
+     */
+    public boolean submit(Runnable task) {
+        try {
+            worker.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOG.warn("Transparency analysis task failed", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            long count = dropped.incrementAndGet();
+            LOG.debug("Transparency analysis queue full, dropped task ({} dropped so far)", count);
+            return false;
+        }
+    }
+
+    public int getPendingCount() {
+        return worker.getQueue().size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting work and gives queued analysis a short grace period to finish.
+     */
+    public void shutdown() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.shutdownNow();
+        }
+        LOG.info("TransparencyAnalysisQueue shut down");
+    }
+}
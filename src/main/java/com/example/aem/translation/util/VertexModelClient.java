@@ -0,0 +1,170 @@
+package com.example.aem.translation.util;
+
+import com.google.cloud.vertexai.VertexAI;
+import com.google.cloud.vertexai.api.Content;
+import com.google.cloud.vertexai.api.GenerateContentResponse;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived Vertex AI client shared by every call of a component.
+ * <p>
+ * One {@link VertexAI} instance owns the gRPC channel, credentials and TLS session, so they are
+ * set up once per activation instead of once per request. At most {@code maxConcurrency} calls
+ * use the channel at once; further callers wait up to {@code acquireTimeoutMs} for a slot and
+ * are then rejected, so a bulk run cannot pile up unbounded requests behind a slow endpoint.
+ * {@link #close(long)} stops admitting calls, lets running ones finish and releases the channel.
+ */
+public class VertexModelClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VertexModelClient.class);
+
+    private final VertexAI vertexAI;
+    private final GenerativeModel model;
+    private final String modelName;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutMs;
+    private final TranslationMetrics metrics;
+    private volatile boolean connected;
+    private volatile boolean closed;
+
+    public VertexModelClient(String projectId, String location, String modelName, int maxConcurrency,
+                             long acquireTimeoutMs, TranslationMetrics metrics) {
+        this(new VertexAI(projectId, location), modelName, maxConcurrency, acquireTimeoutMs, metrics);
+    }
+
+    private VertexModelClient(VertexAI vertexAI, String modelName, int maxConcurrency, long acquireTimeoutMs,
+                              TranslationMetrics metrics) {
+        this(vertexAI, new GenerativeModel(modelName, vertexAI), modelName, maxConcurrency, acquireTimeoutMs,
+                metrics);
+    }
+
+    // Package-private for tests: wraps an existing model, which counts as already connected
+    VertexModelClient(GenerativeModel model, int maxConcurrency, long acquireTimeoutMs, TranslationMetrics metrics) {
+        this(null, model, "test", maxConcurrency, acquireTimeoutMs, metrics);
+        this.connected = true;
+    }
+
+    private VertexModelClient(VertexAI vertexAI, GenerativeModel model, String modelName, int maxConcurrency,
+                              long acquireTimeoutMs, TranslationMetrics metrics) {
+        this.vertexAI = vertexAI;
+        this.model = model;
+        this.modelName = modelName;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Opens the channel and loads credentials if that has not happened yet. Called on
+     * activation so the first request does not pay for it; a failure there is retried by the
+     * next call.
+     */
+    public void connect() throws IOException {
+        if (connected) {
+            return;
+        }
+        synchronized (this) {
+            if (connected || vertexAI == null) {
+                connected = true;
+                return;
+            }
+            long start = System.nanoTime();
+            vertexAI.getPredictionServiceClient();
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (metrics != null) {
+                metrics.recordMultiModalConnect(elapsedMs);
+            }
+            connected = true;
+            LOG.info("Vertex AI channel for {} connected in {} ms", modelName, elapsedMs);
+        }
+    }
+
+    /**
+     * Generates content on the shared channel, waiting for a free slot first.
+     *
+     * @throws RejectedExecutionException if the client is closed or no slot frees up in time
+     */
+    public GenerateContentResponse generateContent(Content content) throws IOException, InterruptedException {
+        long queuedAt = System.nanoTime();
+        acquire();
+        try {
+            long queuedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt);
+            connect();
+            long start = System.nanoTime();
+            GenerateContentResponse response = model.generateContent(content);
+            if (metrics != null) {
+                metrics.recordMultiModalQueueWait(queuedMs);
+                metrics.recordMultiModalGenerate(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return response;
+        } finally {
+            permits.release();
+        }
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public int getInFlightCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Stops admitting calls, waits up to {@code drainTimeoutMs} for running ones and closes the
+     * channel. Calls still running after the timeout fail with a channel error.
+     */
+    public void close(long drainTimeoutMs) {
+        closed = true;
+        boolean drained = false;
+        try {
+            drained = permits.tryAcquire(maxConcurrency, Math.max(0, drainTimeoutMs), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!drained) {
+            LOG.warn("Closing Vertex AI client for {} with {} call(s) still running", modelName, getInFlightCount());
+        }
+        if (vertexAI != null) {
+            try {
+                vertexAI.close();
+            } catch (RuntimeException e) {
+                LOG.warn("Error closing Vertex AI client for {}", modelName, e);
+            }
+        }
+        LOG.info("Vertex AI client for {} closed", modelName);
+    }
+
+    private void acquire() throws InterruptedException {
+        if (closed) {
+            throw new RejectedExecutionException("Vertex AI client for " + modelName + " is closed");
+        }
+        boolean acquired;
+        if (acquireTimeoutMs > 0) {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } else {
+            permits.acquire();
+            acquired = true;
+        }
+        if (!acquired) {
+            if (metrics != null) {
+                metrics.recordMultiModalRejected();
+            }
+            throw new RejectedExecutionException("Vertex AI client for " + modelName + " saturated ("
+                    + maxConcurrency + " calls in flight for " + acquireTimeoutMs + " ms)");
+        }
+        if (closed) {
+            permits.release();
+            throw new RejectedExecutionException("Vertex AI client for " + modelName + " is closed");
+        }
+    }
+}
@@ -6,6 +6,11 @@ import com.example.aem.translation.mock.MockTranslationState;
 import com.adobe.granite.translation.api.TranslationState;
 import com.example.aem.translation.config.TranslateGemmaConfig;
 import com.example.aem.translation.impl.TranslateGemmaTranslationServiceImpl;
+import com.example.aem.translation.service.TranslationFeedbackService;
+import com.example.aem.translation.terminology.TerminologyEntry;
+import com.example.aem.translation.terminology.impl.TerminologyServiceImpl;
+import com.example.aem.translation.tm.TranslationMemoryService;
+import com.example.aem.translation.tm.impl.JcrTranslationMemoryService;
 import com.google.cloud.vertexai.api.GenerateContentResponse;
 import com.google.cloud.vertexai.api.Candidate;
 import com.google.cloud.vertexai.api.Content;
@@ -17,6 +22,7 @@ import org.apache.sling.event.jobs.Job;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -25,7 +31,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.Collections;
 import java.util.Map;
 
@@ -122,6 +131,141 @@ public class TranslateGemmaTranslationServiceImplTest {
         verify(mockGenerativeModel, times(1)).generateContent(anyString());
     }
 
+    @Test
+    void testTranslateArrayUsesSingleBatchedCall() throws TranslationException, IOException {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+
+        GenerateContentResponse mockResponse = GenerateContentResponse.newBuilder()
+            .addCandidates(Candidate.newBuilder()
+                .setContent(Content.newBuilder().addParts(Part.newBuilder().setText("[\"Hola\", \"Mundo\"]"))))
+            .build();
+
+        when(mockGenerativeModel.generateContent(anyString())).thenReturn(mockResponse);
+
+        TranslationResult[] results = translationService.translateArray(new String[] {"Hello", "World", "Hello"},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "general");
+
+        assertEquals(3, results.length);
+        assertEquals("Hola", results[0].getTranslation());
+        assertEquals("Mundo", results[1].getTranslation());
+        assertEquals("Hola", results[2].getTranslation());
+        verify(mockGenerativeModel, times(1)).generateContent(contains("exactly 2 strings"));
+    }
+
+    @Test
+    void testTranslateArrayFallsBackToSingleCallsForUnparseableReply() throws TranslationException, IOException {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+
+        when(mockGenerativeModel.generateContent(contains("exactly 2 strings"))).thenReturn(jsonResponse("not json"));
+        when(mockGenerativeModel.generateContent(endsWith("Hello"))).thenReturn(jsonResponse("Hola"));
+        when(mockGenerativeModel.generateContent(endsWith("World"))).thenReturn(jsonResponse("Mundo"));
+
+        TranslationResult[] results = translationService.translateArray(new String[] {"Hello", "World"},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "general");
+
+        assertEquals("Hola", results[0].getTranslation());
+        assertEquals("Mundo", results[1].getTranslation());
+        verify(mockGenerativeModel, times(3)).generateContent(anyString());
+    }
+
+    @Test
+    void testTranslateArrayAsyncSendsBatchesConcurrently() throws Exception {
+        lenient().when(config.batchSize()).thenReturn(1);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        lenient().when(config.asyncMaxConcurrency()).thenReturn(4);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+
+        java.util.concurrent.CountDownLatch bothSent = new java.util.concurrent.CountDownLatch(2);
+        when(mockGenerativeModel.generateContent(anyString())).thenAnswer(invocation -> {
+            bothSent.countDown();
+            // Only returns once the other batch's call has started as well
+            assertTrue(bothSent.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            String prompt = invocation.getArgument(0);
+            return jsonResponse(prompt.endsWith("[\"Hello\"]") ? "[\"Hola\"]" : "[\"Mundo\"]");
+        });
+
+        TranslationResult[] results = translationService.translateArrayAsync(new String[] {"Hello", "World"},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "general").get(10, java.util.concurrent.TimeUnit.SECONDS);
+
+        assertEquals("Hola", results[0].getTranslation());
+        assertEquals("Mundo", results[1].getTranslation());
+        verify(mockGenerativeModel, times(2)).generateContent(anyString());
+    }
+
+    @Test
+    void testTranslateToLanguagesReturnsResultsPerLanguage() throws TranslationException, IOException {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        lenient().when(config.asyncMaxConcurrency()).thenReturn(2);
+        lenient().when(config.fanOutMaxParallelism()).thenReturn(2);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+
+        when(mockGenerativeModel.generateContent(contains("to Spanish"))).thenReturn(jsonResponse("[\"Hola\", \"Mundo\"]"));
+        when(mockGenerativeModel.generateContent(contains("to German"))).thenReturn(jsonResponse("[\"Hallo\", \"Welt\"]"));
+
+        Map<String, TranslationResult[]> results = translationService.translateToLanguages(
+            new String[] {"Hello", "World"}, "en", new LinkedHashSet<>(Arrays.asList("es", "de")),
+            TranslationConstants.ContentType.PLAIN, "general");
+
+        assertEquals(Arrays.asList("es", "de"), new ArrayList<>(results.keySet()));
+        assertEquals("Hola", results.get("es")[0].getTranslation());
+        assertEquals("Welt", results.get("de")[1].getTranslation());
+        verify(mockGenerativeModel, times(1)).generateContent(contains("to Spanish"));
+        verify(mockGenerativeModel, times(1)).generateContent(contains("to German"));
+    }
+
+    @Test
+    void testTranslateToLanguagesReportsFailedLanguageWithoutFailingOthers() throws TranslationException, IOException {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        lenient().when(config.retryMaxAttempts()).thenReturn(1);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+
+        when(mockGenerativeModel.generateContent(contains("to Spanish"))).thenReturn(jsonResponse("[\"Hola\", \"Mundo\"]"));
+        when(mockGenerativeModel.generateContent(contains("to German"))).thenThrow(new IOException("quota exceeded"));
+
+        Map<String, TranslationException> failures = new java.util.LinkedHashMap<>();
+        Map<String, TranslationResult[]> results = translationService.translateToLanguages(
+            new String[] {"Hello", "World"}, "en", new LinkedHashSet<>(Arrays.asList("es", "de")),
+            TranslationConstants.ContentType.PLAIN, "general", failures);
+
+        assertEquals(Collections.singletonList("es"), new ArrayList<>(results.keySet()));
+        assertEquals("Mundo", results.get("es")[1].getTranslation());
+        assertEquals(Collections.singleton("de"), failures.keySet());
+        assertThrows(TranslationException.class, () -> translationService.translateToLanguages(
+            new String[] {"Hello", "World"}, "en", new LinkedHashSet<>(Arrays.asList("es", "de")),
+            TranslationConstants.ContentType.PLAIN, "general"));
+    }
+
+    @Test
+    void testTranslateToLanguagesRejectsUnsupportedLanguageBeforeCallingModel() throws IOException {
+        assertThrows(TranslationException.class, () -> translationService.translateToLanguages(
+            new String[] {"Hello", "World"}, "en", new LinkedHashSet<>(Arrays.asList("es", "xx")),
+            TranslationConstants.ContentType.PLAIN, "general"));
+        verify(mockGenerativeModel, never()).generateContent(anyString());
+    }
+
+    private GenerateContentResponse jsonResponse(String text) {
+        return GenerateContentResponse.newBuilder()
+            .addCandidates(Candidate.newBuilder()
+                .setContent(Content.newBuilder().addParts(Part.newBuilder().setText(text))))
+            .build();
+    }
+
     @Test
     void testDetectLanguageSuccess() throws TranslationException, IOException {
         String detectSource = "Hello, world!";
@@ -140,5 +284,176 @@ public class TranslateGemmaTranslationServiceImplTest {
         assertEquals(detectedLanguage, result);
         verify(mockGenerativeModel, times(1)).generateContent(anyString());
     }
+
+    @Test
+    void testTranslateStringReturnsExactTmMatchWithoutModelCall() throws Exception {
+        JcrTranslationMemoryService tm = new JcrTranslationMemoryService();
+        tm.storeTranslation("Terms and conditions apply", "Se aplican términos y condiciones", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "legal", null, 5);
+        when(config.enableTranslationMemory()).thenReturn(true);
+        when(config.tmMinScore()).thenReturn(0.8);
+        translationService.setTranslationMemoryService(tm);
+
+        TranslationResult result = translationService.translateString("Terms and conditions apply", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "legal");
+
+        assertEquals("Se aplican términos y condiciones", result.getTranslation());
+        verify(mockGenerativeModel, never()).generateContent(anyString());
+    }
+
+    @Test
+    void testTranslateStringPromptsWithFuzzyTmMatchesAndStoresResult() throws Exception {
+        JcrTranslationMemoryService tm = new JcrTranslationMemoryService();
+        tm.storeTranslation("Add the item to your cart", "Añade el artículo a tu carrito", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", null, 5);
+        when(config.enableTranslationMemory()).thenReturn(true);
+        when(config.tmMinScore()).thenReturn(0.8);
+        when(config.storeToTranslationMemory()).thenReturn(true);
+        when(config.tmWriteBatchSize()).thenReturn(10);
+        when(config.tmWriteFlushIntervalMs()).thenReturn(20L);
+        when(config.tmWriteQueueCapacity()).thenReturn(100);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+        translationService.setTranslationMemoryService(tm);
+        when(config.feedbackMaxExamples()).thenReturn(2);
+        TranslationFeedbackService feedbackService = mock(TranslationFeedbackService.class);
+        when(feedbackService.getRelevantFeedback(anyString(), anyString(), anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
+        translationService.setFeedbackService(feedbackService);
+        when(mockGenerativeModel.generateContent(anyString()))
+            .thenReturn(jsonResponse("Añade los artículos a tu carrito"));
+
+        TranslationResult result = translationService.translateString("Add the items to your cart", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general");
+
+        ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+        verify(mockGenerativeModel).generateContent(prompt.capture());
+        assertTrue(prompt.getValue().contains("Translation: \"Añade el artículo a tu carrito\""));
+        assertEquals("Añade los artículos a tu carrito", result.getTranslation());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        java.util.List<TranslationMemoryService.TMEntry> stored = Collections.emptyList();
+        while (stored.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            stored = tm.findMatches("Add the items to your cart", "en", "es",
+                TranslationConstants.ContentType.PLAIN, "general", 1.0, 1);
+            stored.removeIf(entry -> !entry.getSourceText().equals("Add the items to your cart"));
+        }
+        assertEquals("Añade los artículos a tu carrito", stored.get(0).getTargetText());
+    }
+
+    @Test
+    void testTranslateArraySendsFuzzyTmMatchesWithBatchAndCachesExactOnes() throws Exception {
+        JcrTranslationMemoryService tm = new JcrTranslationMemoryService();
+        tm.storeTranslation("Add the item to your cart", "Añade el artículo a tu carrito", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", null, 5);
+        tm.storeTranslation("Terms and conditions apply", "Se aplican términos y condiciones", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", null, 5);
+        when(config.enableTranslationMemory()).thenReturn(true);
+        when(config.tmMinScore()).thenReturn(0.8);
+        when(config.enableCaching()).thenReturn(true);
+        when(config.cacheMaxSize()).thenReturn(100);
+        when(config.cacheMaxHeapMb()).thenReturn(1);
+        when(config.cacheExpireAfterMinutes()).thenReturn(60);
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+        translationService.setTranslationMemoryService(tm);
+        when(mockGenerativeModel.generateContent(anyString())).thenReturn(jsonResponse(
+            "[\"Añade los artículos a tu carrito\", \"Ir a pagar\"]"));
+
+        TranslationResult[] results = translationService.translateArray(
+            new String[] {"Add the items to your cart", "Terms and conditions apply", "Proceed to checkout"},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "general");
+
+        ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+        verify(mockGenerativeModel, times(1)).generateContent(prompt.capture());
+        assertTrue(prompt.getValue().contains("exactly 2 strings"));
+        assertTrue(prompt.getValue().contains("Translation: \"Añade el artículo a tu carrito\""));
+        assertEquals("Se aplican términos y condiciones", results[1].getTranslation());
+
+        tm.clearMemory();
+        assertEquals("Se aplican términos y condiciones", translationService.translateString(
+            "Terms and conditions apply", "en", "es", TranslationConstants.ContentType.PLAIN, "general")
+            .getTranslation());
+        verify(mockGenerativeModel, times(1)).generateContent(anyString());
+    }
+
+    @Test
+    void testTranslateStringRequiresOccurringTermsAndRetriesWhenMissing() throws Exception {
+        TerminologyServiceImpl glossary = new TerminologyServiceImpl();
+        glossary.addTerm(new TerminologyEntry("checkout", "pago", "en", "es", "commerce"));
+        when(config.enableTerminology()).thenReturn(true);
+        when(config.terminologyMaxPromptTokens()).thenReturn(150);
+        when(config.terminologyRetryOnMissingTerms()).thenReturn(true);
+        translationService.setTerminologyService(glossary);
+        when(config.feedbackMaxExamples()).thenReturn(2);
+        TranslationFeedbackService feedbackService = mock(TranslationFeedbackService.class);
+        when(feedbackService.getRelevantFeedback(anyString(), anyString(), anyString(), anyInt()))
+            .thenReturn(Collections.emptyList());
+        translationService.setFeedbackService(feedbackService);
+        when(mockGenerativeModel.generateContent(anyString()))
+            .thenReturn(jsonResponse("Ve a la caja"))
+            .thenReturn(jsonResponse("Ve al pago"));
+
+        TranslationResult result = translationService.translateString("Go to checkout", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "commerce");
+
+        ArgumentCaptor<String> prompts = ArgumentCaptor.forClass(String.class);
+        verify(mockGenerativeModel, times(2)).generateContent(prompts.capture());
+        assertTrue(prompts.getAllValues().get(0).contains("- \"checkout\" -> \"pago\""));
+        assertFalse(prompts.getAllValues().get(0).contains("content fragment"));
+        assertTrue(prompts.getAllValues().get(1).contains("MUST appear"));
+        assertEquals("Ve al pago", result.getTranslation());
+    }
+
+    @Test
+    void testTranslateArrayReservesTerminologyBudgetWhenPlanningBatches() throws Exception {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(300);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        when(config.enableTerminology()).thenReturn(true);
+        when(config.terminologyMaxPromptTokens()).thenReturn(150);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+        translationService.setTerminologyService(new TerminologyServiceImpl());
+        when(mockGenerativeModel.generateContent(anyString())).thenReturn(jsonResponse("[\"Traducido\"]"));
+        String sentence = "The quick brown fox jumps over the lazy dog near the quiet river bank. ";
+
+        translationService.translateArray(new String[] {"One. " + sentence + sentence,
+                "Two. " + sentence + sentence, "Three. " + sentence + sentence},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "general");
+
+        // ~40 tokens each: one batch fits 300 tokens, but not the 150 left after the glossary reserve
+        verify(mockGenerativeModel, times(3)).generateContent(contains("exactly 1 strings"));
+    }
+
+    @Test
+    void testTranslateArrayListsSharedTermsOncePerBatch() throws Exception {
+        lenient().when(config.batchSize()).thenReturn(10);
+        lenient().when(config.batchMaxInputTokens()).thenReturn(6000);
+        lenient().when(config.batchMaxOutputTokens()).thenReturn(4096);
+        when(config.enableTerminology()).thenReturn(true);
+        when(config.terminologyMaxPromptTokens()).thenReturn(150);
+        translationService.activate(config);
+        translationService.setModel(mockGenerativeModel);
+        translationService.setTerminologyService(new TerminologyServiceImpl());
+        when(mockGenerativeModel.generateContent(anyString())).thenReturn(jsonResponse(
+            "[\"Abre el fragmento de contenido\", \"Edita el fragmento de contenido\"]"));
+
+        TranslationResult[] results = translationService.translateArray(
+            new String[] {"Open the content fragment", "Edit the content fragment"},
+            "en", "es", TranslationConstants.ContentType.PLAIN, "content");
+
+        ArgumentCaptor<String> prompt = ArgumentCaptor.forClass(String.class);
+        verify(mockGenerativeModel, times(1)).generateContent(prompt.capture());
+        String batchPrompt = prompt.getValue();
+        assertEquals(batchPrompt.indexOf("- \"content fragment\""), batchPrompt.lastIndexOf("- \"content fragment\""));
+        assertTrue(batchPrompt.contains("\"fragmento de contenido\""));
+        assertFalse(batchPrompt.contains("experience fragment"));
+        assertEquals("Edita el fragmento de contenido", results[1].getTranslation());
+    }
 }
 
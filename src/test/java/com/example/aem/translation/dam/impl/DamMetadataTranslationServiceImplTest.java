@@ -0,0 +1,328 @@
+package com.example.aem.translation.dam.impl;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.adobe.granite.translation.api.TranslationException;
+import com.adobe.granite.translation.api.TranslationResult;
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.dam.DamMetadataTranslationService.BulkTranslationResult;
+import com.example.aem.translation.dam.DamMetadataTranslationService.MetadataTranslationResult;
+import com.example.aem.translation.dam.DamMetadataTranslationService.VisualTranslationResult;
+import com.example.aem.translation.mock.MapValueMap;
+import com.example.aem.translation.service.MultiModalTranslationService;
+import com.example.aem.translation.service.PromptTemplateService;
+import com.example.aem.translation.service.TranslateGemmaTranslationService;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DamMetadataTranslationServiceImplTest {
+
+    @Mock
+    private TranslateGemmaConfig config;
+
+    @Mock
+    private ResourceResolverFactory resolverFactory;
+
+    @Mock
+    private ResourceResolver resolver;
+
+    @Mock
+    private PromptTemplateService promptTemplateService;
+
+    @Mock
+    private MultiModalTranslationService multiModalTranslationService;
+
+    @Mock
+    private TranslateGemmaTranslationService translationService;
+
+    private DamMetadataTranslationServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(config.damImageMaxEdge()).thenReturn(1280);
+        when(config.damImageQuality()).thenReturn(0.85f);
+        when(config.damImageFormat()).thenReturn("jpeg");
+        when(config.damBulkBatchSize()).thenReturn(2);
+        when(config.damBulkConcurrency()).thenReturn(2);
+        when(resolverFactory.getServiceResourceResolver(anyMap())).thenReturn(resolver);
+
+        service = new DamMetadataTranslationServiceImpl();
+        service.setResolverFactory(resolverFactory);
+        service.setPromptTemplateService(promptTemplateService);
+        service.setMultiModalTranslationService(multiModalTranslationService);
+        service.setTranslationService(translationService);
+        service.activate(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.deactivate();
+    }
+
+    // A language copy of /content/dam/en/campaign, translated in place from English
+    private static final String FOLDER = "/content/dam/es/campaign";
+
+    @Test
+    void testFolderTranslationBatchesFieldsAndCommitsPerBatch() throws Exception {
+        Map<String, Object> first = metadata("Summer sale", "beach", "sun");
+        Map<String, Object> second = metadata("Summer sale", "beach");
+        Map<String, Object> third = metadata("Winter sale");
+        mockFolder(asset("c.jpg", third), asset("a.jpg", first), asset("b.jpg", second));
+        Map<String, Object> checkpoint = mockCheckpoint(null);
+        List<List<String>> calls = mockTranslations(null);
+
+        BulkTranslationResult result = service.translateFolder(FOLDER, "en", "es", "general");
+
+        assertTrue(result.isSuccess());
+        assertFalse(result.isResumed());
+        assertEquals(3, result.getAssetsTranslated());
+        // a and b share a batch, so their common values are translated once
+        assertEquals(3, calls.get(0).size());
+        assertEquals(new HashSet<>(Arrays.asList("Summer sale", "beach", "sun")), new HashSet<>(calls.get(0)));
+        assertEquals(Collections.singletonList("Winter sale"), calls.get(1));
+        assertEquals("es:Summer sale", first.get("dc:title"));
+        assertArrayEquals(new String[] {"es:beach", "es:sun"}, (String[]) first.get("dc:subject"));
+        assertEquals("es:Winter sale", third.get("dc:title"));
+        assertEquals(FOLDER + "/c.jpg", checkpoint.get(BulkMetadataTranslator.LAST_PATH));
+        assertEquals(true, checkpoint.get(BulkMetadataTranslator.COMPLETED));
+        verify(resolver, times(3)).commit();
+        verify(resolver, never()).delete(any(Resource.class));
+
+        BulkTranslationResult rerun = service.translateFolder(FOLDER, "en", "es", "general");
+
+        assertTrue(rerun.isSuccess());
+        assertTrue(rerun.isIncremental());
+        assertEquals(0, rerun.getAssetsTranslated());
+        assertEquals(2, calls.size());
+        assertEquals("es:Summer sale", first.get("dc:title"));
+    }
+
+    @Test
+    void testCompletedFolderTranslatesOnlyAssetsAddedSince() throws Exception {
+        Map<String, Object> first = metadata("Summer sale");
+        Resource a = asset("a.jpg", first);
+        mockFolder(a);
+        Map<String, Object> checkpoint = mockCheckpoint(null);
+        List<List<String>> calls = mockTranslations(null);
+        assertTrue(service.translateFolder(FOLDER, "en", "es", "general").isSuccess());
+
+        // An hour later, an asset sorting before the translated one is added to the language copy
+        long passStarted = System.currentTimeMillis() - 3_600_000;
+        checkpoint.put(BulkMetadataTranslator.PASS_STARTED, passStarted);
+        Map<String, Object> added = metadata("Spring sale");
+        mockFolder(asset("0.jpg", added, passStarted + 60_000), a);
+
+        BulkTranslationResult rerun = service.translateFolder(FOLDER, "en", "es", "general");
+
+        assertTrue(rerun.isSuccess());
+        assertTrue(rerun.isIncremental());
+        assertEquals(1, rerun.getAssetsTranslated());
+        assertEquals(Collections.singletonList("Spring sale"), calls.get(1));
+        assertEquals("es:Spring sale", added.get("dc:title"));
+        assertEquals("es:Summer sale", first.get("dc:title"));
+        assertEquals(passStarted, checkpoint.get(BulkMetadataTranslator.CREATED_AFTER));
+        assertEquals(true, checkpoint.get(BulkMetadataTranslator.COMPLETED));
+    }
+
+    @Test
+    void testFolderTranslationRequiresSourceLanguage() throws Exception {
+        BulkTranslationResult missing = service.translateFolder(FOLDER, null, "es", "general");
+        BulkTranslationResult sameLanguage = service.translateFolder(FOLDER, "es", "es", "general");
+
+        assertFalse(missing.isSuccess());
+        assertFalse(sameLanguage.isSuccess());
+        verifyNoInteractions(translationService);
+        verify(resolver, never()).commit();
+    }
+
+    @Test
+    void testFolderTranslationStopsAtFailedBatchAndResumesAfterCheckpoint() throws Exception {
+        Map<String, Object> first = metadata("Summer sale");
+        Map<String, Object> second = metadata("Autumn sale");
+        Map<String, Object> third = metadata("Winter sale");
+        mockFolder(asset("a.jpg", first), asset("b.jpg", second), asset("c.jpg", third));
+        Map<String, Object> checkpoint = mockCheckpoint(null);
+        mockTranslations("Winter sale");
+
+        BulkTranslationResult failed = service.translateFolder(FOLDER, "en", "es", "general");
+
+        assertFalse(failed.isSuccess());
+        assertEquals(2, failed.getAssetsTranslated());
+        assertEquals("Winter sale", third.get("dc:title"));
+        assertEquals(FOLDER + "/b.jpg", checkpoint.get(BulkMetadataTranslator.LAST_PATH));
+        verify(resolver).revert();
+        verify(resolver, never()).delete(any(Resource.class));
+
+        reset(translationService);
+        List<List<String>> calls = mockTranslations(null);
+
+        BulkTranslationResult resumed = service.translateFolder(FOLDER, "en", "es", "general");
+
+        assertTrue(resumed.isSuccess());
+        assertTrue(resumed.isResumed());
+        assertEquals(1, resumed.getAssetsTranslated());
+        assertEquals(Collections.singletonList(Collections.singletonList("Winter sale")), calls);
+        assertEquals("es:Summer sale", first.get("dc:title"));
+        assertEquals("es:Winter sale", third.get("dc:title"));
+    }
+
+    @Test
+    void testMultipleAssetsAreTranslatedTogetherWithoutWriting() throws Exception {
+        Map<String, Object> first = metadata("Summer sale");
+        Map<String, Object> second = metadata("Summer sale");
+        Resource a = asset("a.jpg", first);
+        Resource b = asset("b.jpg", second);
+        lenient().when(resolver.getResource(FOLDER + "/a.jpg")).thenReturn(a);
+        lenient().when(resolver.getResource(FOLDER + "/b.jpg")).thenReturn(b);
+        List<List<String>> calls = mockTranslations(null);
+
+        MetadataTranslationResult[] results = service.translateMultipleAssets(
+            new String[] {FOLDER + "/a.jpg", FOLDER + "/missing.jpg", FOLDER + "/b.jpg"}, "es", "general");
+
+        assertEquals(Collections.singletonList(Collections.singletonList("Summer sale")), calls);
+        assertEquals("es:Summer sale", results[0].getTranslatedMetadata().get("dc:title"));
+        assertFalse(results[1].isSuccess());
+        assertEquals("es:Summer sale", results[2].getTranslatedMetadata().get("dc:title"));
+        assertEquals("Summer sale", first.get("dc:title"));
+        verify(resolver, never()).commit();
+    }
+
+    private static Map<String, Object> metadata(String title, String... subjects) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("dc:title", title);
+        if (subjects.length > 0) {
+            properties.put("dc:subject", subjects);
+        }
+        return properties;
+    }
+
+    private Resource asset(String name, Map<String, Object> properties) {
+        return asset(name, properties, 0);
+    }
+
+    private Resource asset(String name, Map<String, Object> properties, long created) {
+        String path = FOLDER + "/" + name;
+        Resource asset = mock(Resource.class);
+        Resource metadata = mock(Resource.class);
+        Map<String, Object> node = new HashMap<>();
+        node.put("jcr:primaryType", "dam:Asset");
+        if (created > 0) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(created);
+            node.put("jcr:created", calendar);
+        }
+        lenient().when(asset.getName()).thenReturn(name);
+        lenient().when(asset.getPath()).thenReturn(path);
+        lenient().when(asset.getValueMap()).thenReturn(new MapValueMap(node));
+        lenient().when(asset.getChild("jcr:content/metadata")).thenReturn(metadata);
+        lenient().when(metadata.getValueMap()).thenAnswer(invocation -> new MapValueMap(properties));
+        lenient().when(metadata.adaptTo(ModifiableValueMap.class))
+            .thenAnswer(invocation -> new MapValueMap(properties));
+        lenient().when(resolver.getResource(path + "/jcr:content/metadata")).thenReturn(metadata);
+        return asset;
+    }
+
+    private void mockFolder(Resource... assets) {
+        Resource folder = mock(Resource.class);
+        when(resolver.getResource(FOLDER)).thenReturn(folder);
+        when(folder.getChildren()).thenReturn(Arrays.asList(assets));
+    }
+
+    private Map<String, Object> mockCheckpoint(String lastPath) {
+        Map<String, Object> state = new HashMap<>();
+        if (lastPath != null) {
+            state.put(BulkMetadataTranslator.LAST_PATH, lastPath);
+        }
+        Resource checkpoint = mock(Resource.class);
+        when(resolver.getResource(BulkMetadataTranslator.checkpointPath(FOLDER, "es"))).thenReturn(checkpoint);
+        when(checkpoint.adaptTo(ModifiableValueMap.class)).thenAnswer(invocation -> new MapValueMap(state));
+        return state;
+    }
+
+    // Prefixes every text with "es:"; a call that includes failingText fails
+    private List<List<String>> mockTranslations(String failingText) throws Exception {
+        List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+        when(translationService.translateArray(any(String[].class), anyString(), eq("es"),
+                eq(TranslationConstants.ContentType.PLAIN), eq("general"))).thenAnswer(invocation -> {
+            String[] sources = invocation.getArgument(0);
+            if (Arrays.asList(sources).contains(failingText)) {
+                throw new TranslationException("Model unavailable", TranslationException.ErrorCode.UNKNOWN);
+            }
+            calls.add(Arrays.asList(sources));
+            TranslationResult[] results = new TranslationResult[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                TranslationResult result = mock(TranslationResult.class);
+                when(result.getTranslation()).thenReturn("es:" + sources[i]);
+                results[i] = result;
+            }
+            return results;
+        });
+        return calls;
+    }
+
+    @Test
+    void testVisualTranslationSendsDownscaledRendition() throws Exception {
+        byte[] original = ImagePreprocessorTest.encode(ImagePreprocessorTest.scene(3000, 2000), "png");
+        mockAsset("/content/dam/en/banner.png", original);
+        when(promptTemplateService.renderPrompt(eq("ocr"), anyMap())).thenReturn("Extract and translate");
+        Map<String, String> data = new HashMap<>();
+        data.put("ocrText", "Summer sale");
+        data.put("translatedOcrText", "Rebajas de verano");
+        data.put("altText", "Banner");
+        when(multiModalTranslationService.analyzeImage(any(byte[].class), eq("image/jpeg"), eq("Extract and translate")))
+            .thenReturn(new MultiModalTranslationService.MultiModalResult("{}", data));
+
+        VisualTranslationResult result = service.translateAssetVisualContent("/content/dam/en/banner.png", "es");
+
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(multiModalTranslationService).analyzeImage(sent.capture(), anyString(), anyString());
+        assertTrue(sent.getValue().length < original.length);
+        assertTrue(result.isSuccess());
+        assertEquals("Rebajas de verano", result.getTranslatedOcrText());
+    }
+
+    @Test
+    void testVisualTranslationReportsMissingAsset() throws Exception {
+        VisualTranslationResult result = service.translateAssetVisualContent("/content/dam/en/missing.png", "es");
+
+        assertFalse(result.isSuccess());
+        verifyNoInteractions(multiModalTranslationService);
+    }
+
+    private void mockAsset(String path, byte[] binary) {
+        Resource resource = mock(Resource.class);
+        Asset asset = mock(Asset.class);
+        Rendition rendition = mock(Rendition.class);
+        when(resolver.getResource(path)).thenReturn(resource);
+        when(resource.adaptTo(Asset.class)).thenReturn(asset);
+        when(asset.getRenditions()).thenReturn(Collections.singletonList(rendition));
+        when(asset.getOriginal()).thenReturn(rendition);
+        when(rendition.getName()).thenReturn("original");
+        when(rendition.getStream()).thenAnswer(invocation -> new ByteArrayInputStream(binary));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.aem.translation.dam.impl;
+
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImagePreprocessorTest {
+
+    @Test
+    void testPrepareDownscalesAndReencodesAsJpeg() throws Exception {
+        byte[] png = encode(scene(4000, 3000), "png");
+
+        ImagePreprocessor.PreparedImage prepared = new ImagePreprocessor(1280, 0.8f, "jpeg")
+            .prepare(new ByteArrayInputStream(png));
+
+        assertEquals("image/jpeg", prepared.getMimeType());
+        assertEquals(1280, prepared.getWidth());
+        assertEquals(960, prepared.getHeight());
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(prepared.getData()));
+        assertEquals(1280, decoded.getWidth());
+        assertTrue(prepared.getData().length < png.length);
+    }
+
+    @Test
+    void testPrepareKeepsSmallImagesAtTheirSizeAndFallsBackToJpegWithoutWebpEncoder() throws Exception {
+        ImagePreprocessor.PreparedImage prepared = new ImagePreprocessor(1280, 0.8f, "webp")
+            .prepare(new ByteArrayInputStream(encode(scene(640, 480), "png")));
+
+        assertEquals(640, prepared.getWidth());
+        assertEquals(480, prepared.getHeight());
+        if (!ImageIO.getImageWritersByFormatName("webp").hasNext()) {
+            assertEquals("image/jpeg", prepared.getMimeType());
+        }
+    }
+
+    @Test
+    void testPrepareReturnsNullForUndecodableData() throws Exception {
+        assertNull(new ImagePreprocessor(1280, 0.8f, "jpeg")
+            .prepare(new ByteArrayInputStream("%PDF-1.7".getBytes("UTF-8"))));
+    }
+
+    @Test
+    void testPickRenditionPrefersSmallestWebRenditionCoveringMaxEdge() {
+        Rendition original = rendition("original");
+        Rendition thumbnail = rendition("cq5dam.thumbnail.319.319.png");
+        Rendition web1280 = rendition("cq5dam.web.1280.1280.jpeg");
+        Rendition web2048 = rendition("cq5dam.web.2048.2048.jpeg");
+        Asset asset = mock(Asset.class);
+        when(asset.getRenditions()).thenReturn(Arrays.asList(original, thumbnail, web2048, web1280));
+
+        assertSame(web1280, ImagePreprocessor.pickRendition(asset, 1024));
+        assertSame(web2048, ImagePreprocessor.pickRendition(asset, 1600));
+    }
+
+    @Test
+    void testPickRenditionFallsBackToLargestWebRenditionWhenNoneCoversMaxEdge() {
+        Rendition original = rendition("original");
+        Rendition web320 = rendition("cq5dam.web.320.320.jpeg");
+        Rendition web640 = rendition("cq5dam.web.640.640.jpeg");
+        Asset asset = mock(Asset.class);
+        when(asset.getRenditions()).thenReturn(Arrays.asList(original, web640, web320));
+
+        assertSame(web640, ImagePreprocessor.pickRendition(asset, 1280));
+    }
+
+    @Test
+    void testPickRenditionUsesOriginalWithoutWebRenditions() {
+        Rendition original = rendition("original");
+        Rendition thumbnail = rendition("cq5dam.thumbnail.319.319.png");
+        Asset asset = mock(Asset.class);
+        when(asset.getRenditions()).thenReturn(Arrays.asList(original, thumbnail));
+        when(asset.getOriginal()).thenReturn(original);
+
+        assertSame(original, ImagePreprocessor.pickRendition(asset, 1280));
+    }
+
+    static BufferedImage scene(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(new Color(20, 60, 160));
+        graphics.fillRect(width / 10, height / 8, width / 2, height / 3);
+        graphics.setColor(Color.BLACK);
+        graphics.fillOval(width / 2, height / 2, width / 3, height / 3);
+        graphics.dispose();
+        return image;
+    }
+
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, format, bytes);
+        return bytes.toByteArray();
+    }
+
+    private static Rendition rendition(String name) {
+        Rendition rendition = mock(Rendition.class);
+        when(rendition.getName()).thenReturn(name);
+        return rendition;
+    }
+}
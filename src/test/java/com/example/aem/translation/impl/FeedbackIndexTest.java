@@ -0,0 +1,71 @@
+package com.example.aem.translation.impl;
+
+import com.example.aem.translation.model.TranslationFeedback;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackIndexTest {
+
+    @Test
+    void testRanksMostSimilarFirstAndLeavesOutUnrelated() {
+        FeedbackIndex index = new FeedbackIndex(10, 0.2);
+        index.put("/fb/1", feedback("Add to cart", "Añadir a la cesta", 1000));
+        index.put("/fb/2", feedback("Free shipping on all orders", "Envío gratis", 2000));
+        index.put("/fb/3", feedback("Remove the items from your cart", "Quitar los artículos de la cesta", 3000));
+        index.put("/fb/4", feedback("Contact us", "Contáctanos", 4000));
+
+        List<TranslationFeedback> relevant = index.findRelevant("Add the items to your cart", "en", "es", 3);
+
+        assertEquals(2, relevant.size());
+        assertEquals("Remove the items from your cart", relevant.get(0).getSourceString());
+        assertEquals("Add to cart", relevant.get(1).getSourceString());
+    }
+
+    @Test
+    void testRareSharedFragmentsOutweighCommonWords() {
+        FeedbackIndex index = new FeedbackIndex(10, 0.0);
+        index.put("/fb/1", feedback("Proceed to checkout", "Ir al pago", 1000));
+        index.put("/fb/2", feedback("Go to the home page", "Ir a la página de inicio", 2000));
+        index.put("/fb/3", feedback("Go to the news page", "Ir a las noticias", 3000));
+
+        List<TranslationFeedback> relevant = index.findRelevant("Go to the checkout", "en", "es", 1);
+
+        assertEquals("Proceed to checkout", relevant.get(0).getSourceString());
+    }
+
+    @Test
+    void testRingKeepsMostRecentCorrectionsPerPair() {
+        FeedbackIndex index = new FeedbackIndex(2, 0.0);
+        index.put("/fb/old", feedback("Old offer", "Oferta antigua", 1000));
+        index.put("/fb/new", feedback("New offer", "Oferta nueva", 3000));
+        index.put("/fb/mid", feedback("Mid offer", "Oferta media", 2000));
+        index.put("/fb/de", new TranslationFeedback("New offer", "Neues Angebot", "Neues Angebot", "en", "de",
+            "system", 500));
+
+        assertEquals(3, index.size());
+        List<TranslationFeedback> relevant = index.findRelevant("Old offer", "EN", "ES", 5);
+        assertEquals(2, relevant.size());
+        assertTrue(relevant.stream().noneMatch(f -> f.getSourceString().equals("Old offer")));
+        assertEquals("Neues Angebot", index.findRelevant("New offer", "en", "de", 5).get(0).getHumanCorrection());
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDropsByPath() {
+        FeedbackIndex index = new FeedbackIndex(10, 0.3);
+        index.put("/fb/1", feedback("Checkout", "Caja", 1000));
+        index.put("/fb/1", feedback("Checkout", "Pago", 2000));
+
+        assertEquals(1, index.size());
+        assertEquals("Pago", index.findRelevant("Checkout", "en", "es", 3).get(0).getHumanCorrection());
+
+        index.remove("/fb/1");
+        assertTrue(index.findRelevant("Checkout", "en", "es", 3).isEmpty());
+    }
+
+    private static TranslationFeedback feedback(String source, String correction, long timestamp) {
+        return new TranslationFeedback(source, source, correction, "en", "es", "editor", timestamp);
+    }
+}
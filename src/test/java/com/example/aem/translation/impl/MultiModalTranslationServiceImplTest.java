@@ -0,0 +1,113 @@
+package com.example.aem.translation.impl;
+
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.service.MultiModalTranslationService.MultiModalResult;
+import com.example.aem.translation.util.VertexModelClient;
+import com.google.cloud.vertexai.api.Candidate;
+import com.google.cloud.vertexai.api.Content;
+import com.google.cloud.vertexai.api.GenerateContentResponse;
+import com.google.cloud.vertexai.api.Part;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultiModalTranslationServiceImplTest {
+
+    @Mock
+    private TranslateGemmaConfig config;
+
+    @Mock
+    private VertexModelClient client;
+
+    @Mock
+    private ResourceResolverFactory resolverFactory;
+
+    @Mock
+    private ResourceResolver resolver;
+
+    @Mock
+    private Resource bucket;
+
+    private MultiModalTranslationServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(config.visualCacheEnabled()).thenReturn(true);
+        when(config.visualCacheMaxDistance()).thenReturn(6);
+        when(config.visualCacheMaxEntries()).thenReturn(100);
+        when(resolverFactory.getServiceResourceResolver(anyMap())).thenReturn(resolver);
+
+        service = new MultiModalTranslationServiceImpl();
+        service.setResolverFactory(resolverFactory);
+        service.activate(config);
+        service.setClient(client);
+    }
+
+    @Test
+    void testNearDuplicateImagesReuseTheFirstAnalysis() throws Exception {
+        when(resolver.getResource(startsWith(MultiModalTranslationServiceImpl.VISUAL_CACHE_ROOT + "/")))
+            .thenReturn(bucket);
+        when(client.generateContent(any(Content.class))).thenReturn(response(
+            "{\"ocrText\": \"Summer sale\", \"translatedOcrText\": \"Rebajas de verano\"}"));
+
+        MultiModalResult first = service.analyzeImage(png(1200, 800), "image/png", "OCR to es");
+        MultiModalResult resized = service.analyzeImage(png(600, 400), "image/png", "OCR to es");
+
+        verify(client, times(1)).generateContent(any(Content.class));
+        assertEquals("Rebajas de verano", first.getValue("translatedOcrText"));
+        assertTrue(resized.isSuccess());
+        assertEquals("Rebajas de verano", resized.getValue("translatedOcrText"));
+        verify(resolver).create(eq(bucket), anyString(), anyMap());
+        verify(resolver).commit();
+    }
+
+    @Test
+    void testDifferentPromptIsAnalyzedAgain() throws Exception {
+        when(resolver.getResource(startsWith(MultiModalTranslationServiceImpl.VISUAL_CACHE_ROOT + "/")))
+            .thenReturn(bucket);
+        when(client.generateContent(any(Content.class))).thenReturn(response("{\"ocrText\": \"Summer sale\"}"));
+
+        service.analyzeImage(png(1200, 800), "image/png", "OCR to es");
+        service.analyzeImage(png(1200, 800), "image/png", "OCR to de");
+
+        verify(client, times(2)).generateContent(any(Content.class));
+    }
+
+    private static GenerateContentResponse response(String text) {
+        return GenerateContentResponse.newBuilder()
+            .addCandidates(Candidate.newBuilder()
+                .setContent(Content.newBuilder().addParts(Part.newBuilder().setText(text))))
+            .build();
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.RED);
+        graphics.fillRect(width / 8, height / 6, width / 2, height / 3);
+        graphics.setColor(Color.BLACK);
+        graphics.fillOval(width / 2, height / 2, width / 3, height / 3);
+        graphics.dispose();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
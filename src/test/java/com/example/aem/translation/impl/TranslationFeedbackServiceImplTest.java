@@ -0,0 +1,130 @@
+package com.example.aem.translation.impl;
+
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.mock.MapValueMap;
+import com.example.aem.translation.model.TranslationFeedback;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TranslationFeedbackServiceImplTest {
+
+    private static final String ROOT = "/var/translation-gemma/feedback";
+
+    private final Map<String, Resource> repository = new HashMap<>();
+    private ResourceResolver resolver;
+    private ResourceResolverFactory resolverFactory;
+    private TranslationFeedbackServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resolver = mock(ResourceResolver.class);
+        when(resolver.getResource(anyString())).thenAnswer(invocation -> repository.get(invocation.<String>getArgument(0)));
+        resolverFactory = mock(ResourceResolverFactory.class);
+        when(resolverFactory.getServiceResourceResolver(any())).thenReturn(resolver);
+
+        Resource root = mock(Resource.class);
+        when(root.getChildren()).thenAnswer(invocation -> {
+            List<Resource> children = new ArrayList<>();
+            repository.forEach((path, resource) -> {
+                if (path.startsWith(ROOT + "/")) {
+                    children.add(resource);
+                }
+            });
+            return children;
+        });
+        repository.put(ROOT, root);
+        store("fb-1", "Add to cart", "Añadir a la cesta", 1000);
+
+        TranslateGemmaConfig config = mock(TranslateGemmaConfig.class);
+        when(config.feedbackIndexCapacity()).thenReturn(50);
+        when(config.feedbackMinSimilarity()).thenReturn(0.3);
+        service = new TranslationFeedbackServiceImpl();
+        service.setResolverFactory(resolverFactory);
+        service.activate(config);
+    }
+
+    @Test
+    void testLookupsAreServedFromTheIndexLoadedOnActivation() throws Exception {
+        List<TranslationFeedback> first = service.getRelevantFeedback("Add the item to your cart", "en", "es", 3);
+        List<TranslationFeedback> second = service.getRelevantFeedback("Add to cart", "en", "es", 3);
+
+        assertEquals("Añadir a la cesta", first.get(0).getHumanCorrection());
+        assertEquals(1, second.size());
+        verify(resolverFactory, times(1)).getServiceResourceResolver(any());
+    }
+
+    @Test
+    void testChangeEventsKeepTheIndexCurrent() {
+        store("fb-2", "Remove from cart", "Quitar de la cesta", 2000);
+        service.onChange(Collections.singletonList(
+            new ResourceChange(ResourceChange.ChangeType.ADDED, ROOT + "/fb-2", false)));
+
+        assertEquals("Quitar de la cesta",
+            service.getRelevantFeedback("Remove from cart", "en", "es", 1).get(0).getHumanCorrection());
+
+        service.onChange(Collections.singletonList(
+            new ResourceChange(ResourceChange.ChangeType.REMOVED, ROOT + "/fb-1", true)));
+
+        List<TranslationFeedback> remaining = service.getRelevantFeedback("Remove items from cart", "en", "es", 3);
+        assertEquals(1, remaining.size());
+        assertEquals("Remove from cart", remaining.get(0).getSourceString());
+    }
+
+    @Test
+    void testFailedChangeEventReloadsOffTheLookupThread() throws Exception {
+        List<String> resolverThreads = Collections.synchronizedList(new ArrayList<>());
+        when(resolverFactory.getServiceResourceResolver(any())).thenAnswer(invocation -> {
+            resolverThreads.add(Thread.currentThread().getName());
+            if (resolverThreads.size() == 1) {
+                throw new LoginException("Repository unavailable");
+            }
+            return resolver;
+        });
+
+        store("fb-2", "Remove from cart", "Quitar de la cesta", 2000);
+        service.onChange(Collections.singletonList(
+            new ResourceChange(ResourceChange.ChangeType.ADDED, ROOT + "/fb-2", false)));
+        List<TranslationFeedback> current = service.getRelevantFeedback("Add to cart", "en", "es", 3);
+
+        assertEquals("Añadir a la cesta", current.get(0).getHumanCorrection());
+        verify(resolverFactory, timeout(2000).times(3)).getServiceResourceResolver(any());
+        assertEquals("translategemma-feedback-reload", resolverThreads.get(1));
+        assertEquals("Quitar de la cesta",
+            service.getRelevantFeedback("Remove from cart", "en", "es", 1).get(0).getHumanCorrection());
+        service.deactivate();
+    }
+
+    private void store(String name, String source, String correction, long timestamp) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+        Map<String, Object> props = new HashMap<>();
+        props.put("sourceString", source);
+        props.put("originalTranslation", source);
+        props.put("humanCorrection", correction);
+        props.put("sourceLanguage", "en");
+        props.put("targetLanguage", "es");
+        props.put("userId", "editor");
+        props.put("timestamp", calendar);
+        Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(ROOT + "/" + name);
+        when(resource.getValueMap()).thenReturn(new MapValueMap(props));
+        repository.put(ROOT + "/" + name, resource);
+    }
+}
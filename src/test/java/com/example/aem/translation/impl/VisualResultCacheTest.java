@@ -0,0 +1,69 @@
+package com.example.aem.translation.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisualResultCacheTest {
+
+    @Test
+    void testFindReturnsClosestHashWithinDistanceForTheSamePromptOnly() {
+        VisualResultCache cache = new VisualResultCache(6, 100);
+        long banner = 0x0f0f_3c3c_aaaa_5555L;
+        cache.put(entry("es", banner, "Rebajas", 1));
+        cache.put(entry("es", ~banner, "Otro", 2));
+
+        assertEquals("Rebajas", cache.find("es", banner ^ 0b101).getRawResponse());
+        assertNull(cache.find("es", banner ^ 0x7fL));
+        assertNull(cache.find("de", banner));
+    }
+
+    @Test
+    void testFindAgreesWithExhaustiveSearch() {
+        Random random = new Random(42);
+        VisualResultCache cache = new VisualResultCache(8, 10_000);
+        long[] hashes = new long[2000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            cache.put(entry("fr", hashes[i], Integer.toString(i), i));
+        }
+
+        for (int probe = 0; probe < 200; probe++) {
+            long query = hashes[random.nextInt(hashes.length)] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            int best = Integer.MAX_VALUE;
+            for (long hash : hashes) {
+                best = Math.min(best, Long.bitCount(hash ^ query));
+            }
+            VisualResultCache.Entry found = cache.find("fr", query);
+            assertNotNull(found);
+            assertEquals(best, Long.bitCount(found.getHash() ^ query));
+        }
+    }
+
+    @Test
+    void testPutEvictsOldestAndKeepsFindingSurvivors() {
+        VisualResultCache cache = new VisualResultCache(0, 3);
+        for (int i = 0; i < 3; i++) {
+            cache.put(entry("es", i, "r" + i, i));
+        }
+
+        List<VisualResultCache.Entry> evicted = cache.put(entry("es", 7, "r7", 7));
+        evicted.addAll(cache.put(entry("es", 8, "r8", 8)));
+
+        assertEquals(3, cache.size());
+        assertEquals(2, evicted.size());
+        assertNull(cache.find("es", 0));
+        assertNull(cache.find("es", 1));
+        assertEquals("r2", cache.find("es", 2).getRawResponse());
+        assertEquals("r8", cache.find("es", 8).getRawResponse());
+    }
+
+    private static VisualResultCache.Entry entry(String promptKey, long hash, String raw, long created) {
+        return new VisualResultCache.Entry(promptKey + "-" + hash, promptKey, hash, raw,
+            Collections.singletonMap("ocrText", raw), created);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.aem.translation.mock;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Value map over a plain map, for mocked resources; the uber-jar ships no ValueMapDecorator.
+ * Reads and writes go straight to the backing map, like a resource's properties.
+ */
+public class MapValueMap extends AbstractMap<String, Object> implements ModifiableValueMap {
+
+    private final Map<String, Object> properties;
+
+    public MapValueMap(Map<String, Object> properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return properties.entrySet();
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        return properties.put(name, value);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        Object value = get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, T defaultValue) {
+        Object value = get(name);
+        return value != null ? (T) value : defaultValue;
+    }
+}
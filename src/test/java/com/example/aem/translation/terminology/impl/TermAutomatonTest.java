@@ -0,0 +1,70 @@
+package com.example.aem.translation.terminology.impl;
+
+import com.example.aem.translation.terminology.TerminologyEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermAutomatonTest {
+
+    @Test
+    void testFindsOverlappingTermsInOnePass() {
+        TermAutomaton automaton = automaton("content fragment", "fragment", "experience fragment", "he");
+
+        List<String> found = terms(automaton.findAll("Create a Content Fragment or an experience fragment."));
+
+        assertEquals(Arrays.asList("content fragment", "fragment", "experience fragment", "fragment"), found);
+    }
+
+    @Test
+    void testRequiresWordBoundaries() {
+        TermAutomaton automaton = automaton("cart", "AEM");
+
+        assertTrue(automaton.findAll("Replace the cartridge").isEmpty());
+        assertTrue(automaton.findAll("AEMaaCS").isEmpty());
+        assertEquals(2, automaton.findAll("Add to cart. (AEM)").size());
+    }
+
+    @Test
+    void testMatchesInScriptsWithoutSpaces() {
+        TermAutomaton automaton = automaton("翻訳メモリ");
+
+        List<TermAutomaton.Occurrence> found = automaton.findAll("この翻訳メモリを使用します");
+
+        assertEquals(1, found.size());
+        assertEquals(2, found.get(0).getStart());
+        assertEquals(7, found.get(0).getEnd());
+    }
+
+    @Test
+    void testLargeGlossaryFindsOnlyOccurringTerms() {
+        List<TerminologyEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            entries.add(entry("product line " + i));
+        }
+        entries.add(entry("translation memory"));
+        TermAutomaton automaton = new TermAutomaton(entries);
+
+        List<String> found = terms(automaton.findAll("Product Line 4217 ships with a translation memory."));
+
+        assertEquals(50_001, automaton.size());
+        assertEquals(Arrays.asList("product line 4217", "translation memory"), found);
+    }
+
+    private TermAutomaton automaton(String... terms) {
+        return new TermAutomaton(Arrays.stream(terms).map(this::entry).collect(Collectors.toList()));
+    }
+
+    private TerminologyEntry entry(String term) {
+        return new TerminologyEntry(term, term.toUpperCase(), "en", "es", "general");
+    }
+
+    private List<String> terms(List<TermAutomaton.Occurrence> occurrences) {
+        return occurrences.stream().map(o -> o.getEntry().getSourceTerm()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.aem.translation.terminology.impl;
+
+import com.example.aem.translation.terminology.TerminologyEntry;
+import com.example.aem.translation.terminology.TerminologyException;
+import com.example.aem.translation.terminology.TerminologyFormat;
+import com.example.aem.translation.terminology.TerminologyMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminologyServiceImplTest {
+
+    private TerminologyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TerminologyServiceImpl();
+    }
+
+    @Test
+    void testFindAllTermsPrefersLongestNonOverlappingMatch() throws Exception {
+        service.addTerm(new TerminologyEntry("fragment", "fragmento", "en", "es", "content"));
+
+        List<TerminologyMatch> matches = service.findAllTerms(
+            "Publish the content fragment, then reuse the fragment.", "en", "es", null, 10);
+
+        assertEquals(2, matches.size());
+        assertEquals("fragmento de contenido", matches.get(0).getTargetTerm());
+        assertEquals("fragmento", matches.get(1).getTargetTerm());
+    }
+
+    @Test
+    void testEditsAreVisibleToTheNextLookup() throws Exception {
+        TerminologyEntry entry = new TerminologyEntry("checkout", "pago", "en", "es", "commerce");
+        service.addTerm(entry);
+        assertEquals("pago", service.findTerm("Go to checkout", "en", "es", "commerce").getTargetTerm());
+
+        TerminologyEntry updated = new TerminologyEntry("checkout", "caja", "en", "es", "commerce");
+        updated.setTermId(entry.getTermId());
+        service.updateTerm(updated);
+        assertEquals("caja", service.findTerm("Go to checkout", "en", "es", "commerce").getTargetTerm());
+
+        service.deleteTerm(entry.getTermId());
+        assertNull(service.findTerm("Go to checkout", "en", "es", "commerce"));
+    }
+
+    @Test
+    void testEntriesDifferingOnlyInCaseReplaceEachOther() throws Exception {
+        service.addTerm(new TerminologyEntry("checkout", "pago", "en", "es", "commerce"));
+        service.addTerm(new TerminologyEntry("Checkout", "caja", "EN", "ES", "Commerce"));
+
+        List<TerminologyMatch> matches = service.findAllTerms("Go to checkout", "en", "es", "commerce", 10);
+
+        assertEquals(1, matches.size());
+        assertEquals("caja", matches.get(0).getTargetTerm());
+    }
+
+    @Test
+    void testLookupIsScopedToLanguagePairAndDomain() throws Exception {
+        assertNotNull(service.findTerm("About Adobe Experience Manager", "en", "de", "software"));
+        assertNull(service.findTerm("About Adobe Experience Manager", "en", "es", "software"));
+        assertNull(service.findTerm("About Adobe Experience Manager", "en", "de", "content"));
+    }
+
+    @Test
+    void testTbxImportUsesDocumentLanguageAsSource(@TempDir Path dir) throws Exception {
+        Path tbx = dir.resolve("glossary.tbx");
+        Files.write(tbx, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<martif type=\"TBX-Basic\" xml:lang=\"en\"><text><body>"
+            + "<termEntry id=\"c1\"><descrip type=\"subjectField\">commerce</descrip>"
+            + "<langSet xml:lang=\"de\"><tig><term>Warenkorb</term></tig></langSet>"
+            + "<langSet xml:lang=\"en\"><tig><term>shopping cart</term></tig></langSet>"
+            + "<langSet xml:lang=\"fr\"><tig><term>panier</term></tig></langSet>"
+            + "</termEntry>"
+            + "<termEntry id=\"c2\"><langSet xml:lang=\"en\"><tig><term>orphan</term></tig></langSet></termEntry>"
+            + "</body></text></martif>").getBytes(StandardCharsets.UTF_8));
+
+        service.importTerminology(tbx.toString(), TerminologyFormat.TBX);
+
+        TerminologyMatch german = service.findTerm("Open the shopping cart", "en", "de", "commerce");
+        assertEquals("Warenkorb", german.getTargetTerm());
+        assertEquals("c1:de", german.getTermId());
+        assertEquals("panier", service.findTerm("Open the shopping cart", "en", "fr", "commerce").getTargetTerm());
+        assertEquals(2, service.getTerminology("commerce").size());
+    }
+
+    @Test
+    void testCsvAndJsonExportsRoundTrip(@TempDir Path dir) throws Exception {
+        TerminologyEntry quoted = new TerminologyEntry("sign in", "iniciar sesión", "en", "es", "commerce");
+        quoted.setDefinition("Authenticate, e.g. with \"SSO\"\nor a password");
+        service.addTerm(quoted);
+        service.addTerm(new TerminologyEntry("checkout", "pago", "en", "es", "commerce"));
+
+        for (TerminologyFormat format : new TerminologyFormat[] {TerminologyFormat.CSV, TerminologyFormat.JSON,
+                TerminologyFormat.TBX}) {
+            Path file = dir.resolve("commerce." + format.name().toLowerCase());
+            service.exportTerminology("commerce", file.toString(), format);
+
+            TerminologyServiceImpl restored = new TerminologyServiceImpl();
+            restored.importTerminology(file.toString(), format);
+
+            TerminologyMatch match = restored.findTerm("Please sign in first", "en", "es", "commerce");
+            assertEquals("iniciar sesión", match.getTargetTerm(), format.name());
+            assertEquals(quoted.getTermId(), match.getTermId(), format.name());
+            assertEquals(quoted.getDefinition(), restored.getTerminology("commerce").stream()
+                .filter(e -> e.getTermId().equals(quoted.getTermId())).findFirst().get().getDefinition(),
+                format.name());
+            assertEquals(2, restored.getTerminology("commerce").size(), format.name());
+        }
+    }
+
+    @Test
+    void testMalformedImportLeavesGlossaryUntouched(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("broken.json");
+        Files.write(json, "[{\"sourceTerm\":\"checkout\",\"targetTerm\":\"pago\",\"sourceLanguage\":\"en\",\"targetLanguage\":\"es\"},{\"sourceTerm\":"
+            .getBytes(StandardCharsets.UTF_8));
+        int before = service.getTerminology(null).size();
+
+        TerminologyException e = assertThrows(TerminologyException.class,
+            () -> service.importTerminology(json.toString(), TerminologyFormat.JSON));
+
+        assertEquals(TerminologyException.ErrorCode.IMPORT_FAILED, e.getErrorCode());
+        assertEquals(before, service.getTerminology(null).size());
+        assertNull(service.findTerm("Go to checkout", "en", "es", null));
+    }
+}
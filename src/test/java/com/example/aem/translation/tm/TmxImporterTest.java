@@ -0,0 +1,135 @@
+package com.example.aem.translation.tm;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.tm.impl.JcrTranslationMemoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TmxImporterTest {
+
+    private static final String TMX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<tmx version=\"1.4\">\n"
+        + "  <header creationtool=\"test\" segtype=\"sentence\" o-tmf=\"test\" adminlang=\"en\" srclang=\"en-US\" datatype=\"plaintext\"/>\n"
+        + "  <body>\n"
+        + "    <tu creationdate=\"20240102T030405Z\">\n"
+        + "      <prop type=\"x-category\">commerce</prop>\n"
+        + "      <tuv xml:lang=\"en-US\"><seg>Add to cart</seg></tuv>\n"
+        + "      <tuv xml:lang=\"es-ES\"><seg>Añadir al carrito</seg></tuv>\n"
+        + "      <tuv xml:lang=\"de-DE\"><seg>In den Warenkorb</seg></tuv>\n"
+        + "    </tu>\n"
+        + "    <tu>\n"
+        + "      <tuv xml:lang=\"en-US\"><seg>Click <bpt i=\"1\">&lt;b&gt;</bpt>here<ept i=\"1\">&lt;/b&gt;</ept></seg></tuv>\n"
+        + "      <tuv xml:lang=\"es-ES\"><seg>Haga clic <bpt i=\"1\">&lt;b&gt;</bpt>aquí<ept i=\"1\">&lt;/b&gt;</ept></seg></tuv>\n"
+        + "    </tu>\n"
+        + "    <tu>\n"
+        + "      <tuv xml:lang=\"en-US\"><seg>Untranslated</seg></tuv>\n"
+        + "    </tu>\n"
+        + "  </body>\n"
+        + "</tmx>\n";
+
+    private JcrTranslationMemoryService tmService;
+
+    @BeforeEach
+    void setUp() {
+        tmService = new JcrTranslationMemoryService();
+    }
+
+    @Test
+    void testImportSplitsUnitsPerLanguagePair() throws IOException {
+        TmxImporter.ImportProgress result = tmService.importTmx(stream(TMX), null);
+
+        assertTrue(result.isComplete());
+        assertEquals(3, result.getUnitsRead());
+        assertEquals(1, result.getUnitsSkipped());
+        assertEquals(3, result.getEntriesStored());
+        assertEquals(2, result.getEntriesByLanguagePair().get("en->es"));
+        assertEquals(1, result.getEntriesByLanguagePair().get("en->de"));
+
+        List<TranslationMemoryService.TMEntry> matches = tmService.findMatches("Add to cart", "en", "de",
+            TranslationConstants.ContentType.PLAIN, "commerce", 0.9, 5);
+        assertEquals("In den Warenkorb", matches.get(0).getTargetText());
+        assertEquals(1704164645000L, matches.get(0).getCreatedAt());
+    }
+
+    @Test
+    void testInlineCodesAreImportedAsMarkup() throws IOException {
+        tmService.importTmx(stream(TMX), null);
+
+        List<TranslationMemoryService.TMEntry> matches = tmService.findMatches("Click <b>here</b>", "en", "es",
+            TranslationConstants.ContentType.HTML, "general", 0.9, 5);
+
+        assertEquals(1, matches.size());
+        assertEquals("Haga clic <b>aquí</b>", matches.get(0).getTargetText());
+        assertEquals(TranslationConstants.ContentType.HTML, matches.get(0).getContentType());
+    }
+
+    @Test
+    void testProgressIsReportedDuringBatchedImport() throws IOException {
+        StringBuilder tmx = new StringBuilder("<tmx version=\"1.4\"><header srclang=\"en\"/><body>");
+        for (int i = 0; i < 250; i++) {
+            tmx.append("<tu><tuv xml:lang=\"en\"><seg>Segment ").append(i)
+                .append("</seg></tuv><tuv xml:lang=\"fr\"><seg>Segment fr ").append(i).append("</seg></tuv></tu>");
+        }
+        tmx.append("</body></tmx>");
+        List<TmxImporter.ImportProgress> reports = new ArrayList<>();
+
+        TmxImporter.ImportProgress result = TmxImporter.builder()
+            .batchSize(40)
+            .parallelism(2)
+            .progressInterval(100)
+            .build()
+            .importTmx(stream(tmx.toString()), tmService, reports::add);
+
+        assertEquals(3, reports.size());
+        assertEquals(100, reports.get(0).getUnitsRead());
+        assertSame(result, reports.get(2));
+        assertEquals(250, result.getEntriesStored());
+        assertTrue(result.getBytesRead() > 0);
+        assertEquals(250, tmService.getStatistics().get("totalEntries"));
+    }
+
+    @Test
+    void testExportRoundTripsThroughImport() throws IOException {
+        tmService.importTmx(stream(TMX), null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = tmService.exportTmx(out, "en", "es");
+
+        assertEquals(2, written);
+        JcrTranslationMemoryService copy = new JcrTranslationMemoryService();
+        TmxImporter.ImportProgress result = copy.importTmx(new ByteArrayInputStream(out.toByteArray()), null);
+        assertEquals(2, result.getEntriesStored());
+        TranslationMemoryService.TMEntry entry = copy.findMatches("Click <b>here</b>", "en", "es",
+            TranslationConstants.ContentType.HTML, "general", 0.9, 5).get(0);
+        assertEquals("Haga clic <b>aquí</b>", entry.getTargetText());
+    }
+
+    @Test
+    void testExportFiltersLanguagesAsTheImporterStoresThem() throws IOException {
+        tmService.importTmx(stream(TMX), null);
+
+        assertEquals(2, tmService.exportTmx(new ByteArrayOutputStream(), "en-US", "es_ES"));
+        assertEquals(1, tmService.exportTmx(new ByteArrayOutputStream(), "EN", "de"));
+        assertEquals(0, tmService.exportTmx(new ByteArrayOutputStream(), "en", "fr"));
+    }
+
+    @Test
+    void testMalformedTmxFailsWithIOException() {
+        String broken = "<tmx version=\"1.4\"><header srclang=\"en\"/><body><tu><tuv xml:lang=\"en\"><seg>Oops</tuv>";
+
+        assertThrows(IOException.class, () -> tmService.importTmx(stream(broken), null));
+    }
+
+    private ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
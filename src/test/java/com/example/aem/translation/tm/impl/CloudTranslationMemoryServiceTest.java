@@ -0,0 +1,246 @@
+package com.example.aem.translation.tm.impl;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+import com.example.aem.translation.util.HttpClientProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CloudTranslationMemoryServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> queryBodies = new CopyOnWriteArrayList<>();
+    private final List<JsonNode> storeBodies = new CopyOnWriteArrayList<>();
+    private final List<JsonNode> exportBodies = new CopyOnWriteArrayList<>();
+    private volatile int queryStatus = 200;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpClientProvider httpClientProvider;
+    private CloudTranslationMemoryService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/tm/query/batch", this::handleQuery);
+        server.createContext("/tm/store/batch", exchange -> {
+            storeBodies.add(objectMapper.readTree(exchange.getRequestBody()));
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/tm/export", this::handleExport);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        httpClientProvider = new HttpClientProvider() {
+            {
+                activate();
+            }
+        };
+
+        TranslateGemmaConfig config = mock(TranslateGemmaConfig.class);
+        when(config.useExternalTm()).thenReturn(true);
+        when(config.externalTmEndpoint()).thenReturn("http://127.0.0.1:" + server.getAddress().getPort() + "/tm");
+        when(config.externalTmBatchSize()).thenReturn(50);
+        when(config.externalTmFlushIntervalMs()).thenReturn(100L);
+        when(config.externalTmMaxConcurrency()).thenReturn(4);
+        when(config.externalTmHotCacheSize()).thenReturn(1000);
+        when(config.externalTmHotCacheTtlSeconds()).thenReturn(60);
+
+        service = new CloudTranslationMemoryService();
+        service.setHttpClientProvider(httpClientProvider);
+        service.activate(config);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.deactivate();
+        httpClientProvider.getHttpClient().close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void testBatchLookupIsChunkedAndServedFromHotCacheAfterwards() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            texts.add("Segment " + i);
+        }
+
+        List<List<TMEntry>> results = service.findMatches(texts, "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+
+        assertEquals(120, results.size());
+        assertEquals("ES Segment 0", results.get(0).get(0).getTargetText());
+        assertEquals("ES Segment 119", results.get(119).get(0).getTargetText());
+        assertEquals(3, queryBodies.size());
+        assertEquals(50, queryBodies.stream().mapToInt(body -> body.get("texts").size()).max().getAsInt());
+
+        List<TMEntry> single = service.findMatches("Segment 7", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+
+        assertEquals("ES Segment 7", single.get(0).getTargetText());
+        assertEquals(3, queryBodies.size());
+    }
+
+    @Test
+    void testSingleStoresAreMicroBatched() throws Exception {
+        for (int i = 0; i < 120; i++) {
+            service.storeTranslation("Segment " + i, "Segmento " + i, "en", "es",
+                TranslationConstants.ContentType.PLAIN, "general", "/content/page", 0);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (storedEntries() < 120 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(120, storedEntries());
+        assertTrue(storeBodies.size() <= 4, "Expected a handful of batch requests, got " + storeBodies.size());
+        assertEquals("Segmento 0", storeBodies.get(0).get("entries").get(0).get("targetText").asText());
+    }
+
+    @Test
+    void testFailedBatchYieldsEmptyMatchesWithoutCaching() {
+        queryStatus = 503;
+
+        List<TMEntry> matches = service.findMatches("Checkout", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+
+        assertTrue(matches.isEmpty());
+        assertEquals(1, service.getStatistics().get("failedRequests"));
+
+        queryStatus = 200;
+        assertEquals("ES Checkout", service.findMatches("Checkout", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", 0.85, 3).get(0).getTargetText());
+    }
+
+    @Test
+    void testTmxExportPagesThroughExportEndpoint() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service.exportTmx(out, "en", "es");
+
+        assertEquals(120, written);
+        assertEquals(3, exportBodies.size());
+        assertTrue(exportBodies.get(0).get("cursor").isNull());
+        assertEquals("50", exportBodies.get(1).get("cursor").asText());
+        assertTrue(out.toString("UTF-8").contains("<seg>Segmento 119</seg>"));
+    }
+
+    @Test
+    void testStoreEvictsCachedLookupsOfItsLanguagePair() throws Exception {
+        service.findMatches("Checkout", "en", "es", TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+        service.findMatches("Checkout", "en", "de", TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+        assertEquals(2, queryBodies.size());
+
+        service.storeTranslations(Collections.singletonList(new TMEntry("Checkout", "Pagar", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", "/content/page", 5)));
+        service.findMatches("Checkout", "en", "es", TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+        service.findMatches("Checkout", "en", "de", TranslationConstants.ContentType.PLAIN, "general", 0.85, 3);
+
+        assertEquals(3, queryBodies.size());
+        assertEquals("es", queryBodies.get(2).get("target").asText());
+    }
+
+    @Test
+    void testReconfigurationFlushesBufferedEntriesToThePreviousEndpoint() throws Exception {
+        TranslateGemmaConfig slowFlush = mock(TranslateGemmaConfig.class);
+        when(slowFlush.useExternalTm()).thenReturn(true);
+        when(slowFlush.externalTmEndpoint()).thenReturn("http://127.0.0.1:" + server.getAddress().getPort() + "/tm");
+        when(slowFlush.externalTmBatchSize()).thenReturn(50);
+        when(slowFlush.externalTmFlushIntervalMs()).thenReturn(1000L);
+        when(slowFlush.externalTmMaxConcurrency()).thenReturn(1);
+        service.activate(slowFlush);
+        service.storeTranslation("Checkout", "Pagar", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", "/content/page", 5);
+
+        TranslateGemmaConfig disabled = mock(TranslateGemmaConfig.class);
+        when(disabled.externalTmEndpoint()).thenReturn("");
+        service.activate(disabled);
+
+        assertEquals(1, storedEntries());
+        assertEquals("Pagar", storeBodies.get(0).get("entries").get(0).get("targetText").asText());
+    }
+
+    private int storedEntries() {
+        return storeBodies.stream().mapToInt(body -> body.get("entries").size()).sum();
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        JsonNode query = objectMapper.readTree(exchange.getRequestBody());
+        queryBodies.add(query);
+        if (queryStatus != 200) {
+            respond(exchange, queryStatus, "{\"error\":\"unavailable\"}");
+            return;
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode results = response.putArray("results");
+        for (JsonNode text : query.get("texts")) {
+            ObjectNode entry = results.addArray().addObject();
+            entry.put("sourceText", text.asText());
+            entry.put("targetText", "ES " + text.asText());
+            entry.put("sourceLanguage", query.get("source").asText());
+            entry.put("targetLanguage", query.get("target").asText());
+            entry.put("contentType", "PLAIN");
+            entry.put("category", "general");
+            entry.put("rating", 5);
+        }
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    // Serves 120 entries in pages of "limit", using the offset as the cursor
+    private void handleExport(HttpExchange exchange) throws IOException {
+        JsonNode page = objectMapper.readTree(exchange.getRequestBody());
+        exportBodies.add(page);
+        int from = page.get("cursor").isNull() ? 0 : page.get("cursor").asInt();
+        int to = Math.min(120, from + page.get("limit").asInt());
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode entries = response.putArray("entries");
+        for (int i = from; i < to; i++) {
+            ObjectNode entry = entries.addObject();
+            entry.put("sourceText", "Segment " + i);
+            entry.put("targetText", "Segmento " + i);
+            entry.put("sourceLanguage", page.get("source").asText());
+            entry.put("targetLanguage", page.get("target").asText());
+            entry.put("contentType", "PLAIN");
+            entry.put("category", "general");
+        }
+        if (to < 120) {
+            response.put("nextCursor", String.valueOf(to));
+        }
+        respond(exchange, 200, objectMapper.writeValueAsString(response));
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.aem.translation.tm.impl;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyMatchIndexTest {
+
+    private final FuzzyMatchIndex index = new FuzzyMatchIndex();
+    private final List<TMEntry> entries = new ArrayList<>();
+
+    @Test
+    void testBoundedDistanceMatchesLevenshteinWithinBand() {
+        int[][] rows = new int[2][];
+
+        assertEquals(0, FuzzyMatchIndex.boundedDistance("translate", "translate", 2, rows));
+        assertEquals(1, FuzzyMatchIndex.boundedDistance("hello world", "hello world!", 2, rows));
+        assertEquals(3, FuzzyMatchIndex.boundedDistance("kitten", "sitting", 3, rows));
+        assertEquals(3, FuzzyMatchIndex.boundedDistance("kitten", "sitting", 2, rows));
+        assertEquals(2, FuzzyMatchIndex.boundedDistance("short", "a much longer sentence", 1, rows));
+    }
+
+    @Test
+    void testSearchRanksCloserSourcesFirst() {
+        add("Add the item to your cart");
+        add("Add the items to your cart");
+        add("Remove the item from your cart");
+        add("Contact our support team");
+
+        List<FuzzyMatchIndex.Match> matches = index.search("Add the item to your cart.", 0.7, 5, this::read);
+
+        assertEquals(2, matches.size());
+        assertEquals("Add the item to your cart", matches.get(0).getEntry().getSourceText());
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+        assertTrue(matches.get(1).getScore() >= 0.7);
+    }
+
+    @Test
+    void testSearchFindsNearMatchAmongManyEntries() {
+        for (int i = 0; i < 20_000; i++) {
+            add("Product " + i + " ships within " + (i % 7 + 1) + " business days");
+        }
+        add("Free returns within thirty days of delivery");
+
+        List<FuzzyMatchIndex.Match> matches = index.search("Free returns within 30 days of delivery", 0.75, 3, this::read);
+
+        assertEquals(1, matches.size());
+        assertEquals("Free returns within thirty days of delivery", matches.get(0).getEntry().getSourceText());
+        assertEquals(20_001, index.size());
+    }
+
+    @Test
+    void testRemovedEntriesAreNotReturned() {
+        int stale = add("Welcome to our store");
+        add("Welcome to our stores");
+
+        index.remove(stale);
+
+        List<FuzzyMatchIndex.Match> matches = index.search("Welcome to our store", 0.8, 5, this::read);
+        assertEquals(1, matches.size());
+        assertEquals("Welcome to our stores", matches.get(0).getEntry().getSourceText());
+        assertEquals(1, index.size());
+    }
+
+    private int add(String source) {
+        entries.add(new TMEntry(source, "target", "en", "es", TranslationConstants.ContentType.PLAIN,
+            "general", "/content/test", 5));
+        return index.add(entries.size() - 1, source);
+    }
+
+    private TMEntry read(long ref) {
+        return entries.get((int) ref);
+    }
+}
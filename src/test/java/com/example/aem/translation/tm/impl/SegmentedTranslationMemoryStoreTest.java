@@ -0,0 +1,199 @@
+package com.example.aem.translation.tm.impl;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import com.example.aem.translation.config.TranslateGemmaConfig;
+import com.example.aem.translation.tm.TranslationMemoryService.TMEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SegmentedTranslationMemoryStoreTest {
+
+    private static final long ONE_MB = 1024L * 1024L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntriesSurviveReopen() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        long ref = store.append(entry("Hello World", "Hola Mundo"));
+        store.close();
+
+        SegmentedTranslationMemoryStore reopened = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        TMEntry entry = reopened.read(ref);
+
+        assertEquals("Hello World", entry.getSourceText());
+        assertEquals("Hola Mundo", entry.getTargetText());
+        assertEquals(TranslationConstants.ContentType.PLAIN, entry.getContentType());
+        assertEquals(1234L, entry.getCreatedAt());
+        reopened.close();
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        store.append(entry("Hello", "Hola"));
+        store.close();
+
+        Path segment = onlySegment();
+        long validSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x54, 0x4d, 0x53, 0x31, 0, 0, 0, 64}));
+        }
+
+        SegmentedTranslationMemoryStore reopened = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+
+        assertEquals(1, replay(reopened).size());
+        assertEquals(validSize, Files.size(segment));
+        reopened.close();
+    }
+
+    @Test
+    void testSealedSegmentsAreReadAcrossRollover() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        String longText = repeat("Rich text paragraph. ", 5_000);
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            refs.add(store.append(entry(i + " " + longText, "target " + i)));
+        }
+
+        assertTrue(refs.get(29) >>> 32 > refs.get(0) >>> 32);
+        assertEquals("target 0", store.read(refs.get(0)).getTargetText());
+        assertEquals("target 29", store.read(refs.get(29)).getTargetText());
+        store.close();
+    }
+
+    @Test
+    void testCompactionDropsSupersededEntries() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        long stale = store.append(entry("Hello", "Hola"));
+        long kept = store.append(entry("World", "Mundo"));
+        store.markDead(stale);
+        long sizeBefore = store.getSizeBytes();
+
+        store.compact(ref -> ref == kept);
+
+        List<TMEntry> remaining = replay(store);
+        assertEquals(1, remaining.size());
+        assertEquals("World", remaining.get(0).getSourceText());
+        assertTrue(store.getSizeBytes() < sizeBefore);
+        assertEquals(0.0, store.getGarbageRatio());
+        store.close();
+    }
+
+    @Test
+    void testCompactionDeletesSealedSegmentFiles() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        String longText = repeat("Rich text paragraph. ", 5_000);
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            refs.add(store.append(entry(i + " " + longText, "target " + i)));
+        }
+        assertEquals("target 0", store.read(refs.get(0)).getTargetText());
+        long kept = refs.get(29);
+        Path firstSegment = segmentFiles().get(0);
+
+        store.compact(ref -> ref == kept);
+
+        assertFalse(Files.exists(firstSegment));
+        assertEquals(1, replay(store).size());
+        store.close();
+    }
+
+    @Test
+    void testInterruptedReaderDoesNotCloseStore() throws IOException {
+        SegmentedTranslationMemoryStore store = new SegmentedTranslationMemoryStore(directory, ONE_MB);
+        long ref = store.append(entry("Hello", "Hola"));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals("Hola", store.read(ref).getTargetText());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        long next = store.append(entry("World", "Mundo"));
+        assertEquals("Hola", store.read(ref).getTargetText());
+        assertEquals("Mundo", store.read(next).getTargetText());
+        store.close();
+    }
+
+    @Test
+    void testServiceReloadsAndSupersedesAcrossRestart() throws Exception {
+        TranslateGemmaConfig config = mock(TranslateGemmaConfig.class);
+        when(config.tmPersistenceEnabled()).thenReturn(true);
+        when(config.tmStoreDirectory()).thenReturn(directory.toString());
+        when(config.tmSegmentSizeMb()).thenReturn(1);
+        when(config.tmCompactionGarbageRatio()).thenReturn(0.9);
+
+        JcrTranslationMemoryService service = new JcrTranslationMemoryService();
+        service.activate(config);
+        assertEquals(directory.toString(), service.getStoragePath());
+        service.storeTranslation("Checkout", "Pagar", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", "/content/a", 3);
+        service.storeTranslation("Checkout", "Pagar", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", "/content/b", 5);
+        service.deactivate();
+
+        JcrTranslationMemoryService restarted = new JcrTranslationMemoryService();
+        restarted.activate(config);
+        List<com.example.aem.translation.tm.TranslationMemoryService.TMEntry> matches = restarted.findMatches(
+            "Checkout", "en", "es", TranslationConstants.ContentType.PLAIN, "general", 0.9, 5);
+
+        assertEquals(1, matches.size());
+        assertEquals("/content/b", matches.get(0).getPath());
+        assertEquals(1, restarted.getStatistics().get("totalEntries"));
+
+        restarted.compact();
+        assertEquals("Pagar", restarted.findMatches("Checkout", "en", "es",
+            TranslationConstants.ContentType.PLAIN, "general", 0.9, 5).get(0).getTargetText());
+        restarted.deactivate();
+    }
+
+    private List<TMEntry> replay(SegmentedTranslationMemoryStore store) throws IOException {
+        List<TMEntry> entries = new ArrayList<>();
+        store.replay((ref, entry) -> entries.add(entry));
+        return entries;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private TMEntry entry(String source, String target) {
+        return new TMEntry(source, target, "en", "es", TranslationConstants.ContentType.PLAIN,
+            "general", "/content/test", 5, 1234L);
+    }
+
+    private String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.aem.translation.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncTranslationExecutorTest {
+
+    private AsyncTranslationExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitCompletesWithTaskResult() throws Exception {
+        executor = new AsyncTranslationExecutor(2, 10, false);
+
+        CompletableFuture<String> future = executor.submit(() -> "Hola");
+
+        assertEquals("Hola", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitPropagatesTaskFailure() {
+        executor = new AsyncTranslationExecutor(2, 10, false);
+
+        CompletableFuture<String> future = executor.submit(() -> {
+            throw new IllegalStateException("model down");
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void testRejectsWhenSaturated() throws Exception {
+        executor = new AsyncTranslationExecutor(1, 1, false);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            release.await();
+            return "first";
+        });
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+        CompletableFuture<String> rejected = executor.submit(() -> "third");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCancelInterruptsRunningTask() throws Exception {
+        executor = new AsyncTranslationExecutor(1, 1, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> future = executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "never";
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        assertEquals(0, executor.getInFlightCount());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.aem.translation.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JcrWriteBatchTest {
+
+    private ResourceResolver resolver;
+    private SimpleMeterRegistry registry;
+    private TranslationMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        resolver = mock(ResourceResolver.class);
+        registry = new SimpleMeterRegistry();
+        metrics = new TranslationMetrics(registry);
+    }
+
+    @Test
+    void testCommitsOnceBatchIsFullAndOnFlush() throws Exception {
+        JcrWriteBatch batch = new JcrWriteBatch(resolver, 3, 0, metrics);
+        Resource title = resource("/content/site/en/jcr:content/title", mock(ModifiableValueMap.class));
+        Resource text = resource("/content/site/en/jcr:content/text", mock(ModifiableValueMap.class));
+
+        batch.put(title, properties("jcr:title", "Hola", "subtitle", "Mundo"));
+        verify(resolver, never()).commit();
+
+        batch.put(text, properties("text", "<p>Hola</p>", "alt", "Foto"));
+        verify(resolver).commit();
+        assertEquals(0, batch.getPendingChanges());
+
+        batch.put(text, "caption", "Pie");
+        batch.flush();
+        batch.flush();
+
+        verify(resolver, times(2)).commit();
+        assertEquals(2, registry.get("jcr.commit.changes").summary().count());
+        assertEquals(5.0, registry.get("jcr.commit.changes").summary().totalAmount());
+    }
+
+    @Test
+    void testRetriesConflictOnRefreshedSessionWithChangesReapplied() throws Exception {
+        JcrWriteBatch batch = new JcrWriteBatch(resolver, 100, 2, metrics);
+        Resource component = resource("/content/site/en/jcr:content/title", mock(ModifiableValueMap.class));
+        ModifiableValueMap refreshed = mock(ModifiableValueMap.class);
+        Resource reloaded = resource("/content/site/en/jcr:content/title", refreshed);
+        when(resolver.getResource("/content/site/en/jcr:content/title")).thenReturn(reloaded);
+        doThrow(new PersistenceException("OakState0001: Unresolved conflicts")).doNothing().when(resolver).commit();
+
+        Map<String, Object> changes = properties("jcr:title", "Hola");
+        batch.put(component, changes);
+        batch.flush();
+
+        InOrder order = inOrder(resolver, refreshed);
+        order.verify(resolver).commit();
+        order.verify(resolver).revert();
+        order.verify(resolver).refresh();
+        order.verify(refreshed).putAll(changes);
+        order.verify(resolver).commit();
+        assertEquals(1.0, registry.get("jcr.commit.retries.total").counter().count());
+        assertEquals(1, registry.get("jcr.commit.latency").timer().count());
+    }
+
+    @Test
+    void testRevertsAndThrowsWhenEveryAttemptFails() throws Exception {
+        JcrWriteBatch batch = new JcrWriteBatch(resolver, 100, 1, metrics);
+        Resource component = resource("/content/site/en/jcr:content/title", mock(ModifiableValueMap.class));
+        when(resolver.getResource("/content/site/en/jcr:content/title")).thenReturn(component);
+        doThrow(new PersistenceException("conflict")).when(resolver).commit();
+
+        batch.put(component, "jcr:title", "Hola");
+
+        assertThrows(PersistenceException.class, batch::flush);
+        verify(resolver, times(2)).commit();
+        verify(resolver, times(2)).revert();
+        assertEquals(0, batch.getPendingChanges());
+        assertEquals(1.0, registry.get("jcr.commit.failures.total").counter().count());
+        assertEquals(0, registry.get("jcr.commit.latency").timer().count());
+    }
+
+    private static Resource resource(String path, ModifiableValueMap values) {
+        Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.adaptTo(ModifiableValueMap.class)).thenReturn(values);
+        return resource;
+    }
+
+    private static Map<String, Object> properties(String... namesAndValues) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            properties.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.aem.translation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerceptualHashTest {
+
+    @Test
+    void testResizedCopiesHashAlikeAndDifferentImagesDoNot() {
+        long original = PerceptualHash.of(scene(2400, 1800, false));
+        long resized = PerceptualHash.of(scene(800, 600, false));
+        long different = PerceptualHash.of(scene(2400, 1800, true));
+
+        assertTrue(PerceptualHash.distance(original, resized) <= 4);
+        assertTrue(PerceptualHash.distance(original, different) > 10);
+    }
+
+    @Test
+    void testHashesImagesSmallerThanItsGrid() {
+        BufferedImage tiny = scene(10, 6, false);
+
+        assertEquals(PerceptualHash.of(tiny), PerceptualHash.of(tiny));
+    }
+
+    private static BufferedImage scene(int width, int height, boolean mirrored) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        int x = mirrored ? width / 2 : width / 10;
+        graphics.fillRect(x, height / 8, width * 2 / 5, height / 2);
+        graphics.fillOval(mirrored ? width / 10 : width * 3 / 5, height / 2, width / 4, height / 3);
+        graphics.dispose();
+        return image;
+    }
+}
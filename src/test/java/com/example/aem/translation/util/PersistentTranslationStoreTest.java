@@ -0,0 +1,160 @@
+package com.example.aem.translation.util;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTranslationStoreTest {
+
+    private static final long ONE_MB = 1024L * 1024L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEntriesSurviveReopen() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        store.put(key("Hello"), "Hola");
+        store.put(key("World"), "Mundo");
+        store.close();
+
+        PersistentTranslationStore reopened = new PersistentTranslationStore(directory, ONE_MB);
+
+        assertEquals(2, reopened.getWarmStartEntryCount());
+        assertEquals("Hola", reopened.get(key("Hello")));
+        assertNull(reopened.get(key("Goodbye")));
+        assertEquals(1, reopened.getHitCount());
+        assertEquals(1, reopened.getMissCount());
+        reopened.close();
+    }
+
+    @Test
+    void testRemovalSurvivesReopen() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        store.put(key("Hello"), "Hola");
+        store.remove(key("Hello"));
+        store.close();
+
+        PersistentTranslationStore reopened = new PersistentTranslationStore(directory, ONE_MB);
+
+        assertNull(reopened.get(key("Hello")));
+        assertEquals(0, reopened.getEntryCount());
+        reopened.close();
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        store.put(key("Hello"), "Hola");
+        store.close();
+
+        Path segment = onlySegment();
+        long validSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[] {0x54, 0x47, 0x43}));
+        }
+
+        PersistentTranslationStore reopened = new PersistentTranslationStore(directory, ONE_MB);
+
+        assertEquals("Hola", reopened.get(key("Hello")));
+        assertEquals(validSize, Files.size(segment));
+        reopened.close();
+    }
+
+    @Test
+    void testOldestSegmentsAreEvictedBeyondBudget() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        String value = repeat('x', 8 * 1024);
+
+        for (int i = 0; i < 400; i++) {
+            store.put(key("Segment " + i), value);
+        }
+
+        assertTrue(store.getSizeBytes() <= ONE_MB);
+        assertNull(store.get(key("Segment 0")));
+        assertEquals(value, store.get(key("Segment 399")));
+        store.close();
+    }
+
+    @Test
+    void testTranslationCacheFallsBackToPersistentTier() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        TranslationCache cache = new TranslationCache(100, 60, store);
+        cache.getTranslation(key("Hello"), k -> "Hola");
+        cache.close();
+
+        TranslationCache restarted = new TranslationCache(100, 60, new PersistentTranslationStore(directory, ONE_MB));
+
+        assertEquals("Hola", restarted.getTranslation(key("Hello"), k -> null));
+        assertEquals(1, restarted.getStats().getWarmStartEntryCount());
+        assertEquals(1.0, restarted.getStats().getPersistentHitRate());
+        restarted.close();
+    }
+
+    @Test
+    void testInterruptedReaderDoesNotCloseStore() throws IOException {
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB);
+        store.put(key("Hello"), "Hola");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals("Hola", store.get(key("Hello")));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        store.put(key("World"), "Mundo");
+        assertEquals("Hola", store.get(key("Hello")));
+        assertEquals("Mundo", store.get(key("World")));
+        store.close();
+    }
+
+    @Test
+    void testExpiredEntriesMissAndAreDroppedOnReopen() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000);
+        PersistentTranslationStore store = new PersistentTranslationStore(directory, ONE_MB, 60_000, now::get);
+        store.put(key("Hello"), "Hola");
+        now.addAndGet(30_000);
+        store.put(key("World"), "Mundo");
+        now.addAndGet(30_000);
+
+        assertNull(store.get(key("Hello")));
+        assertEquals("Mundo", store.get(key("World")));
+        store.close();
+
+        PersistentTranslationStore reopened = new PersistentTranslationStore(directory, ONE_MB, 60_000, now::get);
+
+        assertEquals(1, reopened.getWarmStartEntryCount());
+        assertEquals("Mundo", reopened.get(key("World")));
+        reopened.close();
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private TranslationCacheKey key(String text) {
+        return TranslationCacheKey.of(text, "en", "es", ContentType.PLAIN, "general", "gemma-4", "1");
+    }
+
+    private String repeat(char c, int times) {
+        StringBuilder sb = new StringBuilder(times);
+        for (int i = 0; i < times; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.aem.translation.util;
+
+import com.adobe.granite.translation.api.TranslationConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptBatcherTest {
+
+    @Test
+    void testBatchSplitsOnBatchSize() {
+        String[] texts = {"One", "Two", "Three", "Four", "Five"};
+
+        List<PromptBatcher.BatchRequest> batches = PromptBatcher.batch(texts, "English", "Spanish",
+            TranslationConstants.ContentType.PLAIN, 2);
+
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(2).size());
+    }
+
+    @Test
+    void testPromptEncodesSegmentsAsJsonArray() {
+        PromptBatcher.BatchRequest batch = new PromptBatcher.BatchRequest("English", "Spanish",
+            TranslationConstants.ContentType.PLAIN);
+        batch.add("Line one\nLine two");
+        batch.add("Say \"hi\"");
+
+        String prompt = batch.createPrompt();
+
+        assertTrue(prompt.contains("exactly 2 strings"));
+        assertTrue(prompt.contains("[\"Line one\\nLine two\",\"Say \\\"hi\\\"\"]"));
+    }
+
+    @Test
+    void testParseResponseMapsSlotsInOrder() {
+        PromptBatcher.BatchRequest batch = newBatch("Hello", "World");
+
+        String[] results = batch.parseResponse("```json\n[\"Hola\", \"Mundo\"]\n```");
+
+        assertArrayEquals(new String[] {"Hola", "Mundo"}, results);
+    }
+
+    @Test
+    void testParseResponseLeavesBlankSlotsForFallback() {
+        PromptBatcher.BatchRequest batch = newBatch("Hello", "World");
+
+        String[] results = batch.parseResponse("[\"Hola\", \"\"]");
+
+        assertEquals("Hola", results[0]);
+        assertNull(results[1]);
+    }
+
+    @Test
+    void testParseResponseRejectsSizeMismatch() {
+        PromptBatcher.BatchRequest batch = newBatch("Hello", "World");
+
+        String[] results = batch.parseResponse("[\"Hola Mundo\"]");
+
+        assertEquals(2, results.length);
+        assertNull(results[0]);
+        assertNull(results[1]);
+    }
+
+    @Test
+    void testParseResponseHandlesChatter() {
+        PromptBatcher.BatchRequest batch = newBatch("Hello");
+
+        assertNull(batch.parseResponse("Sorry, I cannot help with that.")[0]);
+    }
+
+    @Test
+    void testPlanPacksShortLabelsIntoOneBatch() {
+        String[] labels = new String[40];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = "Button label " + i;
+        }
+
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(labels, "English", "German",
+            TranslationConstants.ContentType.PLAIN, new PromptBatcher.BatchBudget(6000, 4096, 100),
+            TokenEstimator.HEURISTIC);
+
+        assertEquals(1, plan.getBatches().size());
+        assertEquals(40, plan.getBatches().get(0).size());
+        assertTrue(plan.getBatches().get(0).getFillRatio() < 1.0);
+    }
+
+    @Test
+    void testPlanKeepsLongSegmentOutOfLabelBatch() {
+        String[] texts = new String[10];
+        texts[0] = repeat("This is a long rich text sentence. ", 400);
+        for (int i = 1; i < texts.length; i++) {
+            texts[i] = "Label " + i;
+        }
+
+        PromptBatcher.BatchBudget budget = new PromptBatcher.BatchBudget(2500, 4096, 50);
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(texts, "English", "German",
+            TranslationConstants.ContentType.PLAIN, budget, TokenEstimator.HEURISTIC);
+
+        assertTrue(plan.getPieceCount(0) > 1);
+        for (PromptBatcher.BatchRequest batch : plan.getBatches()) {
+            assertTrue(batch.getEstimatedInputTokens() <= budget.getMaxInputTokens());
+            assertTrue(batch.getEstimatedOutputTokens() <= budget.getMaxOutputTokens());
+            assertTrue(batch.getFillRatio() <= 1.0);
+        }
+    }
+
+    @Test
+    void testPlanSlotsMapBackToSegmentsAndPieces() {
+        String[] texts = {"First sentence. Second sentence. Third sentence.", "Label"};
+
+        // Tiny budget forces the first segment to be split per sentence
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(texts, "English", "German",
+            TranslationConstants.ContentType.PLAIN, new PromptBatcher.BatchBudget(100, 12, 50),
+            TokenEstimator.HEURISTIC);
+
+        String[][] rebuilt = new String[plan.getSegmentCount()][];
+        for (int s = 0; s < plan.getSegmentCount(); s++) {
+            rebuilt[s] = new String[plan.getPieceCount(s)];
+        }
+        for (PromptBatcher.BatchRequest batch : plan.getBatches()) {
+            for (int j = 0; j < batch.size(); j++) {
+                rebuilt[batch.getSegmentIndex(j)][batch.getPieceIndex(j)] = batch.getTexts().get(j);
+            }
+        }
+
+        assertEquals(3, plan.getPieceCount(0));
+        assertEquals(texts[0], plan.joinPieces(0, rebuilt[0], "de"));
+        assertEquals("Label", plan.joinPieces(1, rebuilt[1], "de"));
+    }
+
+    @Test
+    void testJoinPiecesKeepsParagraphBreaks() {
+        String[] texts = {"First paragraph here.\n\nSecond paragraph here.\nThird line here."};
+
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(texts, "English", "Japanese",
+            TranslationConstants.ContentType.PLAIN, new PromptBatcher.BatchBudget(100, 18, 50),
+            TokenEstimator.HEURISTIC);
+
+        assertEquals(3, plan.getPieceCount(0));
+        assertEquals(texts[0], plan.joinPieces(0, rebuild(plan)[0], "de"));
+        assertEquals("A\n\nB\nC", plan.joinPieces(0, new String[] {"A", "B", "C"}, "ja"));
+    }
+
+    @Test
+    void testPlanSplitsOversizedHtmlAtTagBoundaries() {
+        String paragraph = "<p>" + repeat("Some rich text in a paragraph. ", 20).trim() + "</p>";
+        String[] texts = {"<div>" + paragraph + "\n" + paragraph + "\n" + paragraph + "</div>"};
+        PromptBatcher.BatchBudget budget = new PromptBatcher.BatchBudget(400, 400, 50);
+
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(texts, "English", "German",
+            TranslationConstants.ContentType.HTML, budget, TokenEstimator.HEURISTIC);
+
+        assertTrue(plan.getPieceCount(0) > 1);
+        for (PromptBatcher.BatchRequest batch : plan.getBatches()) {
+            assertTrue(batch.getEstimatedInputTokens() <= budget.getMaxInputTokens());
+            for (String piece : batch.getTexts()) {
+                assertEquals(piece.chars().filter(c -> c == '<').count(), piece.chars().filter(c -> c == '>').count());
+            }
+        }
+        assertEquals(texts[0], plan.joinPieces(0, rebuild(plan)[0], "de"));
+    }
+
+    private static String[][] rebuild(PromptBatcher.BatchPlan plan) {
+        String[][] rebuilt = new String[plan.getSegmentCount()][];
+        for (int s = 0; s < plan.getSegmentCount(); s++) {
+            rebuilt[s] = new String[plan.getPieceCount(s)];
+        }
+        for (PromptBatcher.BatchRequest batch : plan.getBatches()) {
+            for (int j = 0; j < batch.size(); j++) {
+                rebuilt[batch.getSegmentIndex(j)][batch.getPieceIndex(j)] = batch.getTexts().get(j);
+            }
+        }
+        return rebuilt;
+    }
+
+    @Test
+    void testPlanAttachesReferencesToTheBatchCarryingTheirSegment() {
+        PromptBatcher.Reference cart = new PromptBatcher.Reference("Add the item to your cart",
+            "Añade el artículo a tu carrito");
+        List<List<PromptBatcher.Reference>> references = Arrays.asList(
+            Collections.singletonList(cart), null, Collections.singletonList(cart));
+
+        PromptBatcher.BatchPlan plan = PromptBatcher.plan(
+            new String[] {"Add the items to your cart", "Checkout", "Add an item to the cart"}, references,
+            "English", "Spanish", TranslationConstants.ContentType.PLAIN,
+            new PromptBatcher.BatchBudget(6000, 4096, 100), TokenEstimator.HEURISTIC);
+
+        PromptBatcher.BatchRequest batch = plan.getBatches().get(0);
+        assertEquals(1, plan.getBatches().size());
+        assertEquals(Collections.singletonList(cart), batch.getReferences());
+        String prompt = batch.createPrompt();
+        assertTrue(prompt.indexOf("Translation: \"Añade el artículo a tu carrito\"") < prompt.indexOf("[\""));
+        assertTrue(batch.getEstimatedInputTokens() > PromptBatcher.plan(
+            new String[] {"Add the items to your cart", "Checkout", "Add an item to the cart"}, "English",
+            "Spanish", TranslationConstants.ContentType.PLAIN, new PromptBatcher.BatchBudget(6000, 4096, 100),
+            TokenEstimator.HEURISTIC).getBatches().get(0).getEstimatedInputTokens());
+    }
+
+    @Test
+    void testHeuristicEstimatorCountsCjkPerCharacter() {
+        assertEquals(3, TokenEstimator.HEURISTIC.estimateTokens("Hello World!"));
+        assertEquals(4, TokenEstimator.HEURISTIC.estimateTokens("\u4F60\u597D\u4E16\u754C"));
+        assertEquals(0, TokenEstimator.HEURISTIC.estimateTokens(""));
+    }
+
+    private String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    private PromptBatcher.BatchRequest newBatch(String... texts) {
+        PromptBatcher.BatchRequest batch = new PromptBatcher.BatchRequest("English", "Spanish",
+            TranslationConstants.ContentType.PLAIN);
+        for (String text : texts) {
+            batch.add(text);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aem.translation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<String> leader = pool.submit(() -> singleFlight.execute("footer", () -> {
+                loads.incrementAndGet();
+                leaderStarted.countDown();
+                release.await();
+                return "Pie de pagina";
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(pool.submit(() -> singleFlight.execute("footer", () -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            while (singleFlight.getCoalescedCount() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals("Pie de pagina", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("Pie de pagina", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.getInFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLeaderFailureIsNotRemembered() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("quota exceeded");
+        }));
+
+        assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+    }
+
+    @Test
+    void testAsyncWaitersShareTheLeaderFuture() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> shared = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return shared;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("duplicate");
+        });
+
+        second.cancel(true);
+        shared.complete("Hola");
+
+        assertEquals("Hola", first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.isCancelled());
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testAsyncLeaderCancellationDoesNotFailWaiters() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> shared = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return shared;
+        });
+        CompletableFuture<String> waiter = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("Hola");
+        });
+
+        leader.cancel(true);
+        assertFalse(shared.isCancelled());
+
+        // The leader's caller then stops the shared call itself, e.g. to interrupt the model request
+        shared.cancel(true);
+
+        assertEquals("Hola", waiter.get(5, TimeUnit.SECONDS));
+        assertTrue(leader.isCancelled());
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
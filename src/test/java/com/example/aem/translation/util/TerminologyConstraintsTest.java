@@ -0,0 +1,64 @@
+package com.example.aem.translation.util;
+
+import com.example.aem.translation.terminology.TerminologyMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminologyConstraintsTest {
+
+    @Test
+    void testSelectMergesSegmentsAndRanksPreferredDomainThenFrequency() {
+        TerminologyMatch cart = match("cart", "carrito", "commerce");
+        TerminologyMatch fragment = match("fragment", "fragmento", "content");
+        TerminologyMatch cartOtherDomain = match("cart", "carro", "general");
+
+        TerminologyConstraints constraints = TerminologyConstraints.select(Arrays.asList(
+            Arrays.asList(fragment, cart),
+            Arrays.asList(fragment, cartOtherDomain),
+            Collections.singletonList(fragment)), "commerce", 200, TokenEstimator.HEURISTIC);
+
+        assertEquals(Arrays.asList(cart, fragment), constraints.getTerms());
+        assertTrue(constraints.toPromptSection(false).contains("- \"cart\" -> \"carrito\"\n"));
+        assertFalse(constraints.toPromptSection(false).contains("carro"));
+    }
+
+    @Test
+    void testSelectStaysWithinTokenBudget() {
+        TerminologyMatch[] matches = new TerminologyMatch[40];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = match("product term " + i, "Produktbegriff " + i, "general");
+        }
+
+        TerminologyConstraints constraints = TerminologyConstraints.select(
+            Collections.singletonList(Arrays.asList(matches)), "general", 60, TokenEstimator.HEURISTIC);
+
+        assertFalse(constraints.isEmpty());
+        assertTrue(TokenEstimator.HEURISTIC.estimateTokens(constraints.toPromptSection(false)) <= 60);
+        assertEquals(matches.length, constraints.getTerms().size() + constraints.getDroppedCount());
+        assertTrue(constraints.getDroppedCount() > 0);
+    }
+
+    @Test
+    void testFindMissingChecksOnlyRequiredTermsOfTheSegment() {
+        TerminologyMatch checkout = match("checkout", "pago", "commerce");
+        TerminologyMatch cart = match("cart", "carrito", "commerce");
+        TerminologyConstraints constraints = TerminologyConstraints.select(
+            Arrays.asList(Collections.singletonList(checkout), Collections.singletonList(cart)),
+            "commerce", 200, TokenEstimator.HEURISTIC);
+
+        List<TerminologyMatch> missing = constraints.findMissing(Collections.singletonList(checkout), "Ve a la caja");
+
+        assertEquals(Collections.singletonList(checkout), missing);
+        assertTrue(constraints.findMissing(Collections.singletonList(checkout), "Ve al Pago").isEmpty());
+        assertTrue(TerminologyConstraints.NONE.findMissing(Collections.singletonList(cart), "").isEmpty());
+    }
+
+    private static TerminologyMatch match(String source, String target, String domain) {
+        return new TerminologyMatch(source, target, domain, "en", "es", 1.0f, source + ":" + domain);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aem.translation.util;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import org.apache.commons.codec.digest.MurmurHash3;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationCacheKeyTest {
+
+    @Test
+    void testSameInputsProduceEqualKeys() {
+        TranslationCacheKey first = key("Hello", "en", "es", ContentType.PLAIN, "general", "gemma-4");
+        TranslationCacheKey second = key("Hello", "en", "es", ContentType.PLAIN, "general", "gemma-4");
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void testEveryFieldChangesTheKey() {
+        TranslationCacheKey base = key("Hello", "en", "es", ContentType.PLAIN, "general", "gemma-4");
+
+        assertNotEquals(base, key("Hello!", "en", "es", ContentType.PLAIN, "general", "gemma-4"));
+        assertNotEquals(base, key("Hello", "en", "de", ContentType.PLAIN, "general", "gemma-4"));
+        assertNotEquals(base, key("Hello", "en", "es", ContentType.HTML, "general", "gemma-4"));
+        assertNotEquals(base, key("Hello", "en", "es", ContentType.PLAIN, "legal", "gemma-4"));
+        assertNotEquals(base, key("Hello", "en", "es", ContentType.PLAIN, "general", "gemma-5"));
+        assertNotEquals(base, TranslationCacheKey.of("Hello", "en", "es", ContentType.PLAIN, "general", "gemma-4", "2"));
+    }
+
+    @Test
+    void testFieldBoundariesAreNotAmbiguous() {
+        assertNotEquals(key("ab", "c", "es", ContentType.PLAIN, "general", "gemma-4"),
+            key("a", "bc", "es", ContentType.PLAIN, "general", "gemma-4"));
+        assertNotEquals(key("", "en", "es", ContentType.PLAIN, null, "gemma-4"),
+            key("", "en", "es", ContentType.PLAIN, "", "gemma-4"));
+    }
+
+    @Test
+    void testStreamingHashMatchesMurmur3OverTheEncodedFields() throws IOException {
+        String text = repeat("Long rich text with \u00fcml\u00e4uts and \u4f60\u597d. ", 20);
+        String[] fields = {text, "en", "de", "HTML", null, "gemma-4", "1"};
+
+        // Same layout as the key: big-endian length (-1 for null), then big-endian UTF-16 units
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (String field : fields) {
+            out.writeInt(field != null ? field.length() : -1);
+            if (field != null) {
+                out.writeChars(field);
+            }
+        }
+        long[] expected = MurmurHash3.hash128x64(bytes.toByteArray());
+
+        TranslationCacheKey key = TranslationCacheKey.of(text, "en", "de", ContentType.HTML, null, "gemma-4", "1");
+        assertEquals(expected[0], key.getHigh());
+        assertEquals(expected[1], key.getLow());
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    private TranslationCacheKey key(String text, String source, String target, ContentType type,
+                                    String category, String model) {
+        return TranslationCacheKey.of(text, source, target, type, category, model, "1");
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.aem.translation.util;
+
+import com.adobe.granite.translation.api.TranslationConstants.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationCacheTest {
+
+    @Test
+    void testWeightGrowsWithTranslationLength() {
+        TranslationCache.CachedTranslation label = new TranslationCache.CachedTranslation("Enviar");
+        TranslationCache.CachedTranslation block = new TranslationCache.CachedTranslation(repeat("Texto enriquecido. ", 500));
+
+        assertTrue(block.getWeightBytes() > 100 * label.getWeightBytes());
+    }
+
+    @Test
+    void testLongTranslationsAreStoredCompressed() {
+        String longText = repeat("<p>Texto enriquecido con formato.</p>", 200);
+
+        TranslationCache.CachedTranslation compressed = new TranslationCache.CachedTranslation(longText, 1024);
+        TranslationCache.CachedTranslation plain = new TranslationCache.CachedTranslation(longText, 0);
+
+        assertTrue(compressed.isCompressed());
+        assertFalse(plain.isCompressed());
+        assertEquals(longText, compressed.getTranslation());
+        assertTrue(compressed.getWeightBytes() < plain.getWeightBytes());
+    }
+
+    @Test
+    void testShortTranslationsStayUncompressed() {
+        TranslationCache.CachedTranslation label = new TranslationCache.CachedTranslation("Enviar", 1024);
+
+        assertFalse(label.isCompressed());
+        assertEquals("Enviar", label.getTranslation());
+    }
+
+    @Test
+    void testCompressedEntryRoundTripsThroughCache() {
+        TranslationCache cache = new TranslationCache(100, 1024L * 1024L, 60, 1024, null);
+        TranslationCacheKey key = TranslationCacheKey.of("Rich text", "en", "es", ContentType.HTML, "general", "gemma-4", "1");
+        String longText = repeat("Texto \u00e1\u00e9\u00ed\u00f3\u00fa ", 300);
+
+        cache.getTranslation(key, k -> longText);
+
+        assertEquals(longText, cache.getTranslation(key, k -> null));
+    }
+
+    private String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.aem.translation.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransparencyAnalysisQueueTest {
+
+    private TransparencyAnalysisQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitRunsTaskOffCallerThread() throws Exception {
+        queue = new TransparencyAnalysisQueue(10);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Thread> worker = new AtomicReference<>();
+
+        assertTrue(queue.submit(() -> {
+            worker.set(Thread.currentThread());
+            done.countDown();
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), worker.get());
+    }
+
+    @Test
+    void testSubmitDropsWhenQueueIsFull() throws Exception {
+        queue = new TransparencyAnalysisQueue(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        queue.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(queue.submit(() -> { }));
+        assertFalse(queue.submit(() -> { }));
+        assertEquals(1, queue.getDroppedCount());
+
+        release.countDown();
+    }
+}
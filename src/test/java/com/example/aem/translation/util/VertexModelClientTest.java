@@ -0,0 +1,104 @@
+package com.example.aem.translation.util;
+
+import com.google.cloud.vertexai.api.Content;
+import com.google.cloud.vertexai.api.GenerateContentResponse;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VertexModelClientTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(6);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testCallsShareOneModelAndNeverExceedMaxConcurrency() throws Exception {
+        GenerativeModel model = mock(GenerativeModel.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(model.generateContent(any(Content.class))).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return GenerateContentResponse.getDefaultInstance();
+        });
+        VertexModelClient client = new VertexModelClient(model, 2, 0, null);
+
+        Future<?>[] calls = new Future<?>[6];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = callers.submit(() -> client.generateContent(Content.getDefaultInstance()));
+        }
+        for (Future<?> call : calls) {
+            call.get(5, TimeUnit.SECONDS);
+        }
+
+        verify(model, times(6)).generateContent(any(Content.class));
+        assertEquals(2, peak.get());
+        assertEquals(0, client.getInFlightCount());
+    }
+
+    @Test
+    void testRejectsWhenNoSlotFreesUpInTime() throws Exception {
+        GenerativeModel model = mock(GenerativeModel.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(model.generateContent(any(Content.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return GenerateContentResponse.getDefaultInstance();
+        });
+        TranslationMetrics metrics = new TranslationMetrics(new SimpleMeterRegistry());
+        VertexModelClient client = new VertexModelClient(model, 1, 50, metrics);
+
+        Future<?> blocking = callers.submit(() -> client.generateContent(Content.getDefaultInstance()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () -> client.generateContent(Content.getDefaultInstance()));
+
+        release.countDown();
+        blocking.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testCloseWaitsForRunningCallsAndRejectsNewOnes() throws Exception {
+        GenerativeModel model = mock(GenerativeModel.class);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        when(model.generateContent(any(Content.class))).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(100);
+            finished.set(true);
+            return GenerateContentResponse.getDefaultInstance();
+        });
+        VertexModelClient client = new VertexModelClient(model, 2, 0, null);
+
+        Future<?> running = callers.submit(() -> client.generateContent(Content.getDefaultInstance()));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        client.close(5_000);
+
+        assertTrue(finished.get());
+        running.get(5, TimeUnit.SECONDS);
+        assertThrows(RejectedExecutionException.class, () -> client.generateContent(Content.getDefaultInstance()));
+    }
+}